@@ -0,0 +1,93 @@
+package com.herostore.products.benchmark;
+
+import com.herostore.products.io.CSVWriter;
+import com.herostore.products.io.impl.CSVWriterImpl;
+import com.herostore.products.utils.DateUtils;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static com.herostore.products.utils.ClassUtils.extractMethod;
+import static com.herostore.products.utils.ClassUtils.invokeMethod;
+
+/**
+ * Writes order lines with the CSV encoder, and with the commons-csv based writer it replaced as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class CSVWriterBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private final CSVWriter csvWriter = new CSVWriterImpl();
+    private final CSVWriter commonsCSVWriter = CSVWriterBenchmark::writeWithCommonsCSV;
+
+    @Benchmark
+    public void writeOrderLines() throws IOException {
+        csvWriter.write(new CountingOutputStream(), ExportRows.HEADERS, ExportRows.FIELDS, ExportRows.exportLines(rows));
+    }
+
+    @Benchmark
+    public void writeOrderLinesWithCommonsCSV() throws IOException {
+        commonsCSVWriter.write(new CountingOutputStream(), ExportRows.HEADERS, ExportRows.FIELDS,
+                ExportRows.exportLines(rows));
+    }
+
+    /**
+     * The CSV writer as it was before the encoder: commons-csv records on top of a buffered UTF-8 writer.
+     */
+    private static <T> void writeWithCommonsCSV(OutputStream os, String[] headers, String[] fieldNames,
+                                                Stream<T> elements) throws IOException {
+        var writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), 64 * 1024);
+        var printer = new CSVPrinter(writer, CSVFormat.DEFAULT.withHeader(headers));
+        printer.flush();
+
+        var iterator = elements.iterator();
+        Method[] getters = null;
+        var values = new Object[fieldNames.length];
+
+        while (iterator.hasNext()) {
+            var element = iterator.next();
+
+            if (getters == null) {
+                getters = new Method[fieldNames.length];
+                for (var i = 0; i < fieldNames.length; i++) {
+                    getters[i] = extractMethod(element.getClass(), fieldNames[i]);
+                }
+            }
+
+            for (var i = 0; i < getters.length; i++) {
+                var value = invokeMethod(getters[i], element);
+                values[i] = value instanceof LocalDateTime ? DateUtils.toExportDateTime((LocalDateTime) value) : value;
+            }
+
+            printer.printRecord(values);
+        }
+
+        printer.flush();
+    }
+}
@@ -0,0 +1,27 @@
+package com.herostore.products.benchmark;
+
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Discards what's written to it, adding the written bytes to a count shared by every instance, so that
+ * {@link ExportProfiler} can report how many bytes per second the benchmarks export.
+ */
+class CountingOutputStream extends OutputStream {
+
+    private static final AtomicLong WRITTEN_BYTES = new AtomicLong();
+
+    static long writtenBytes() {
+        return WRITTEN_BYTES.get();
+    }
+
+    @Override
+    public void write(int b) {
+        WRITTEN_BYTES.incrementAndGet();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        WRITTEN_BYTES.addAndGet(len);
+    }
+}
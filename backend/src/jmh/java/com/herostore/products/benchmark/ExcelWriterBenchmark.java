@@ -0,0 +1,44 @@
+package com.herostore.products.benchmark;
+
+import com.herostore.products.io.ExcelWriter;
+import com.herostore.products.io.WorkbookData;
+import com.herostore.products.io.impl.ExcelWriterImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ExcelWriterBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private final ExcelWriter excelWriter = new ExcelWriterImpl();
+
+    private final WorkbookData workbookData = WorkbookData.builder()
+            .sheetName("Payment orders")
+            .columnWidths(ExportRows.COLUMN_WIDTHS)
+            .headers(ExportRows.HEADERS)
+            .fields(ExportRows.FIELDS)
+            .build();
+
+    @Benchmark
+    public void writeOrderLines() throws IOException {
+        excelWriter.writeWorkbook(new CountingOutputStream(), workbookData, ExportRows.exportLines(rows));
+    }
+}
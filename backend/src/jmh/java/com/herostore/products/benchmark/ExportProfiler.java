@@ -0,0 +1,77 @@
+package com.herostore.products.benchmark;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Collection;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Reports, per iteration, how many rows and bytes per second a benchmark exported, how many bytes it allocated per
+ * row and the peak heap usage. Benchmarks must declare the amount of rows written per operation in a {@code rows}
+ * param and write into a {@link CountingOutputStream} for the exported bytes to be counted.
+ * The peak heap is the sum of the heap pools' peaks, so it's an upper bound of the real one.
+ */
+public class ExportProfiler implements InternalProfiler {
+
+    private static final String ROWS_PARAM = "rows";
+    private static final double MEGABYTE = 1024 * 1024;
+
+    private final com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans()
+            .stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .collect(toList());
+
+    private long allocatedBytesBefore;
+    private long writtenBytesBefore;
+    private long startNanos;
+
+    @Override
+    public String getDescription() {
+        return "Exported rows and bytes per second, bytes allocated per row and peak heap usage";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        allocatedBytesBefore = allocatedBytes();
+        writtenBytesBefore = CountingOutputStream.writtenBytes();
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                       IterationResult result) {
+        var seconds = (System.nanoTime() - startNanos) / 1e9;
+        var written = CountingOutputStream.writtenBytes() - writtenBytesBefore;
+        var allocated = allocatedBytes() - allocatedBytesBefore;
+        var rows = (double) Long.parseLong(benchmarkParams.getParam(ROWS_PARAM)) * result.getMetadata().getAllOps();
+        var peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+
+        return List.of(
+                new ScalarResult("export.rows.rate", rows / seconds, "rows/s", AggregationPolicy.AVG),
+                new ScalarResult("export.bytes.rate", written / seconds, "B/s", AggregationPolicy.AVG),
+                new ScalarResult("export.alloc.norm", allocated / rows, "B/row", AggregationPolicy.AVG),
+                new ScalarResult("export.heap.peak", peakHeap / MEGABYTE, "MB", AggregationPolicy.MAX));
+    }
+
+    private long allocatedBytes() {
+        var allocated = 0L;
+        for (var bytes : threadBean.getThreadAllocatedBytes(threadBean.getAllThreadIds())) {
+            if (bytes > 0) allocated += bytes;
+        }
+        return allocated;
+    }
+}
@@ -0,0 +1,111 @@
+package com.herostore.products.benchmark;
+
+import com.herostore.products.dto.ProductOrderLineDTO;
+import com.herostore.products.dto.ProductOrderLineExportDTO;
+import com.herostore.products.dto.response.ProductOrderResponse;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Synthetic export rows. Rows are taken round-robin from a fixed pool, so the allocations measured by the
+ * benchmarks come from the writers and not from building the rows.
+ */
+class ExportRows {
+
+    static final String[] HEADERS = {"Order ID", "Created at", "Product", "Price", "Quantity", "Line total", "Order total"};
+    static final String[] FIELDS = {"productOrderId", "productOrderCreatedAt", "productName", "productPrice", "quantity",
+            "total", "productOrderTotal"};
+    static final int[] COLUMN_WIDTHS = {2500, 5000, 7000, 3000, 2500, 3000, 3000};
+
+    static final int LINES_PER_ORDER = 3;
+
+    private static final int POOL_SIZE = 999;
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2020, 3, 1, 10, 15, 30);
+
+    private static final List<ProductOrderLineExportDTO> EXPORT_LINES = buildExportLines();
+    private static final List<ProductOrderResponse> PRODUCT_ORDERS = buildProductOrders();
+
+    private ExportRows() {
+    }
+
+    static Stream<ProductOrderLineExportDTO> exportLines(int rows) {
+        return IntStream.range(0, rows).mapToObj(row -> EXPORT_LINES.get(row % POOL_SIZE));
+    }
+
+    /**
+     * Returns the {@value #LINES_PER_ORDER} lines of an order, sharing their values with the pooled rows.
+     */
+    static Stream<ProductOrderLineExportDTO> exportLinesOf(long productOrderId) {
+        var firstLine = (int) ((productOrderId - 1) % (POOL_SIZE / LINES_PER_ORDER)) * LINES_PER_ORDER;
+
+        return IntStream.range(firstLine, firstLine + LINES_PER_ORDER)
+                .mapToObj(EXPORT_LINES::get)
+                .map(line -> new ProductOrderLineExportDTO(productOrderId, line.getProductOrderCreatedAt(),
+                        line.getProductOrderTotal(), line.getId(), line.getProductId(), line.getProductName(),
+                        line.getProductPrice(), line.getQuantity(), line.getTotal()));
+    }
+
+    /**
+     * Returns orders holding {@value #LINES_PER_ORDER} lines each, adding up to the given amount of rows.
+     */
+    static Stream<ProductOrderResponse> productOrders(int rows) {
+        return IntStream.range(0, rows / LINES_PER_ORDER).mapToObj(order -> PRODUCT_ORDERS.get(order % PRODUCT_ORDERS.size()));
+    }
+
+    private static List<ProductOrderLineExportDTO> buildExportLines() {
+        var lines = new ArrayList<ProductOrderLineExportDTO>(POOL_SIZE);
+
+        for (var line = 0; line < POOL_SIZE; line++) {
+            var productOrderId = (long) line / LINES_PER_ORDER + 1;
+            lines.add(ProductOrderLineExportDTO.builder()
+                    .productOrderId(productOrderId)
+                    .productOrderCreatedAt(CREATED_AT.plusMinutes(productOrderId))
+                    .productOrderTotal(new BigDecimal("149.97"))
+                    .id((long) line + 1)
+                    .productId((long) line % LINES_PER_ORDER + 1)
+                    .productName(productName(line))
+                    .productPrice(new BigDecimal("49.99"))
+                    .quantity(1)
+                    .total(new BigDecimal("49.99"))
+                    .build());
+        }
+
+        return lines;
+    }
+
+    private static List<ProductOrderResponse> buildProductOrders() {
+        var orders = new ArrayList<ProductOrderResponse>(POOL_SIZE / LINES_PER_ORDER);
+
+        for (var order = 0; order < POOL_SIZE / LINES_PER_ORDER; order++) {
+            var lines = new ArrayList<ProductOrderLineDTO>(LINES_PER_ORDER);
+            for (var line = 0; line < LINES_PER_ORDER; line++) {
+                lines.add(ProductOrderLineDTO.builder()
+                        .id((long) order * LINES_PER_ORDER + line + 1)
+                        .productId((long) line + 1)
+                        .productName(productName(line))
+                        .productPrice(new BigDecimal("49.99"))
+                        .quantity(1)
+                        .total(new BigDecimal("49.99"))
+                        .build());
+            }
+
+            orders.add(ProductOrderResponse.builder()
+                    .id((long) order + 1)
+                    .createdAt(CREATED_AT.plusMinutes(order))
+                    .productOrderLines(lines)
+                    .total(new BigDecimal("149.97"))
+                    .build());
+        }
+
+        return orders;
+    }
+
+    private static String productName(int line) {
+        return line % 10 == 0 ? "Iron Man Cup, Mark " + line % LINES_PER_ORDER : "Iron Man Cup " + line % LINES_PER_ORDER;
+    }
+}
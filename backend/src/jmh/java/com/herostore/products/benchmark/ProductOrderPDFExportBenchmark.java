@@ -0,0 +1,125 @@
+package com.herostore.products.benchmark;
+
+import com.herostore.products.cache.CatalogVersion;
+import com.herostore.products.constants.FileType;
+import com.herostore.products.dto.ProductOrderExportRange;
+import com.herostore.products.dto.ProductOrderLineExportDTO;
+import com.herostore.products.handler.impl.ProductOrdersPDFWriterImpl;
+import com.herostore.products.index.ProductStockIndex;
+import com.herostore.products.io.CSVWriter;
+import com.herostore.products.io.ExcelWriter;
+import com.herostore.products.io.NDJSONWriter;
+import com.herostore.products.io.ParquetWriter;
+import com.herostore.products.io.impl.PDFMergerImpl;
+import com.herostore.products.mapper.ProductOrderMapper;
+import com.herostore.products.repository.ExportWatermarkRepository;
+import com.herostore.products.repository.ProductOrderRepository;
+import com.herostore.products.repository.ProductRepository;
+import com.herostore.products.service.ProductOrderService;
+import com.herostore.products.service.impl.ProductOrderServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Exports orders of {@value ExportRows#LINES_PER_ORDER} lines to PDF through the order service, which renders
+ * chunks of orders in parallel and merges them, so rows are order lines. Compare the scores of each
+ * {@code parallelism} to see how exports scale with render threads, e.g. {@code -p parallelism=1,2,4,8}.
+ * Orders are read from a mocked repository, so only rendering and merging are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ProductOrderPDFExportBenchmark {
+
+    @Param({"60000"})
+    public int rows;
+
+    @Param({"1", "2", "4"})
+    public int parallelism;
+
+    private ForkJoinPool pdfRenderPool;
+    private ProductOrderService productOrderService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pdfRenderPool = new ForkJoinPool(parallelism);
+        productOrderService = new ProductOrderServiceImpl(
+                mockProductOrderRepository(rows / ExportRows.LINES_PER_ORDER), mock(ProductOrderMapper.class),
+                mock(ProductRepository.class), new ProductOrdersPDFWriterImpl(), mock(CatalogVersion.class),
+                mock(ProductStockIndex.class), new PDFMergerImpl(), pdfRenderPool, mock(CSVWriter.class),
+                mock(ExcelWriter.class), mock(ExportWatermarkRepository.class), mock(NDJSONWriter.class),
+                mock(ParquetWriter.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pdfRenderPool.shutdownNow();
+    }
+
+    @Benchmark
+    public void exportProductOrders() {
+        productOrderService.exportProductOrders(new CountingOutputStream(), FileType.PDF, ProductOrderExportRange.ALL);
+    }
+
+    private static ProductOrderRepository mockProductOrderRepository(long orders) {
+        var productOrderRepository = mock(ProductOrderRepository.class);
+
+        when(productOrderRepository.findIdsBetween(anyLong(), anyLong(), eq(PageRequest.of(999, 1))))
+                .thenAnswer(invocation -> {
+                    var chunkLastId = invocation.<Long>getArgument(0) + 1000;
+                    return chunkLastId <= orders ? singletonList(chunkLastId) : emptyList();
+                });
+
+        when(productOrderRepository.findIdsBetween(anyLong(), anyLong(), eq(PageRequest.of(0, 200))))
+                .thenAnswer(invocation -> LongStream.rangeClosed(
+                        invocation.<Long>getArgument(0) + 1, Math.min(invocation.<Long>getArgument(1), orders))
+                        .limit(200)
+                        .boxed()
+                        .collect(toList()));
+
+        when(productOrderRepository.findExportLinesByProductOrderIdIn(anyList()))
+                .thenAnswer(invocation -> exportLinesOf(invocation.getArgument(0)));
+
+        return productOrderRepository;
+    }
+
+    private static List<ProductOrderLineExportDTO> exportLinesOf(List<Long> productOrderIds) {
+        var lines = new ArrayList<ProductOrderLineExportDTO>(productOrderIds.size() * ExportRows.LINES_PER_ORDER);
+
+        for (var productOrderId : productOrderIds) {
+            ExportRows.exportLinesOf(productOrderId).forEach(lines::add);
+        }
+
+        return lines;
+    }
+}
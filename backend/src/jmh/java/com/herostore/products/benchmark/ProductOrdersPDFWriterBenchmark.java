@@ -0,0 +1,41 @@
+package com.herostore.products.benchmark;
+
+import com.herostore.products.handler.ProductOrdersPDFWriter;
+import com.herostore.products.handler.impl.ProductOrdersPDFWriterImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders orders of {@value ExportRows#LINES_PER_ORDER} lines on a single thread, so rows are order lines.
+ * Documents of a million rows take minutes each, run them alone with {@code -p rows=1000000} when needed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ProductOrdersPDFWriterBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private final ProductOrdersPDFWriter productOrdersPDFWriter = new ProductOrdersPDFWriterImpl();
+
+    @Benchmark
+    public void writeProductOrders() {
+        try (var session = productOrdersPDFWriter.openSession(new CountingOutputStream())) {
+            ExportRows.productOrders(rows).forEach(session::write);
+        }
+    }
+}
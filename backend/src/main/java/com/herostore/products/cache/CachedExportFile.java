@@ -0,0 +1,21 @@
+package com.herostore.products.cache;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import java.nio.file.Path;
+
+/**
+ * Export file generated for a given catalog version.
+ */
+@Getter
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CachedExportFile {
+
+    long version;
+    Path path;
+    long size;
+}
@@ -0,0 +1,21 @@
+package com.herostore.products.cache;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Serialized JSON body of a catalog response, kept in identity and gzip encodings.
+ */
+@Getter
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CachedResponse {
+
+    long version;
+    String eTag;
+    String gzipETag;
+    byte[] body;
+    byte[] gzipBody;
+}
@@ -0,0 +1,116 @@
+package com.herostore.products.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.herostore.products.exception.ServiceException;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the serialized bodies of the hottest catalog responses, so that they can be served with a plain
+ * byte copy. Entries are tagged with the catalog version they were built for and rebuilt lazily by the
+ * first request that finds them outdated, outside of the map's locks, so that other keys keep being served
+ * while a response is built.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CatalogResponseCache {
+
+    Logger logger = LoggerFactory.getLogger(this.getClass().getName());
+
+    ObjectMapper objectMapper;
+    CatalogVersion catalogVersion;
+    Map<String, CachedResponse> responses = new ConcurrentHashMap<>();
+    Map<String, CompletableFuture<CachedResponse>> builds = new ConcurrentHashMap<>();
+
+    public CatalogResponseCache(ObjectMapper objectMapper, CatalogVersion catalogVersion) {
+        this.objectMapper = objectMapper;
+        this.catalogVersion = catalogVersion;
+    }
+
+    /**
+     * Returns the cached response for a given key, building it from the loader when the catalog
+     * changed since it was last built. Concurrent requests for the same key share a single build.
+     *
+     * @param key    cache key, unique per endpoint and parameters.
+     * @param loader supplies the response body to serialize.
+     * @return the cached response.
+     */
+    public CachedResponse get(String key, Supplier<?> loader) {
+        var version = catalogVersion.getVersion();
+
+        var cachedResponse = responses.get(key);
+        if (cachedResponse != null && cachedResponse.getVersion() >= version) {
+            return cachedResponse;
+        }
+
+        var buildKey = key + "@" + version;
+        var build = new CompletableFuture<CachedResponse>();
+        var currentBuild = builds.putIfAbsent(buildKey, build);
+
+        if (currentBuild != null) {
+            return await(currentBuild);
+        }
+
+        try {
+            cachedResponse = responses.get(key);
+            if (cachedResponse == null || cachedResponse.getVersion() < version) {
+                cachedResponse = publish(key, build(version, loader.get()));
+            }
+
+            build.complete(cachedResponse);
+            return cachedResponse;
+        } catch (RuntimeException e) {
+            build.completeExceptionally(e);
+            throw e;
+        } finally {
+            builds.remove(buildKey, build);
+        }
+    }
+
+    private CachedResponse build(long version, Object body) {
+        try {
+            var bytes = objectMapper.writeValueAsBytes(body);
+            return new CachedResponse(version, catalogVersion.toETag(version), catalogVersion.toGzipETag(version), bytes,
+                    gzip(bytes));
+        } catch (IOException e) {
+            logger.error("Couldn't serialize catalog response", e);
+            throw new ServiceException("Couldn't serialize catalog response", e);
+        }
+    }
+
+    private CachedResponse publish(String key, CachedResponse builtResponse) {
+        return responses.merge(key, builtResponse, (currentResponse, response) ->
+                currentResponse.getVersion() >= response.getVersion() ? currentResponse : response);
+    }
+
+    private static CachedResponse await(CompletableFuture<CachedResponse> build) {
+        try {
+            return build.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        var os = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+        try (var gzip = new GZIPOutputStream(os)) {
+            gzip.write(bytes);
+        }
+        return os.toByteArray();
+    }
+}
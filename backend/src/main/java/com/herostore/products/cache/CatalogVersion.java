@@ -0,0 +1,68 @@
+package com.herostore.products.cache;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version of the product catalog (products, product types and stock).
+ * Every catalog mutation must call {@link #increment()} once it has been persisted.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CatalogVersion {
+
+    static String GZIP_SUFFIX = "-gzip";
+
+    long epoch = System.currentTimeMillis();
+    AtomicLong version = new AtomicLong();
+    AtomicLong lastModified = new AtomicLong(epoch);
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Returns the last modification time in epoch milliseconds.
+     */
+    public long getLastModified() {
+        return lastModified.get();
+    }
+
+    /**
+     * Returns a strong entity tag for the current version. The process start time is part of the tag,
+     * so tags issued before a restart never match the versions issued after it.
+     */
+    public String getETag() {
+        return toETag(getVersion());
+    }
+
+    public String toETag(long version) {
+        return "\"" + epoch + "-" + version + "\"";
+    }
+
+    /**
+     * Returns the strong entity tag of the gzip encoded representation of the current version. Strong tags
+     * identify byte-identical bodies, so the gzip and identity encodings can't share one.
+     */
+    public String getGzipETag() {
+        return toGzipETag(getVersion());
+    }
+
+    public String toGzipETag(long version) {
+        return "\"" + epoch + "-" + version + GZIP_SUFFIX + "\"";
+    }
+
+    /**
+     * Bumps the version. HTTP dates have a one-second precision, so the last modification time is rounded up to
+     * the second after both the current time and the previous modification, otherwise a change within the second
+     * of the previous one would be answered with 304 to clients holding the previous {@code Last-Modified}.
+     */
+    public long increment() {
+        lastModified.accumulateAndGet(System.currentTimeMillis(),
+                (previous, now) -> Math.max(previous, now) / 1000 * 1000 + 1000);
+        return version.incrementAndGet();
+    }
+}
@@ -0,0 +1,222 @@
+package com.herostore.products.cache;
+
+import com.herostore.products.config.ExportProperties;
+import com.herostore.products.constants.Compression;
+import com.herostore.products.constants.ExportKind;
+import com.herostore.products.constants.FileType;
+import com.herostore.products.constants.ProductStockCondition;
+import com.herostore.products.exception.ServiceException;
+import com.herostore.products.utils.FileUtils;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps generated export files on local disk, tagged with the catalog version they were generated for.
+ * Concurrent requests for the same export and version share a single generation, and files are only
+ * regenerated once the catalog changes. Compressed variants are cached separately and compressed while
+ * they're generated.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ExportFileCache {
+
+    Logger logger = LoggerFactory.getLogger(this.getClass().getName());
+
+    ExportProperties exportProperties;
+    CatalogVersion catalogVersion;
+
+    Map<String, CachedExportFile> files = new ConcurrentHashMap<>();
+    Map<String, CompletableFuture<CachedExportFile>> generations = new ConcurrentHashMap<>();
+    Map<Path, Instant> retiredFiles = new ConcurrentHashMap<>();
+
+    static int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    static String PARTIAL_FILE_EXTENSION = ".part";
+
+    /**
+     * Superseded files may still be in the middle of a download, so they're kept around for a while.
+     */
+    static Duration RETIRED_FILE_GRACE_PERIOD = Duration.ofMinutes(1);
+
+    /**
+     * Cached files are named {@code <kind>-<stock>[-<columns>]-<version><extension>}, possibly followed by a
+     * compression extension and the partial file extension.
+     */
+    static Pattern CACHED_FILE_NAME = Pattern.compile("(" + valuesOf(ExportKind.values(), ExportKind::getValue) + ")-("
+            + valuesOf(ProductStockCondition.values(), ProductStockCondition::getValue) + ")(-\\w+)?-\\d+(\\.[a-z]+)+");
+
+    public ExportFileCache(ExportProperties exportProperties, CatalogVersion catalogVersion) {
+        this.exportProperties = exportProperties;
+        this.catalogVersion = catalogVersion;
+    }
+
+    /**
+     * Prepares the cache directory, removing files left behind by previous runs, since catalog versions
+     * restart along with the application. Only files following the cache's naming scheme are removed, since
+     * the directory is configurable and may be shared.
+     */
+    @PostConstruct
+    public void initCacheDirectory() {
+        var directory = exportProperties.getCacheDirectory();
+
+        try {
+            Files.createDirectories(directory);
+
+            try (var leftovers = Files.list(directory)) {
+                leftovers.filter(file -> CACHED_FILE_NAME.matcher(file.getFileName().toString()).matches())
+                        .forEach(this::deleteQuietly);
+            }
+        } catch (IOException e) {
+            logger.error("Couldn't prepare export cache directory {}", directory, e);
+            throw new ServiceException("Couldn't prepare export cache directory " + directory, e);
+        }
+    }
+
+    /**
+     * Returns the export file for the current catalog version, generating it when the catalog changed
+     * since it was last generated.
+     *
+     * @param kind        exported entity.
+     * @param format      file format.
+     * @param stock       stock condition the export is filtered by.
+     * @param columns     selected columns, empty when the export has its default columns.
+     * @param compression compression applied to the file while it's generated.
+     * @param generator   writes the uncompressed export contents.
+     * @return the cached export file.
+     */
+    public CachedExportFile get(ExportKind kind, FileType format, ProductStockCondition stock, List<String> columns,
+                                Compression compression, ExportGenerator generator) {
+        var baseName = kind.getValue() + "-" + stock.getValue() + (columns.isEmpty() ? "" : "-" + String.join("_", columns));
+        var key = baseName + format.getExtension() + "-" + compression.getValue();
+        var version = catalogVersion.getVersion();
+
+        var cachedFile = files.get(key);
+        if (cachedFile != null && cachedFile.getVersion() >= version) {
+            return cachedFile;
+        }
+
+        var generationKey = key + "@" + version;
+        var generation = new CompletableFuture<CachedExportFile>();
+        var currentGeneration = generations.putIfAbsent(generationKey, generation);
+
+        if (currentGeneration != null) {
+            return await(currentGeneration);
+        }
+
+        try {
+            cachedFile = files.get(key);
+            if (cachedFile == null || cachedFile.getVersion() < version) {
+                cachedFile = generate(kind, format, baseName, compression, version, generator);
+                publish(key, cachedFile);
+            }
+
+            generation.complete(cachedFile);
+            return cachedFile;
+        } catch (RuntimeException e) {
+            generation.completeExceptionally(e);
+            throw e;
+        } finally {
+            generations.remove(generationKey, generation);
+        }
+    }
+
+    /**
+     * Deletes superseded files once their grace period is over.
+     */
+    @Scheduled(fixedDelayString = "${exports.cleanup-interval:60000}")
+    public void removeRetiredFiles() {
+        var deadline = Instant.now().minus(RETIRED_FILE_GRACE_PERIOD);
+
+        retiredFiles.forEach((path, retiredAt) -> {
+            if (retiredAt.isBefore(deadline) && retiredFiles.remove(path, retiredAt)) {
+                deleteQuietly(path);
+            }
+        });
+    }
+
+    private CachedExportFile generate(ExportKind kind, FileType format, String baseName, Compression compression,
+                                      long version, ExportGenerator generator) {
+        var directory = exportProperties.getCacheDirectory();
+        var fileName = compression.toFileName(baseName + "-" + version + format.getExtension());
+        var file = directory.resolve(fileName);
+        var partialFile = directory.resolve(fileName + PARTIAL_FILE_EXTENSION);
+        var entryName = FileUtils.buildFileName(kind.getFileName(), format);
+
+        try {
+            try (var os = compression.compress(
+                    new BufferedOutputStream(Files.newOutputStream(partialFile), OUTPUT_BUFFER_SIZE),
+                    entryName, exportProperties.getCompressionLevel())) {
+                generator.writeTo(os);
+            }
+
+            Files.move(partialFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new CachedExportFile(version, file, Files.size(file));
+        } catch (IOException e) {
+            deleteQuietly(partialFile);
+            logger.error("Couldn't generate export file {}", fileName, e);
+            throw new ServiceException("Couldn't generate export file " + fileName, e);
+        } catch (RuntimeException e) {
+            deleteQuietly(partialFile);
+            throw e;
+        }
+    }
+
+    private void publish(String key, CachedExportFile generatedFile) {
+        files.compute(key, (k, currentFile) -> {
+            if (currentFile != null && currentFile.getVersion() >= generatedFile.getVersion()) {
+                retiredFiles.put(generatedFile.getPath(), Instant.now());
+                return currentFile;
+            }
+            if (currentFile != null) {
+                retiredFiles.put(currentFile.getPath(), Instant.now());
+            }
+            return generatedFile;
+        });
+    }
+
+    private static <T> String valuesOf(T[] constants, Function<T, String> value) {
+        return Arrays.stream(constants)
+                .map(constant -> Pattern.quote(value.apply(constant)))
+                .collect(Collectors.joining("|"));
+    }
+
+    private static CachedExportFile await(CompletableFuture<CachedExportFile> generation) {
+        try {
+            return generation.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Couldn't delete cached export file {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.herostore.products.cache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the contents of an export into the given stream.
+ */
+@FunctionalInterface
+public interface ExportGenerator {
+
+    void writeTo(OutputStream os) throws IOException;
+}
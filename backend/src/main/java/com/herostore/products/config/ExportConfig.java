@@ -0,0 +1,58 @@
+package com.herostore.products.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+@EnableScheduling
+public class ExportConfig {
+
+    /**
+     * Bounded pool running background exports. Once every worker is busy and the queue is full, new exports
+     * are rejected rather than piling up.
+     */
+    @Primary
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService exportExecutor(ExportProperties exportProperties) {
+        var threadCounter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            var thread = new Thread(runnable, "export-worker-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        return new ThreadPoolExecutor(
+                exportProperties.getWorkers(),
+                exportProperties.getWorkers(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(exportProperties.getQueueCapacity()),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Pool rendering the chunks of large PDF exports in parallel. It's shared by every export, so the amount
+     * of cores spent on PDF rendering stays bounded however many exports run at once.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ForkJoinPool pdfRenderPool(ExportProperties exportProperties) {
+        ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory = pool -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("pdf-render-" + thread.getPoolIndex());
+            return thread;
+        };
+
+        return new ForkJoinPool(exportProperties.getPdfParallelism(), threadFactory, null, false);
+    }
+}
@@ -0,0 +1,54 @@
+package com.herostore.products.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "exports")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ExportProperties {
+
+    /**
+     * Directory where export results are stored.
+     */
+    Path directory = Path.of(System.getProperty("java.io.tmpdir"), "hero-store-exports");
+
+    /**
+     * Directory where export files served by the export endpoints are cached.
+     */
+    Path cacheDirectory = Path.of(System.getProperty("java.io.tmpdir"), "hero-store-export-cache");
+
+    /**
+     * Deflate level of compressed export downloads, from 1 (fastest) to 9 (smallest).
+     */
+    int compressionLevel = 6;
+
+    /**
+     * Amount of exports running at the same time.
+     */
+    int workers = 2;
+
+    /**
+     * Amount of exports waiting for a worker before new ones are rejected.
+     */
+    int queueCapacity = 20;
+
+    /**
+     * Amount of threads rendering chunks of large PDF exports.
+     */
+    int pdfParallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * How long finished exports and their files are kept.
+     */
+    Duration ttl = Duration.ofHours(1);
+}
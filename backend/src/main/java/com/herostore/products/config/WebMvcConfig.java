@@ -1,23 +1,43 @@
 package com.herostore.products.config;
 
+import com.herostore.products.cache.CatalogVersion;
+import com.herostore.products.interceptor.CatalogVersionInterceptor;
+import com.herostore.products.mapper.custom.CompressionMapper;
+import com.herostore.products.mapper.custom.ExportBoundMapper;
 import com.herostore.products.mapper.custom.FileTypeMapper;
+import com.herostore.products.mapper.custom.ProductExportFieldMapper;
 import com.herostore.products.mapper.custom.ProductStockConditionMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.format.FormatterRegistry;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import static org.springframework.http.HttpHeaders.ACCEPT_RANGES;
 import static org.springframework.http.HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS;
 import static org.springframework.http.HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS;
 import static org.springframework.http.HttpHeaders.CONTENT_DISPOSITION;
+import static org.springframework.http.HttpHeaders.CONTENT_LENGTH;
+import static org.springframework.http.HttpHeaders.CONTENT_RANGE;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_MODIFIED_SINCE;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpHeaders.IF_RANGE;
+import static org.springframework.http.HttpHeaders.LAST_MODIFIED;
+import static org.springframework.http.HttpHeaders.RANGE;
 
 @Configuration
 public class WebMvcConfig {
 
     @Bean
-    public WebMvcConfigurer myWebMvcConfig(ProductStockConditionMapper stockConditionMapper, FileTypeMapper fileTypeMapper) {
+    public WebMvcConfigurer myWebMvcConfig(ProductStockConditionMapper stockConditionMapper,
+                                           FileTypeMapper fileTypeMapper,
+                                           CompressionMapper compressionMapper,
+                                           ProductExportFieldMapper productExportFieldMapper,
+                                           ExportBoundMapper exportBoundMapper,
+                                           CatalogVersion catalogVersion) {
         return new WebMvcConfigurer() {
             @Override
             public void addCorsMappings(CorsRegistry registry) {
@@ -28,14 +48,35 @@ public class WebMvcConfig {
                                 CONTENT_TYPE,
                                 ACCESS_CONTROL_ALLOW_HEADERS,
                                 ACCESS_CONTROL_EXPOSE_HEADERS,
-                                CONTENT_DISPOSITION)
-                        .exposedHeaders(CONTENT_DISPOSITION);
+                                CONTENT_DISPOSITION,
+                                IF_NONE_MATCH,
+                                IF_MODIFIED_SINCE,
+                                RANGE,
+                                IF_RANGE)
+                        .exposedHeaders(CONTENT_DISPOSITION, ETAG, LAST_MODIFIED, ACCEPT_RANGES, CONTENT_RANGE,
+                                CONTENT_LENGTH);
             }
 
             @Override
             public void addFormatters(FormatterRegistry registry) {
                 registry.addConverter(stockConditionMapper);
                 registry.addConverter(fileTypeMapper);
+                registry.addConverter(compressionMapper);
+                registry.addConverter(productExportFieldMapper);
+                registry.addConverter(exportBoundMapper);
+            }
+
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new CatalogVersionInterceptor(catalogVersion))
+                        .addPathPatterns(
+                                "/api/products",
+                                "/api/products/*",
+                                "/api/product-types",
+                                "/api/product-types/*")
+                        .excludePathPatterns(
+                                "/api/products/export",
+                                "/api/product-types/export");
             }
         };
     }
@@ -0,0 +1,76 @@
+package com.herostore.products.constants;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public enum Compression {
+
+    NONE("none"),
+    GZIP("gzip"),
+    ZIP("zip");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private String value;
+
+    Compression(String value) {
+        this.value = value;
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the download name of a file compressed with this compression: gzip files keep their name and
+     * get a .gz suffix, zip archives replace the file's extension with .zip.
+     */
+    public String toFileName(String fileName) {
+        switch (this) {
+            case GZIP:
+                return fileName + ".gz";
+            case ZIP:
+                var extensionStart = fileName.lastIndexOf('.');
+                return (extensionStart > 0 ? fileName.substring(0, extensionStart) : fileName) + ".zip";
+            default:
+                return fileName;
+        }
+    }
+
+    /**
+     * Wraps an output stream in a streaming compressor. Zip archives hold a single entry with the given name.
+     * Closing the returned stream finishes the compressed data and closes the wrapped stream.
+     *
+     * @param os        stream receiving the compressed data.
+     * @param entryName name of the file inside zip archives.
+     * @param level     deflate level, from 1 (fastest) to 9 (smallest).
+     * @return the stream to write uncompressed data to.
+     */
+    public OutputStream compress(OutputStream os, String entryName, int level) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new LeveledGZIPOutputStream(os, level);
+            case ZIP:
+                var zip = new ZipOutputStream(os);
+                zip.setLevel(level);
+                zip.putNextEntry(new ZipEntry(entryName));
+                return zip;
+            default:
+                return os;
+        }
+    }
+
+    private static class LeveledGZIPOutputStream extends GZIPOutputStream {
+
+        LeveledGZIPOutputStream(OutputStream os, int level) throws IOException {
+            super(os, BUFFER_SIZE);
+            def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.herostore.products.constants;
+
+public enum ExportJobStatus {
+    QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,37 @@
+package com.herostore.products.constants;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+public enum ExportKind {
+
+    PRODUCTS("products", "products", EnumSet.of(FileType.CSV, FileType.EXCEL, FileType.NDJSON)),
+    PRODUCT_TYPES("product-types", "product-types", EnumSet.of(FileType.CSV, FileType.EXCEL, FileType.NDJSON)),
+    PRODUCT_ORDERS("orders", "payment_orders",
+            EnumSet.of(FileType.PDF, FileType.CSV, FileType.EXCEL, FileType.NDJSON, FileType.PARQUET));
+
+    private String value;
+    private String fileName;
+    private Set<FileType> fileTypes;
+
+    ExportKind(String value, String fileName, Set<FileType> fileTypes) {
+        this.value = value;
+        this.fileName = fileName;
+        this.fileTypes = fileTypes;
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public boolean supports(FileType fileType) {
+        return fileTypes.contains(fileType);
+    }
+}
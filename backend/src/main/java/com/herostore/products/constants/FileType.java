@@ -1,10 +1,14 @@
 package com.herostore.products.constants;
 
+import com.fasterxml.jackson.annotation.JsonValue;
+
 public enum FileType {
 
     CSV("csv", ".csv"),
     EXCEL("xlsx", ".xlsx"),
-    PDF("pdf", ".pdf");
+    PDF("pdf", ".pdf"),
+    NDJSON("ndjson", ".ndjson"),
+    PARQUET("parquet", ".parquet");
 
     private String desc;
     private String extension;
@@ -18,6 +22,7 @@ public enum FileType {
         return extension;
     }
 
+    @JsonValue
     public String getDesc() {
         return desc;
     }
@@ -0,0 +1,18 @@
+package com.herostore.products.constants;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+public enum PriceChangeType {
+    PERCENTAGE("percentage"), ABSOLUTE("absolute");
+
+    private String value;
+
+    PriceChangeType(String value) {
+        this.value = value;
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,72 @@
+package com.herostore.products.constants;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Columns that can be selected in product exports, in the order they're exported.
+ */
+public enum ProductExportField {
+
+    ID("id", "ID", "id", 2000),
+    NAME("name", "Name", "name", 7000),
+    PRODUCT_TYPE("productType", "Product type", "productTypeName", 7000),
+    PRICE("price", "Price", "price", 3000),
+    STOCK("stock", "Stock", "stock", 2000);
+
+    private String value;
+    private String header;
+    private String property;
+    private int columnWidth;
+
+    ProductExportField(String value, String header, String property, int columnWidth) {
+        this.value = value;
+        this.header = header;
+        this.property = property;
+        this.columnWidth = columnWidth;
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    /**
+     * Name of the {@code ProductExportDTO} property holding the column's value.
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    public int getColumnWidth() {
+        return columnWidth;
+    }
+
+    /**
+     * Normalizes a requested selection: repeated fields are dropped, fields are put in their declaration order,
+     * and an empty selection means every field. Selections of the same fields are exported alike, so they can
+     * share the same cached file.
+     */
+    public static List<ProductExportField> selectionOf(List<ProductExportField> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return Arrays.asList(values());
+        }
+
+        return new ArrayList<>(EnumSet.copyOf(fields));
+    }
+
+    /**
+     * Tells whether a normalized selection has every field, and so is the default selection.
+     */
+    public static boolean isDefaultSelection(List<ProductExportField> selection) {
+        return selection.size() == values().length;
+    }
+}
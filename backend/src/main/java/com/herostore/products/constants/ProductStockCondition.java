@@ -1,5 +1,7 @@
 package com.herostore.products.constants;
 
+import com.fasterxml.jackson.annotation.JsonValue;
+
 public enum ProductStockCondition {
     ALL("all"), AVAILABLE("available"), UNAVAILABLE("unavailable");
 
@@ -9,6 +11,7 @@ public enum ProductStockCondition {
         this.value = value;
     }
 
+    @JsonValue
     public String getValue() {
         return value;
     }
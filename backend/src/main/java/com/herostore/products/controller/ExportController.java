@@ -0,0 +1,76 @@
+package com.herostore.products.controller;
+
+import com.herostore.products.dto.request.ExportRequest;
+import com.herostore.products.dto.response.ExportJobResponse;
+import com.herostore.products.exception.ServiceException;
+import com.herostore.products.service.ExportService;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static com.herostore.products.utils.HttpUtils.adaptHttpResponseForFileDownload;
+import static com.herostore.products.utils.HttpUtils.writeFile;
+
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RestController
+@RequestMapping(
+        value = "/api/exports",
+        consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE
+)
+public class ExportController {
+
+    ExportService exportService;
+
+    Logger logger = LoggerFactory.getLogger(this.getClass().getName());
+
+    @PostMapping("")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ExportJobResponse submitExport(@Valid @RequestBody ExportRequest exportRequest) {
+        return exportService.submitExport(exportRequest);
+    }
+
+    @GetMapping("/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public ExportJobResponse getExportJob(@PathVariable String id) {
+        return exportService.getExportJob(id);
+    }
+
+    @GetMapping(value = "/{id}/file", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public void downloadExportFile(@PathVariable String id, HttpServletRequest request, HttpServletResponse response) {
+        var exportFile = exportService.getExportFile(id);
+        adaptHttpResponseForFileDownload(response, exportFile.getFileName());
+
+        try {
+            writeFile(request, response, exportFile.getPath(), Files.size(exportFile.getPath()));
+        } catch (IOException e) {
+            logger.error("Couldn't write export file {} to response", id, e);
+            throw new ServiceException("Couldn't write export file to response", e);
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void cancelExport(@PathVariable String id) {
+        exportService.cancelExport(id);
+    }
+}
@@ -1,6 +1,13 @@
 package com.herostore.products.controller;
 
+import com.herostore.products.cache.ExportFileCache;
+import com.herostore.products.config.ExportProperties;
+import com.herostore.products.constants.Compression;
+import com.herostore.products.constants.ExportKind;
 import com.herostore.products.constants.FileType;
+import com.herostore.products.constants.ProductStockCondition;
+import com.herostore.products.dto.ProductOrderExportRange;
+import com.herostore.products.dto.request.ExportBound;
 import com.herostore.products.dto.request.ProductOrderRequest;
 import com.herostore.products.dto.response.ProductOrderResponse;
 import com.herostore.products.exception.ServiceException;
@@ -20,6 +27,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.io.IOException;
@@ -27,6 +35,8 @@ import java.util.List;
 
 import static com.herostore.products.utils.FileUtils.buildFileName;
 import static com.herostore.products.utils.HttpUtils.adaptHttpResponseForFileDownload;
+import static com.herostore.products.utils.HttpUtils.writeFile;
+import static java.util.Collections.emptyList;
 
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
@@ -39,6 +49,8 @@ import static com.herostore.products.utils.HttpUtils.adaptHttpResponseForFileDow
 public class PaymentOrderController {
 
     ProductOrderService productOrderService;
+    ExportFileCache exportFileCache;
+    ExportProperties exportProperties;
 
     Logger logger = LoggerFactory.getLogger(this.getClass().getName());
 
@@ -50,18 +62,53 @@ public class PaymentOrderController {
         return productOrderService.getAllProductOrders();
     }
 
+    /**
+     * Exports product orders. Without since, until or consumer all orders are exported from the export cache.
+     * Otherwise only the orders after since, or after the consumer's watermark, and up to until are streamed,
+     * and the consumer's watermark is moved to the last exported order once the export has been written.
+     * Orders created in the last minute are left for the next export, since they may not be committed yet.
+     */
     @GetMapping(value = "/export", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
-    @ResponseStatus(HttpStatus.OK)
     public void exportPaymentOrders(@RequestParam(name = "format") FileType fileType,
+                                    @RequestParam(name = "compress", defaultValue = "none") Compression compression,
+                                    @RequestParam(name = "since", required = false) ExportBound since,
+                                    @RequestParam(name = "until", required = false) ExportBound until,
+                                    @RequestParam(name = "consumer", required = false) String consumer,
+                                    HttpServletRequest request,
                                     HttpServletResponse response) {
         var fileName = buildFileName(FILE_NAME, fileType);
-        adaptHttpResponseForFileDownload(response, fileName);
 
-        try {
-            productOrderService.exportProductOrders(response.getOutputStream(), fileType);
+        if (since == null && until == null && consumer == null) {
+            var exportFile = exportFileCache.get(ExportKind.PRODUCT_ORDERS, fileType, ProductStockCondition.ALL,
+                    emptyList(), compression,
+                    os -> productOrderService.exportProductOrders(os, fileType, ProductOrderExportRange.ALL));
+
+            adaptHttpResponseForFileDownload(response, compression.toFileName(fileName));
+
+            try {
+                writeFile(request, response, exportFile.getPath(), exportFile.getSize());
+            } catch (IOException e) {
+                logger.error("Couldn't write product orders export to response", e);
+                throw new ServiceException("Couldn't write product orders export to response", e);
+            }
+            return;
+        }
+
+        var range = productOrderService.getExportRange(since, until, consumer);
+
+        adaptHttpResponseForFileDownload(response, compression.toFileName(fileName));
+
+        var compressionLevel = exportProperties.getCompressionLevel();
+
+        try (var os = compression.compress(response.getOutputStream(), fileName, compressionLevel)) {
+            productOrderService.exportProductOrders(os, fileType, range);
         } catch (IOException e) {
-            logger.error("Couldn't extract output stream from response", e);
-            throw new ServiceException("Couldn't extract output stream from response", e);
+            logger.error("Couldn't write product orders export to response", e);
+            throw new ServiceException("Couldn't write product orders export to response", e);
+        }
+
+        if (consumer != null && !range.isEmpty()) {
+            productOrderService.saveExportWatermark(consumer, range);
         }
     }
 
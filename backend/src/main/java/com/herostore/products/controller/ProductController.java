@@ -1,10 +1,22 @@
 package com.herostore.products.controller;
 
+import com.herostore.products.cache.CatalogResponseCache;
+import com.herostore.products.cache.ExportFileCache;
+import com.herostore.products.constants.Compression;
+import com.herostore.products.constants.ExportKind;
 import com.herostore.products.constants.FileType;
+import com.herostore.products.constants.ProductExportField;
 import com.herostore.products.constants.ProductStockCondition;
+import com.herostore.products.dto.request.PriceChangeRequest;
 import com.herostore.products.dto.request.ProductRequest;
+import com.herostore.products.dto.request.StockAdjustmentsRequest;
+import com.herostore.products.dto.response.PriceChangeResponse;
+import com.herostore.products.dto.response.ProductImportResponse;
 import com.herostore.products.dto.response.ProductResponse;
+import com.herostore.products.dto.response.ProductStockResponse;
+import com.herostore.products.dto.response.ProductSuggestionResponse;
 import com.herostore.products.exception.ServiceException;
+import com.herostore.products.service.ProductImportService;
 import com.herostore.products.service.ProductService;
 import com.herostore.products.utils.FileUtils;
 import lombok.AccessLevel;
@@ -25,12 +37,16 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.io.IOException;
 import java.util.List;
 
 import static com.herostore.products.utils.HttpUtils.adaptHttpResponseForFileDownload;
+import static com.herostore.products.utils.HttpUtils.writeCachedResponse;
+import static com.herostore.products.utils.HttpUtils.writeFile;
+import static java.util.stream.Collectors.toList;
 
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
@@ -43,34 +59,84 @@ import static com.herostore.products.utils.HttpUtils.adaptHttpResponseForFileDow
 public class ProductController {
 
     ProductService productService;
+    ProductImportService productImportService;
+    CatalogResponseCache catalogResponseCache;
+    ExportFileCache exportFileCache;
 
     Logger logger = LoggerFactory.getLogger(this.getClass().getName());
 
     static String FILE_NAME = "products";
+    static int MAX_SUGGESTIONS = 50;
 
     @GetMapping("")
     @ResponseStatus(HttpStatus.OK)
-    public List<ProductResponse> getAllProducts(
-            @RequestParam(name = "stock", defaultValue = "ALL") ProductStockCondition stockCondition) {
-        return productService.getAllProducts(stockCondition);
+    public void getAllProducts(
+            @RequestParam(name = "stock", defaultValue = "ALL") ProductStockCondition stockCondition,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        var cachedResponse = catalogResponseCache.get(
+                "products:" + stockCondition.getValue(), () -> productService.getAllProducts(stockCondition));
+
+        try {
+            writeCachedResponse(request, response, cachedResponse);
+        } catch (IOException e) {
+            logger.error("Couldn't write products to response", e);
+            throw new ServiceException("Couldn't write products to response", e);
+        }
     }
 
     @GetMapping(value = "/export", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
-    @ResponseStatus(HttpStatus.OK)
     public void exportToFile(@RequestParam("format") FileType fileType,
                              @RequestParam("stock") ProductStockCondition stockCondition,
+                             @RequestParam(name = "fields", required = false) List<ProductExportField> fields,
+                             @RequestParam(name = "compress", defaultValue = "none") Compression compression,
+                             HttpServletRequest request,
                              HttpServletResponse response) {
-        var fileName = FileUtils.buildFileName(FILE_NAME, fileType);
-        adaptHttpResponseForFileDownload(response, fileName);
+        var selection = ProductExportField.selectionOf(fields);
+        var columns = ProductExportField.isDefaultSelection(selection) ? List.<String>of() : selection
+                .stream()
+                .map(ProductExportField::getValue)
+                .collect(toList());
+
+        var exportFile = exportFileCache.get(ExportKind.PRODUCTS, fileType, stockCondition, columns, compression,
+                os -> productService.exportProductsToFile(os, fileType, stockCondition, fields));
+
+        adaptHttpResponseForFileDownload(response, compression.toFileName(FileUtils.buildFileName(FILE_NAME, fileType)));
 
         try {
-            productService.exportProductsToFile(response.getOutputStream(), fileType, stockCondition);
+            writeFile(request, response, exportFile.getPath(), exportFile.getSize());
         } catch (IOException e) {
-            logger.error("Couldn't extract output stream from response", e);
-            throw new ServiceException("Couldn't extract output stream from response", e);
+            logger.error("Couldn't write products export to response", e);
+            throw new ServiceException("Couldn't write products export to response", e);
         }
     }
 
+    /**
+     * Imports the products of a CSV file sent as the request body, which is read as it's received.
+     */
+    @PostMapping(value = "/import", consumes = FileUtils.CSV_MEDIA_TYPE)
+    @ResponseStatus(HttpStatus.OK)
+    public ProductImportResponse importProductsFromCsv(HttpServletRequest request) {
+        return importProducts(request, FileType.CSV);
+    }
+
+    /**
+     * Imports the products of the first sheet of an Excel workbook sent as the request body.
+     */
+    @PostMapping(value = "/import", consumes = FileUtils.XLSX_MEDIA_TYPE)
+    @ResponseStatus(HttpStatus.OK)
+    public ProductImportResponse importProductsFromExcel(HttpServletRequest request) {
+        return importProducts(request, FileType.EXCEL);
+    }
+
+    @GetMapping("/suggest")
+    @ResponseStatus(HttpStatus.OK)
+    public List<ProductSuggestionResponse> suggestProducts(
+            @RequestParam("q") String query,
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return productService.suggestProducts(query, Math.min(Math.max(limit, 1), MAX_SUGGESTIONS));
+    }
+
     @GetMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
     public ProductResponse getProductById(@PathVariable Long id) {
@@ -90,9 +156,37 @@ public class ProductController {
         return productService.updateProduct(id, updatedProduct);
     }
 
+    /**
+     * Adds deltas to the stock of many products at once, such as when a delivery is received. Either all of
+     * them are applied or none.
+     */
+    @PostMapping("/stock-adjustments")
+    @ResponseStatus(HttpStatus.OK)
+    public List<ProductStockResponse> adjustStocks(@Valid @RequestBody StockAdjustmentsRequest stockAdjustments) {
+        return productService.adjustStocks(stockAdjustments);
+    }
+
+    /**
+     * Changes the price of all the products of a product type, or of all products, at once.
+     */
+    @PostMapping("/price-changes")
+    @ResponseStatus(HttpStatus.OK)
+    public PriceChangeResponse changePrices(@Valid @RequestBody PriceChangeRequest priceChange) {
+        return productService.changePrices(priceChange);
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteProductById(@PathVariable Long id) {
         productService.deleteProductById(id);
     }
+
+    private ProductImportResponse importProducts(HttpServletRequest request, FileType fileType) {
+        try {
+            return productImportService.importProducts(request.getInputStream(), fileType);
+        } catch (IOException e) {
+            logger.error("Couldn't read products import from request", e);
+            throw new ServiceException("Couldn't read products import from request", e);
+        }
+    }
 }
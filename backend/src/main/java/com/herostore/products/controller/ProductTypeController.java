@@ -1,8 +1,15 @@
 package com.herostore.products.controller;
 
+import com.herostore.products.cache.CatalogResponseCache;
+import com.herostore.products.cache.ExportFileCache;
+import com.herostore.products.constants.Compression;
+import com.herostore.products.constants.ExportKind;
 import com.herostore.products.constants.FileType;
+import com.herostore.products.constants.ProductStockCondition;
 import com.herostore.products.dto.ProductTypeDTO;
+import com.herostore.products.dto.response.ProductImportResponse;
 import com.herostore.products.exception.ServiceException;
+import com.herostore.products.service.ProductImportService;
 import com.herostore.products.service.ProductTypeService;
 import com.herostore.products.utils.FileUtils;
 import lombok.AccessLevel;
@@ -23,12 +30,15 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.io.IOException;
-import java.util.List;
 
 import static com.herostore.products.utils.HttpUtils.adaptHttpResponseForFileDownload;
+import static com.herostore.products.utils.HttpUtils.writeCachedResponse;
+import static com.herostore.products.utils.HttpUtils.writeFile;
+import static java.util.Collections.emptyList;
 
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
@@ -41,6 +51,9 @@ import static com.herostore.products.utils.HttpUtils.adaptHttpResponseForFileDow
 public class ProductTypeController {
 
     ProductTypeService productTypeService;
+    ProductImportService productImportService;
+    CatalogResponseCache catalogResponseCache;
+    ExportFileCache exportFileCache;
 
     Logger logger = LoggerFactory.getLogger(this.getClass().getName());
 
@@ -48,24 +61,53 @@ public class ProductTypeController {
 
     @GetMapping("")
     @ResponseStatus(HttpStatus.OK)
-    public List<ProductTypeDTO> getAllProductTypes() {
-        return productTypeService.getAllProductTypes();
+    public void getAllProductTypes(HttpServletRequest request, HttpServletResponse response) {
+        var cachedResponse = catalogResponseCache.get("product-types", productTypeService::getAllProductTypes);
+
+        try {
+            writeCachedResponse(request, response, cachedResponse);
+        } catch (IOException e) {
+            logger.error("Couldn't write product types to response", e);
+            throw new ServiceException("Couldn't write product types to response", e);
+        }
     }
 
     @GetMapping(value = "/export", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
-    @ResponseStatus(HttpStatus.OK)
-    public void exportToFile(@RequestParam("format") FileType fileType, HttpServletResponse response) {
-        var fileName = FileUtils.buildFileName(FILE_NAME, fileType);
-        adaptHttpResponseForFileDownload(response, fileName);
+    public void exportToFile(@RequestParam("format") FileType fileType,
+                             @RequestParam(name = "compress", defaultValue = "none") Compression compression,
+                             HttpServletRequest request,
+                             HttpServletResponse response) {
+        var exportFile = exportFileCache.get(ExportKind.PRODUCT_TYPES, fileType, ProductStockCondition.ALL, emptyList(), compression,
+                os -> productTypeService.exportProductTypesToFile(os, fileType));
+
+        adaptHttpResponseForFileDownload(response, compression.toFileName(FileUtils.buildFileName(FILE_NAME, fileType)));
 
         try {
-            productTypeService.exportProductTypesToFile(response.getOutputStream(), fileType);
+            writeFile(request, response, exportFile.getPath(), exportFile.getSize());
         } catch (IOException e) {
-            logger.error("Couldn't extract output stream from response", e);
-            throw new ServiceException("Couldn't extract output stream from response", e);
+            logger.error("Couldn't write product types export to response", e);
+            throw new ServiceException("Couldn't write product types export to response", e);
         }
     }
 
+    /**
+     * Imports the product types of a CSV file sent as the request body, which is read as it's received.
+     */
+    @PostMapping(value = "/import", consumes = FileUtils.CSV_MEDIA_TYPE)
+    @ResponseStatus(HttpStatus.OK)
+    public ProductImportResponse importProductTypesFromCsv(HttpServletRequest request) {
+        return importProductTypes(request, FileType.CSV);
+    }
+
+    /**
+     * Imports the product types of the first sheet of an Excel workbook sent as the request body.
+     */
+    @PostMapping(value = "/import", consumes = FileUtils.XLSX_MEDIA_TYPE)
+    @ResponseStatus(HttpStatus.OK)
+    public ProductImportResponse importProductTypesFromExcel(HttpServletRequest request) {
+        return importProductTypes(request, FileType.EXCEL);
+    }
+
     @GetMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
     public ProductTypeDTO getProductTypeById(@PathVariable Long id) {
@@ -90,4 +132,13 @@ public class ProductTypeController {
     public void deleteProductTypeById(@PathVariable Long id) {
         productTypeService.deleteProductTypeById(id);
     }
+
+    private ProductImportResponse importProductTypes(HttpServletRequest request, FileType fileType) {
+        try {
+            return productImportService.importProductTypes(request.getInputStream(), fileType);
+        } catch (IOException e) {
+            logger.error("Couldn't read product types import from request", e);
+            throw new ServiceException("Couldn't read product types import from request", e);
+        }
+    }
 }
@@ -0,0 +1,42 @@
+package com.herostore.products.domain;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Last product order exported to a named consumer of incremental exports.
+ */
+@Entity
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "export_watermark")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ExportWatermark {
+
+    @Id
+    @Column(name = "consumer", updatable = false, nullable = false)
+    String consumer;
+
+    @Column(name = "last_product_order_id", nullable = false)
+    Long lastProductOrderId;
+
+    @Column(name = "updated_at", nullable = false, columnDefinition = "TIMESTAMP")
+    LocalDateTime updatedAt;
+
+    public void advanceTo(long productOrderId) {
+        this.lastProductOrderId = Math.max(lastProductOrderId, productOrderId);
+        this.updatedAt = LocalDateTime.now();
+    }
+}
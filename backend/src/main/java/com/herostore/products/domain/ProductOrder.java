@@ -40,7 +40,7 @@ public class ProductOrder extends ValidationEntity<ProductOrder> {
     Long id;
 
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "payment_id", referencedColumnName = "id", nullable = false)
+    @JoinColumn(name = "product_order_id", referencedColumnName = "id", nullable = false)
     @NotEmpty(message = "Must contain at least one product order line")
     List<ProductOrderLine> productOrderLines;
 
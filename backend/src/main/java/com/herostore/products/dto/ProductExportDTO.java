@@ -0,0 +1,32 @@
+package com.herostore.products.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Flat, read-only product row used by file exports. It's filled from the columns selected by a JPQL
+ * query, so exported rows never become managed entities; properties that weren't selected stay null.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductExportDTO implements Serializable {
+
+    private static final long serialVersionUID = -5150321816587372517L;
+
+    Long id;
+    String name;
+    Long productTypeId;
+    String productTypeName;
+    Integer stock;
+    BigDecimal price;
+}
@@ -0,0 +1,29 @@
+package com.herostore.products.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Product orders included in an export: those whose id is greater than {@code afterId} and lower than or equal
+ * to {@code lastId}.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductOrderExportRange {
+
+    public static final ProductOrderExportRange ALL = new ProductOrderExportRange(0L, Long.MAX_VALUE);
+
+    long afterId;
+    long lastId;
+
+    public boolean isEmpty() {
+        return lastId <= afterId;
+    }
+}
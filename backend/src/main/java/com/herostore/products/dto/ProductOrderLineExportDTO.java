@@ -0,0 +1,36 @@
+package com.herostore.products.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat, read-only product order line row, along with its order's details, used by file exports.
+ * It's built directly by JPQL constructor expressions, so exported rows never become managed entities.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductOrderLineExportDTO implements Serializable {
+
+    private static final long serialVersionUID = 4735139578232587093L;
+
+    Long productOrderId;
+    LocalDateTime productOrderCreatedAt;
+    BigDecimal productOrderTotal;
+    Long id;
+    Long productId;
+    String productName;
+    BigDecimal productPrice;
+    Integer quantity;
+    BigDecimal total;
+}
@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 import lombok.experimental.FieldDefaults;
 
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
 import java.io.Serializable;
 
 @Data
@@ -22,6 +23,7 @@ public class ProductTypeDTO implements Serializable {
     Long id;
 
     @NotBlank(message = "Name is required")
+    @Size(max = 128, message = "Name cannot be longer than 128 characters")
     String name;
 }
 
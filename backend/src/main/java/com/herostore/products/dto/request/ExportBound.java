@@ -0,0 +1,36 @@
+package com.herostore.products.dto.request;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bound of an incremental product orders export, given either as a product order id or as a creation date.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ExportBound {
+
+    Long productOrderId;
+    LocalDateTime createdAt;
+
+    public static ExportBound ofProductOrderId(long productOrderId) {
+        return new ExportBound(productOrderId, null);
+    }
+
+    public static ExportBound ofCreatedAt(LocalDateTime createdAt) {
+        return new ExportBound(null, createdAt);
+    }
+
+    public boolean isProductOrderId() {
+        return productOrderId != null;
+    }
+}
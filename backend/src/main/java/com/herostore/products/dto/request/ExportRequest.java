@@ -0,0 +1,40 @@
+package com.herostore.products.dto.request;
+
+import com.herostore.products.constants.ExportKind;
+import com.herostore.products.constants.FileType;
+import com.herostore.products.constants.ProductExportField;
+import com.herostore.products.constants.ProductStockCondition;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ExportRequest implements Serializable {
+
+    static final long serialVersionUID = 6510541207954786532L;
+
+    @NotNull(message = "Kind is required")
+    ExportKind kind;
+
+    @NotNull(message = "Format is required")
+    FileType format;
+
+    @Builder.Default
+    ProductStockCondition stock = ProductStockCondition.ALL;
+
+    /**
+     * Columns of products exports, all of them when empty.
+     */
+    List<ProductExportField> fields;
+}
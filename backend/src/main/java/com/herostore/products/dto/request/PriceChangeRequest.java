@@ -0,0 +1,52 @@
+package com.herostore.products.dto.request;
+
+import com.herostore.products.constants.PriceChangeType;
+import com.herostore.products.constants.ProductStockCondition;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import javax.validation.constraints.Digits;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Price change applied to every product matching the filters: those of a product type, when given, and with
+ * the given stock. The amount is a percentage of the current price, or a fixed amount added to it, negative
+ * to lower prices. New prices are rounded to the given amount of decimals, half away from zero, and prices
+ * lowered past zero are set to zero.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class PriceChangeRequest implements Serializable {
+
+    static final long serialVersionUID = -4409372165532907719L;
+
+    Long productTypeId;
+
+    @Builder.Default
+    @NotNull(message = "Stock is required")
+    ProductStockCondition stock = ProductStockCondition.ALL;
+
+    @NotNull(message = "Type is required")
+    PriceChangeType type;
+
+    @NotNull(message = "Amount is required")
+    @Digits(integer = 9, fraction = 6, message = "Amount cannot have more than 9 integer and 6 fraction digits")
+    BigDecimal amount;
+
+    @Builder.Default
+    @NotNull(message = "Decimals are required")
+    @Min(value = 0, message = "Decimals cannot be negative")
+    @Max(value = 6, message = "Decimals cannot be more than 6")
+    Integer decimals = 2;
+}
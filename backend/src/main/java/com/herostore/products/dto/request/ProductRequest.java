@@ -6,9 +6,11 @@ import lombok.Data;
 import lombok.experimental.FieldDefaults;
 
 import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Digits;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 import java.io.Serializable;
 import java.math.BigDecimal;
 
@@ -22,6 +24,7 @@ public class ProductRequest implements Serializable {
     Long id;
 
     @NotBlank(message = "Name is required")
+    @Size(max = 128, message = "Name cannot be longer than 128 characters")
     String name;
 
     @NotNull(message = "Product type id is required")
@@ -33,5 +36,6 @@ public class ProductRequest implements Serializable {
 
     @NotNull(message = "Price is required")
     @DecimalMin(value = "0.0", message = "Price cannot be negative")
+    @Digits(integer = 9, fraction = 6, message = "Price cannot have more than 9 integer and 6 fraction digits")
     BigDecimal price;
 }
@@ -0,0 +1,30 @@
+package com.herostore.products.dto.request;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+
+/**
+ * Amount to add to the stock of a product, negative to take it out.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class StockAdjustmentRequest implements Serializable {
+
+    static final long serialVersionUID = 3390241859076627548L;
+
+    @NotNull(message = "Product id is required")
+    Long productId;
+
+    @NotNull(message = "Delta is required")
+    Integer delta;
+}
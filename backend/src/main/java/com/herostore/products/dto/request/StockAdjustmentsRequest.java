@@ -0,0 +1,27 @@
+package com.herostore.products.dto.request;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class StockAdjustmentsRequest implements Serializable {
+
+    static final long serialVersionUID = -1887640914273035113L;
+
+    @Valid
+    @NotEmpty(message = "Adjustments cannot be empty")
+    List<StockAdjustmentRequest> adjustments;
+}
@@ -0,0 +1,35 @@
+package com.herostore.products.dto.response;
+
+import com.herostore.products.constants.ExportJobStatus;
+import com.herostore.products.constants.ExportKind;
+import com.herostore.products.constants.FileType;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ExportJobResponse implements Serializable {
+
+    static final long serialVersionUID = -2466385474380217384L;
+
+    String id;
+    ExportKind kind;
+    FileType format;
+    ExportJobStatus status;
+    long bytesWritten;
+    String error;
+    LocalDateTime createdAt;
+    LocalDateTime startedAt;
+    LocalDateTime finishedAt;
+    LocalDateTime expiresAt;
+}
@@ -0,0 +1,22 @@
+package com.herostore.products.dto.response;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.io.Serializable;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class PriceChangeResponse implements Serializable {
+
+    static final long serialVersionUID = 2875513316520994367L;
+
+    long updated;
+}
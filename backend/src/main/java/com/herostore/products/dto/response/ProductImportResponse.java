@@ -0,0 +1,29 @@
+package com.herostore.products.dto.response;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Outcome of a product import. Every rejected row is counted, but only the first rejections are listed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductImportResponse implements Serializable {
+
+    static final long serialVersionUID = 6243978109453560281L;
+
+    long inserted;
+    long updated;
+    long rejected;
+    List<RejectedRowResponse> rejections;
+}
@@ -0,0 +1,23 @@
+package com.herostore.products.dto.response;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.io.Serializable;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductStockResponse implements Serializable {
+
+    static final long serialVersionUID = 5518920137462530571L;
+
+    Long productId;
+    Integer stock;
+}
@@ -0,0 +1,23 @@
+package com.herostore.products.dto.response;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.io.Serializable;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductSuggestionResponse implements Serializable {
+
+    static final long serialVersionUID = -1387093513425117408L;
+
+    Long id;
+    String name;
+}
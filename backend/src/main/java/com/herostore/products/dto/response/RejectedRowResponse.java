@@ -0,0 +1,24 @@
+package com.herostore.products.dto.response;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RejectedRowResponse implements Serializable {
+
+    static final long serialVersionUID = -7712305658964425132L;
+
+    long line;
+    List<String> errors;
+}
@@ -0,0 +1,14 @@
+package com.herostore.products.exception;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ExportNotReadyException extends RuntimeException {
+
+    static final long serialVersionUID = 2150634717723651029L;
+
+    public ExportNotReadyException(String message) {
+        super(message);
+    }
+}
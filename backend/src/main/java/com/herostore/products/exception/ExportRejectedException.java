@@ -0,0 +1,14 @@
+package com.herostore.products.exception;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ExportRejectedException extends RuntimeException {
+
+    static final long serialVersionUID = -3125488217354118120L;
+
+    public ExportRejectedException(String message) {
+        super(message);
+    }
+}
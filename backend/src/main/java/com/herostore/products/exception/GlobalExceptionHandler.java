@@ -34,6 +34,44 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return handleExceptionInternal(ex, error, new HttpHeaders(), HttpStatus.INTERNAL_SERVER_ERROR, request);
     }
 
+    @ExceptionHandler(InvalidExportRequestException.class)
+    public ResponseEntity<Object> handleInvalidExportRequestException(Exception ex, WebRequest request) {
+        var error = new ServiceError("Bad Request", ex.getMessage(), null, 400, getRequestUri(request));
+        return handleExceptionInternal(ex, error, new HttpHeaders(), HttpStatus.BAD_REQUEST, request);
+    }
+
+    @ExceptionHandler(InvalidImportFileException.class)
+    public ResponseEntity<Object> handleInvalidImportFileException(Exception ex, WebRequest request) {
+        var error = new ServiceError("Bad Request", ex.getMessage(), null, 400, getRequestUri(request));
+        return handleExceptionInternal(ex, error, new HttpHeaders(), HttpStatus.BAD_REQUEST, request);
+    }
+
+    @ExceptionHandler(InvalidPriceChangeException.class)
+    public ResponseEntity<Object> handleInvalidPriceChangeException(Exception ex, WebRequest request) {
+        var error = new ServiceError("Bad Request", ex.getMessage(), null, 400, getRequestUri(request));
+        return handleExceptionInternal(ex, error, new HttpHeaders(), HttpStatus.BAD_REQUEST, request);
+    }
+
+    @ExceptionHandler(ExportNotReadyException.class)
+    public ResponseEntity<Object> handleExportNotReadyException(Exception ex, WebRequest request) {
+        var error = new ServiceError("Conflict", ex.getMessage(), null, 409, getRequestUri(request));
+        return handleExceptionInternal(ex, error, new HttpHeaders(), HttpStatus.CONFLICT, request);
+    }
+
+    @ExceptionHandler(InvalidStockAdjustmentException.class)
+    public ResponseEntity<Object> handleInvalidStockAdjustmentException(Exception ex, WebRequest request) {
+        var error = new ServiceError("Conflict", ex.getMessage(), null, 409, getRequestUri(request));
+        return handleExceptionInternal(ex, error, new HttpHeaders(), HttpStatus.CONFLICT, request);
+    }
+
+    @ExceptionHandler(ExportRejectedException.class)
+    public ResponseEntity<Object> handleExportRejectedException(Exception ex, WebRequest request) {
+        var headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "30");
+        var error = new ServiceError("Service Unavailable", ex.getMessage(), null, 503, getRequestUri(request));
+        return handleExceptionInternal(ex, error, headers, HttpStatus.SERVICE_UNAVAILABLE, request);
+    }
+
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(
             MethodArgumentNotValidException ex, HttpHeaders headers, HttpStatus status, WebRequest request) {
@@ -0,0 +1,14 @@
+package com.herostore.products.exception;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class InvalidExportRequestException extends RuntimeException {
+
+    static final long serialVersionUID = 8420917753611538212L;
+
+    public InvalidExportRequestException(String message) {
+        super(message);
+    }
+}
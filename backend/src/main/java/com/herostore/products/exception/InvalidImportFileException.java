@@ -0,0 +1,14 @@
+package com.herostore.products.exception;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class InvalidImportFileException extends RuntimeException {
+
+    static final long serialVersionUID = -3128465190527765410L;
+
+    public InvalidImportFileException(String message) {
+        super(message);
+    }
+}
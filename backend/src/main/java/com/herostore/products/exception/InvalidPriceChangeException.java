@@ -0,0 +1,14 @@
+package com.herostore.products.exception;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class InvalidPriceChangeException extends RuntimeException {
+
+    static final long serialVersionUID = -2917450187235746310L;
+
+    public InvalidPriceChangeException(String message) {
+        super(message);
+    }
+}
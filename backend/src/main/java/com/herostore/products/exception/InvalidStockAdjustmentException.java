@@ -0,0 +1,14 @@
+package com.herostore.products.exception;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class InvalidStockAdjustmentException extends RuntimeException {
+
+    static final long serialVersionUID = 8041236679157340958L;
+
+    public InvalidStockAdjustmentException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,104 @@
+package com.herostore.products.export;
+
+import com.herostore.products.constants.ExportJobStatus;
+import com.herostore.products.dto.request.ExportRequest;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of a background export. Status transitions are synchronized, since the worker running the export
+ * and the requests cancelling it may race.
+ */
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ExportJob {
+
+    final String id = UUID.randomUUID().toString();
+    final ExportRequest request;
+    final LocalDateTime createdAt = LocalDateTime.now();
+    final AtomicLong bytesWritten = new AtomicLong();
+
+    volatile ExportJobStatus status = ExportJobStatus.QUEUED;
+    volatile String error;
+    volatile Path file;
+    volatile LocalDateTime startedAt;
+    volatile LocalDateTime finishedAt;
+    volatile LocalDateTime expiresAt;
+    volatile Future<?> future;
+
+    public ExportJob(ExportRequest request) {
+        this.request = request;
+    }
+
+    public void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    public void addBytesWritten(long bytes) {
+        bytesWritten.addAndGet(bytes);
+    }
+
+    public boolean isCancelled() {
+        return status == ExportJobStatus.CANCELLED;
+    }
+
+    /**
+     * Moves a queued job to running.
+     *
+     * @return false if the job was cancelled before it could start.
+     */
+    public synchronized boolean start() {
+        if (status != ExportJobStatus.QUEUED) return false;
+        status = ExportJobStatus.RUNNING;
+        startedAt = LocalDateTime.now();
+        return true;
+    }
+
+    /**
+     * @return false if the job was cancelled while running, in which case its file must be discarded.
+     */
+    public synchronized boolean complete(Path file, Duration ttl) {
+        if (status != ExportJobStatus.RUNNING) return false;
+        this.file = file;
+        finish(ExportJobStatus.COMPLETED, ttl);
+        return true;
+    }
+
+    public synchronized void fail(String error, Duration ttl) {
+        if (status != ExportJobStatus.RUNNING) return;
+        this.error = error;
+        finish(ExportJobStatus.FAILED, ttl);
+    }
+
+    /**
+     * @return false if the job had already finished.
+     */
+    public synchronized boolean cancel(Duration ttl) {
+        if (status.isFinished()) return false;
+        finish(ExportJobStatus.CANCELLED, ttl);
+        if (future != null) future.cancel(true);
+        return true;
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return expiresAt != null && expiresAt.isBefore(now);
+    }
+
+    private void finish(ExportJobStatus finalStatus, Duration ttl) {
+        status = finalStatus;
+        finishedAt = LocalDateTime.now();
+        expiresAt = finishedAt.plus(ttl);
+    }
+}
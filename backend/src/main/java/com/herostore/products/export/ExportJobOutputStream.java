@@ -0,0 +1,40 @@
+package com.herostore.products.export;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+/**
+ * Tracks how many bytes an export has written, and aborts it on its next write once the job is cancelled,
+ * since neither the database cursors nor the file writers react to thread interruption.
+ */
+public class ExportJobOutputStream extends FilterOutputStream {
+
+    private final ExportJob job;
+
+    public ExportJobOutputStream(OutputStream out, ExportJob job) {
+        super(out);
+        this.job = job;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        checkNotCancelled();
+        out.write(b);
+        job.addBytesWritten(1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        checkNotCancelled();
+        out.write(b, off, len);
+        job.addBytesWritten(len);
+    }
+
+    private void checkNotCancelled() throws IOException {
+        if (job.isCancelled()) {
+            throw new InterruptedIOException("Export " + job.getId() + " was cancelled");
+        }
+    }
+}
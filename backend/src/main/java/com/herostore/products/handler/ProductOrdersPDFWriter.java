@@ -2,10 +2,15 @@ package com.herostore.products.handler;
 
 import com.herostore.products.dto.response.ProductOrderResponse;
 import com.herostore.products.io.PDFWriter;
+import com.herostore.products.io.PDFWriterSession;
 
-import java.util.List;
+import java.io.OutputStream;
 
-public interface ProductOrdersPDFWriter extends PDFWriter {
+public interface ProductOrdersPDFWriter extends PDFWriter<ProductOrderResponse> {
 
-    void setProductOrders(List<ProductOrderResponse> paymentOrders);
+    /**
+     * Opens a document without the store title, meant to be appended to a document opened with
+     * {@link #openSession(OutputStream)}.
+     */
+    PDFWriterSession<ProductOrderResponse> openContinuationSession(OutputStream outputStream);
 }
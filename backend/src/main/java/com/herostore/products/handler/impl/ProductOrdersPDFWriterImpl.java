@@ -3,12 +3,14 @@ package com.herostore.products.handler.impl;
 import com.herostore.products.dto.response.ProductOrderResponse;
 import com.herostore.products.exception.ServiceException;
 import com.herostore.products.handler.ProductOrdersPDFWriter;
+import com.herostore.products.io.PDFWriterSession;
 import com.herostore.products.utils.DateUtils;
 import com.itextpdf.text.BaseColor;
 import com.itextpdf.text.Chunk;
 import com.itextpdf.text.Document;
 import com.itextpdf.text.DocumentException;
 import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
 import com.itextpdf.text.FontFactory;
 import com.itextpdf.text.Paragraph;
 import com.itextpdf.text.Phrase;
@@ -23,176 +25,198 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.io.OutputStream;
-import java.util.List;
-import java.util.stream.Stream;
 
 import static com.herostore.products.utils.NumberUtils.toCurrencyFormat;
 
 @Component
-@FieldDefaults(level = AccessLevel.PRIVATE)
 public class ProductOrdersPDFWriterImpl implements ProductOrdersPDFWriter {
 
-    Document document;
-    List<ProductOrderResponse> productOrders;
+    static Logger logger = LoggerFactory.getLogger(ProductOrdersPDFWriterImpl.class.getName());
 
-    Logger logger = LoggerFactory.getLogger(this.getClass().getName());
+    static final Font DOCUMENT_TITLE_FONT = FontFactory.getFont(FontFactory.COURIER, 22, BaseColor.BLACK);
+    static final Font TABLE_TITLE_FONT = FontFactory.getFont(FontFactory.COURIER, 13, BaseColor.BLACK);
+    static final Font TOTAL_FONT = FontFactory.getFont(FontFactory.COURIER, 12, BaseColor.BLACK);
+
+    static final String[] TABLE_HEADERS = {"Order ID", "Product", "Price", "Quantity", "Order total"};
+    static final float[] TABLE_COLUMN_WIDTHS = {.5f, 2, 1, .5f, 1};
+
+    @Override
+    public PDFWriterSession<ProductOrderResponse> openSession(OutputStream outputStream) {
+        var session = openDocument(outputStream);
+        session.writeDocumentTitle();
+        return session;
+    }
 
     @Override
-    public void createDocument(OutputStream outputStream) {
-        document = new Document();
+    public PDFWriterSession<ProductOrderResponse> openContinuationSession(OutputStream outputStream) {
+        return openDocument(outputStream);
+    }
+
+    private ProductOrdersDocumentSession openDocument(OutputStream outputStream) {
+        var document = new Document();
+        PdfWriter writer;
 
         try {
-            PdfWriter.getInstance(document, outputStream);
+            writer = PdfWriter.getInstance(document, outputStream);
         } catch (DocumentException e) {
             logger.error("Couldn't open PDF document", e);
             throw new ServiceException("Couldn't open PDF document", e);
         }
-    }
 
-    @Override
-    public void setProductOrders(List<ProductOrderResponse> productOrders) {
-        this.productOrders = productOrders;
-    }
-
-    @Override
-    public void openDocument() {
         document.open();
-    }
 
-    @Override
-    public boolean isDocumentOpen() {
-        return document != null && document.isOpen();
+        return new ProductOrdersDocumentSession(document, writer);
     }
 
-    @Override
-    public void writeDocument() {
-        writeDocumentTitle();
+    /**
+     * Every order is added to the document as soon as it's written, so iText can release its completed
+     * pages instead of keeping the whole export in memory. Header cells are built once per session and
+     * copied into each order's table.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class ProductOrdersDocumentSession implements PDFWriterSession<ProductOrderResponse> {
+
+        Document document;
+        PdfWriter writer;
+        PdfPCell[] headerCells;
+
+        ProductOrdersDocumentSession(Document document, PdfWriter writer) {
+            this.document = document;
+            this.writer = writer;
+            this.headerCells = createHeaderCells();
+        }
 
-        for (var productOrder : productOrders) {
+        @Override
+        public void write(ProductOrderResponse productOrder) {
             writeProductOrderTableTitle(productOrder);
             writeProductOrderTable(productOrder);
             writeProductOrderTableTotal(productOrder);
         }
-    }
 
-    @Override
-    public void closeDocument() {
-        document.close();
-        document = null;
-    }
+        @Override
+        public void flush() {
+            writer.flush();
+        }
 
-    private void writeDocumentTitle() {
-        var titleFont = FontFactory.getFont(FontFactory.COURIER, 22, BaseColor.BLACK);
-        var title = new Paragraph(new Phrase(new Chunk("Hero Store", titleFont)));
+        @Override
+        public boolean isOpen() {
+            return document.isOpen();
+        }
 
-        title.setAlignment(Element.ALIGN_CENTER);
-        title.setSpacingAfter(40);
+        @Override
+        public void close() {
+            if (document.isOpen()) {
+                document.close();
+            }
+        }
 
-        try {
-            document.add(title);
-        } catch (DocumentException e) {
-            logger.error("Couldn't write PDF document title", e);
-            throw new ServiceException("Couldn't write PDF document title", e);
+        private void writeDocumentTitle() {
+            var title = new Paragraph(new Phrase(new Chunk("Hero Store", DOCUMENT_TITLE_FONT)));
+
+            title.setAlignment(Element.ALIGN_CENTER);
+            title.setSpacingAfter(40);
+
+            try {
+                document.add(title);
+            } catch (DocumentException e) {
+                logger.error("Couldn't write PDF document title", e);
+                throw new ServiceException("Couldn't write PDF document title", e);
+            }
         }
-    }
 
-    private void writeProductOrderTableTitle(ProductOrderResponse productOrder) {
-        var titleFont = FontFactory.getFont(FontFactory.COURIER, 13, BaseColor.BLACK);
-        var tableTitle = new Paragraph(new Phrase("Product Order: " + productOrder.getId(), titleFont));
+        private void writeProductOrderTableTitle(ProductOrderResponse productOrder) {
+            var table = new PdfPTable(2);
+            table.setWidthPercentage(100);
 
-        var productOrderCell = new PdfPCell(tableTitle);
-        productOrderCell.setPadding(0);
-        productOrderCell.setBorder(Rectangle.NO_BORDER);
-        productOrderCell.setHorizontalAlignment(Element.ALIGN_LEFT);
+            var titleCell = table.getDefaultCell();
+            titleCell.setPadding(0);
+            titleCell.setBorder(Rectangle.NO_BORDER);
 
-        var text = "Date: " + DateUtils.toLocalizedDateTime(productOrder.getCreatedAt());
-        var paymentOrderDate = new Paragraph(new Phrase(text, titleFont));
-        var productOrderCreationDateCell = new PdfPCell(paymentOrderDate);
-        productOrderCreationDateCell.setPadding(0);
-        productOrderCreationDateCell.setBorder(Rectangle.NO_BORDER);
-        productOrderCreationDateCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+            titleCell.setHorizontalAlignment(Element.ALIGN_LEFT);
+            table.addCell(new Phrase("Product Order: " + productOrder.getId(), TABLE_TITLE_FONT));
 
-        var table = new PdfPTable(2);
-        table.setWidthPercentage(100);
-        table.addCell(productOrderCell);
-        table.addCell(productOrderCreationDateCell);
+            titleCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+            var text = "Date: " + DateUtils.toLocalizedDateTime(productOrder.getCreatedAt());
+            table.addCell(new Phrase(text, TABLE_TITLE_FONT));
 
-        try {
-            document.add(table);
-        } catch (DocumentException e) {
-            logger.error("Couldn't write product order number and creation date to PDF document", e);
-            throw new ServiceException("Couldn't write product order number and creation date to PDF document", e);
+            try {
+                document.add(table);
+            } catch (DocumentException e) {
+                logger.error("Couldn't write product order number and creation date to PDF document", e);
+                throw new ServiceException("Couldn't write product order number and creation date to PDF document", e);
+            }
         }
-    }
 
-    private void writeProductOrderTable(ProductOrderResponse productOrder) {
-        var table = new PdfPTable(new float[]{.5f, 2, 1, .5f, 1});
-        table.setWidthPercentage(100);
-        table.setSpacingBefore(10);
+        private void writeProductOrderTable(ProductOrderResponse productOrder) {
+            var table = new PdfPTable(TABLE_COLUMN_WIDTHS);
+            table.setWidthPercentage(100);
+            table.setSpacingBefore(10);
 
-        addTableHeaders(table);
-        addProductOrderLinesToTable(productOrder, table);
+            for (var headerCell : headerCells) {
+                table.addCell(headerCell);
+            }
 
-        try {
-            document.add(table);
-        } catch (DocumentException e) {
-            logger.error("Couldn't write product order table to PDF document", e);
-            throw new ServiceException("Couldn't write product order table to PDF document", e);
+            addProductOrderLinesToTable(productOrder, table);
+
+            try {
+                document.add(table);
+            } catch (DocumentException e) {
+                logger.error("Couldn't write product order table to PDF document", e);
+                throw new ServiceException("Couldn't write product order table to PDF document", e);
+            }
         }
-    }
 
-    private void writeProductOrderTableTotal(ProductOrderResponse productOrder) {
-        var totalFont = FontFactory.getFont(FontFactory.COURIER, 12, BaseColor.BLACK);
-        var text = "Total: " + toCurrencyFormat(productOrder.getTotal());
-        var total = new Paragraph(new Phrase(new Chunk(text, totalFont)));
+        private void writeProductOrderTableTotal(ProductOrderResponse productOrder) {
+            var text = "Total: " + toCurrencyFormat(productOrder.getTotal());
+            var total = new Paragraph(new Phrase(new Chunk(text, TOTAL_FONT)));
 
-        total.setAlignment(Element.ALIGN_RIGHT);
-        total.setSpacingAfter(30);
+            total.setAlignment(Element.ALIGN_RIGHT);
+            total.setSpacingAfter(30);
 
-        try {
-            document.add(total);
-        } catch (DocumentException e) {
-            logger.error("Couldn't write product order total to PDF document", e);
-            throw new ServiceException("Couldn't write product order total to PDF document", e);
+            try {
+                document.add(total);
+            } catch (DocumentException e) {
+                logger.error("Couldn't write product order total to PDF document", e);
+                throw new ServiceException("Couldn't write product order total to PDF document", e);
+            }
         }
-    }
 
-    private void addTableHeaders(PdfPTable table) {
-        Stream.of("Order ID", "Product", "Price", "Quantity", "Order total")
-                .forEachOrdered(column -> {
-                    PdfPCell header = new PdfPCell();
-                    header.setBackgroundColor(BaseColor.LIGHT_GRAY);
-                    header.setBorderWidth(2);
-                    header.setHorizontalAlignment(Element.ALIGN_CENTER);
-                    header.setVerticalAlignment(Element.ALIGN_CENTER);
-                    header.setPaddingTop(10);
-                    header.setPaddingBottom(10);
-                    header.setPhrase(new Phrase(column));
-                    table.addCell(header);
-                });
-    }
-
-    private void addProductOrderLinesToTable(ProductOrderResponse productOrder, PdfPTable table) {
-        for (var productOrderLine : productOrder.getProductOrderLines()) {
-            var cellText = new Phrase(productOrderLine.getId().toString());
-            table.addCell(getRightAlignedCell(cellText));
+        private static PdfPCell[] createHeaderCells() {
+            var cells = new PdfPCell[TABLE_HEADERS.length];
+
+            for (var i = 0; i < TABLE_HEADERS.length; i++) {
+                var header = new PdfPCell();
+                header.setBackgroundColor(BaseColor.LIGHT_GRAY);
+                header.setBorderWidth(2);
+                header.setHorizontalAlignment(Element.ALIGN_CENTER);
+                header.setVerticalAlignment(Element.ALIGN_CENTER);
+                header.setPaddingTop(10);
+                header.setPaddingBottom(10);
+                header.setPhrase(new Phrase(TABLE_HEADERS[i]));
+                cells[i] = header;
+            }
+
+            return cells;
+        }
 
-            table.addCell(productOrderLine.getProductName());
+        /**
+         * Line cells are created from the table's default cell, switching its alignment as needed.
+         */
+        private static void addProductOrderLinesToTable(ProductOrderResponse productOrder, PdfPTable table) {
+            var lineCell = table.getDefaultCell();
 
-            cellText = new Phrase(toCurrencyFormat(productOrderLine.getProductPrice()));
-            table.addCell(getRightAlignedCell(cellText));
+            for (var productOrderLine : productOrder.getProductOrderLines()) {
+                lineCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+                table.addCell(productOrderLine.getId().toString());
 
-            cellText = new Phrase(productOrderLine.getQuantity().toString());
-            table.addCell(getRightAlignedCell(cellText));
+                lineCell.setHorizontalAlignment(Element.ALIGN_LEFT);
+                table.addCell(productOrderLine.getProductName());
 
-            cellText = new Phrase(toCurrencyFormat(productOrderLine.getTotal()));
-            table.addCell(getRightAlignedCell(cellText));
+                lineCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+                table.addCell(toCurrencyFormat(productOrderLine.getProductPrice()));
+                table.addCell(productOrderLine.getQuantity().toString());
+                table.addCell(toCurrencyFormat(productOrderLine.getTotal()));
+            }
         }
     }
-
-    private static PdfPCell getRightAlignedCell(Phrase phrase) {
-        var quantityCell = new PdfPCell(phrase);
-        quantityCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
-        return quantityCell;
-    }
 }
@@ -0,0 +1,344 @@
+package com.herostore.products.index;
+
+import com.herostore.products.dto.response.ProductSuggestionResponse;
+import com.herostore.products.repository.ProductRepository;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * In-memory autocomplete index over product names. Names are matched by word prefixes through a sorted
+ * word dictionary, and by arbitrary substrings through trigram postings. It is loaded lazily on first use
+ * and kept up to date by the product write paths.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductNameIndex {
+
+    static final int NGRAM_LENGTH = 3;
+    static final int MIN_QUERY_LENGTH = 2;
+    static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    static final int FULL_PREFIX_MATCH = 0;
+    static final int WORD_PREFIX_MATCH = 1;
+    static final int SUBSTRING_MATCH = 2;
+
+    final Logger logger = LoggerFactory.getLogger(this.getClass().getName());
+
+    final ProductRepository productRepository;
+    final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    Map<Long, Entry> entries = new HashMap<>();
+    NavigableMap<String, Set<Long>> words = new TreeMap<>();
+    Map<String, Set<Long>> ngrams = new HashMap<>();
+    boolean loaded;
+
+    public ProductNameIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Returns the products whose names best match a query. Names starting with the query rank first,
+     * then names with words starting with every query term, and then names containing the query.
+     * Ties are broken by shorter names first, then alphabetically. Queries shorter than
+     * {@value #MIN_QUERY_LENGTH} characters match nearly every name, so they're not answered.
+     * <p>
+     * Candidates are read from the most selective term or n-gram only, and checked against the rest of
+     * the query one by one, so that no postings are copied nor merged.
+     *
+     * @param query text typed by the user.
+     * @param limit maximum amount of suggestions to return.
+     * @return the best matching products.
+     */
+    public List<ProductSuggestionResponse> suggest(String query, int limit) {
+        var normalizedQuery = normalize(query);
+        if (normalizedQuery.length() < MIN_QUERY_LENGTH || limit <= 0) return emptyList();
+
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            var terms = wordsOf(normalizedQuery);
+            var topMatches = new PriorityQueue<Match>(MATCH_ORDER.reversed());
+
+            if (terms.length > 0) {
+                findByWordPrefixes(normalizedQuery, terms, topMatches, limit);
+            }
+
+            if (topMatches.size() < limit && normalizedQuery.length() >= NGRAM_LENGTH) {
+                findBySubstring(normalizedQuery, terms, topMatches, limit);
+            }
+
+            var suggestions = new ArrayList<Match>(topMatches);
+            suggestions.sort(MATCH_ORDER);
+
+            var result = new ArrayList<ProductSuggestionResponse>(suggestions.size());
+            for (var match : suggestions) {
+                result.add(new ProductSuggestionResponse(match.entry.id, match.entry.name));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records the name of a created or updated product.
+     */
+    public void put(Long productId, String name) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) return;
+            removeEntry(productId);
+            addEntry(productId, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted product from the index.
+     */
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) return;
+            removeEntry(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Discards the index, so that it's reloaded on next use.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            entries = new HashMap<>();
+            words = new TreeMap<>();
+            ngrams = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Offers the names with a word starting with every term. Only the postings of the term matching the
+     * fewest names are read; a name is taken from the posting of its first word starting with that term,
+     * so that it's offered once.
+     */
+    private void findByWordPrefixes(String normalizedQuery, String[] terms, PriorityQueue<Match> topMatches,
+                                    int limit) {
+        String driver = null;
+        var driverCount = Long.MAX_VALUE;
+        for (var term : terms) {
+            var count = countPostings(term, driverCount);
+            if (count < driverCount) {
+                driver = term;
+                driverCount = count;
+            }
+        }
+        if (driverCount == 0) return;
+
+        for (var posting : wordsStartingWith(driver).entrySet()) {
+            for (var id : posting.getValue()) {
+                var entry = entries.get(id);
+                if (!posting.getKey().equals(firstWordStartingWith(entry, driver))) continue;
+                if (!hasWordPrefixes(entry, terms)) continue;
+
+                var rank = entry.normalizedName.startsWith(normalizedQuery) ? FULL_PREFIX_MATCH : WORD_PREFIX_MATCH;
+                offer(topMatches, new Match(entry, rank), limit);
+            }
+        }
+    }
+
+    /**
+     * Offers the names containing the query that weren't offered as word prefix matches. Only the postings
+     * of its rarest n-gram are read.
+     */
+    private void findBySubstring(String normalizedQuery, String[] terms, PriorityQueue<Match> topMatches,
+                                 int limit) {
+        Set<Long> candidates = null;
+        for (var ngram : ngramsOf(normalizedQuery)) {
+            var postings = ngrams.get(ngram);
+            if (postings == null) return;
+            if (candidates == null || postings.size() < candidates.size()) {
+                candidates = postings;
+            }
+        }
+
+        for (var id : candidates) {
+            var entry = entries.get(id);
+            if (!entry.normalizedName.contains(normalizedQuery)) continue;
+            if (terms.length > 0 && hasWordPrefixes(entry, terms)) continue;
+
+            offer(topMatches, new Match(entry, SUBSTRING_MATCH), limit);
+        }
+    }
+
+    /**
+     * Counts the postings of the words starting with a term, giving up once they exceed a bound.
+     */
+    private long countPostings(String term, long bound) {
+        var count = 0L;
+        for (var postings : wordsStartingWith(term).values()) {
+            count += postings.size();
+            if (count >= bound) break;
+        }
+        return count;
+    }
+
+    private NavigableMap<String, Set<Long>> wordsStartingWith(String term) {
+        return words.subMap(term, true, term + Character.MAX_VALUE, true);
+    }
+
+    private static boolean hasWordPrefixes(Entry entry, String[] terms) {
+        for (var term : terms) {
+            if (firstWordStartingWith(entry, term) == null) return false;
+        }
+        return true;
+    }
+
+    private static String firstWordStartingWith(Entry entry, String term) {
+        for (var word : entry.words) {
+            if (word.startsWith(term)) return word;
+        }
+        return null;
+    }
+
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (loaded) return;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (loaded) return;
+
+            entries = new HashMap<>();
+            words = new TreeMap<>();
+            ngrams = new HashMap<>();
+
+            for (var product : productRepository.findAllSuggestions()) {
+                addEntry(product.getId(), product.getName());
+            }
+
+            loaded = true;
+            logger.info("Loaded product name index: {} products, {} words, {} n-grams",
+                    entries.size(), words.size(), ngrams.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addEntry(Long id, String name) {
+        var normalizedName = normalize(name);
+        var entry = new Entry(id, name, normalizedName, wordsOf(normalizedName));
+        entries.put(id, entry);
+
+        for (var word : entry.words) {
+            words.computeIfAbsent(word, w -> new HashSet<>()).add(id);
+        }
+
+        for (var ngram : ngramsOf(entry.normalizedName)) {
+            ngrams.computeIfAbsent(ngram, n -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void removeEntry(Long id) {
+        var entry = entries.remove(id);
+        if (entry == null) return;
+
+        for (var word : entry.words) {
+            removePosting(words, word, id);
+        }
+
+        for (var ngram : ngramsOf(entry.normalizedName)) {
+            removePosting(ngrams, ngram, id);
+        }
+    }
+
+    private static void removePosting(Map<String, Set<Long>> postings, String key, Long id) {
+        var ids = postings.get(key);
+        if (ids == null) return;
+        ids.remove(id);
+        if (ids.isEmpty()) postings.remove(key);
+    }
+
+    private static String[] wordsOf(String normalizedText) {
+        return Arrays.stream(WORD_SEPARATOR.split(normalizedText))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    private static Set<String> ngramsOf(String text) {
+        var result = new HashSet<String>();
+        for (var i = 0; i + NGRAM_LENGTH <= text.length(); i++) {
+            result.add(text.substring(i, i + NGRAM_LENGTH));
+        }
+        return result;
+    }
+
+    private static void offer(PriorityQueue<Match> topMatches, Match match, int limit) {
+        topMatches.offer(match);
+        if (topMatches.size() > limit) {
+            topMatches.poll();
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) return "";
+        var decomposed = Normalizer.normalize(text.trim(), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    static final Comparator<Match> MATCH_ORDER = Comparator
+            .comparingInt((Match m) -> m.rank)
+            .thenComparingInt(m -> m.entry.name.length())
+            .thenComparing(m -> m.entry.normalizedName)
+            .thenComparing(m -> m.entry.id);
+
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    static class Entry {
+        Long id;
+        String name;
+        String normalizedName;
+        String[] words;
+    }
+
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    static class Match {
+        Entry entry;
+        int rank;
+    }
+}
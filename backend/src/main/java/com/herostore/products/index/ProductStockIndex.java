@@ -0,0 +1,136 @@
+package com.herostore.products.index;
+
+import com.herostore.products.repository.ProductRepository;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of available ({@code stock > 0}) and unavailable ({@code stock = 0}) product ids,
+ * kept as bitmaps. It is loaded lazily on first use and kept up to date by the stock write paths.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductStockIndex {
+
+    final Logger logger = LoggerFactory.getLogger(this.getClass().getName());
+
+    final ProductRepository productRepository;
+    final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    BitSet available = new BitSet();
+    BitSet unavailable = new BitSet();
+    boolean loaded;
+
+    public ProductStockIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Returns the ids of the products matching a stock condition, in ascending order.
+     *
+     * @param inStock whether available or unavailable product ids should be returned.
+     * @return the matching product ids.
+     */
+    public List<Long> getProductIds(boolean inStock) {
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            var bitmap = inStock ? available : unavailable;
+            var ids = new ArrayList<Long>(bitmap.cardinality());
+            for (var id = bitmap.nextSetBit(0); id >= 0; id = bitmap.nextSetBit(id + 1)) {
+                ids.add((long) id);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records the current stock of a created or updated product.
+     */
+    public void update(Long productId, Integer stock) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) return;
+            var id = toIndex(productId);
+            available.set(id, stock > 0);
+            unavailable.set(id, stock == 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted product from the index.
+     */
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) return;
+            var id = toIndex(productId);
+            available.clear(id);
+            unavailable.clear(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Discards the index, so that it's reloaded on next use. Meant for bulk changes that
+     * can't be tracked product by product, such as cascading deletes.
+     */
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            available = new BitSet();
+            unavailable = new BitSet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        lock.readLock().lock();
+        try {
+            if (loaded) return;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (loaded) return;
+
+            var newAvailable = new BitSet();
+            var newUnavailable = new BitSet();
+
+            productRepository.findAvailableProductIds().forEach(id -> newAvailable.set(toIndex(id)));
+            productRepository.findUnavailableProductIds().forEach(id -> newUnavailable.set(toIndex(id)));
+
+            available = newAvailable;
+            unavailable = newUnavailable;
+            loaded = true;
+
+            logger.info("Loaded product stock index: {} available, {} unavailable products",
+                    available.cardinality(), unavailable.cardinality());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static int toIndex(Long productId) {
+        return Math.toIntExact(productId);
+    }
+}
@@ -0,0 +1,48 @@
+package com.herostore.products.interceptor;
+
+import com.herostore.products.cache.CatalogVersion;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Collections;
+
+/**
+ * Adds {@code ETag} and {@code Last-Modified} headers to catalog reads and answers conditional
+ * requests with {@code 304 Not Modified} before the handler (and therefore the repository) is invoked.
+ */
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CatalogVersionInterceptor implements HandlerInterceptor {
+
+    CatalogVersion catalogVersion;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+
+        // Clients may hold the tag of either encoding of the current version
+        var gzipETag = catalogVersion.getGzipETag();
+        var eTag = ifNoneMatchContains(request, gzipETag) ? gzipETag : catalogVersion.getETag();
+
+        var webRequest = new ServletWebRequest(request, response);
+        return !webRequest.checkNotModified(eTag, catalogVersion.getLastModified());
+    }
+
+    private static boolean ifNoneMatchContains(HttpServletRequest request, String eTag) {
+        for (var header : Collections.list(request.getHeaders(HttpHeaders.IF_NONE_MATCH))) {
+            if (header.contains(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
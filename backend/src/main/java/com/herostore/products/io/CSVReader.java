@@ -0,0 +1,19 @@
+package com.herostore.products.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface CSVReader {
+
+    /**
+     * Reads a UTF-8 CSV file whose first record holds the column headers, handing each following record over
+     * as soon as it's parsed, so the file is never held in memory. Headers are matched ignoring case, and a
+     * leading byte order mark is skipped. The input stream isn't closed.
+     *
+     * @throws com.herostore.products.exception.InvalidImportFileException when a required column is missing
+     *                                                                      or the file isn't valid CSV.
+     */
+    void read(InputStream is, List<String> requiredHeaders, Consumer<ImportRow> rowConsumer) throws IOException;
+}
@@ -3,8 +3,17 @@ package com.herostore.products.io;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface CSVWriter {
 
-    <T> void write(OutputStream os, String[] headers, String[] fieldNames, List<T> elements) throws IOException;
+    /**
+     * Writes a UTF-8 CSV file with one record per element, writing each record as soon as its element
+     * is produced. The output stream is flushed but not closed.
+     */
+    <T> void write(OutputStream os, String[] headers, String[] fieldNames, Stream<T> elements) throws IOException;
+
+    default <T> void write(OutputStream os, String[] headers, String[] fieldNames, List<T> elements) throws IOException {
+        write(os, headers, fieldNames, elements.stream());
+    }
 }
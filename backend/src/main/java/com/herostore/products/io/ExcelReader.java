@@ -0,0 +1,20 @@
+package com.herostore.products.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface ExcelReader {
+
+    /**
+     * Reads the first sheet of an XLSX workbook whose first non-empty row holds the column headers, as the
+     * workbooks written by {@link ExcelWriter} have. Each following row is handed over as soon as it's parsed,
+     * numbered as in Excel, with its values as text. Headers are matched ignoring case. The input stream
+     * isn't closed.
+     *
+     * @throws com.herostore.products.exception.InvalidImportFileException when a required column is missing
+     *                                                                      or the file isn't an XLSX workbook.
+     */
+    void read(InputStream is, List<String> requiredHeaders, Consumer<ImportRow> rowConsumer) throws IOException;
+}
@@ -3,10 +3,27 @@ package com.herostore.products.io;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ExcelWriter {
 
-    ExcelWriter withData(WorkbookData workbookData);
+    /**
+     * Starts writing a workbook to the given output stream. Each session owns its workbook, so sessions
+     * can be used concurrently from different threads.
+     */
+    <T> ExcelWriterSession<T> openSession(OutputStream os, WorkbookData workbookData);
 
-    <T> void writeWorkbook(OutputStream os, List<T> elements) throws IOException;
+    /**
+     * Writes a workbook with one row per element, consuming the elements as they are produced.
+     */
+    default <T> void writeWorkbook(OutputStream os, WorkbookData workbookData, Stream<T> elements) throws IOException {
+        try (ExcelWriterSession<T> session = openSession(os, workbookData)) {
+            elements.forEachOrdered(session::writeRow);
+            session.finish();
+        }
+    }
+
+    default <T> void writeWorkbook(OutputStream os, WorkbookData workbookData, List<T> elements) throws IOException {
+        writeWorkbook(os, workbookData, elements.stream());
+    }
 }
@@ -0,0 +1,24 @@
+package com.herostore.products.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A single workbook being written. Not thread-safe: a session must be used by one thread at a time.
+ */
+public interface ExcelWriterSession<T> extends Closeable {
+
+    void writeRow(T element);
+
+    /**
+     * Writes the workbook to the session's output stream.
+     */
+    void finish() throws IOException;
+
+    /**
+     * Releases the resources held by the session. The workbook isn't written unless
+     * {@link #finish()} was called first.
+     */
+    @Override
+    void close() throws IOException;
+}
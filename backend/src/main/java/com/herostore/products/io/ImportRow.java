@@ -0,0 +1,30 @@
+package com.herostore.products.io;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Row read from an import file, with its values keyed by their lower-cased column header.
+ * Blank values are left out.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ImportRow {
+
+    long line;
+    Map<String, String> values;
+
+    public String get(String header) {
+        return values.get(header.toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,17 @@
+package com.herostore.products.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.Stream;
+
+public interface NDJSONWriter {
+
+    /**
+     * Writes a UTF-8 newline-delimited JSON file with one compact object per element and line, writing each
+     * object as soon as its element is produced. The output stream is flushed but not closed.
+     *
+     * @param keys       keys of the objects' members.
+     * @param fieldNames fields of the elements holding the members' values, in the same order as the keys.
+     */
+    <T> void write(OutputStream os, String[] keys, String[] fieldNames, Stream<T> elements) throws IOException;
+}
@@ -0,0 +1,12 @@
+package com.herostore.products.io;
+
+import java.io.OutputStream;
+
+public interface PDFMerger {
+
+    /**
+     * Opens a new document written to the given output stream, made of the pages of the documents appended
+     * to the session.
+     */
+    PDFMergerSession openSession(OutputStream outputStream);
+}
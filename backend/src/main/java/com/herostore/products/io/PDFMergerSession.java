@@ -0,0 +1,18 @@
+package com.herostore.products.io;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+
+/**
+ * A single PDF document being merged. Not thread-safe: a session must be used by one thread at a time.
+ */
+public interface PDFMergerSession extends Closeable {
+
+    /**
+     * Copies every page of the given document to the end of the merged document.
+     */
+    void append(Path document);
+
+    @Override
+    void close();
+}
@@ -2,15 +2,11 @@ package com.herostore.products.io;
 
 import java.io.OutputStream;
 
-public interface PDFWriter {
+public interface PDFWriter<T> {
 
-    void createDocument(OutputStream outputStream);
-
-    void openDocument();
-
-    boolean isDocumentOpen();
-
-    void writeDocument();
-
-    void closeDocument();
+    /**
+     * Opens a new document written to the given output stream. Each session owns its document, so
+     * sessions can be used concurrently from different threads.
+     */
+    PDFWriterSession<T> openSession(OutputStream outputStream);
 }
@@ -0,0 +1,21 @@
+package com.herostore.products.io;
+
+import java.io.Closeable;
+
+/**
+ * A single PDF document being written. Not thread-safe: a session must be used by one thread at a time.
+ */
+public interface PDFWriterSession<T> extends Closeable {
+
+    void write(T element);
+
+    /**
+     * Pushes the pages completed so far to the session's output stream.
+     */
+    void flush();
+
+    boolean isOpen();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,71 @@
+package com.herostore.products.io;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Column of a Parquet file: its name in the file, the field of the exported elements holding its values and
+ * its type. Every column is optional, so null values are allowed.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ParquetColumn {
+
+    /**
+     * Widest decimal whose unscaled values are stored as 64 bit integers.
+     */
+    public static final int MAX_DECIMAL_PRECISION = 18;
+
+    public enum Type {
+        INT32,
+        INT64,
+        /**
+         * Fixed scale decimal, stored as its unscaled 64 bit value.
+         */
+        DECIMAL,
+        /**
+         * Local date time with millisecond precision, not adjusted to UTC.
+         */
+        TIMESTAMP,
+        /**
+         * UTF-8 text, dictionary encoded.
+         */
+        STRING
+    }
+
+    String name;
+    String field;
+    Type type;
+    int precision;
+    int scale;
+
+    public static ParquetColumn int32(String name, String field) {
+        return new ParquetColumn(name, field, Type.INT32, 0, 0);
+    }
+
+    public static ParquetColumn int64(String name, String field) {
+        return new ParquetColumn(name, field, Type.INT64, 0, 0);
+    }
+
+    public static ParquetColumn decimal(String name, String field, int precision, int scale) {
+        if (precision < 1 || precision > MAX_DECIMAL_PRECISION || scale < 0 || scale > precision) {
+            throw new IllegalArgumentException("Decimal(" + precision + ", " + scale + ") not valid");
+        }
+        return new ParquetColumn(name, field, Type.DECIMAL, precision, scale);
+    }
+
+    public static ParquetColumn timestamp(String name, String field) {
+        return new ParquetColumn(name, field, Type.TIMESTAMP, 0, 0);
+    }
+
+    public static ParquetColumn string(String name, String field) {
+        return new ParquetColumn(name, field, Type.STRING, 0, 0);
+    }
+}
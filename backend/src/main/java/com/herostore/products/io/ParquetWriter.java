@@ -0,0 +1,16 @@
+package com.herostore.products.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ParquetWriter {
+
+    /**
+     * Writes a Parquet file with one row per element, consuming the elements as they are produced. Rows are
+     * buffered until a row group is complete, which is then written and released, so memory usage doesn't grow
+     * with the amount of elements. The output stream is flushed but not closed.
+     */
+    <T> void write(OutputStream os, List<ParquetColumn> columns, Stream<T> elements) throws IOException;
+}
@@ -0,0 +1,252 @@
+package com.herostore.products.io.impl;
+
+import com.herostore.products.utils.DateUtils;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Encodes CSV records (RFC 4180, CRLF line endings) as UTF-8 straight into a byte buffer that is reused for
+ * the whole file. Numbers and date times are written digit by digit, and values are only quoted when they
+ * contain a separator, a quote, a line break or surrounding spaces.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class CSVEncoder {
+
+    static final byte SEPARATOR = ',';
+    static final byte QUOTE = '"';
+    static final byte[] LINE_BREAK = {'\r', '\n'};
+
+    // Widest value written in one go: a signed long or a compact decimal (20 bytes)
+    static final int MAX_VALUE_SIZE = 20;
+    static final int MAX_COMPACT_PRECISION = 18;
+
+    final OutputStream os;
+    final byte[] buffer;
+    int position;
+    boolean firstValue = true;
+
+    CSVEncoder(OutputStream os, int bufferSize) {
+        this.os = os;
+        this.buffer = new byte[Math.max(bufferSize, MAX_VALUE_SIZE)];
+    }
+
+    /**
+     * Writes a value of the current record, converting it according to its type. Nulls are written as empty values.
+     */
+    void writeValue(Object value) throws IOException {
+        startValue();
+
+        if (value == null) return;
+
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            writeLong(((Number) value).longValue());
+        } else if (value instanceof BigDecimal) {
+            writeDecimal((BigDecimal) value);
+        } else if (value instanceof LocalDateTime) {
+            writeDateTime((LocalDateTime) value);
+        } else {
+            writeText(value instanceof CharSequence ? (CharSequence) value : value.toString());
+        }
+    }
+
+    void endRecord() throws IOException {
+        ensureCapacity(LINE_BREAK.length);
+        buffer[position++] = LINE_BREAK[0];
+        buffer[position++] = LINE_BREAK[1];
+        firstValue = true;
+    }
+
+    /**
+     * Sends the buffered bytes to the output stream and flushes it.
+     */
+    void flush() throws IOException {
+        flushBuffer();
+        os.flush();
+    }
+
+    private void startValue() throws IOException {
+        if (firstValue) {
+            firstValue = false;
+            return;
+        }
+
+        ensureCapacity(1);
+        buffer[position++] = SEPARATOR;
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+
+        ensureCapacity(MAX_VALUE_SIZE);
+
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+
+        var end = position + digitCount(value);
+        var index = end;
+        do {
+            buffer[--index] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+
+        position = end;
+    }
+
+    /**
+     * Writes decimals in plain notation. Decimals whose unscaled value fits in a long are written digit by digit,
+     * larger ones fall back to {@link BigDecimal#toPlainString()}.
+     */
+    private void writeDecimal(BigDecimal value) throws IOException {
+        var scale = value.scale();
+
+        if (scale < 0 || scale >= MAX_COMPACT_PRECISION || value.precision() > MAX_COMPACT_PRECISION) {
+            writeAscii(value.toPlainString());
+            return;
+        }
+
+        var unscaled = value.unscaledValue().longValue();
+        if (scale == 0) {
+            writeLong(unscaled);
+            return;
+        }
+
+        ensureCapacity(MAX_VALUE_SIZE);
+
+        if (unscaled < 0) {
+            buffer[position++] = '-';
+            unscaled = -unscaled;
+        }
+
+        var digits = Math.max(digitCount(unscaled), scale + 1);
+        var end = position + digits + 1;
+        var index = end;
+        for (var i = 0; i < digits; i++) {
+            if (i == scale) buffer[--index] = '.';
+            buffer[--index] = (byte) ('0' + unscaled % 10);
+            unscaled /= 10;
+        }
+
+        position = end;
+    }
+
+    private void writeDateTime(LocalDateTime dateTime) throws IOException {
+        var year = dateTime.getYear();
+        if (year < 0 || year > 9999) {
+            writeAscii(DateUtils.toExportDateTime(dateTime));
+            return;
+        }
+
+        ensureCapacity(MAX_VALUE_SIZE);
+        writeDigits(year, 4);
+        buffer[position++] = '-';
+        writeDigits(dateTime.getMonthValue(), 2);
+        buffer[position++] = '-';
+        writeDigits(dateTime.getDayOfMonth(), 2);
+        buffer[position++] = ' ';
+        writeDigits(dateTime.getHour(), 2);
+        buffer[position++] = ':';
+        writeDigits(dateTime.getMinute(), 2);
+        buffer[position++] = ':';
+        writeDigits(dateTime.getSecond(), 2);
+    }
+
+    private void writeDigits(int value, int width) {
+        for (var index = position + width - 1; index >= position; index--) {
+            buffer[index] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += width;
+    }
+
+    private void writeAscii(String value) throws IOException {
+        for (var i = 0; i < value.length(); i++) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void writeText(CharSequence value) throws IOException {
+        var quoted = needsQuotes(value);
+
+        if (quoted) {
+            ensureCapacity(1);
+            buffer[position++] = QUOTE;
+        }
+
+        var length = value.length();
+        for (var i = 0; i < length; i++) {
+            var c = value.charAt(i);
+            ensureCapacity(4);
+
+            if (c < 0x80) {
+                if (c == QUOTE) buffer[position++] = QUOTE;
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | c >> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                var codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogates can't be encoded, they're replaced the same way String#getBytes does
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | c >> 12);
+                buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+
+        if (quoted) {
+            ensureCapacity(1);
+            buffer[position++] = QUOTE;
+        }
+    }
+
+    private static boolean needsQuotes(CharSequence value) {
+        var length = value.length();
+        if (length == 0) return false;
+        if (value.charAt(0) == ' ' || value.charAt(length - 1) == ' ') return true;
+
+        for (var i = 0; i < length; i++) {
+            var c = value.charAt(i);
+            if (c == SEPARATOR || c == QUOTE || c == '\r' || c == '\n') return true;
+        }
+
+        return false;
+    }
+
+    private static int digitCount(long value) {
+        var digits = 1;
+        for (var limit = 10L; digits < 19 && value >= limit; limit *= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (position + bytes > buffer.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            os.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
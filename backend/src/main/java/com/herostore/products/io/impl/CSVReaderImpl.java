@@ -0,0 +1,97 @@
+package com.herostore.products.io.impl;
+
+import com.herostore.products.exception.InvalidImportFileException;
+import com.herostore.products.io.CSVReader;
+import com.herostore.products.io.ImportRow;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Parses records with commons-csv. Rows are numbered by the line they start on, the headers being line 1,
+ * so quoted values spanning several lines don't shift the numbers of the following rows. Blank lines are skipped.
+ */
+@Component
+public class CSVReaderImpl implements CSVReader {
+
+    static final char BYTE_ORDER_MARK = '\uFEFF';
+    static final CSVFormat FORMAT = CSVFormat.DEFAULT
+            .withFirstRecordAsHeader()
+            .withIgnoreHeaderCase()
+            .withIgnoreEmptyLines(false)
+            .withTrim();
+
+    @Override
+    public void read(InputStream is, List<String> requiredHeaders, Consumer<ImportRow> rowConsumer) throws IOException {
+        var reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+        skipByteOrderMark(reader);
+
+        var parser = FORMAT.parse(reader);
+        var headers = parser.getHeaderNames();
+        checkRequiredHeaders(headers, requiredHeaders);
+
+        var records = parser.iterator();
+        var line = parser.getCurrentLineNumber() + 1;
+
+        try {
+            while (records.hasNext()) {
+                var row = toImportRow(line, headers, records.next());
+                line = parser.getCurrentLineNumber() + 1;
+
+                if (!row.getValues().isEmpty()) {
+                    rowConsumer.accept(row);
+                }
+            }
+        } catch (IllegalStateException e) {
+            // commons-csv reports malformed records, such as an unterminated quoted value, this way
+            if (e.getCause() instanceof IOException) {
+                throw new InvalidImportFileException("Invalid CSV file: " + e.getCause().getMessage());
+            }
+            throw e;
+        }
+    }
+
+    private static void skipByteOrderMark(BufferedReader reader) throws IOException {
+        reader.mark(1);
+        if (reader.read() != BYTE_ORDER_MARK) {
+            reader.reset();
+        }
+    }
+
+    private static void checkRequiredHeaders(List<String> headers, List<String> requiredHeaders) {
+        var presentHeaders = headers.stream().map(header -> header.toLowerCase(Locale.ROOT)).collect(toSet());
+        var missingHeaders = requiredHeaders.stream()
+                .filter(header -> !presentHeaders.contains(header.toLowerCase(Locale.ROOT)))
+                .collect(joining(", "));
+
+        if (!missingHeaders.isEmpty()) {
+            throw new InvalidImportFileException("Missing columns: " + missingHeaders);
+        }
+    }
+
+    private static ImportRow toImportRow(long line, List<String> headers, CSVRecord record) {
+        var values = new HashMap<String, String>();
+
+        for (var i = 0; i < Math.min(headers.size(), record.size()); i++) {
+            var value = record.get(i);
+            if (!value.isEmpty()) {
+                values.put(headers.get(i).toLowerCase(Locale.ROOT), value);
+            }
+        }
+
+        return new ImportRow(line, values);
+    }
+}
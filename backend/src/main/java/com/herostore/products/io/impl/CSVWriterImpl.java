@@ -3,39 +3,60 @@ package com.herostore.products.io.impl;
 import com.herostore.products.io.CSVWriter;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVPrinter;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.PrintWriter;
-import java.util.Arrays;
-import java.util.List;
+import java.lang.reflect.Method;
+import java.util.stream.Stream;
 
 import static com.herostore.products.utils.ClassUtils.extractMethod;
 import static com.herostore.products.utils.ClassUtils.invokeMethod;
-import static java.util.stream.Collectors.toList;
 
 @Component
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class CSVWriterImpl implements CSVWriter {
 
+    static int BUFFER_SIZE = 64 * 1024;
+
     @Override
-    public <T> void write(OutputStream os, String[] headers, String[] fieldNames, List<T> elements) throws IOException {
-        var writer = new PrintWriter(os);
+    public <T> void write(OutputStream os, String[] headers, String[] fieldNames, Stream<T> elements) throws IOException {
+        var encoder = new CSVEncoder(os, BUFFER_SIZE);
+
+        for (var header : headers) {
+            encoder.writeValue(header);
+        }
+        encoder.endRecord();
 
-        try (var printer = new CSVPrinter(writer, CSVFormat.DEFAULT.withHeader(headers))) {
-            var clazz = elements.get(0).getClass();
+        // Sends the headers right away, so the client starts receiving the file before the first row is read
+        encoder.flush();
 
-            for (T element : elements) {
-                var values = Arrays.stream(fieldNames)
-                        .map(fieldName -> extractMethod(clazz, fieldName))
-                        .map(method -> invokeMethod(method, element))
-                        .collect(toList());
+        var iterator = elements.iterator();
+        Method[] getters = null;
+
+        while (iterator.hasNext()) {
+            var element = iterator.next();
+
+            if (getters == null) {
+                getters = extractGetters(element.getClass(), fieldNames);
+            }
 
-                printer.printRecord(values);
+            for (var getter : getters) {
+                encoder.writeValue(invokeMethod(getter, element));
             }
+            encoder.endRecord();
         }
+
+        encoder.flush();
+    }
+
+    private static Method[] extractGetters(Class<?> clazz, String[] fieldNames) {
+        var getters = new Method[fieldNames.length];
+
+        for (var i = 0; i < fieldNames.length; i++) {
+            getters[i] = extractMethod(clazz, fieldNames[i]);
+        }
+
+        return getters;
     }
 }
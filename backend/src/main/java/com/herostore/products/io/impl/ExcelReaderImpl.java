@@ -0,0 +1,233 @@
+package com.herostore.products.io.impl;
+
+import com.herostore.products.exception.InvalidImportFileException;
+import com.herostore.products.io.ExcelReader;
+import com.herostore.products.io.ImportRow;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.apache.poi.UnsupportedFileFormatException;
+import org.apache.poi.openxml4j.exceptions.InvalidOperationException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.springframework.stereotype.Component;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Reads workbooks with POI's event model: the sheet's XML is parsed with SAX and only the current row is
+ * held in memory, instead of the whole workbook as with {@code XSSFWorkbook}. Only the shared strings table,
+ * which holds each distinct text once, is loaded. The upload is copied to a temporary file first, since
+ * opening a package from a stream would unzip all of it into memory.
+ */
+@Component
+public class ExcelReaderImpl implements ExcelReader {
+
+    // Excel shows, and keeps in formulas, up to 15 significant digits of its doubles
+    static final MathContext EXCEL_PRECISION = new MathContext(15);
+
+    @Override
+    public void read(InputStream is, List<String> requiredHeaders, Consumer<ImportRow> rowConsumer) throws IOException {
+        var file = Files.createTempFile("import-", ".xlsx");
+
+        try {
+            Files.copy(is, file, StandardCopyOption.REPLACE_EXISTING);
+            readFile(file, requiredHeaders, rowConsumer);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void readFile(Path file, List<String> requiredHeaders, Consumer<ImportRow> rowConsumer)
+            throws IOException {
+        OPCPackage opcPackage;
+        try {
+            opcPackage = OPCPackage.open(file.toFile(), PackageAccess.READ);
+        } catch (InvalidOperationException | UnsupportedFileFormatException | OpenXML4JException e) {
+            throw new InvalidImportFileException("Invalid Excel file: " + e.getMessage());
+        }
+
+        try {
+            var sheets = new XSSFReader(opcPackage).getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new InvalidImportFileException("Invalid Excel file: the workbook has no sheets");
+            }
+
+            var handler = new SheetHandler(new ReadOnlySharedStringsTable(opcPackage), requiredHeaders, rowConsumer);
+            try (var sheet = sheets.next()) {
+                var xmlReader = XMLHelper.newXMLReader();
+                xmlReader.setContentHandler(handler);
+                xmlReader.parse(new InputSource(sheet));
+            }
+        } catch (OpenXML4JException | SAXException e) {
+            throw new InvalidImportFileException("Invalid Excel file: " + e.getMessage());
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Couldn't create an XML parser", e);
+        } finally {
+            // Closing a package saves it, reverting just releases it
+            opcPackage.revert();
+        }
+    }
+
+    /**
+     * Collects the values of a row's cells, found by their column. Text can be a shared string, inline or the
+     * result of a formula. Numbers are rounded to Excel's precision and written without exponent nor trailing
+     * zeros, so 20 and 49.99 read as such rather than as 20.0 and 49.990000000000002.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static class SheetHandler extends DefaultHandler {
+
+        final ReadOnlySharedStringsTable sharedStrings;
+        final List<String> requiredHeaders;
+        final Consumer<ImportRow> rowConsumer;
+        final Map<Integer, String> values = new HashMap<>();
+        final StringBuilder value = new StringBuilder();
+
+        Map<Integer, String> headers;
+        long rowNumber;
+        int column;
+        String cellType;
+        boolean inValue;
+
+        SheetHandler(ReadOnlySharedStringsTable sharedStrings, List<String> requiredHeaders,
+                     Consumer<ImportRow> rowConsumer) {
+            this.sharedStrings = sharedStrings;
+            this.requiredHeaders = requiredHeaders;
+            this.rowConsumer = rowConsumer;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    var reference = attributes.getValue("r");
+                    rowNumber = reference == null ? rowNumber + 1 : Long.parseLong(reference);
+                    column = -1;
+                    values.clear();
+                    break;
+                case "c":
+                    var cellReference = attributes.getValue("r");
+                    column = cellReference == null ? column + 1 : new CellReference(cellReference).getCol();
+                    cellType = attributes.getValue("t");
+                    value.setLength(0);
+                    break;
+                case "v":
+                case "t":
+                    inValue = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) {
+                value.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v":
+                case "t":
+                    inValue = false;
+                    break;
+                case "c":
+                    var text = toText(cellType, value.toString()).trim();
+                    if (!text.isEmpty()) {
+                        values.put(column, text);
+                    }
+                    break;
+                case "row":
+                    endRow();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void endDocument() {
+            if (headers == null) {
+                checkRequiredHeaders(Map.of());
+            }
+        }
+
+        private void endRow() {
+            if (values.isEmpty()) {
+                return;
+            }
+
+            if (headers == null) {
+                headers = new HashMap<>();
+                values.forEach((index, header) -> headers.put(index, header.toLowerCase(Locale.ROOT)));
+                checkRequiredHeaders(headers);
+                return;
+            }
+
+            var row = new HashMap<String, String>();
+            values.forEach((index, text) -> {
+                var header = headers.get(index);
+                if (header != null) {
+                    row.put(header, text);
+                }
+            });
+
+            if (!row.isEmpty()) {
+                rowConsumer.accept(new ImportRow(rowNumber, row));
+            }
+        }
+
+        private void checkRequiredHeaders(Map<Integer, String> presentHeaders) {
+            var missingHeaders = requiredHeaders.stream()
+                    .filter(header -> !presentHeaders.containsValue(header.toLowerCase(Locale.ROOT)))
+                    .collect(joining(", "));
+
+            if (!missingHeaders.isEmpty()) {
+                throw new InvalidImportFileException("Missing columns: " + missingHeaders);
+            }
+        }
+
+        private String toText(String type, String raw) {
+            if (type == null || "n".equals(type)) {
+                return toPlainNumber(raw);
+            }
+            if ("s".equals(type)) {
+                return sharedStrings.getItemAt(Integer.parseInt(raw)).getString();
+            }
+            return raw;
+        }
+
+        private static String toPlainNumber(String raw) {
+            try {
+                return new BigDecimal(raw).round(EXCEL_PRECISION).stripTrailingZeros().toPlainString();
+            } catch (NumberFormatException e) {
+                return raw;
+            }
+        }
+    }
+}
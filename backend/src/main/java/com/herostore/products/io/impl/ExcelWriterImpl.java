@@ -1,130 +1,164 @@
 package com.herostore.products.io.impl;
 
 import com.herostore.products.io.ExcelWriter;
+import com.herostore.products.io.ExcelWriterSession;
 import com.herostore.products.io.WorkbookData;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.IndexedColors;
-import org.apache.poi.xssf.usermodel.XSSFCell;
-import org.apache.poi.xssf.usermodel.XSSFCellStyle;
-import org.apache.poi.xssf.usermodel.XSSFFont;
-import org.apache.poi.xssf.usermodel.XSSFRow;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.lang.reflect.Method;
 import java.math.BigDecimal;
-import java.util.List;
+import java.time.LocalDateTime;
 
 import static com.herostore.products.utils.ClassUtils.extractMethod;
 import static com.herostore.products.utils.ClassUtils.invokeMethod;
 
 @Component
-@FieldDefaults(level = AccessLevel.PRIVATE)
 public class ExcelWriterImpl implements ExcelWriter {
 
-    WorkbookData workbookData;
+    static final int ROW_ACCESS_WINDOW_SIZE = 100;
+    static final String DATE_TIME_FORMAT = "yyyy-mm-dd hh:mm:ss";
 
-    public ExcelWriter withData(WorkbookData workbookData) {
-        this.workbookData = workbookData;
-        return new ExcelWriterImpl();
+    /**
+     * Rows are written through a {@link SXSSFWorkbook}, which keeps only the last
+     * {@value #ROW_ACCESS_WINDOW_SIZE} rows in memory and flushes older ones to a compressed temporary
+     * file, so heap usage doesn't grow with the amount of elements.
+     */
+    @Override
+    public <T> ExcelWriterSession<T> openSession(OutputStream os, WorkbookData workbookData) {
+        return new WorkbookSession<>(os, workbookData);
     }
 
-    @Override
-    public <T> void writeWorkbook(OutputStream os, List<T> elements) throws IOException {
-        try (var workbook = new XSSFWorkbook()) {
-            var sheet = workbook.createSheet(workbookData.getSheetName());
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static class WorkbookSession<T> implements ExcelWriterSession<T> {
 
-            defineColumns(sheet);
+        final OutputStream os;
+        final WorkbookData workbookData;
+        final SXSSFWorkbook workbook;
+        final Sheet sheet;
+        final CellStyle style;
+        final CellStyle dateTimeStyle;
 
-            var header = createHeader(sheet);
-            var headerStyle = createHeaderStyle(workbook);
-            var headerFont = createHeaderFont(workbook);
-            headerStyle.setFont(headerFont);
+        Method[] getters;
+        int rowCounter = 2;
 
-            addHeaders(header, headerStyle);
+        WorkbookSession(OutputStream os, WorkbookData workbookData) {
+            this.os = os;
+            this.workbookData = workbookData;
+            this.workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW_SIZE);
+            this.workbook.setCompressTempFiles(true);
+            this.sheet = workbook.createSheet(workbookData.getSheetName());
 
-            writeData(workbook, sheet, elements);
+            defineColumns();
+            addHeaders();
 
-            workbook.write(os);
-        }
-    }
+            this.style = workbook.createCellStyle();
+            this.style.setWrapText(true);
 
-    private void defineColumns(XSSFSheet sheet) {
-        for (var i = 0; i < workbookData.getColumnWidths().length; i++) {
-            sheet.setColumnWidth(i, workbookData.getColumnWidths()[i]);
+            this.dateTimeStyle = workbook.createCellStyle();
+            this.dateTimeStyle.cloneStyleFrom(style);
+            this.dateTimeStyle.setDataFormat(workbook.createDataFormat().getFormat(DATE_TIME_FORMAT));
         }
-    }
 
-    private XSSFRow createHeader(XSSFSheet sheet) {
-        return sheet.createRow(1);
-    }
+        @Override
+        public void writeRow(T item) {
+            if (getters == null) {
+                getters = extractGetters(item.getClass());
+            }
 
-    private XSSFCellStyle createHeaderStyle(XSSFWorkbook workbook) {
-        var headerStyle = workbook.createCellStyle();
-        headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        return headerStyle;
-    }
+            var row = sheet.createRow(rowCounter);
 
-    private XSSFFont createHeaderFont(XSSFWorkbook workbook) {
-        var font = workbook.createFont();
-        font.setFontName(workbookData.getHeaderFontName());
-        font.setFontHeightInPoints((short) workbookData.getHeaderFontHeight());
-        font.setBold(workbookData.isBoldHeaderFont());
-        return font;
-    }
+            for (var columnCounter = 0; columnCounter < getters.length; columnCounter++) {
+                var cell = row.createCell(columnCounter);
+                var value = invokeMethod(getters[columnCounter], item);
+
+                cell.setCellStyle(value instanceof LocalDateTime ? dateTimeStyle : style);
+                writeValueToCell(cell, value);
+            }
 
-    private void addHeaders(XSSFRow header, XSSFCellStyle headerStyle) {
-        for (var i = 0; i < workbookData.getHeaders().length; i++) {
-            var headerCell = header.createCell(i);
-            headerCell.setCellValue(workbookData.getHeaders()[i]);
-            headerCell.setCellStyle(headerStyle);
+            rowCounter++;
         }
-    }
 
-    private <T> void writeData(XSSFWorkbook workbook, XSSFSheet sheet, List<T> data) {
-        var style = workbook.createCellStyle();
-        style.setWrapText(true);
+        @Override
+        public void finish() throws IOException {
+            workbook.write(os);
+        }
 
-        var clazz = data.get(0).getClass();
+        @Override
+        public void close() throws IOException {
+            workbook.dispose();
+            workbook.close();
+        }
 
-        var rowCounter = 2;
+        private void defineColumns() {
+            for (var i = 0; i < workbookData.getColumnWidths().length; i++) {
+                sheet.setColumnWidth(i, workbookData.getColumnWidths()[i]);
+            }
+        }
 
-        for (var item : data) {
-            var columnCounter = 0;
-            var row = sheet.createRow(rowCounter);
+        private void addHeaders() {
+            var header = sheet.createRow(1);
+            var headerStyle = createHeaderStyle();
 
-            for (var fieldName : workbookData.getFields()) {
-                var cell = row.createCell(columnCounter);
-                cell.setCellStyle(style);
+            for (var i = 0; i < workbookData.getHeaders().length; i++) {
+                var headerCell = header.createCell(i);
+                headerCell.setCellValue(workbookData.getHeaders()[i]);
+                headerCell.setCellStyle(headerStyle);
+            }
+        }
 
-                var method = extractMethod(clazz, fieldName);
-                var value = invokeMethod(method, item);
-                writeValueToCell(cell, value);
+        private CellStyle createHeaderStyle() {
+            var headerStyle = workbook.createCellStyle();
+            headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            headerStyle.setFont(createHeaderFont());
+            return headerStyle;
+        }
+
+        private Font createHeaderFont() {
+            var font = workbook.createFont();
+            font.setFontName(workbookData.getHeaderFontName());
+            font.setFontHeightInPoints((short) workbookData.getHeaderFontHeight());
+            font.setBold(workbookData.isBoldHeaderFont());
+            return font;
+        }
+
+        private Method[] extractGetters(Class<?> clazz) {
+            var fields = workbookData.getFields();
+            var result = new Method[fields.length];
 
-                columnCounter++;
+            for (var i = 0; i < fields.length; i++) {
+                result[i] = extractMethod(clazz, fields[i]);
             }
 
-            rowCounter++;
+            return result;
         }
-    }
 
-    private void writeValueToCell(XSSFCell cell, Object value) {
-        if (value != null) {
-            if (value instanceof String) {
-                cell.setCellValue((String) value);
-            } else if (value instanceof Long) {
-                cell.setCellValue((Long) value);
-            } else if (value instanceof Integer) {
-                cell.setCellValue((Integer) value);
-            } else if (value instanceof Double) {
-                cell.setCellValue((Double) value);
-            } else if (value instanceof BigDecimal) {
-                cell.setCellValue(((BigDecimal) value).doubleValue());
+        private static void writeValueToCell(Cell cell, Object value) {
+            if (value != null) {
+                if (value instanceof String) {
+                    cell.setCellValue((String) value);
+                } else if (value instanceof Long) {
+                    cell.setCellValue((Long) value);
+                } else if (value instanceof Integer) {
+                    cell.setCellValue((Integer) value);
+                } else if (value instanceof Double) {
+                    cell.setCellValue((Double) value);
+                } else if (value instanceof BigDecimal) {
+                    cell.setCellValue(((BigDecimal) value).doubleValue());
+                } else if (value instanceof LocalDateTime) {
+                    cell.setCellValue((LocalDateTime) value);
+                }
             }
         }
     }
@@ -0,0 +1,100 @@
+package com.herostore.products.io.impl;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.herostore.products.io.NDJSONWriter;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.stream.Stream;
+
+import static com.herostore.products.utils.ClassUtils.extractMethod;
+import static com.herostore.products.utils.ClassUtils.invokeMethod;
+
+/**
+ * Writes objects with the application's object mapper, so values other than strings and numbers (such as
+ * dates) look the same as in the API responses.
+ */
+@Component
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class NDJSONWriterImpl implements NDJSONWriter {
+
+    static SerializableString LINE_SEPARATOR = new SerializedString("\n");
+
+    ObjectMapper objectMapper;
+
+    @Override
+    public <T> void write(OutputStream os, String[] keys, String[] fieldNames, Stream<T> elements) throws IOException {
+        var names = new SerializableString[keys.length];
+        for (var i = 0; i < keys.length; i++) {
+            names[i] = new SerializedString(keys[i]);
+        }
+
+        try (var generator = objectMapper.getFactory().createGenerator(os, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+            generator.setRootValueSeparator(LINE_SEPARATOR);
+
+            var iterator = elements.iterator();
+            Method[] getters = null;
+            var lines = 0L;
+
+            while (iterator.hasNext()) {
+                var element = iterator.next();
+
+                if (getters == null) {
+                    getters = extractGetters(element.getClass(), fieldNames);
+                }
+
+                generator.writeStartObject();
+                for (var i = 0; i < getters.length; i++) {
+                    generator.writeFieldName(names[i]);
+                    writeValue(generator, invokeMethod(getters[i], element));
+                }
+                generator.writeEndObject();
+                lines++;
+            }
+
+            // The separator only goes between objects, so the last line is terminated here
+            if (lines > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+
+        os.flush();
+    }
+
+    private static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof String) {
+            generator.writeString((String) value);
+        } else if (value instanceof Long || value instanceof Integer) {
+            generator.writeNumber(((Number) value).longValue());
+        } else if (value instanceof BigDecimal) {
+            generator.writeNumber((BigDecimal) value);
+        } else {
+            generator.writeObject(value);
+        }
+    }
+
+    private static Method[] extractGetters(Class<?> clazz, String[] fieldNames) {
+        var getters = new Method[fieldNames.length];
+
+        for (var i = 0; i < fieldNames.length; i++) {
+            getters[i] = extractMethod(clazz, fieldNames[i]);
+        }
+
+        return getters;
+    }
+}
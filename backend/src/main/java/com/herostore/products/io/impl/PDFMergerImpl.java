@@ -0,0 +1,86 @@
+package com.herostore.products.io.impl;
+
+import com.herostore.products.exception.ServiceException;
+import com.herostore.products.io.PDFMerger;
+import com.herostore.products.io.PDFMergerSession;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.pdf.PdfCopy;
+import com.itextpdf.text.pdf.PdfReader;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+@Component
+public class PDFMergerImpl implements PDFMerger {
+
+    static Logger logger = LoggerFactory.getLogger(PDFMergerImpl.class.getName());
+
+    @Override
+    public PDFMergerSession openSession(OutputStream outputStream) {
+        var document = new Document();
+        PdfCopy copy;
+
+        try {
+            copy = new PdfCopy(document, outputStream);
+        } catch (DocumentException e) {
+            logger.error("Couldn't open merged PDF document", e);
+            throw new ServiceException("Couldn't open merged PDF document", e);
+        }
+
+        document.open();
+        return new MergedDocumentSession(document, copy);
+    }
+
+    /**
+     * Pages are imported one by one and each source document is released as soon as it has been copied,
+     * so only the document being appended is held in memory.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class MergedDocumentSession implements PDFMergerSession {
+
+        Document document;
+        PdfCopy copy;
+
+        MergedDocumentSession(Document document, PdfCopy copy) {
+            this.document = document;
+            this.copy = copy;
+        }
+
+        @Override
+        public void append(Path source) {
+            PdfReader reader = null;
+
+            try {
+                reader = new PdfReader(source.toString());
+
+                for (var page = 1; page <= reader.getNumberOfPages(); page++) {
+                    copy.addPage(copy.getImportedPage(reader, page));
+                }
+
+                copy.freeReader(reader);
+                copy.flush();
+            } catch (IOException | DocumentException e) {
+                logger.error("Couldn't append {} to merged PDF document", source, e);
+                throw new ServiceException("Couldn't append PDF document to merged document", e);
+            } finally {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            if (document.isOpen()) {
+                document.close();
+            }
+        }
+    }
+}
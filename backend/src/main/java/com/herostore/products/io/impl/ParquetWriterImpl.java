@@ -0,0 +1,546 @@
+package com.herostore.products.io.impl;
+
+import com.herostore.products.io.ParquetColumn;
+import com.herostore.products.io.ParquetWriter;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.herostore.products.utils.ClassUtils.extractMethod;
+import static com.herostore.products.utils.ClassUtils.invokeMethod;
+
+/**
+ * Writes Parquet files (format version 1) without Hadoop. Each row group holds up to {@value #ROW_GROUP_SIZE}
+ * rows and a single gzip compressed page per column. Text columns are dictionary encoded per row group, null
+ * values are stored as definition levels and numeric columns carry min/max statistics, so readers can skip
+ * row groups when filtering.
+ */
+@Component
+public class ParquetWriterImpl implements ParquetWriter {
+
+    static final int ROW_GROUP_SIZE = 64 * 1024;
+    static final int INITIAL_BUFFER_SIZE = 1024;
+    static final byte[] MAGIC = {'P', 'A', 'R', '1'};
+    static final String CREATED_BY = "hero-store";
+
+    // Values of the format's Thrift enums
+    static final int TYPE_INT32 = 1;
+    static final int TYPE_INT64 = 2;
+    static final int TYPE_BYTE_ARRAY = 6;
+    static final int REPETITION_OPTIONAL = 1;
+    static final int CONVERTED_TYPE_UTF8 = 0;
+    static final int CONVERTED_TYPE_DECIMAL = 5;
+    static final int ENCODING_PLAIN = 0;
+    static final int ENCODING_RLE = 3;
+    static final int ENCODING_RLE_DICTIONARY = 8;
+    static final int CODEC_GZIP = 2;
+    static final int PAGE_DATA = 0;
+    static final int PAGE_DICTIONARY = 2;
+
+    @Override
+    public <T> void write(OutputStream os, List<ParquetColumn> columns, Stream<T> elements) throws IOException {
+        var file = new ParquetFile(os, columns);
+        var iterator = elements.iterator();
+        Method[] getters = null;
+
+        while (iterator.hasNext()) {
+            var element = iterator.next();
+
+            if (getters == null) {
+                getters = extractGetters(element.getClass(), columns);
+            }
+
+            file.writeRow(element, getters);
+        }
+
+        file.finish();
+    }
+
+    private static Method[] extractGetters(Class<?> clazz, List<ParquetColumn> columns) {
+        var getters = new Method[columns.size()];
+
+        for (var i = 0; i < getters.length; i++) {
+            getters[i] = extractMethod(clazz, columns.get(i).getField());
+        }
+
+        return getters;
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static class ParquetFile {
+
+        final OutputStream os;
+        final List<ParquetColumn> columns;
+        final ColumnBuffer[] buffers;
+        final List<byte[]> rowGroups = new ArrayList<>();
+        final ThriftCompactWriter thrift = new ThriftCompactWriter();
+
+        long position;
+        long rows;
+        int rowGroupRows;
+
+        ParquetFile(OutputStream os, List<ParquetColumn> columns) throws IOException {
+            this.os = os;
+            this.columns = columns;
+            this.buffers = columns.stream().map(ColumnBuffer::new).toArray(ColumnBuffer[]::new);
+
+            write(MAGIC);
+        }
+
+        <T> void writeRow(T element, Method[] getters) throws IOException {
+            for (var i = 0; i < buffers.length; i++) {
+                buffers[i].add(invokeMethod(getters[i], element));
+            }
+
+            rows++;
+            if (++rowGroupRows == ROW_GROUP_SIZE) {
+                writeRowGroup();
+            }
+        }
+
+        void finish() throws IOException {
+            if (rowGroupRows > 0) {
+                writeRowGroup();
+            }
+
+            var footer = fileMetadata();
+            write(footer);
+            write(new byte[]{(byte) footer.length, (byte) (footer.length >>> 8), (byte) (footer.length >>> 16),
+                    (byte) (footer.length >>> 24)});
+            write(MAGIC);
+            os.flush();
+        }
+
+        /**
+         * Writes the buffered column chunks and keeps the row group's metadata, encoded, for the footer.
+         */
+        private void writeRowGroup() throws IOException {
+            var rowGroupOffset = position;
+            var chunks = new ArrayList<byte[]>(buffers.length);
+            var uncompressedSize = 0L;
+
+            for (var buffer : buffers) {
+                var chunk = writeColumnChunk(buffer);
+                uncompressedSize += chunk.uncompressedSize;
+                chunks.add(chunk.metadata);
+                buffer.reset();
+            }
+
+            thrift.beginList(1, ThriftCompactWriter.TYPE_STRUCT, chunks.size());
+            for (var chunk : chunks) {
+                thrift.listEncodedStruct(chunk);
+            }
+            thrift.i64(2, uncompressedSize)
+                    .i64(3, rowGroupRows)
+                    .i64(5, rowGroupOffset)
+                    .i64(6, position - rowGroupOffset)
+                    .endStruct();
+
+            rowGroups.add(thrift.toByteArray());
+            rowGroupRows = 0;
+        }
+
+        private ColumnChunk writeColumnChunk(ColumnBuffer buffer) throws IOException {
+            var column = buffer.column;
+            var chunkOffset = position;
+            var uncompressedSize = 0L;
+            Long dictionaryPageOffset = null;
+
+            if (column.getType() == ParquetColumn.Type.STRING) {
+                dictionaryPageOffset = position;
+                uncompressedSize += writeDictionaryPage(buffer);
+            }
+
+            var dataPageOffset = position;
+            uncompressedSize += writeDataPage(buffer);
+
+            // ColumnChunk, with its ColumnMetaData
+            thrift.beginListStruct()
+                    .i64(2, chunkOffset)
+                    .beginStruct(3)
+                    .i32(1, physicalType(column));
+
+            if (dictionaryPageOffset != null) {
+                thrift.beginList(2, ThriftCompactWriter.TYPE_I32, 3)
+                        .listI32(ENCODING_PLAIN)
+                        .listI32(ENCODING_RLE)
+                        .listI32(ENCODING_RLE_DICTIONARY);
+            } else {
+                thrift.beginList(2, ThriftCompactWriter.TYPE_I32, 2)
+                        .listI32(ENCODING_PLAIN)
+                        .listI32(ENCODING_RLE);
+            }
+
+            thrift.beginList(3, ThriftCompactWriter.TYPE_BINARY, 1)
+                    .listString(column.getName())
+                    .i32(4, CODEC_GZIP)
+                    .i64(5, buffer.rows)
+                    .i64(6, uncompressedSize)
+                    .i64(7, position - chunkOffset)
+                    .i64(9, dataPageOffset);
+
+            if (dictionaryPageOffset != null) {
+                thrift.i64(11, dictionaryPageOffset);
+            }
+
+            writeStatistics(buffer);
+
+            thrift.endStruct().endStruct();
+
+            var chunk = new ColumnChunk();
+            chunk.metadata = thrift.toByteArray();
+            chunk.uncompressedSize = uncompressedSize;
+            return chunk;
+        }
+
+        private void writeStatistics(ColumnBuffer buffer) {
+            thrift.beginStruct(12).i64(3, buffer.rows - buffer.values);
+
+            if (buffer.values > 0 && buffer.column.getType() != ParquetColumn.Type.STRING) {
+                var size = physicalType(buffer.column) == TYPE_INT32 ? 4 : 8;
+                thrift.binary(5, littleEndian(buffer.max, size))
+                        .binary(6, littleEndian(buffer.min, size));
+            }
+
+            thrift.endStruct();
+        }
+
+        private long writeDictionaryPage(ColumnBuffer buffer) throws IOException {
+            var body = new ByteArrayOutputStream();
+            for (var value : buffer.dictionaryValues) {
+                writeInt(body, value.length);
+                body.write(value);
+            }
+
+            return writePage(PAGE_DICTIONARY, body.toByteArray(), () -> thrift.beginStruct(7)
+                    .i32(1, buffer.dictionaryValues.size())
+                    .i32(2, ENCODING_PLAIN)
+                    .endStruct());
+        }
+
+        private long writeDataPage(ColumnBuffer buffer) throws IOException {
+            var body = new ByteArrayOutputStream();
+
+            var definitionLevels = new ByteArrayOutputStream();
+            encodeRleBitPacked(buffer.definitionLevels, buffer.rows, 1, definitionLevels);
+            writeInt(body, definitionLevels.size());
+            definitionLevels.writeTo(body);
+
+            var encoding = ENCODING_PLAIN;
+            switch (buffer.column.getType()) {
+                case STRING:
+                    var bitWidth = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(0, buffer.dictionaryValues.size() - 1)));
+                    body.write(bitWidth);
+                    encodeRleBitPacked(buffer.indices, buffer.values, bitWidth, body);
+                    encoding = ENCODING_RLE_DICTIONARY;
+                    break;
+                case INT32:
+                    for (var i = 0; i < buffer.values; i++) {
+                        writeInt(body, (int) buffer.longs[i]);
+                    }
+                    break;
+                default:
+                    for (var i = 0; i < buffer.values; i++) {
+                        body.write(littleEndian(buffer.longs[i], 8));
+                    }
+            }
+
+            var pageEncoding = encoding;
+            return writePage(PAGE_DATA, body.toByteArray(), () -> thrift.beginStruct(5)
+                    .i32(1, buffer.rows)
+                    .i32(2, pageEncoding)
+                    .i32(3, ENCODING_RLE)
+                    .i32(4, ENCODING_RLE)
+                    .endStruct());
+        }
+
+        /**
+         * Writes a page header, whose type specific header is written by the given callback, followed by the
+         * compressed body. Returns the page's uncompressed size, header included.
+         */
+        private long writePage(int pageType, byte[] body, Runnable typeHeader) throws IOException {
+            var compressed = new ByteArrayOutputStream(body.length / 2);
+            try (var gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(body);
+            }
+
+            thrift.i32(1, pageType)
+                    .i32(2, body.length)
+                    .i32(3, compressed.size());
+            typeHeader.run();
+            var header = thrift.endStruct().toByteArray();
+
+            write(header);
+            write(compressed.toByteArray());
+
+            return header.length + body.length;
+        }
+
+        private byte[] fileMetadata() {
+            thrift.i32(1, 1)
+                    .beginList(2, ThriftCompactWriter.TYPE_STRUCT, columns.size() + 1)
+                    .beginListStruct()
+                    .string(4, "schema")
+                    .i32(5, columns.size())
+                    .endStruct();
+
+            for (var column : columns) {
+                writeSchemaElement(column);
+            }
+
+            thrift.i64(3, rows)
+                    .beginList(4, ThriftCompactWriter.TYPE_STRUCT, rowGroups.size());
+            for (var rowGroup : rowGroups) {
+                thrift.listEncodedStruct(rowGroup);
+            }
+
+            return thrift.string(6, CREATED_BY)
+                    .endStruct()
+                    .toByteArray();
+        }
+
+        private void writeSchemaElement(ParquetColumn column) {
+            thrift.beginListStruct()
+                    .i32(1, physicalType(column))
+                    .i32(3, REPETITION_OPTIONAL)
+                    .string(4, column.getName());
+
+            switch (column.getType()) {
+                case STRING:
+                    thrift.i32(6, CONVERTED_TYPE_UTF8)
+                            .beginStruct(10).beginStruct(1).endStruct().endStruct();
+                    break;
+                case DECIMAL:
+                    thrift.i32(6, CONVERTED_TYPE_DECIMAL)
+                            .i32(7, column.getScale())
+                            .i32(8, column.getPrecision())
+                            .beginStruct(10).beginStruct(5)
+                            .i32(1, column.getScale())
+                            .i32(2, column.getPrecision())
+                            .endStruct().endStruct();
+                    break;
+                case TIMESTAMP:
+                    // Local date times have no converted type: TIMESTAMP_MILLIS means adjusted to UTC
+                    thrift.beginStruct(10).beginStruct(8)
+                            .bool(1, false)
+                            .beginStruct(2).beginStruct(1).endStruct().endStruct()
+                            .endStruct().endStruct();
+                    break;
+                default:
+                    break;
+            }
+
+            thrift.endStruct();
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            os.write(bytes);
+            position += bytes.length;
+        }
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static class ColumnChunk {
+        byte[] metadata;
+        long uncompressedSize;
+    }
+
+    /**
+     * Values of a column in the current row group. Numbers, decimals and date times are kept as longs; text is
+     * kept as indexes of the row group's dictionary.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static class ColumnBuffer {
+
+        final ParquetColumn column;
+        final boolean text;
+        final Map<String, Integer> dictionary;
+        final List<byte[]> dictionaryValues;
+
+        int[] definitionLevels = new int[INITIAL_BUFFER_SIZE];
+        long[] longs;
+        int[] indices;
+
+        int rows;
+        int values;
+        long min;
+        long max;
+
+        ColumnBuffer(ParquetColumn column) {
+            this.column = column;
+            this.text = column.getType() == ParquetColumn.Type.STRING;
+            this.longs = text ? null : new long[INITIAL_BUFFER_SIZE];
+            this.indices = text ? new int[INITIAL_BUFFER_SIZE] : null;
+            this.dictionary = text ? new HashMap<>() : null;
+            this.dictionaryValues = text ? new ArrayList<>() : null;
+        }
+
+        void add(Object value) {
+            if (rows == definitionLevels.length) {
+                grow();
+            }
+
+            if (value == null) {
+                definitionLevels[rows++] = 0;
+                return;
+            }
+
+            definitionLevels[rows++] = 1;
+
+            if (text) {
+                indices[values++] = dictionary.computeIfAbsent(value.toString(), text -> {
+                    dictionaryValues.add(text.getBytes(StandardCharsets.UTF_8));
+                    return dictionaryValues.size() - 1;
+                });
+                return;
+            }
+
+            var number = toLong(value);
+            min = values == 0 ? number : Math.min(min, number);
+            max = values == 0 ? number : Math.max(max, number);
+            longs[values++] = number;
+        }
+
+        /**
+         * Buffers start small, so that small exports don't allocate whole row groups, and double up to the
+         * row group size.
+         */
+        private void grow() {
+            var size = Math.min(definitionLevels.length * 2, ROW_GROUP_SIZE);
+
+            definitionLevels = Arrays.copyOf(definitionLevels, size);
+            if (text) {
+                indices = Arrays.copyOf(indices, size);
+            } else {
+                longs = Arrays.copyOf(longs, size);
+            }
+        }
+
+        void reset() {
+            rows = 0;
+            values = 0;
+            if (text) {
+                dictionary.clear();
+                dictionaryValues.clear();
+            }
+        }
+
+        private long toLong(Object value) {
+            switch (column.getType()) {
+                case DECIMAL:
+                    return ((BigDecimal) value).setScale(column.getScale(), RoundingMode.HALF_UP)
+                            .unscaledValue()
+                            .longValueExact();
+                case TIMESTAMP:
+                    return ((LocalDateTime) value).toInstant(ZoneOffset.UTC).toEpochMilli();
+                case INT32:
+                    return ((Number) value).intValue();
+                default:
+                    return ((Number) value).longValue();
+            }
+        }
+    }
+
+    private static int physicalType(ParquetColumn column) {
+        switch (column.getType()) {
+            case INT32:
+                return TYPE_INT32;
+            case STRING:
+                return TYPE_BYTE_ARRAY;
+            default:
+                return TYPE_INT64;
+        }
+    }
+
+    /**
+     * Encodes values with Parquet's RLE/bit-packing hybrid: runs of at least 8 repeated values are run-length
+     * encoded and the rest are bit-packed in groups of 8. Only the last group may be padded, since readers know
+     * how many values to expect.
+     */
+    static void encodeRleBitPacked(int[] values, int count, int bitWidth, ByteArrayOutputStream out) {
+        var byteWidth = (bitWidth + 7) / 8;
+        var i = 0;
+
+        while (i < count) {
+            var run = runLength(values, i, count);
+
+            if (run >= 8 || i + run == count) {
+                writeUnsignedVarint(out, (long) run << 1);
+                for (var b = 0; b < byteWidth; b++) {
+                    out.write(values[i] >>> b * 8);
+                }
+                i += run;
+                continue;
+            }
+
+            var start = i;
+            var groups = 0;
+            do {
+                groups++;
+                i += 8;
+            } while (i < count && runLength(values, i, Math.min(count, i + 8)) < 8);
+
+            writeUnsignedVarint(out, (long) groups << 1 | 1);
+
+            var packed = 0L;
+            var packedBits = 0;
+            for (var v = start; v < start + groups * 8; v++) {
+                packed |= (long) (v < count ? values[v] : 0) << packedBits;
+                packedBits += bitWidth;
+                while (packedBits >= 8) {
+                    out.write((int) packed);
+                    packed >>>= 8;
+                    packedBits -= 8;
+                }
+            }
+        }
+    }
+
+    private static int runLength(int[] values, int start, int end) {
+        var run = 1;
+        while (start + run < end && values[start + run] == values[start]) {
+            run++;
+        }
+        return run;
+    }
+
+    private static void writeUnsignedVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+    private static byte[] littleEndian(long value, int size) {
+        var bytes = new byte[size];
+        for (var i = 0; i < size; i++) {
+            bytes[i] = (byte) (value >>> i * 8);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,153 @@
+package com.herostore.products.io.impl;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Writes structs with Thrift's compact protocol, the encoding of Parquet's page headers and file metadata.
+ * Fields are written in the order they're given; a struct is finished with {@link #endStruct()}.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ThriftCompactWriter {
+
+    static final byte TYPE_STOP = 0;
+    static final byte TYPE_BOOLEAN_TRUE = 1;
+    static final byte TYPE_BOOLEAN_FALSE = 2;
+    static final byte TYPE_I32 = 5;
+    static final byte TYPE_I64 = 6;
+    static final byte TYPE_BINARY = 8;
+    static final byte TYPE_LIST = 9;
+    static final byte TYPE_STRUCT = 12;
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+    final Deque<Integer> enclosingFieldIds = new ArrayDeque<>();
+    int lastFieldId;
+
+    ThriftCompactWriter bool(int fieldId, boolean value) {
+        writeFieldHeader(fieldId, value ? TYPE_BOOLEAN_TRUE : TYPE_BOOLEAN_FALSE);
+        return this;
+    }
+
+    ThriftCompactWriter i32(int fieldId, int value) {
+        writeFieldHeader(fieldId, TYPE_I32);
+        writeVarint(zigzag(value));
+        return this;
+    }
+
+    ThriftCompactWriter i64(int fieldId, long value) {
+        writeFieldHeader(fieldId, TYPE_I64);
+        writeVarint(zigzag(value));
+        return this;
+    }
+
+    ThriftCompactWriter string(int fieldId, String value) {
+        return binary(fieldId, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    ThriftCompactWriter binary(int fieldId, byte[] value) {
+        writeFieldHeader(fieldId, TYPE_BINARY);
+        writeBinary(value);
+        return this;
+    }
+
+    /**
+     * Starts a struct field. Its fields follow, up to the matching {@link #endStruct()}.
+     */
+    ThriftCompactWriter beginStruct(int fieldId) {
+        writeFieldHeader(fieldId, TYPE_STRUCT);
+        return beginListStruct();
+    }
+
+    /**
+     * Starts a list field whose elements, as many as the given size, follow.
+     */
+    ThriftCompactWriter beginList(int fieldId, byte elementType, int size) {
+        writeFieldHeader(fieldId, TYPE_LIST);
+
+        if (size < 15) {
+            out.write(size << 4 | elementType);
+        } else {
+            out.write(0xF0 | elementType);
+            writeVarint(size);
+        }
+        return this;
+    }
+
+    /**
+     * Starts a struct element of a list.
+     */
+    ThriftCompactWriter beginListStruct() {
+        enclosingFieldIds.push(lastFieldId);
+        lastFieldId = 0;
+        return this;
+    }
+
+    ThriftCompactWriter listI32(int value) {
+        writeVarint(zigzag(value));
+        return this;
+    }
+
+    ThriftCompactWriter listString(String value) {
+        writeBinary(value.getBytes(StandardCharsets.UTF_8));
+        return this;
+    }
+
+    /**
+     * Writes a struct element of a list that was encoded on its own, with a different writer.
+     */
+    ThriftCompactWriter listEncodedStruct(byte[] struct) {
+        out.write(struct, 0, struct.length);
+        return this;
+    }
+
+    ThriftCompactWriter endStruct() {
+        out.write(TYPE_STOP);
+        lastFieldId = enclosingFieldIds.isEmpty() ? 0 : enclosingFieldIds.pop();
+        return this;
+    }
+
+    /**
+     * Returns the bytes written so far and starts over.
+     */
+    byte[] toByteArray() {
+        var bytes = out.toByteArray();
+        out.reset();
+        enclosingFieldIds.clear();
+        lastFieldId = 0;
+        return bytes;
+    }
+
+    private void writeFieldHeader(int fieldId, byte type) {
+        var delta = fieldId - lastFieldId;
+
+        if (delta > 0 && delta <= 15) {
+            out.write(delta << 4 | type);
+        } else {
+            out.write(type);
+            writeVarint(zigzag(fieldId));
+        }
+        lastFieldId = fieldId;
+    }
+
+    private void writeBinary(byte[] value) {
+        writeVarint(value.length);
+        out.write(value, 0, value.length);
+    }
+
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+}
@@ -0,0 +1,19 @@
+package com.herostore.products.mapper.custom;
+
+import com.herostore.products.constants.Compression;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+@Component
+public class CompressionMapper implements Converter<String, Compression> {
+
+    @Override
+    public Compression convert(String source) {
+        return Arrays.stream(Compression.values())
+                .filter(compression -> compression.getValue().equals(source))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Compression " + source + " not valid"));
+    }
+}
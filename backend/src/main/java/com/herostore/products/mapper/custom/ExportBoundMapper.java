@@ -0,0 +1,30 @@
+package com.herostore.products.mapper.custom;
+
+import com.herostore.products.dto.request.ExportBound;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reads export bounds written either as a product order id ({@code 1500}) or as an ISO local date time
+ * ({@code 2020-03-01T00:00:00}).
+ */
+@Component
+public class ExportBoundMapper implements Converter<String, ExportBound> {
+
+    @Override
+    public ExportBound convert(String source) {
+        var bound = source.trim();
+
+        try {
+            if (!bound.isEmpty() && bound.chars().allMatch(Character::isDigit)) {
+                return ExportBound.ofProductOrderId(Long.parseLong(bound));
+            }
+            return ExportBound.ofCreatedAt(LocalDateTime.parse(bound));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Export bound " + source + " not valid", e);
+        }
+    }
+}
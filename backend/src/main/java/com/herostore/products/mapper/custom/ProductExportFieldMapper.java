@@ -0,0 +1,21 @@
+package com.herostore.products.mapper.custom;
+
+import com.herostore.products.constants.ProductExportField;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+@Component
+public class ProductExportFieldMapper implements Converter<String, ProductExportField> {
+
+    @Override
+    public ProductExportField convert(String source) {
+        var value = source.trim();
+
+        return Arrays.stream(ProductExportField.values())
+                .filter(field -> field.getValue().equals(value))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Field " + source + " not valid"));
+    }
+}
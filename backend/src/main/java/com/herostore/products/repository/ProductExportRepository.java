@@ -0,0 +1,20 @@
+package com.herostore.products.repository;
+
+import com.herostore.products.constants.ProductExportField;
+import com.herostore.products.constants.ProductStockCondition;
+import com.herostore.products.dto.ProductExportDTO;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ProductExportRepository {
+
+    /**
+     * Streams export rows ordered by id, selecting only the given fields: the other properties of the rows
+     * are left null, and product types are only joined when their name is selected.
+     * <p>
+     * Rows are read through a server-side cursor: the stream must be consumed inside a read-only transaction
+     * and closed afterwards.
+     */
+    Stream<ProductExportDTO> streamProducts(ProductStockCondition stockCondition, List<ProductExportField> fields);
+}
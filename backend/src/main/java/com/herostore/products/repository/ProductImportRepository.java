@@ -0,0 +1,22 @@
+package com.herostore.products.repository;
+
+import com.herostore.products.dto.request.ProductRequest;
+
+import java.util.List;
+
+public interface ProductImportRepository {
+
+    /**
+     * Inserts the products with a single multi-row statement. Their ids are ignored: new ones are generated.
+     *
+     * @return the amount of inserted products.
+     */
+    int insertProducts(List<ProductRequest> products);
+
+    /**
+     * Updates the products matched by id with a single statement, joining the table with the new values.
+     *
+     * @return the ids of the products that exist and were updated.
+     */
+    List<Long> updateProducts(List<ProductRequest> products);
+}
@@ -1,9 +1,51 @@
 package com.herostore.products.repository;
 
 import com.herostore.products.domain.ProductOrder;
+import com.herostore.products.dto.ProductOrderLineExportDTO;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 @Repository
 public interface ProductOrderRepository extends JpaRepository<ProductOrder, Long> {
+
+    String EXPORT_FETCH_SIZE = "1000";
+
+    String SELECT_EXPORT_LINES = "SELECT new com.herostore.products.dto.ProductOrderLineExportDTO("
+            + "o.id, o.createdAt, o.total, l.id, l.productDetail.id, l.productDetail.name, l.productDetail.price, "
+            + "l.quantity, l.total) FROM ProductOrder o JOIN o.productOrderLines l ";
+
+    @Query("SELECT o.id FROM ProductOrder o WHERE o.id > :afterId AND o.id <= :lastId ORDER BY o.id")
+    List<Long> findIdsBetween(@Param("afterId") Long afterId, @Param("lastId") Long lastId, Pageable pageable);
+
+    @Query("SELECT MAX(o.id) FROM ProductOrder o WHERE o.id > :afterId AND o.id <= :lastId")
+    Long findLastIdBetween(@Param("afterId") Long afterId, @Param("lastId") Long lastId);
+
+    /*
+     * Orders get ascending ids as they're created, so the last order created until a date bounds all of them.
+     */
+    @Query("SELECT MAX(o.id) FROM ProductOrder o WHERE o.createdAt <= :createdAt")
+    Long findLastIdCreatedUntil(@Param("createdAt") LocalDateTime createdAt);
+
+    @Query(SELECT_EXPORT_LINES + "WHERE o.id IN :ids ORDER BY o.id, l.id")
+    List<ProductOrderLineExportDTO> findExportLinesByProductOrderIdIn(@Param("ids") List<Long> ids);
+
+    /*
+     * Read through a server-side cursor: the stream must be consumed inside a read-only transaction and
+     * closed afterwards.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query(SELECT_EXPORT_LINES + "WHERE o.id > :afterId AND o.id <= :lastId ORDER BY o.id, l.id")
+    Stream<ProductOrderLineExportDTO> streamExportLines(@Param("afterId") Long afterId, @Param("lastId") Long lastId);
 }
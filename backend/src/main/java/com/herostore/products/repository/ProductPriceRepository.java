@@ -0,0 +1,14 @@
+package com.herostore.products.repository;
+
+import com.herostore.products.dto.request.PriceChangeRequest;
+
+public interface ProductPriceRepository {
+
+    /**
+     * Changes the price of all the matching products with a single statement, computing the new prices in
+     * the database.
+     *
+     * @return the amount of updated products.
+     */
+    int changePrices(PriceChangeRequest priceChange);
+}
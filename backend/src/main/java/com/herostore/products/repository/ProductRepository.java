@@ -1,20 +1,26 @@
 package com.herostore.products.repository;
 
 import com.herostore.products.domain.Product;
+import com.herostore.products.dto.response.ProductSuggestionResponse;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository
+        extends JpaRepository<Product, Long>, ProductExportRepository, ProductImportRepository,
+        ProductStockRepository, ProductPriceRepository {
 
     List<Product> findByIdIn(List<Long> ids);
 
-    @Query("SELECT p from Product p " +
-            "WHERE (true = :inStock and p.stock > 0) " +
-            "OR (false = :inStock and p.stock = 0)")
-    List<Product> retrieveProductsByStockCondition(@Param("inStock") boolean inStock);
+    @Query("SELECT p.id FROM Product p WHERE p.stock > 0 ORDER BY p.id")
+    List<Long> findAvailableProductIds();
+
+    @Query("SELECT p.id FROM Product p WHERE p.stock = 0 ORDER BY p.id")
+    List<Long> findUnavailableProductIds();
+
+    @Query("SELECT new com.herostore.products.dto.response.ProductSuggestionResponse(p.id, p.name) FROM Product p")
+    List<ProductSuggestionResponse> findAllSuggestions();
 }
@@ -0,0 +1,25 @@
+package com.herostore.products.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+public interface ProductStockRepository {
+
+    /**
+     * Locks the products for update, in ascending id order, until the transaction ends. Transactions that
+     * lock products in the same order can wait for each other, but can't deadlock.
+     *
+     * @param productIds ids of the products to lock, in ascending order.
+     * @return the current stock of each existing product, by id.
+     */
+    Map<Long, Integer> lockStocks(List<Long> productIds);
+
+    /**
+     * Adds the deltas to the stock of the products, in the database, with one statement for all of them.
+     *
+     * @param deltas amount to add to the stock of each product, by id.
+     * @return the new stock of each updated product, by id.
+     */
+    Map<Long, Integer> addStocks(SortedMap<Long, Integer> deltas);
+}
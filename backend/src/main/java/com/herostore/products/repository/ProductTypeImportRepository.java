@@ -0,0 +1,22 @@
+package com.herostore.products.repository;
+
+import com.herostore.products.dto.ProductTypeDTO;
+
+import java.util.List;
+
+public interface ProductTypeImportRepository {
+
+    /**
+     * Inserts the product types with a single multi-row statement. Their ids are ignored: new ones are generated.
+     *
+     * @return the amount of inserted product types.
+     */
+    int insertProductTypes(List<ProductTypeDTO> productTypes);
+
+    /**
+     * Renames the product types matched by id with a single statement, joining the table with the new names.
+     *
+     * @return the ids of the product types that exist and were updated.
+     */
+    List<Long> updateProductTypes(List<ProductTypeDTO> productTypes);
+}
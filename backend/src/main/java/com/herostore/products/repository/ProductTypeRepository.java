@@ -1,9 +1,25 @@
 package com.herostore.products.repository;
 
 import com.herostore.products.domain.ProductType;
+import com.herostore.products.dto.ProductTypeDTO;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 @Repository
-public interface ProductTypeRepository extends JpaRepository<ProductType, Long> {
+public interface ProductTypeRepository extends JpaRepository<ProductType, Long>, ProductTypeImportRepository {
+
+    /*
+     * Read through a server-side cursor: must be consumed inside a read-only transaction and closed afterwards.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("SELECT new com.herostore.products.dto.ProductTypeDTO(pt.id, pt.name) FROM ProductType pt ORDER BY pt.id")
+    Stream<ProductTypeDTO> streamAllProductTypes();
 }
@@ -0,0 +1,104 @@
+package com.herostore.products.repository.impl;
+
+import com.herostore.products.constants.ProductExportField;
+import com.herostore.products.constants.ProductStockCondition;
+import com.herostore.products.dto.ProductExportDTO;
+import com.herostore.products.repository.ProductExportRepository;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.joining;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ProductExportRepositoryImpl implements ProductExportRepository {
+
+    static final int EXPORT_FETCH_SIZE = 1000;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Override
+    public Stream<ProductExportDTO> streamProducts(ProductStockCondition stockCondition, List<ProductExportField> fields) {
+        var query = entityManager.createQuery(buildQuery(stockCondition, fields), Tuple.class)
+                .setHint(HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .setHint(HINT_READONLY, true);
+
+        return query.getResultStream().map(tuple -> toProductExportDTO(tuple, fields));
+    }
+
+    static String buildQuery(ProductStockCondition stockCondition, List<ProductExportField> fields) {
+        var select = fields.stream()
+                .map(field -> pathOf(field) + " AS " + field.getProperty())
+                .collect(joining(", ", "SELECT ", " FROM Product p"));
+        var join = fields.contains(ProductExportField.PRODUCT_TYPE) ? " JOIN p.productType pt" : "";
+
+        return select + join + whereClauseOf(stockCondition) + " ORDER BY p.id";
+    }
+
+    private static String pathOf(ProductExportField field) {
+        switch (field) {
+            case ID:
+                return "p.id";
+            case NAME:
+                return "p.name";
+            case PRODUCT_TYPE:
+                return "pt.name";
+            case PRICE:
+                return "p.price";
+            case STOCK:
+                return "p.stock";
+            default:
+                throw new IllegalArgumentException("Export field " + field + " not valid");
+        }
+    }
+
+    private static String whereClauseOf(ProductStockCondition stockCondition) {
+        switch (stockCondition) {
+            case AVAILABLE:
+                return " WHERE p.stock > 0";
+            case UNAVAILABLE:
+                return " WHERE p.stock = 0";
+            default:
+                return "";
+        }
+    }
+
+    private static ProductExportDTO toProductExportDTO(Tuple tuple, List<ProductExportField> fields) {
+        var product = new ProductExportDTO();
+
+        for (var i = 0; i < fields.size(); i++) {
+            var value = tuple.get(i);
+
+            switch (fields.get(i)) {
+                case ID:
+                    product.setId((Long) value);
+                    break;
+                case NAME:
+                    product.setName((String) value);
+                    break;
+                case PRODUCT_TYPE:
+                    product.setProductTypeName((String) value);
+                    break;
+                case PRICE:
+                    product.setPrice((BigDecimal) value);
+                    break;
+                case STOCK:
+                    product.setStock((Integer) value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Export field " + fields.get(i) + " not valid");
+            }
+        }
+
+        return product;
+    }
+}
@@ -0,0 +1,70 @@
+package com.herostore.products.repository.impl;
+
+import com.herostore.products.dto.request.ProductRequest;
+import com.herostore.products.repository.ProductImportRepository;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.nCopies;
+
+/**
+ * Writes imported products with plain JDBC: a chunk of rows is a single statement and a single round trip,
+ * and no entities are loaded. Statements join the transaction of the calling service.
+ */
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductImportRepositoryImpl implements ProductImportRepository {
+
+    JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int insertProducts(List<ProductRequest> products) {
+        if (products.isEmpty()) {
+            return 0;
+        }
+
+        var args = new ArrayList<>(products.size() * 4);
+        for (var product : products) {
+            args.add(product.getName());
+            args.add(product.getProductTypeId());
+            args.add(product.getStock());
+            args.add(product.getPrice());
+        }
+
+        return jdbcTemplate.update(buildInsert(products.size()), args.toArray());
+    }
+
+    @Override
+    public List<Long> updateProducts(List<ProductRequest> products) {
+        if (products.isEmpty()) {
+            return List.of();
+        }
+
+        var args = new ArrayList<>(products.size() * 5);
+        for (var product : products) {
+            args.add(product.getId());
+            args.add(product.getName());
+            args.add(product.getProductTypeId());
+            args.add(product.getStock());
+            args.add(product.getPrice());
+        }
+
+        return jdbcTemplate.queryForList(buildUpdate(products.size()), Long.class, args.toArray());
+    }
+
+    static String buildInsert(int rows) {
+        return "INSERT INTO product (name, product_type_id, stock, price) VALUES "
+                + String.join(", ", nCopies(rows, "(?, ?, ?, ?)"));
+    }
+
+    static String buildUpdate(int rows) {
+        return "UPDATE product p SET name = v.name, product_type_id = v.product_type_id, stock = v.stock, "
+                + "price = v.price FROM (VALUES " + String.join(", ", nCopies(rows, "(?, ?, ?, ?, ?)"))
+                + ") AS v (id, name, product_type_id, stock, price) WHERE p.id = v.id RETURNING p.id";
+    }
+}
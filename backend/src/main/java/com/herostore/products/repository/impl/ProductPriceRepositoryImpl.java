@@ -0,0 +1,54 @@
+package com.herostore.products.repository.impl;
+
+import com.herostore.products.constants.PriceChangeType;
+import com.herostore.products.constants.ProductStockCondition;
+import com.herostore.products.dto.request.PriceChangeRequest;
+import com.herostore.products.repository.ProductPriceRepository;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+
+/**
+ * Changes prices with a set-based update: no product is loaded nor sent back and forth, however many of
+ * them match.
+ */
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductPriceRepositoryImpl implements ProductPriceRepository {
+
+    JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int changePrices(PriceChangeRequest priceChange) {
+        var args = new ArrayList<>(4);
+        args.add(priceChange.getAmount());
+        args.add(priceChange.getDecimals());
+        if (priceChange.getProductTypeId() != null) {
+            args.add(priceChange.getProductTypeId());
+        }
+
+        return jdbcTemplate.update(
+                buildUpdate(priceChange.getType(), priceChange.getProductTypeId() != null, priceChange.getStock()),
+                args.toArray());
+    }
+
+    static String buildUpdate(PriceChangeType type, boolean byProductType, ProductStockCondition stockCondition) {
+        var newPrice = type == PriceChangeType.PERCENTAGE ? "price * (100 + ?) / 100" : "price + ?";
+
+        var conditions = new ArrayList<String>(2);
+        if (byProductType) {
+            conditions.add("product_type_id = ?");
+        }
+        if (stockCondition == ProductStockCondition.AVAILABLE) {
+            conditions.add("stock > 0");
+        } else if (stockCondition == ProductStockCondition.UNAVAILABLE) {
+            conditions.add("stock = 0");
+        }
+
+        var sql = "UPDATE product SET price = GREATEST(ROUND(" + newPrice + ", ?), 0)";
+        return conditions.isEmpty() ? sql : sql + " WHERE " + String.join(" AND ", conditions);
+    }
+}
@@ -0,0 +1,85 @@
+package com.herostore.products.repository.impl;
+
+import com.herostore.products.repository.ProductStockRepository;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import static java.util.Collections.nCopies;
+
+/**
+ * Adjusts stocks with plain JDBC, so that no entities are loaded. Statements join the transaction of the
+ * calling service. Products are sent in chunks of {@value #CHUNK_SIZE}, well below the amount of parameters
+ * a statement can have, and chunks follow the order of the ids, so locks are still taken in that order.
+ */
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    static final int CHUNK_SIZE = 1000;
+
+    JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<Long, Integer> lockStocks(List<Long> productIds) {
+        var stocks = new HashMap<Long, Integer>();
+
+        for (var from = 0; from < productIds.size(); from += CHUNK_SIZE) {
+            var chunk = productIds.subList(from, Math.min(from + CHUNK_SIZE, productIds.size()));
+            jdbcTemplate.query(buildLock(chunk.size()),
+                    rs -> {
+                        stocks.put(rs.getLong(1), rs.getInt(2));
+                    },
+                    chunk.toArray());
+        }
+
+        return stocks;
+    }
+
+    @Override
+    public Map<Long, Integer> addStocks(SortedMap<Long, Integer> deltas) {
+        var stocks = new HashMap<Long, Integer>();
+        var args = new ArrayList<>(Math.min(deltas.size(), CHUNK_SIZE) * 2);
+
+        for (var delta : deltas.entrySet()) {
+            args.add(delta.getKey());
+            args.add(delta.getValue());
+
+            if (args.size() == CHUNK_SIZE * 2) {
+                addStocks(args, stocks);
+            }
+        }
+        if (!args.isEmpty()) {
+            addStocks(args, stocks);
+        }
+
+        return stocks;
+    }
+
+    private void addStocks(List<Object> args, Map<Long, Integer> stocks) {
+        jdbcTemplate.query(buildUpdate(args.size() / 2),
+                rs -> {
+                    stocks.put(rs.getLong(1), rs.getInt(2));
+                },
+                args.toArray());
+        args.clear();
+    }
+
+    static String buildLock(int rows) {
+        return "SELECT id, stock FROM product WHERE id IN (" + String.join(", ", nCopies(rows, "?"))
+                + ") ORDER BY id FOR UPDATE";
+    }
+
+    static String buildUpdate(int rows) {
+        return "UPDATE product p SET stock = p.stock + v.delta FROM (VALUES "
+                + String.join(", ", nCopies(rows, "(?, ?)"))
+                + ") AS v (id, delta) WHERE p.id = v.id RETURNING p.id, p.stock";
+    }
+}
@@ -0,0 +1,61 @@
+package com.herostore.products.repository.impl;
+
+import com.herostore.products.dto.ProductTypeDTO;
+import com.herostore.products.repository.ProductTypeImportRepository;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.nCopies;
+
+/**
+ * Writes imported product types with plain JDBC, as {@link ProductImportRepositoryImpl} does with products.
+ */
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ProductTypeImportRepositoryImpl implements ProductTypeImportRepository {
+
+    JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int insertProductTypes(List<ProductTypeDTO> productTypes) {
+        if (productTypes.isEmpty()) {
+            return 0;
+        }
+
+        var args = new ArrayList<>(productTypes.size());
+        for (var productType : productTypes) {
+            args.add(productType.getName());
+        }
+
+        return jdbcTemplate.update(buildInsert(productTypes.size()), args.toArray());
+    }
+
+    @Override
+    public List<Long> updateProductTypes(List<ProductTypeDTO> productTypes) {
+        if (productTypes.isEmpty()) {
+            return List.of();
+        }
+
+        var args = new ArrayList<>(productTypes.size() * 2);
+        for (var productType : productTypes) {
+            args.add(productType.getId());
+            args.add(productType.getName());
+        }
+
+        return jdbcTemplate.queryForList(buildUpdate(productTypes.size()), Long.class, args.toArray());
+    }
+
+    static String buildInsert(int rows) {
+        return "INSERT INTO product_type (name) VALUES " + String.join(", ", nCopies(rows, "(?)"));
+    }
+
+    static String buildUpdate(int rows) {
+        return "UPDATE product_type t SET name = v.name FROM (VALUES " + String.join(", ", nCopies(rows, "(?, ?)"))
+                + ") AS v (id, name) WHERE t.id = v.id RETURNING t.id";
+    }
+}
@@ -0,0 +1,18 @@
+package com.herostore.products.service;
+
+import com.herostore.products.dto.request.ExportRequest;
+import com.herostore.products.dto.response.ExportJobResponse;
+import com.herostore.products.export.ExportFile;
+
+public interface ExportService {
+
+    ExportJobResponse submitExport(ExportRequest exportRequest);
+
+    ExportJobResponse getExportJob(String id);
+
+    ExportFile getExportFile(String id);
+
+    void cancelExport(String id);
+
+    void removeExpiredExports();
+}
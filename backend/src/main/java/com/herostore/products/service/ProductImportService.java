@@ -0,0 +1,13 @@
+package com.herostore.products.service;
+
+import com.herostore.products.constants.FileType;
+import com.herostore.products.dto.response.ProductImportResponse;
+
+import java.io.InputStream;
+
+public interface ProductImportService {
+
+    ProductImportResponse importProducts(InputStream is, FileType fileType);
+
+    ProductImportResponse importProductTypes(InputStream is, FileType fileType);
+}
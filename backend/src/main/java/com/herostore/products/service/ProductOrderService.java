@@ -1,6 +1,8 @@
 package com.herostore.products.service;
 
 import com.herostore.products.constants.FileType;
+import com.herostore.products.dto.ProductOrderExportRange;
+import com.herostore.products.dto.request.ExportBound;
 import com.herostore.products.dto.request.ProductOrderRequest;
 import com.herostore.products.dto.response.ProductOrderResponse;
 
@@ -13,5 +15,9 @@ public interface ProductOrderService {
 
     ProductOrderResponse registerProductOrder(ProductOrderRequest productOrderRequest);
 
-    void exportProductOrders(OutputStream os, FileType fileType);
+    void exportProductOrders(OutputStream os, FileType fileType, ProductOrderExportRange range);
+
+    ProductOrderExportRange getExportRange(ExportBound since, ExportBound until, String consumer);
+
+    void saveExportWatermark(String consumer, ProductOrderExportRange range);
 }
@@ -1,9 +1,15 @@
 package com.herostore.products.service;
 
 import com.herostore.products.constants.FileType;
+import com.herostore.products.constants.ProductExportField;
 import com.herostore.products.constants.ProductStockCondition;
+import com.herostore.products.dto.request.PriceChangeRequest;
 import com.herostore.products.dto.request.ProductRequest;
+import com.herostore.products.dto.request.StockAdjustmentsRequest;
+import com.herostore.products.dto.response.PriceChangeResponse;
 import com.herostore.products.dto.response.ProductResponse;
+import com.herostore.products.dto.response.ProductStockResponse;
+import com.herostore.products.dto.response.ProductSuggestionResponse;
 
 import java.io.OutputStream;
 import java.util.List;
@@ -12,7 +18,10 @@ public interface ProductService {
 
     List<ProductResponse> getAllProducts(ProductStockCondition stockCondition);
 
-    void exportProductsToFile(OutputStream os, FileType fileType, ProductStockCondition stockCondition);
+    void exportProductsToFile(OutputStream os, FileType fileType, ProductStockCondition stockCondition,
+                              List<ProductExportField> fields);
+
+    List<ProductSuggestionResponse> suggestProducts(String query, int limit);
 
     ProductResponse getProductById(Long id);
 
@@ -21,4 +30,8 @@ public interface ProductService {
     ProductResponse updateProduct(Long id, ProductRequest updatedProduct);
 
     void deleteProductById(Long id);
+
+    List<ProductStockResponse> adjustStocks(StockAdjustmentsRequest stockAdjustments);
+
+    PriceChangeResponse changePrices(PriceChangeRequest priceChange);
 }
@@ -0,0 +1,264 @@
+package com.herostore.products.service.impl;
+
+import com.herostore.products.config.ExportProperties;
+import com.herostore.products.constants.ExportJobStatus;
+import com.herostore.products.constants.ExportKind;
+import com.herostore.products.dto.ProductOrderExportRange;
+import com.herostore.products.dto.request.ExportRequest;
+import com.herostore.products.dto.response.ExportJobResponse;
+import com.herostore.products.exception.ExportNotReadyException;
+import com.herostore.products.exception.ExportRejectedException;
+import com.herostore.products.exception.InvalidExportRequestException;
+import com.herostore.products.exception.ResourceNotFoundException;
+import com.herostore.products.exception.ServiceException;
+import com.herostore.products.export.ExportFile;
+import com.herostore.products.export.ExportJob;
+import com.herostore.products.export.ExportJobOutputStream;
+import com.herostore.products.service.ExportService;
+import com.herostore.products.service.ProductOrderService;
+import com.herostore.products.service.ProductService;
+import com.herostore.products.service.ProductTypeService;
+import com.herostore.products.utils.FileUtils;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Pattern;
+
+@Service
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ExportServiceImpl implements ExportService {
+
+    Logger logger = LoggerFactory.getLogger(ExportServiceImpl.class.getName());
+
+    ProductService productService;
+    ProductTypeService productTypeService;
+    ProductOrderService productOrderService;
+    ExportProperties exportProperties;
+    ExecutorService exportExecutor;
+
+    Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    static int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    static String PARTIAL_FILE_EXTENSION = ".part";
+
+    /**
+     * Export results are named after their job id, which is a random UUID.
+     */
+    static Pattern EXPORT_FILE_NAME = Pattern.compile("[0-9a-f]{8}(-[0-9a-f]{4}){3}-[0-9a-f]{12}(\\.[a-z]+)+");
+
+    /**
+     * Prepares the export directory, removing results left behind by previous runs, since jobs aren't kept
+     * across restarts. The directory is configurable and may be shared, so only files named like export
+     * results are removed.
+     */
+    @PostConstruct
+    public void initExportDirectory() {
+        var directory = exportProperties.getDirectory();
+
+        try {
+            Files.createDirectories(directory);
+
+            try (var files = Files.list(directory)) {
+                files.filter(file -> EXPORT_FILE_NAME.matcher(file.getFileName().toString()).matches())
+                        .forEach(this::deleteQuietly);
+            }
+        } catch (IOException e) {
+            logger.error("initExportDirectory(): Couldn't prepare export directory {}", directory, e);
+            throw new ServiceException("Couldn't prepare export directory " + directory, e);
+        }
+    }
+
+    /**
+     * Queues an export to run in the background.
+     *
+     * @param exportRequest what to export and in which format.
+     * @return the queued export job.
+     */
+    @Override
+    public ExportJobResponse submitExport(ExportRequest exportRequest) {
+        if (!exportRequest.getKind().supports(exportRequest.getFormat())) {
+            throw new InvalidExportRequestException("Format " + exportRequest.getFormat().getDesc()
+                    + " not valid for " + exportRequest.getKind().getValue() + " exports");
+        }
+
+        if (exportRequest.getFields() != null && !exportRequest.getFields().isEmpty()
+                && exportRequest.getKind() != ExportKind.PRODUCTS) {
+            throw new InvalidExportRequestException("Fields can only be selected for products exports");
+        }
+
+        var job = new ExportJob(exportRequest);
+        jobs.put(job.getId(), job);
+
+        try {
+            job.setFuture(exportExecutor.submit(() -> runExport(job)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            logger.warn("submitExport({}): export queue is full", exportRequest);
+            throw new ExportRejectedException("Too many exports in progress, try again later");
+        }
+
+        return toExportJobResponse(job);
+    }
+
+    /**
+     * Retrieves an export job's progress.
+     *
+     * @param id export job id.
+     * @return the export job found.
+     */
+    @Override
+    public ExportJobResponse getExportJob(String id) {
+        return toExportJobResponse(findJob(id));
+    }
+
+    /**
+     * Retrieves the file of a completed export.
+     *
+     * @param id export job id.
+     * @return the exported file and its download name.
+     */
+    @Override
+    public ExportFile getExportFile(String id) {
+        var job = findJob(id);
+
+        if (job.getStatus() != ExportJobStatus.COMPLETED) {
+            throw new ExportNotReadyException("Export " + id + " is " + job.getStatus().name().toLowerCase());
+        }
+
+        var request = job.getRequest();
+        return new ExportFile(job.getFile(), FileUtils.buildFileName(request.getKind().getFileName(), request.getFormat()));
+    }
+
+    /**
+     * Cancels a queued or running export. Finished exports are removed along with their files.
+     *
+     * @param id export job id.
+     */
+    @Override
+    public void cancelExport(String id) {
+        var job = findJob(id);
+
+        if (!job.cancel(exportProperties.getTtl())) {
+            removeJob(job);
+        }
+    }
+
+    /**
+     * Removes expired exports and their files.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${exports.cleanup-interval:60000}")
+    public void removeExpiredExports() {
+        var now = LocalDateTime.now();
+
+        jobs.values().stream()
+                .filter(job -> job.isExpired(now))
+                .forEach(this::removeJob);
+    }
+
+    private void runExport(ExportJob job) {
+        if (!job.start()) return;
+
+        var directory = exportProperties.getDirectory();
+        var partialFile = directory.resolve(job.getId() + PARTIAL_FILE_EXTENSION);
+
+        try {
+            try (var os = new ExportJobOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(partialFile), OUTPUT_BUFFER_SIZE), job)) {
+                export(job.getRequest(), os);
+            }
+
+            var file = directory.resolve(job.getId() + job.getRequest().getFormat().getExtension());
+            Files.move(partialFile, file, StandardCopyOption.REPLACE_EXISTING);
+
+            if (!job.complete(file, exportProperties.getTtl())) {
+                deleteQuietly(file);
+            }
+        } catch (Exception e) {
+            deleteQuietly(partialFile);
+
+            if (job.isCancelled()) {
+                logger.info("runExport({}): export cancelled", job.getId());
+            } else {
+                logger.error("runExport({}): Couldn't export {}", job.getId(), job.getRequest(), e);
+                job.fail(e.getMessage(), exportProperties.getTtl());
+            }
+        }
+    }
+
+    private void export(ExportRequest request, OutputStream os) throws IOException {
+        switch (request.getKind()) {
+            case PRODUCTS:
+                productService.exportProductsToFile(os, request.getFormat(), request.getStock(), request.getFields());
+                break;
+            case PRODUCT_TYPES:
+                productTypeService.exportProductTypesToFile(os, request.getFormat());
+                break;
+            case PRODUCT_ORDERS:
+                productOrderService.exportProductOrders(os, request.getFormat(), ProductOrderExportRange.ALL);
+                break;
+            default:
+                throw new IllegalArgumentException("Export kind " + request.getKind() + " not valid");
+        }
+    }
+
+    private ExportJob findJob(String id) {
+        var job = jobs.get(id);
+
+        if (job == null) {
+            logger.error("Export not found for id {}", id);
+            throw new ResourceNotFoundException("Export not found for id " + id);
+        }
+
+        return job;
+    }
+
+    private void removeJob(ExportJob job) {
+        jobs.remove(job.getId());
+
+        if (job.getFile() != null) {
+            deleteQuietly(job.getFile());
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Couldn't delete export file {}", file, e);
+        }
+    }
+
+    private ExportJobResponse toExportJobResponse(ExportJob job) {
+        return ExportJobResponse.builder()
+                .id(job.getId())
+                .kind(job.getRequest().getKind())
+                .format(job.getRequest().getFormat())
+                .status(job.getStatus())
+                .bytesWritten(job.getBytesWritten())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .expiresAt(job.getExpiresAt())
+                .build();
+    }
+}
@@ -0,0 +1,415 @@
+package com.herostore.products.service.impl;
+
+import com.herostore.products.cache.CatalogVersion;
+import com.herostore.products.constants.FileType;
+import com.herostore.products.dto.ProductTypeDTO;
+import com.herostore.products.dto.request.ProductRequest;
+import com.herostore.products.dto.response.ProductImportResponse;
+import com.herostore.products.dto.response.RejectedRowResponse;
+import com.herostore.products.exception.InvalidImportFileException;
+import com.herostore.products.exception.ServiceException;
+import com.herostore.products.index.ProductNameIndex;
+import com.herostore.products.index.ProductStockIndex;
+import com.herostore.products.io.CSVReader;
+import com.herostore.products.io.ExcelReader;
+import com.herostore.products.io.ImportRow;
+import com.herostore.products.repository.ProductRepository;
+import com.herostore.products.repository.ProductTypeRepository;
+import com.herostore.products.service.ProductImportService;
+import com.herostore.products.service.ProductTypeService;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static com.herostore.products.constants.ProductExportField.ID;
+import static com.herostore.products.constants.ProductExportField.NAME;
+import static com.herostore.products.constants.ProductExportField.PRICE;
+import static com.herostore.products.constants.ProductExportField.PRODUCT_TYPE;
+import static com.herostore.products.constants.ProductExportField.STOCK;
+import static java.util.Comparator.comparingLong;
+import static java.util.stream.Collectors.toList;
+
+@Service
+@AllArgsConstructor
+@FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
+public class ProductImportServiceImpl implements ProductImportService {
+
+    Logger logger = LoggerFactory.getLogger(ProductImportServiceImpl.class.getName());
+
+    ProductRepository productRepository;
+    ProductTypeRepository productTypeRepository;
+    ProductTypeService productTypeService;
+    CSVReader csvReader;
+    ExcelReader excelReader;
+    Validator validator;
+    TransactionTemplate transactionTemplate;
+    CatalogVersion catalogVersion;
+    ProductStockIndex productStockIndex;
+    ProductNameIndex productNameIndex;
+
+    static int CHUNK_SIZE = 1000;
+    static int MAX_LISTED_REJECTIONS = 1000;
+
+    // Same headers as the exports, so an exported file can be edited and imported back
+    static List<String> REQUIRED_HEADERS = List.of(
+            NAME.getHeader(), PRODUCT_TYPE.getHeader(), PRICE.getHeader(), STOCK.getHeader());
+    static List<String> REQUIRED_PRODUCT_TYPE_HEADERS = List.of(NAME.getHeader());
+
+    /**
+     * Imports products from a file, reading it as a stream. Rows without an ID are inserted as new products,
+     * and rows with one update the product with that ID. Product types are given by name.
+     * <p>
+     * Rows are validated like product requests, and invalid ones are rejected and reported by line. Valid rows
+     * are written in chunks, with a multi-row statement per chunk and a transaction each, so the chunks written
+     * before a failure are kept.
+     *
+     * @param is       input stream of the file to import. It's not closed.
+     * @param fileType file type (CSV, Excel) to import.
+     * @return the amount of inserted, updated and rejected rows, and the first rejections.
+     */
+    @Override
+    public ProductImportResponse importProducts(InputStream is, FileType fileType) {
+        var productImport = new ProductImport(productTypeService.getAllProductTypes());
+
+        try {
+            read(is, fileType, REQUIRED_HEADERS, productImport::add);
+            productImport.writeChunk();
+
+            return productImport.toResponse();
+        } catch (InvalidImportFileException iifExc) {
+            logger.error(iifExc.getMessage());
+            throw iifExc;
+        } catch (Exception e) {
+            logger.error("importProducts({}): Couldn't import products", fileType, e);
+            throw new ServiceException("Couldn't import products", e);
+        } finally {
+            if (productImport.written > 0) {
+                productStockIndex.invalidate();
+                productNameIndex.invalidate();
+                catalogVersion.increment();
+            }
+        }
+    }
+
+    /**
+     * Imports product types from a file, reading it as a stream. Rows without an ID are inserted as new
+     * product types, and rows with one rename the product type with that ID. Names must stay unique, so rows
+     * taking the name of another product type are rejected.
+     * <p>
+     * Rows are validated and written as in {@link #importProducts(InputStream, FileType)}.
+     *
+     * @param is       input stream of the file to import. It's not closed.
+     * @param fileType file type (CSV, Excel) to import.
+     * @return the amount of inserted, updated and rejected rows, and the first rejections.
+     */
+    @Override
+    public ProductImportResponse importProductTypes(InputStream is, FileType fileType) {
+        var productTypeImport = new ProductTypeImport(productTypeService.getAllProductTypes());
+
+        try {
+            read(is, fileType, REQUIRED_PRODUCT_TYPE_HEADERS, productTypeImport::add);
+            productTypeImport.writeChunk();
+
+            return productTypeImport.toResponse();
+        } catch (InvalidImportFileException iifExc) {
+            logger.error(iifExc.getMessage());
+            throw iifExc;
+        } catch (Exception e) {
+            logger.error("importProductTypes({}): Couldn't import product types", fileType, e);
+            throw new ServiceException("Couldn't import product types", e);
+        } finally {
+            if (productTypeImport.written > 0) {
+                catalogVersion.increment();
+            }
+        }
+    }
+
+    private void read(InputStream is, FileType fileType, List<String> requiredHeaders,
+                      Consumer<ImportRow> rowConsumer) throws IOException {
+        switch (fileType) {
+            case CSV:
+                csvReader.read(is, requiredHeaders, rowConsumer);
+                break;
+            case EXCEL:
+                excelReader.read(is, requiredHeaders, rowConsumer);
+                break;
+            default:
+                throw new IllegalArgumentException("Format type " + fileType.name() + " not valid");
+        }
+    }
+
+    /**
+     * Rows of an import waiting to be written, and the outcome of the rows already handled. Rows without an
+     * ID are inserted, and rows with one update the element with that ID.
+     */
+    private abstract class ChunkedImport<T> {
+
+        final Set<Long> importedIds = new HashSet<>();
+        final Map<Long, Long> updateLines = new HashMap<>();
+        final List<RejectedRowResponse> rejections = new ArrayList<>();
+        List<T> insertions = new ArrayList<>(CHUNK_SIZE);
+        List<T> updates = new ArrayList<>(CHUNK_SIZE);
+        long inserted;
+        long updated;
+        long rejected;
+        long written;
+
+        abstract T toElement(ImportRow row, List<String> errors);
+
+        abstract Long getId(T element);
+
+        /**
+         * Checks a valid element against the existing and the already imported ones. Nothing to check by default.
+         */
+        void check(T element, List<String> errors) {
+        }
+
+        abstract int insert(List<T> elements);
+
+        abstract List<Long> update(List<T> elements);
+
+        abstract String notFoundMessage(Long id);
+
+        void add(ImportRow row) {
+            var errors = new ArrayList<String>();
+            var element = toElement(row, errors);
+
+            if (errors.isEmpty()) {
+                validator.validate(element)
+                        .stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .forEach(errors::add);
+            }
+            var id = getId(element);
+            if (errors.isEmpty() && id != null && importedIds.contains(id)) {
+                errors.add("ID " + id + " is repeated");
+            }
+            if (errors.isEmpty()) {
+                check(element, errors);
+            }
+            if (!errors.isEmpty()) {
+                reject(row.getLine(), errors);
+                return;
+            }
+
+            if (id == null) {
+                insertions.add(element);
+            } else {
+                importedIds.add(id);
+                updates.add(element);
+                updateLines.put(id, row.getLine());
+            }
+
+            if (insertions.size() + updates.size() >= CHUNK_SIZE) {
+                writeChunk();
+            }
+        }
+
+        void writeChunk() {
+            if (insertions.isEmpty() && updates.isEmpty()) {
+                return;
+            }
+
+            // Updates go first, so insertions can take the names that they free
+            var updatedIds = new HashSet<Long>();
+            transactionTemplate.executeWithoutResult(status -> {
+                updatedIds.addAll(update(updates));
+                inserted += insert(insertions);
+            });
+            updated += updatedIds.size();
+            written += insertions.size() + updatedIds.size();
+
+            for (var element : updates) {
+                var id = getId(element);
+                if (!updatedIds.contains(id)) {
+                    reject(updateLines.get(id), List.of(notFoundMessage(id)));
+                }
+            }
+
+            insertions = new ArrayList<>(CHUNK_SIZE);
+            updates = new ArrayList<>(CHUNK_SIZE);
+            updateLines.clear();
+        }
+
+        ProductImportResponse toResponse() {
+            return ProductImportResponse.builder()
+                    .inserted(inserted)
+                    .updated(updated)
+                    .rejected(rejected)
+                    .rejections(rejections.stream()
+                            .sorted(comparingLong(RejectedRowResponse::getLine))
+                            .collect(toList()))
+                    .build();
+        }
+
+        <V> V parse(ImportRow row, String header, Function<String, V> parser, String error, List<String> errors) {
+            var value = row.get(header);
+
+            try {
+                return value == null ? null : parser.apply(value);
+            } catch (NumberFormatException e) {
+                errors.add(error);
+                return null;
+            }
+        }
+
+        private void reject(long line, List<String> errors) {
+            rejected++;
+            if (rejections.size() < MAX_LISTED_REJECTIONS) {
+                rejections.add(new RejectedRowResponse(line, errors));
+            }
+        }
+    }
+
+    private class ProductImport extends ChunkedImport<ProductRequest> {
+
+        final Map<String, Long> productTypeIds = new HashMap<>();
+
+        ProductImport(List<ProductTypeDTO> productTypes) {
+            for (var productType : productTypes) {
+                productTypeIds.putIfAbsent(productType.getName().toLowerCase(Locale.ROOT), productType.getId());
+            }
+        }
+
+        @Override
+        ProductRequest toElement(ImportRow row, List<String> errors) {
+            var productTypeName = row.get(PRODUCT_TYPE.getHeader());
+            Long productTypeId = null;
+
+            if (productTypeName != null) {
+                productTypeId = productTypeIds.get(productTypeName.toLowerCase(Locale.ROOT));
+                if (productTypeId == null) {
+                    errors.add("Product type " + productTypeName + " not found");
+                }
+            }
+
+            return ProductRequest.builder()
+                    .id(parse(row, ID.getHeader(), Long::valueOf, "ID must be a whole number", errors))
+                    .name(row.get(NAME.getHeader()))
+                    .productTypeId(productTypeId)
+                    .stock(parse(row, STOCK.getHeader(), Integer::valueOf, "Stock must be a whole number", errors))
+                    .price(parse(row, PRICE.getHeader(), BigDecimal::new, "Price must be a number", errors))
+                    .build();
+        }
+
+        @Override
+        Long getId(ProductRequest product) {
+            return product.getId();
+        }
+
+        @Override
+        int insert(List<ProductRequest> products) {
+            return productRepository.insertProducts(products);
+        }
+
+        @Override
+        List<Long> update(List<ProductRequest> products) {
+            return productRepository.updateProducts(products);
+        }
+
+        @Override
+        String notFoundMessage(Long id) {
+            return "Product not found for id " + id;
+        }
+    }
+
+    /**
+     * Keeps the names taken by the existing and the imported product types, as the database only allows one
+     * product type per name and a single clash would fail its whole chunk.
+     * <p>
+     * The database checks names row by row while a chunk's renames are written with a single statement, so a
+     * rename can't take a name freed by another rename of its chunk. Such renames start a new chunk instead.
+     */
+    private class ProductTypeImport extends ChunkedImport<ProductTypeDTO> {
+
+        final Map<String, Long> idsByName = new HashMap<>();
+        final Map<Long, String> namesById = new HashMap<>();
+        final Set<String> namesFreedInChunk = new HashSet<>();
+
+        ProductTypeImport(List<ProductTypeDTO> productTypes) {
+            for (var productType : productTypes) {
+                idsByName.put(productType.getName(), productType.getId());
+                namesById.put(productType.getId(), productType.getName());
+            }
+        }
+
+        @Override
+        ProductTypeDTO toElement(ImportRow row, List<String> errors) {
+            return ProductTypeDTO.builder()
+                    .id(parse(row, ID.getHeader(), Long::valueOf, "ID must be a whole number", errors))
+                    .name(row.get(NAME.getHeader()))
+                    .build();
+        }
+
+        @Override
+        Long getId(ProductTypeDTO productType) {
+            return productType.getId();
+        }
+
+        @Override
+        void check(ProductTypeDTO productType, List<String> errors) {
+            var id = productType.getId();
+            var name = productType.getName();
+
+            if (id != null && !namesById.containsKey(id)) {
+                errors.add(notFoundMessage(id));
+            } else if (idsByName.containsKey(name) && (id == null || !id.equals(idsByName.get(name)))) {
+                errors.add("Product type " + name + " already exists");
+            } else {
+                if (id != null) {
+                    if (namesFreedInChunk.contains(name)) {
+                        writeChunk();
+                    }
+
+                    var previousName = namesById.put(id, name);
+                    idsByName.remove(previousName);
+                    if (!previousName.equals(name)) {
+                        namesFreedInChunk.add(previousName);
+                    }
+                }
+                idsByName.put(name, id);
+            }
+        }
+
+        @Override
+        void writeChunk() {
+            super.writeChunk();
+            namesFreedInChunk.clear();
+        }
+
+        @Override
+        int insert(List<ProductTypeDTO> productTypes) {
+            return productTypeRepository.insertProductTypes(productTypes);
+        }
+
+        @Override
+        List<Long> update(List<ProductTypeDTO> productTypes) {
+            return productTypeRepository.updateProductTypes(productTypes);
+        }
+
+        @Override
+        String notFoundMessage(Long id) {
+            return "Product type not found for id " + id;
+        }
+    }
+}
@@ -1,19 +1,36 @@
 package com.herostore.products.service.impl;
 
+import com.herostore.products.cache.CatalogVersion;
 import com.herostore.products.constants.FileType;
+import com.herostore.products.domain.ExportWatermark;
 import com.herostore.products.domain.Product;
 import com.herostore.products.domain.ProductOrder;
 import com.herostore.products.domain.ProductOrderLine;
 import com.herostore.products.domain.embedded.ProductDetail;
+import com.herostore.products.dto.ProductOrderLineDTO;
+import com.herostore.products.dto.ProductOrderExportRange;
+import com.herostore.products.dto.ProductOrderLineExportDTO;
+import com.herostore.products.dto.request.ExportBound;
 import com.herostore.products.dto.request.ProductOrderLineRequest;
 import com.herostore.products.dto.request.ProductOrderRequest;
 import com.herostore.products.dto.response.ProductOrderResponse;
+import com.herostore.products.exception.InvalidExportRequestException;
 import com.herostore.products.exception.InvalidProductOrderLineException;
 import com.herostore.products.exception.ResourceNotFoundException;
 import com.herostore.products.exception.ServiceException;
 import com.herostore.products.exception.error.InvalidProductOrderLineError;
 import com.herostore.products.handler.ProductOrdersPDFWriter;
+import com.herostore.products.index.ProductStockIndex;
+import com.herostore.products.io.CSVWriter;
+import com.herostore.products.io.ExcelWriter;
+import com.herostore.products.io.NDJSONWriter;
+import com.herostore.products.io.ParquetColumn;
+import com.herostore.products.io.ParquetWriter;
+import com.herostore.products.io.PDFMerger;
+import com.herostore.products.io.PDFWriterSession;
+import com.herostore.products.io.WorkbookData;
 import com.herostore.products.mapper.ProductOrderMapper;
+import com.herostore.products.repository.ExportWatermarkRepository;
 import com.herostore.products.repository.ProductOrderRepository;
 import com.herostore.products.repository.ProductRepository;
 import com.herostore.products.service.ProductOrderService;
@@ -22,13 +39,27 @@ import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.regex.Pattern;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
+import static com.herostore.products.utils.TransactionUtils.runAfterCommit;
 import static java.util.stream.Collectors.toList;
 
 @Service
@@ -42,6 +73,42 @@ public class ProductOrderServiceImpl implements ProductOrderService {
     ProductOrderMapper productOrderMapper;
     ProductRepository productRepository;
     ProductOrdersPDFWriter pdfHandler;
+    CatalogVersion catalogVersion;
+    ProductStockIndex productStockIndex;
+    PDFMerger pdfMerger;
+    ForkJoinPool pdfRenderPool;
+    CSVWriter csvWriter;
+    ExcelWriter excelWriter;
+    ExportWatermarkRepository exportWatermarkRepository;
+    NDJSONWriter ndjsonWriter;
+    ParquetWriter parquetWriter;
+
+    static int EXPORT_PAGE_SIZE = 200;
+    static int EXPORT_CHUNK_SIZE = 1000;
+    static int CHUNK_OUTPUT_BUFFER_SIZE = 64 * 1024;
+    static Pattern CONSUMER_PATTERN = Pattern.compile("[A-Za-z0-9._-]{1,100}");
+
+    /**
+     * Time an order may take to commit once it's been given an id. Incremental exports stop at orders created
+     * before it, so that orders still being registered aren't skipped.
+     */
+    static Duration ORDER_SETTLE_TIME = Duration.ofMinutes(1);
+
+    static String[] EXPORT_LINE_HEADERS = {"Order ID", "Created at", "Product", "Price", "Quantity", "Line total", "Order total"};
+    static String[] EXPORT_LINE_FIELDS = {"productOrderId", "productOrderCreatedAt", "productName", "productPrice", "quantity", "total", "productOrderTotal"};
+    static int[] EXPORT_LINE_COLUMN_WIDTHS = {2500, 5000, 7000, 3000, 2500, 3000, 3000};
+
+    // Amounts are stored as NUMERIC(15, 6)
+    static List<ParquetColumn> EXPORT_LINE_PARQUET_COLUMNS = List.of(
+            ParquetColumn.int64("order_id", "productOrderId"),
+            ParquetColumn.timestamp("created_at", "productOrderCreatedAt"),
+            ParquetColumn.decimal("order_total", "productOrderTotal", 15, 6),
+            ParquetColumn.int64("line_id", "id"),
+            ParquetColumn.int64("product_id", "productId"),
+            ParquetColumn.string("product_name", "productName"),
+            ParquetColumn.decimal("product_price", "productPrice", 15, 6),
+            ParquetColumn.int32("quantity", "quantity"),
+            ParquetColumn.decimal("line_total", "total", 15, 6));
 
     /**
      * Returns existing product orders.
@@ -59,12 +126,14 @@ public class ProductOrderServiceImpl implements ProductOrderService {
     }
 
     /**
-     * Registers a product order.
+     * Registers a product order. The stock index and the catalog version only change once the order and its
+     * stock changes are committed, so that exports cached for the new version include the order.
      *
      * @param productOrderRequest product order request.
      * @return the created product order.
      */
     @Override
+    @Transactional
     public ProductOrderResponse registerProductOrder(ProductOrderRequest productOrderRequest) {
         try {
             var productIds = productOrderRequest.getOrderLines()
@@ -88,9 +157,13 @@ public class ProductOrderServiceImpl implements ProductOrderService {
                     .build();
 
             productRepository.saveAll(products);
-
             var createdProductOrder = productOrderRepository.save(paymentOrder);
 
+            runAfterCommit(() -> {
+                products.forEach(p -> productStockIndex.update(p.getId(), p.getStock()));
+                catalogVersion.increment();
+            });
+
             return productOrderMapper.toProductOrderResponse(createdProductOrder);
         } catch (ResourceNotFoundException rnfExc) {
             logger.error(rnfExc.getMessage());
@@ -105,32 +178,297 @@ public class ProductOrderServiceImpl implements ProductOrderService {
     }
 
     /**
-     * Exports all product orders to a file.
+     * Exports the product orders of a range to a file. CSV, Excel, NDJSON and Parquet files have one row per
+     * order line, written as rows are read from a database cursor.
+     * <p>
+     * PDF orders are read page by page, so that only one page of orders is held in memory at a time. Exports
+     * larger than {@value #EXPORT_CHUNK_SIZE} orders are split into chunks of consecutive ids, rendered in
+     * parallel and merged in order.
      *
      * @param os       output stream that the file will be written to.
-     * @param fileType file type (PDF, Excel, CSV) to export.
+     * @param fileType file type (PDF, Excel, CSV, NDJSON, Parquet) to export.
+     * @param range    product orders to export, {@link ProductOrderExportRange#ALL} for all of them.
      */
     @Override
-    public void exportProductOrders(OutputStream os, FileType fileType) {
+    @Transactional(readOnly = true)
+    public void exportProductOrders(OutputStream os, FileType fileType, ProductOrderExportRange range) {
         try {
-            var productOrders = getAllProductOrders();
-
-            if (fileType != FileType.PDF) {
-                throw new IllegalArgumentException("File format " + fileType.getDesc() + " not valid.");
+            switch (fileType) {
+                case CSV:
+                    exportProductOrderLinesToCSV(os, range);
+                    break;
+                case EXCEL:
+                    exportProductOrderLinesToExcel(os, range);
+                    break;
+                case NDJSON:
+                    exportProductOrderLinesToNDJSON(os, range);
+                    break;
+                case PARQUET:
+                    exportProductOrderLinesToParquet(os, range);
+                    break;
+                default:
+                    exportProductOrdersToPDF(os, range);
             }
-
-            pdfHandler.setProductOrders(productOrders);
-            pdfHandler.createDocument(os);
-            pdfHandler.openDocument();
-            pdfHandler.writeDocument();
-            pdfHandler.closeDocument();
         } catch (Exception exc) {
-            if (exc instanceof IllegalArgumentException) throw exc;
             logger.error("Couldn't generate product orders {} file", fileType.getDesc(), exc);
             throw new ServiceException("Couldn't generate product orders " + fileType.getDesc() + " file", exc);
         }
     }
 
+    /**
+     * Resolves the product orders of an incremental export. Dates are resolved to the last order created until
+     * them, since order ids grow as orders are created. The range's end is fixed to an existing order, so
+     * orders registered while the export is written are left for the next one.
+     * <p>
+     * Ids are handed out when orders are saved, before they're committed, so an order with a lower id than the
+     * last committed one may still be invisible. The range therefore ends at the last order created at least
+     * {@link #ORDER_SETTLE_TIME} ago: every order with a lower id got it even earlier, so as long as orders
+     * commit within that time of being saved, none is skipped by moving the watermark to the range's end.
+     *
+     * @param since    bound the export starts after, the consumer's watermark when missing.
+     * @param until    last bound included in the export, the last settled order when missing.
+     * @param consumer name of the consumer whose watermark is used, optional.
+     * @return the range of product orders to export.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ProductOrderExportRange getExportRange(ExportBound since, ExportBound until, String consumer) {
+        if (consumer != null && !CONSUMER_PATTERN.matcher(consumer).matches()) {
+            logger.error("Couldn't resolve product orders export range: consumer {} not valid", consumer);
+            throw new InvalidExportRequestException("Consumer must have up to 100 letters, digits, '.', '_' or '-'");
+        }
+
+        try {
+            long afterId;
+            if (since != null) {
+                afterId = toProductOrderId(since);
+            } else if (consumer != null) {
+                afterId = exportWatermarkRepository.findById(consumer)
+                        .map(ExportWatermark::getLastProductOrderId)
+                        .orElse(0L);
+            } else {
+                afterId = 0L;
+            }
+
+            var settledLastId = productOrderRepository.findLastIdCreatedUntil(
+                    LocalDateTime.now().minus(ORDER_SETTLE_TIME));
+            var lastId = settledLastId == null ? 0L : settledLastId;
+            if (until != null) {
+                lastId = Math.min(lastId, toProductOrderId(until));
+            }
+
+            var lastExistingId = productOrderRepository.findLastIdBetween(afterId, lastId);
+
+            return new ProductOrderExportRange(afterId, lastExistingId == null ? afterId : lastExistingId);
+        } catch (Exception e) {
+            logger.error("Couldn't resolve product orders export range", e);
+            throw new ServiceException("Couldn't resolve product orders export range", e);
+        }
+    }
+
+    /**
+     * Moves a consumer's watermark to the end of a range it has been sent. Watermarks never move backwards, so
+     * re-exporting older orders doesn't make the next incremental export repeat newer ones.
+     *
+     * @param consumer name of the consumer.
+     * @param range    product orders the consumer has been sent.
+     */
+    @Override
+    @Transactional
+    public void saveExportWatermark(String consumer, ProductOrderExportRange range) {
+        try {
+            var watermark = exportWatermarkRepository.findById(consumer)
+                    .orElseGet(() -> new ExportWatermark(consumer, 0L, null));
+            watermark.advanceTo(range.getLastId());
+
+            exportWatermarkRepository.save(watermark);
+        } catch (Exception e) {
+            logger.error("Couldn't save export watermark of consumer {}", consumer, e);
+            throw new ServiceException("Couldn't save export watermark of consumer " + consumer, e);
+        }
+    }
+
+    private long toProductOrderId(ExportBound bound) {
+        if (bound.isProductOrderId()) return bound.getProductOrderId();
+
+        var lastId = productOrderRepository.findLastIdCreatedUntil(bound.getCreatedAt());
+        return lastId == null ? 0L : lastId;
+    }
+
+    private void exportProductOrderLinesToCSV(OutputStream os, ProductOrderExportRange range) throws IOException {
+        try (var productOrderLines = productOrderRepository.streamExportLines(range.getAfterId(), range.getLastId())) {
+            csvWriter.write(os, EXPORT_LINE_HEADERS, EXPORT_LINE_FIELDS, productOrderLines);
+        }
+    }
+
+    private void exportProductOrderLinesToExcel(OutputStream os, ProductOrderExportRange range) throws IOException {
+        var workbookData = WorkbookData.builder()
+                .sheetName("Payment orders")
+                .columnWidths(EXPORT_LINE_COLUMN_WIDTHS)
+                .headers(EXPORT_LINE_HEADERS)
+                .fields(EXPORT_LINE_FIELDS)
+                .build();
+
+        try (var productOrderLines = productOrderRepository.streamExportLines(range.getAfterId(), range.getLastId())) {
+            excelWriter.writeWorkbook(os, workbookData, productOrderLines);
+        }
+    }
+
+    private void exportProductOrderLinesToNDJSON(OutputStream os, ProductOrderExportRange range) throws IOException {
+        try (var productOrderLines = productOrderRepository.streamExportLines(range.getAfterId(), range.getLastId())) {
+            ndjsonWriter.write(os, EXPORT_LINE_FIELDS, EXPORT_LINE_FIELDS, productOrderLines);
+        }
+    }
+
+    private void exportProductOrderLinesToParquet(OutputStream os, ProductOrderExportRange range) throws IOException {
+        try (var productOrderLines = productOrderRepository.streamExportLines(range.getAfterId(), range.getLastId())) {
+            parquetWriter.write(os, EXPORT_LINE_PARQUET_COLUMNS, productOrderLines);
+        }
+    }
+
+    private void exportProductOrdersToPDF(OutputStream os, ProductOrderExportRange range) throws IOException {
+        var firstChunkLastId = findChunkLastId(range.getAfterId(), range.getLastId());
+
+        if (firstChunkLastId == range.getLastId()) {
+            try (var document = pdfHandler.openSession(os)) {
+                writeProductOrders(document, range.getAfterId(), range.getLastId());
+            }
+        } else {
+            exportProductOrdersInChunks(os, range, firstChunkLastId);
+        }
+    }
+
+    /**
+     * Keeps up to twice the pool's parallelism chunks in flight: workers render the next chunks to temporary
+     * files while the calling thread appends the oldest finished chunk to the output.
+     */
+    private void exportProductOrdersInChunks(OutputStream os, ProductOrderExportRange range, long firstChunkLastId)
+            throws IOException {
+        var maxChunksInFlight = pdfRenderPool.getParallelism() * 2;
+        Deque<ForkJoinTask<Path>> chunks = new ArrayDeque<>();
+        var chunkAfterId = range.getAfterId();
+        var chunkLastId = firstChunkLastId;
+        var firstChunk = true;
+
+        try (var document = pdfMerger.openSession(os)) {
+            while (true) {
+                while (chunks.size() < maxChunksInFlight && chunkAfterId != range.getLastId()) {
+                    var afterId = chunkAfterId;
+                    var lastId = chunkLastId;
+                    var withTitle = firstChunk;
+
+                    chunks.add(pdfRenderPool.submit(ForkJoinTask.adapt(() -> renderChunk(afterId, lastId, withTitle))));
+
+                    firstChunk = false;
+                    chunkAfterId = lastId;
+                    chunkLastId = lastId == range.getLastId() ? lastId : findChunkLastId(lastId, range.getLastId());
+                }
+
+                if (chunks.isEmpty()) break;
+
+                var chunk = chunks.poll().join();
+                if (chunk != null) {
+                    try {
+                        document.append(chunk);
+                    } finally {
+                        Files.deleteIfExists(chunk);
+                    }
+                }
+            }
+        } finally {
+            discardChunks(chunks);
+        }
+    }
+
+    private Path renderChunk(long afterId, long lastId, boolean withTitle) throws IOException {
+        var productOrderIds = productOrderRepository.findIdsBetween(afterId, lastId, PageRequest.of(0, EXPORT_PAGE_SIZE));
+        if (productOrderIds.isEmpty()) return null;
+
+        var chunk = Files.createTempFile("product-orders-", ".pdf");
+
+        try (var os = new BufferedOutputStream(Files.newOutputStream(chunk), CHUNK_OUTPUT_BUFFER_SIZE);
+             var document = withTitle ? pdfHandler.openSession(os) : pdfHandler.openContinuationSession(os)) {
+            writeProductOrders(document, productOrderIds, lastId);
+            return chunk;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(chunk);
+            throw e;
+        }
+    }
+
+    private void discardChunks(Deque<ForkJoinTask<Path>> chunks) {
+        for (var chunk : chunks) {
+            chunk.cancel(false);
+            if (chunk.isCancelled()) continue;
+
+            chunk.quietlyJoin();
+            var file = chunk.isCompletedNormally() ? chunk.getRawResult() : null;
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    logger.warn("Couldn't delete product orders chunk {}", file, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the id of the last order of the chunk following the given id, or the range's last id when the
+     * remaining orders fit in a single chunk.
+     */
+    private long findChunkLastId(long afterId, long rangeLastId) {
+        var ids = productOrderRepository.findIdsBetween(afterId, rangeLastId, PageRequest.of(EXPORT_CHUNK_SIZE - 1, 1));
+        return ids.isEmpty() ? rangeLastId : ids.get(0);
+    }
+
+    private void writeProductOrders(PDFWriterSession<ProductOrderResponse> document, long afterId, long lastId) {
+        var productOrderIds = productOrderRepository.findIdsBetween(afterId, lastId, PageRequest.of(0, EXPORT_PAGE_SIZE));
+        writeProductOrders(document, productOrderIds, lastId);
+    }
+
+    private void writeProductOrders(PDFWriterSession<ProductOrderResponse> document,
+                                    List<Long> productOrderIds, long lastId) {
+        while (!productOrderIds.isEmpty()) {
+            var productOrderLines = productOrderRepository.findExportLinesByProductOrderIdIn(productOrderIds);
+            toProductOrderResponses(productOrderLines).forEach(document::write);
+            document.flush();
+
+            if (productOrderIds.size() < EXPORT_PAGE_SIZE) break;
+
+            var lastExportedId = productOrderIds.get(productOrderIds.size() - 1);
+            productOrderIds = productOrderRepository.findIdsBetween(lastExportedId, lastId, PageRequest.of(0, EXPORT_PAGE_SIZE));
+        }
+    }
+
+    private List<ProductOrderResponse> toProductOrderResponses(List<ProductOrderLineExportDTO> productOrderLines) {
+        var productOrders = new ArrayList<ProductOrderResponse>();
+        ProductOrderResponse productOrder = null;
+
+        for (var line : productOrderLines) {
+            if (productOrder == null || !productOrder.getId().equals(line.getProductOrderId())) {
+                productOrder = ProductOrderResponse.builder()
+                        .id(line.getProductOrderId())
+                        .createdAt(line.getProductOrderCreatedAt())
+                        .total(line.getProductOrderTotal())
+                        .productOrderLines(new ArrayList<>())
+                        .build();
+                productOrders.add(productOrder);
+            }
+
+            productOrder.getProductOrderLines().add(ProductOrderLineDTO.builder()
+                    .id(line.getId())
+                    .productId(line.getProductId())
+                    .productName(line.getProductName())
+                    .productPrice(line.getProductPrice())
+                    .quantity(line.getQuantity())
+                    .total(line.getTotal())
+                    .build());
+        }
+
+        return productOrders;
+    }
+
     private List<ProductOrderLine> zipToProductOrderLines(
             List<ProductOrderLineRequest> orderLines, List<Product> products) {
         var productOrders = new ArrayList<ProductOrderLine>();
@@ -1,15 +1,28 @@
 package com.herostore.products.service.impl;
 
+import com.herostore.products.cache.CatalogVersion;
 import com.herostore.products.constants.FileType;
+import com.herostore.products.constants.ProductExportField;
 import com.herostore.products.constants.ProductStockCondition;
 import com.herostore.products.domain.Product;
 import com.herostore.products.domain.ProductType;
+import com.herostore.products.dto.ProductExportDTO;
+import com.herostore.products.dto.request.PriceChangeRequest;
 import com.herostore.products.dto.request.ProductRequest;
+import com.herostore.products.dto.request.StockAdjustmentsRequest;
+import com.herostore.products.dto.response.PriceChangeResponse;
 import com.herostore.products.dto.response.ProductResponse;
+import com.herostore.products.dto.response.ProductStockResponse;
+import com.herostore.products.dto.response.ProductSuggestionResponse;
+import com.herostore.products.exception.InvalidPriceChangeException;
+import com.herostore.products.exception.InvalidStockAdjustmentException;
 import com.herostore.products.exception.ResourceNotFoundException;
 import com.herostore.products.exception.ServiceException;
+import com.herostore.products.index.ProductNameIndex;
+import com.herostore.products.index.ProductStockIndex;
 import com.herostore.products.io.CSVWriter;
 import com.herostore.products.io.ExcelWriter;
+import com.herostore.products.io.NDJSONWriter;
 import com.herostore.products.io.WorkbookData;
 import com.herostore.products.mapper.ProductMapper;
 import com.herostore.products.mapper.ProductTypeMapper;
@@ -21,11 +34,21 @@ import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static com.herostore.products.utils.TransactionUtils.runAfterCommit;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 
 @Service
 @AllArgsConstructor
@@ -40,6 +63,17 @@ public class ProductServiceImpl implements ProductService {
     ProductTypeMapper productTypeMapper;
     CSVWriter csvWriter;
     ExcelWriter excelWriter;
+    CatalogVersion catalogVersion;
+    ProductStockIndex productStockIndex;
+    ProductNameIndex productNameIndex;
+    NDJSONWriter ndjsonWriter;
+
+    static int FETCH_BATCH_SIZE = 1000;
+
+    /**
+     * Greatest price that fits the price columns, {@code NUMERIC(15, 6)}.
+     */
+    static BigDecimal MAX_PRICE = new BigDecimal("999999999.999999");
 
     /**
      * Retrieves all existing products.
@@ -55,9 +89,9 @@ public class ProductServiceImpl implements ProductService {
             }
 
             var inStock = stockCondition.equals(ProductStockCondition.AVAILABLE);
+            var productIds = productStockIndex.getProductIds(inStock);
 
-            return productMapper.toProductResponseList(
-                    productRepository.retrieveProductsByStockCondition(inStock));
+            return productMapper.toProductResponseList(findProductsByIds(productIds));
         } catch (Exception e) {
             logger.error("getAllProducts(): Couldn't retrieve all products.", e);
             throw new ServiceException("Couldn't retrieve all products", e);
@@ -68,20 +102,27 @@ public class ProductServiceImpl implements ProductService {
      * Exports products to a file.
      *
      * @param os             output stream to which the file will be written.
-     * @param fileType       file type (PDF, Excel, CSV) to export.
+     * @param fileType       file type (Excel, CSV, NDJSON) to export.
      * @param stockCondition product stock condition filter
+     * @param fields         columns to export, in their declaration order. Only these are read from the
+     *                       database; all of them are exported when empty.
      */
     @Override
-    public void exportProductsToFile(OutputStream os, FileType fileType, ProductStockCondition stockCondition) {
-        var products = getAllProducts(stockCondition);
+    @Transactional(readOnly = true)
+    public void exportProductsToFile(OutputStream os, FileType fileType, ProductStockCondition stockCondition,
+                                     List<ProductExportField> fields) {
+        var selection = ProductExportField.selectionOf(fields);
 
-        try {
+        try (var products = productRepository.streamProducts(stockCondition, selection)) {
             switch (fileType) {
                 case CSV:
-                    exportToCSV(os, products);
+                    exportToCSV(os, selection, products);
                     break;
                 case EXCEL:
-                    exportToExcel(os, products);
+                    exportToExcel(os, selection, products);
+                    break;
+                case NDJSON:
+                    exportToNDJSON(os, selection, products);
                     break;
                 default:
                     throw new IllegalArgumentException("Format type " + fileType.name() + " not valid");
@@ -92,6 +133,23 @@ public class ProductServiceImpl implements ProductService {
         }
     }
 
+    /**
+     * Suggests products whose names match the text typed so far.
+     *
+     * @param query text typed by the user.
+     * @param limit maximum amount of suggestions.
+     * @return the best matching products, best match first.
+     */
+    @Override
+    public List<ProductSuggestionResponse> suggestProducts(String query, int limit) {
+        try {
+            return productNameIndex.suggest(query, limit);
+        } catch (Exception e) {
+            logger.error("suggestProducts({}, {}): Couldn't suggest products", query, limit, e);
+            throw new ServiceException("Couldn't suggest products", e);
+        }
+    }
+
     /**
      * Retrieves a product by a given id.
      *
@@ -128,8 +186,12 @@ public class ProductServiceImpl implements ProductService {
         try {
             var productType = getProductTypeById(productRequest.getProductTypeId());
             var newProduct = productMapper.toProduct(productRequest, productType);
+            var createdProduct = productRepository.save(newProduct);
+            productStockIndex.update(createdProduct.getId(), createdProduct.getStock());
+            productNameIndex.put(createdProduct.getId(), createdProduct.getName());
+            catalogVersion.increment();
 
-            return productMapper.toProductResponse(productRepository.save(newProduct));
+            return productMapper.toProductResponse(createdProduct);
         } catch (Exception e) {
             logger.error("createProduct({}): Couldn't create Product", productRequest, e);
             throw new ServiceException("Couldn't create Product", e);
@@ -155,7 +217,12 @@ public class ProductServiceImpl implements ProductService {
                     });
 
             updatedProduct = updateProductDetails(product, updatedProduct);
-            return productMapper.toProductResponse(productRepository.save(updatedProduct));
+            var savedProduct = productRepository.save(updatedProduct);
+            productStockIndex.update(savedProduct.getId(), savedProduct.getStock());
+            productNameIndex.put(savedProduct.getId(), savedProduct.getName());
+            catalogVersion.increment();
+
+            return productMapper.toProductResponse(savedProduct);
         } catch (ResourceNotFoundException rnfExc) {
             logger.error(rnfExc.getMessage());
             throw rnfExc;
@@ -179,6 +246,9 @@ public class ProductServiceImpl implements ProductService {
                         throw new ResourceNotFoundException("Product not found for id " + id);
                     });
             productRepository.delete(productToDelete);
+            productStockIndex.remove(id);
+            productNameIndex.remove(id);
+            catalogVersion.increment();
         } catch (ResourceNotFoundException rnfExc) {
             logger.error(rnfExc.getMessage());
             throw rnfExc;
@@ -188,27 +258,150 @@ public class ProductServiceImpl implements ProductService {
         }
     }
 
-    private void exportToCSV(OutputStream os, List<ProductResponse> products) throws IOException {
-        var headers = new String[]{"ID", "Name", "Product Type", "Price", "Stock"};
-        var fieldNames = new String[]{"id", "name", "productTypeName", "price", "stock"};
+    /**
+     * Adds deltas to the stock of products, all of them or none in a single transaction. Deltas of the same
+     * product are added up.
+     * <p>
+     * Products are locked in ascending id order, so concurrent adjustments can't deadlock, and their stocks are
+     * checked before they're incremented in the database with a single statement, without loading entities.
+     * The stock index and the catalog version are only updated once the adjustments are committed.
+     *
+     * @param stockAdjustments deltas to add to the stock of products, negative to take stock out.
+     * @return the new stock of the adjusted products, in ascending id order.
+     */
+    @Override
+    @Transactional
+    public List<ProductStockResponse> adjustStocks(StockAdjustmentsRequest stockAdjustments) {
+        try {
+            var deltas = new TreeMap<Long, Long>();
+            for (var adjustment : stockAdjustments.getAdjustments()) {
+                deltas.merge(adjustment.getProductId(), adjustment.getDelta().longValue(), Long::sum);
+            }
+
+            var stocks = productRepository.lockStocks(new ArrayList<>(deltas.keySet()));
 
-        csvWriter.write(os, headers, fieldNames, products);
+            var missingIds = deltas.keySet()
+                    .stream()
+                    .filter(id -> !stocks.containsKey(id))
+                    .map(String::valueOf)
+                    .collect(joining(", "));
+            if (!missingIds.isEmpty()) {
+                throw new ResourceNotFoundException("Products not found for ids " + missingIds);
+            }
+
+            var outOfRangeIds = deltas.entrySet()
+                    .stream()
+                    .filter(delta -> !isValidStock(stocks.get(delta.getKey()) + delta.getValue()))
+                    .map(delta -> String.valueOf(delta.getKey()))
+                    .collect(joining(", "));
+            if (!outOfRangeIds.isEmpty()) {
+                throw new InvalidStockAdjustmentException(
+                        "Stock must stay between 0 and " + Integer.MAX_VALUE + " for products " + outOfRangeIds);
+            }
+
+            // Valid deltas fit in an int, as both the current and the new stock do
+            var intDeltas = new TreeMap<Long, Integer>();
+            deltas.forEach((id, delta) -> intDeltas.put(id, delta.intValue()));
+
+            var adjustedStocks = productRepository.addStocks(intDeltas);
+            runAfterCommit(() -> {
+                adjustedStocks.forEach(productStockIndex::update);
+                catalogVersion.increment();
+            });
+
+            return intDeltas.keySet()
+                    .stream()
+                    .map(id -> new ProductStockResponse(id, adjustedStocks.get(id)))
+                    .collect(toList());
+        } catch (ResourceNotFoundException | InvalidStockAdjustmentException exc) {
+            logger.error(exc.getMessage());
+            throw exc;
+        } catch (Exception e) {
+            logger.error("adjustStocks({}): Couldn't adjust product stocks", stockAdjustments, e);
+            throw new ServiceException("Couldn't adjust product stocks", e);
+        }
     }
 
-    private void exportToExcel(OutputStream outputStream, List<ProductResponse> products) throws IOException {
-        var columnWidths = new int[]{2000, 7000, 7000, 3000, 2000};
-        var headers = new String[]{"ID", "Name", "Product type", "Price", "Stock"};
-        var fields = new String[]{"id", "name", "productTypeName", "price", "stock"};
+    /**
+     * Changes the price of all the products of a product type, or of all products, that match a stock
+     * condition. New prices are computed and rounded in the database by a single set-based update, without
+     * loading any product. Changes that would take any price past what the database can store are rejected
+     * as a whole.
+     *
+     * @param priceChange percentage or amount to change the prices by, and the products to change.
+     * @return the amount of updated products.
+     */
+    @Override
+    public PriceChangeResponse changePrices(PriceChangeRequest priceChange) {
+        try {
+            if (priceChange.getProductTypeId() != null) {
+                productTypeService.getProductTypeById(priceChange.getProductTypeId());
+            }
+
+            int updated;
+            try {
+                updated = productRepository.changePrices(priceChange);
+            } catch (DataIntegrityViolationException e) {
+                throw new InvalidPriceChangeException("New prices cannot be greater than " + MAX_PRICE);
+            }
+
+            if (updated > 0) {
+                catalogVersion.increment();
+            }
+
+            return new PriceChangeResponse(updated);
+        } catch (ResourceNotFoundException | InvalidPriceChangeException exc) {
+            logger.error(exc.getMessage());
+            throw exc;
+        } catch (Exception e) {
+            logger.error("changePrices({}): Couldn't change product prices", priceChange, e);
+            throw new ServiceException("Couldn't change product prices", e);
+        }
+    }
+
+    private List<Product> findProductsByIds(List<Long> productIds) {
+        var products = new ArrayList<Product>(productIds.size());
+
+        for (var from = 0; from < productIds.size(); from += FETCH_BATCH_SIZE) {
+            var to = Math.min(from + FETCH_BATCH_SIZE, productIds.size());
+            products.addAll(productRepository.findByIdIn(productIds.subList(from, to)));
+        }
+
+        return products;
+    }
+
+    private void exportToCSV(OutputStream os, List<ProductExportField> selection, Stream<ProductExportDTO> products)
+            throws IOException {
+        csvWriter.write(os, headersOf(selection), propertiesOf(selection), products);
+    }
+
+    private void exportToExcel(OutputStream outputStream, List<ProductExportField> selection,
+                               Stream<ProductExportDTO> products) throws IOException {
+        var columnWidths = selection.stream().mapToInt(ProductExportField::getColumnWidth).toArray();
 
         var workbookData = WorkbookData.builder()
                 .sheetName("Products")
                 .columnWidths(columnWidths)
-                .headers(headers)
-                .fields(fields)
+                .headers(headersOf(selection))
+                .fields(propertiesOf(selection))
                 .build();
 
-        excelWriter.withData(workbookData);
-        excelWriter.writeWorkbook(outputStream, products);
+        excelWriter.writeWorkbook(outputStream, workbookData, products);
+    }
+
+    private void exportToNDJSON(OutputStream os, List<ProductExportField> selection, Stream<ProductExportDTO> products)
+            throws IOException {
+        var keys = selection.stream().map(ProductExportField::getValue).toArray(String[]::new);
+
+        ndjsonWriter.write(os, keys, propertiesOf(selection), products);
+    }
+
+    private static String[] headersOf(List<ProductExportField> selection) {
+        return selection.stream().map(ProductExportField::getHeader).toArray(String[]::new);
+    }
+
+    private static String[] propertiesOf(List<ProductExportField> selection) {
+        return selection.stream().map(ProductExportField::getProperty).toArray(String[]::new);
     }
 
     private Product updateProductDetails(Product old, Product updated) {
@@ -221,6 +414,10 @@ public class ProductServiceImpl implements ProductService {
                 .build();
     }
 
+    private static boolean isValidStock(long stock) {
+        return stock >= 0 && stock <= Integer.MAX_VALUE;
+    }
+
     private ProductType getProductTypeById(Long id) {
         return productTypeMapper.toProductType(productTypeService.getProductTypeById(id));
     }
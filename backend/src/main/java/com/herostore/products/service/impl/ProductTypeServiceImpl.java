@@ -1,11 +1,15 @@
 package com.herostore.products.service.impl;
 
+import com.herostore.products.cache.CatalogVersion;
 import com.herostore.products.constants.FileType;
 import com.herostore.products.dto.ProductTypeDTO;
 import com.herostore.products.exception.ResourceNotFoundException;
 import com.herostore.products.exception.ServiceException;
+import com.herostore.products.index.ProductNameIndex;
+import com.herostore.products.index.ProductStockIndex;
 import com.herostore.products.io.CSVWriter;
 import com.herostore.products.io.ExcelWriter;
+import com.herostore.products.io.NDJSONWriter;
 import com.herostore.products.io.WorkbookData;
 import com.herostore.products.mapper.ProductTypeMapper;
 import com.herostore.products.repository.ProductTypeRepository;
@@ -16,10 +20,12 @@ import lombok.experimental.FieldDefaults;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor
@@ -32,6 +38,10 @@ public class ProductTypeServiceImpl implements ProductTypeService {
     ProductTypeMapper productTypeMapper;
     CSVWriter csvWriter;
     ExcelWriter excelWriter;
+    CatalogVersion catalogVersion;
+    ProductStockIndex productStockIndex;
+    ProductNameIndex productNameIndex;
+    NDJSONWriter ndjsonWriter;
 
     /**
      * Retrieves all existing product types.
@@ -52,13 +62,12 @@ public class ProductTypeServiceImpl implements ProductTypeService {
      * Exports all product types to a file.
      *
      * @param os       output stream to which the file will be written.
-     * @param fileType file type (PDF, Excel, CSV) to export.
+     * @param fileType file type (Excel, CSV, NDJSON) to export.
      */
     @Override
+    @Transactional(readOnly = true)
     public void exportProductTypesToFile(OutputStream os, FileType fileType) {
-        var productTypes = getAllProductTypes();
-
-        try {
+        try (var productTypes = productTypeRepository.streamAllProductTypes()) {
             switch (fileType) {
                 case CSV:
                     exportToCSV(os, productTypes);
@@ -66,6 +75,9 @@ public class ProductTypeServiceImpl implements ProductTypeService {
                 case EXCEL:
                     exportToExcel(os, productTypes);
                     break;
+                case NDJSON:
+                    exportToNDJSON(os, productTypes);
+                    break;
                 default:
                     throw new IllegalArgumentException("Format type " + fileType.name() + " not valid");
             }
@@ -110,8 +122,10 @@ public class ProductTypeServiceImpl implements ProductTypeService {
     public ProductTypeDTO createProductType(ProductTypeDTO newProductType) {
         try {
             var productType = productTypeMapper.toProductType(newProductType);
-            return productTypeMapper
-                    .toProductTypeDTO(productTypeRepository.save(productType));
+            var createdProductType = productTypeRepository.save(productType);
+            catalogVersion.increment();
+
+            return productTypeMapper.toProductTypeDTO(createdProductType);
         } catch (Exception e) {
             logger.error("createProductType({}): ", newProductType, e);
             throw new ServiceException("Couldn't create product type", e);
@@ -136,8 +150,10 @@ public class ProductTypeServiceImpl implements ProductTypeService {
                     });
 
             existingProductType.updateName(updatedProductType.getName());
+            var savedProductType = productTypeRepository.save(existingProductType);
+            catalogVersion.increment();
 
-            return productTypeMapper.toProductTypeDTO(productTypeRepository.save(existingProductType));
+            return productTypeMapper.toProductTypeDTO(savedProductType);
         } catch (ResourceNotFoundException rnfExc) {
             logger.error(rnfExc.getMessage());
             throw rnfExc;
@@ -162,6 +178,9 @@ public class ProductTypeServiceImpl implements ProductTypeService {
                     });
 
             productTypeRepository.delete(productTypeToDelete);
+            productStockIndex.invalidate();
+            productNameIndex.invalidate();
+            catalogVersion.increment();
         } catch (ResourceNotFoundException rfnExc) {
             logger.error(rfnExc.getMessage());
             throw rfnExc;
@@ -171,14 +190,14 @@ public class ProductTypeServiceImpl implements ProductTypeService {
         }
     }
 
-    private void exportToCSV(OutputStream os, List<ProductTypeDTO> productTypes) throws IOException {
+    private void exportToCSV(OutputStream os, Stream<ProductTypeDTO> productTypes) throws IOException {
         var headers = new String[]{"ID", "Name"};
         var fields = new String[]{"id", "name"};
 
         csvWriter.write(os, headers, fields, productTypes);
     }
 
-    private void exportToExcel(OutputStream outputStream, List<ProductTypeDTO> productTypes) throws IOException {
+    private void exportToExcel(OutputStream outputStream, Stream<ProductTypeDTO> productTypes) throws IOException {
         var columnWidths = new int[]{2000, 7000};
         var headers = new String[]{"ID", "Name"};
         var fields = new String[]{"id", "name"};
@@ -190,8 +209,13 @@ public class ProductTypeServiceImpl implements ProductTypeService {
                 .fields(fields)
                 .build();
 
-        excelWriter.withData(workbookData);
-        excelWriter.writeWorkbook(outputStream, productTypes);
+        excelWriter.writeWorkbook(outputStream, workbookData, productTypes);
+    }
+
+    private void exportToNDJSON(OutputStream os, Stream<ProductTypeDTO> productTypes) throws IOException {
+        var fields = new String[]{"id", "name"};
+
+        ndjsonWriter.write(os, fields, fields, productTypes);
     }
 
     private String getProductTypeNotFoundMessage(Long id) {
@@ -5,11 +5,20 @@ import java.time.format.DateTimeFormatter;
 
 public class DateUtils {
 
+    private static final DateTimeFormatter DAY_MONTH_YEAR_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final DateTimeFormatter EXPORT_DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private DateUtils() {
     }
 
     public static String toLocalizedDateTime(LocalDateTime dateTime) {
-        var dayMonthYearTimePattern = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-        return dateTime.format(dayMonthYearTimePattern);
+        return dateTime.format(DAY_MONTH_YEAR_TIME_FORMATTER);
+    }
+
+    /**
+     * Formats a date time with a fixed, sortable pattern (yyyy-MM-dd HH:mm:ss) meant for data files.
+     */
+    public static String toExportDateTime(LocalDateTime dateTime) {
+        return dateTime.format(EXPORT_DATE_TIME_FORMATTER);
     }
 }
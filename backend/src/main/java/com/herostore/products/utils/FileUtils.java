@@ -4,6 +4,9 @@ import com.herostore.products.constants.FileType;
 
 public class FileUtils {
 
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+    public static final String XLSX_MEDIA_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
     private FileUtils() {
     }
 
@@ -1,12 +1,30 @@
 package com.herostore.products.utils;
 
+import com.herostore.products.cache.CachedResponse;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
 
 public class HttpUtils {
 
+    private static final String GZIP_ENCODING = "gzip";
+    private static final String BYTES_UNIT = "bytes";
+    private static final long[] UNSATISFIABLE_RANGE = new long[0];
+
+    private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
     private HttpUtils() {
     }
 
@@ -14,4 +32,161 @@ public class HttpUtils {
         response.addHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
         response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
     }
+
+    public static void writeCachedResponse(
+            HttpServletRequest request, HttpServletResponse response, CachedResponse cachedResponse) throws IOException {
+        var body = cachedResponse.getBody();
+
+        var eTag = cachedResponse.getETag();
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (acceptsGzip(request)) {
+            body = cachedResponse.getGzipBody();
+            eTag = cachedResponse.getGzipETag();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+        }
+
+        response.setHeader(HttpHeaders.ETAG, eTag);
+
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Writes a file as the response body. When the connector supports it, the file is handed over to
+     * Tomcat's sendfile, which transfers it from the page cache straight into the socket once the request
+     * returns. Otherwise it's transferred from a file channel into the response stream.
+     * <p>
+     * A single byte range can be requested to resume an interrupted download; it's answered with a
+     * 206 Partial Content response, or 416 when the range starts past the end of the file. With If-Range,
+     * the range is only honored while the file still matches the given ETag or Last-Modified date, otherwise
+     * the whole file is sent. Multiple ranges aren't supported and are answered with the whole file too.
+     */
+    public static void writeFile(
+            HttpServletRequest request, HttpServletResponse response, Path file, long size) throws IOException {
+        var lastModified = Files.getLastModifiedTime(file).toMillis();
+        var eTag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(size) + "\"";
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, BYTES_UNIT);
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+
+        var start = 0L;
+        var end = size;
+
+        var rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && matchesIfRange(request, eTag, lastModified)) {
+            var range = parseRange(rangeHeader, size);
+
+            if (range == UNSATISFIABLE_RANGE) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, BYTES_UNIT + " */" + size);
+                response.setContentLengthLong(0);
+                return;
+            }
+
+            if (range != null) {
+                start = range[0];
+                end = range[1];
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, BYTES_UNIT + " " + start + "-" + (end - 1) + "/" + size);
+            }
+        }
+
+        response.setContentLengthLong(end - start);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTRIBUTE, start);
+            request.setAttribute(SENDFILE_END_ATTRIBUTE, end);
+            return;
+        }
+
+        try (var channel = FileChannel.open(file)) {
+            var target = Channels.newChannel(response.getOutputStream());
+            var position = start;
+
+            while (position < end) {
+                var transferred = channel.transferTo(position, end - position, target);
+                if (transferred <= 0) break;
+                position += transferred;
+            }
+        }
+    }
+
+    public static boolean acceptsGzip(HttpServletRequest request) {
+        for (var header : Collections.list(request.getHeaders(HttpHeaders.ACCEPT_ENCODING))) {
+            for (var encoding : header.split(",")) {
+                var parts = encoding.trim().split(";");
+                if (!GZIP_ENCODING.equalsIgnoreCase(parts[0].trim()) && !"*".equals(parts[0].trim())) {
+                    continue;
+                }
+                if (parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Without If-Range the range is always honored. A weak ETag never matches, and a date only matches
+     * the Last-Modified date, which has a precision of seconds.
+     */
+    private static boolean matchesIfRange(HttpServletRequest request, String eTag, long lastModified) {
+        var ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(eTag);
+        }
+
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parses a single byte range into its start and exclusive end, clamped to the file size. Returns null when
+     * the header is malformed or asks for several ranges, since the whole file is sent then.
+     */
+    private static long[] parseRange(String header, long size) {
+        if (!header.startsWith(BYTES_UNIT + "=")) {
+            return null;
+        }
+
+        var spec = header.substring(BYTES_UNIT.length() + 1).trim();
+        if (!spec.matches("\\d*-\\d*") || "-".equals(spec)) {
+            return null;
+        }
+
+        var separator = spec.indexOf('-');
+        var first = spec.substring(0, separator);
+        var last = spec.substring(separator + 1);
+
+        try {
+            if (first.isEmpty()) {
+                var suffixLength = Long.parseLong(last);
+                return suffixLength == 0 || size == 0
+                        ? UNSATISFIABLE_RANGE
+                        : new long[]{Math.max(size - suffixLength, 0), size};
+            }
+
+            var start = Long.parseLong(first);
+            var lastPosition = last.isEmpty() ? Long.MAX_VALUE - 1 : Long.parseLong(last);
+
+            if (lastPosition < start) {
+                return null;
+            }
+            return start >= size ? UNSATISFIABLE_RANGE : new long[]{start, Math.min(lastPosition + 1, size)};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
@@ -8,6 +8,9 @@ public class NumberUtils {
 
     private static final int SCALE_TWO_DECIMAL_PLACES = 2;
 
+    // NumberFormat isn't thread-safe, so each thread keeps its own instance
+    private static final ThreadLocal<NumberFormat> CURRENCY_FORMAT = ThreadLocal.withInitial(NumberFormat::getCurrencyInstance);
+
     private NumberUtils() {
     }
 
@@ -17,6 +20,6 @@ public class NumberUtils {
     }
 
     public static String toCurrencyFormat(BigDecimal value) {
-        return NumberFormat.getCurrencyInstance().format(value);
+        return CURRENCY_FORMAT.get().format(value);
     }
 }
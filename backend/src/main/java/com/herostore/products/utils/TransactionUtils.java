@@ -0,0 +1,29 @@
+package com.herostore.products.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TransactionUtils {
+
+    private TransactionUtils() {
+    }
+
+    /**
+     * Runs an action once the current transaction commits, so that in-memory state derived from the database
+     * is only changed for changes other requests can read, and never for changes that are rolled back. Outside
+     * of a transaction the action runs right away.
+     */
+    public static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS product_available_idx ON product (id) WHERE stock > 0;
+
+CREATE INDEX IF NOT EXISTS product_unavailable_idx ON product (id) WHERE stock = 0;
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS product_order_line_product_order_idx ON product_order_line (product_order_id, id);
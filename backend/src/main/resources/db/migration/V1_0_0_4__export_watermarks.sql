@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS export_watermark (
+    consumer VARCHAR(100) PRIMARY KEY,
+    last_product_order_id INTEGER NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS product_order_created_at_idx ON product_order (created_at);
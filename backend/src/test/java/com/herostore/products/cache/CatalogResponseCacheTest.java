@@ -0,0 +1,122 @@
+package com.herostore.products.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.herostore.products.exception.ResourceNotFoundException;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class CatalogResponseCacheTest {
+
+    CatalogVersion catalogVersion = new CatalogVersion();
+    CatalogResponseCache cache = new CatalogResponseCache(new ObjectMapper(), catalogVersion);
+
+    @Test
+    void shouldServeCachedResponseWhileCatalogIsUnchanged() {
+        var loads = new AtomicInteger();
+
+        var first = cache.get("key", () -> asList(loads.incrementAndGet(), 2, 3));
+        var second = cache.get("key", () -> asList(loads.incrementAndGet(), 2, 3));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals("[1,2,3]", new String(first.getBody()));
+        assertEquals(catalogVersion.getETag(), first.getETag());
+        assertEquals(catalogVersion.getGzipETag(), first.getGzipETag());
+        assertNotEquals(first.getETag(), first.getGzipETag());
+    }
+
+    @Test
+    void shouldRebuildResponseAfterCatalogChanges() {
+        var loads = new AtomicInteger();
+
+        cache.get("key", loads::incrementAndGet);
+        catalogVersion.increment();
+        var rebuilt = cache.get("key", loads::incrementAndGet);
+
+        assertEquals(2, loads.get());
+        assertEquals("2", new String(rebuilt.getBody()));
+        assertEquals(1, rebuilt.getVersion());
+    }
+
+    @Test
+    void shouldKeepGzipEncodingInSyncWithBody() throws IOException {
+        var cachedResponse = cache.get("key", () -> asList("Batman", "Iron Man"));
+
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(cachedResponse.getGzipBody()))) {
+            assertArrayEquals(cachedResponse.getBody(), gzip.readAllBytes());
+        }
+    }
+
+    @Test
+    void shouldShareSingleBuildBetweenConcurrentRequests() throws Exception {
+        var requests = 8;
+        var loads = new AtomicInteger();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(requests);
+
+        try {
+            var results = new ArrayList<Future<CachedResponse>>();
+            for (var i = 0; i < requests; i++) {
+                results.add(executor.submit(() -> cache.get("key", () -> {
+                    loads.incrementAndGet();
+                    started.countDown();
+                    awaitQuietly(release);
+                    return asList("Batman", "Iron Man");
+                })));
+            }
+
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertEquals("1", new String(cache.get("other", () -> 1).getBody()));
+            Thread.sleep(50);
+            release.countDown();
+
+            var first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (var result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void shouldPropagateFailedBuildAndRetryOnNextRequest() {
+        var exc = assertThrows(ResourceNotFoundException.class, () -> cache.get("key", () -> {
+            throw new ResourceNotFoundException("Catalog not found");
+        }));
+
+        assertEquals("Catalog not found", exc.getMessage());
+        assertEquals("2", new String(cache.get("key", () -> 2).getBody()));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.herostore.products.cache;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class CatalogVersionTest {
+
+    CatalogVersion catalogVersion = new CatalogVersion();
+
+    @Test
+    void shouldIncrementVersionMonotonically() {
+        var initialETag = catalogVersion.getETag();
+        var initialLastModified = catalogVersion.getLastModified();
+
+        assertEquals(1, catalogVersion.increment());
+        assertEquals(2, catalogVersion.increment());
+
+        assertEquals(2, catalogVersion.getVersion());
+        assertNotEquals(initialETag, catalogVersion.getETag());
+        assertTrue(catalogVersion.getLastModified() >= initialLastModified);
+    }
+
+    @Test
+    void shouldMoveLastModifiedToNextWholeSecondOnEveryIncrement() {
+        var initialLastModified = catalogVersion.getLastModified();
+
+        catalogVersion.increment();
+        var firstLastModified = catalogVersion.getLastModified();
+        catalogVersion.increment();
+        var secondLastModified = catalogVersion.getLastModified();
+
+        assertEquals(0, firstLastModified % 1000);
+        assertTrue(firstLastModified / 1000 > initialLastModified / 1000);
+        assertEquals(firstLastModified + 1000, secondLastModified);
+    }
+
+    @Test
+    void shouldBuildStrongETag() {
+        var eTag = catalogVersion.getETag();
+
+        assertTrue(eTag.startsWith("\""));
+        assertTrue(eTag.endsWith("-0\""));
+        assertEquals(eTag, catalogVersion.toETag(0));
+    }
+
+    @Test
+    void shouldBuildDistinctStrongETagForGzipEncoding() {
+        var gzipETag = catalogVersion.getGzipETag();
+
+        assertEquals(catalogVersion.getETag().replace("-0\"", "-0-gzip\""), gzipETag);
+        assertEquals(gzipETag, catalogVersion.toGzipETag(0));
+    }
+}
@@ -0,0 +1,225 @@
+package com.herostore.products.cache;
+
+import com.herostore.products.config.ExportProperties;
+import com.herostore.products.constants.Compression;
+import com.herostore.products.constants.ExportKind;
+import com.herostore.products.constants.FileType;
+import com.herostore.products.constants.ProductStockCondition;
+import com.herostore.products.exception.ServiceException;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.PackagePrivate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipInputStream;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ExportFileCacheTest {
+
+    @TempDir
+    @PackagePrivate
+    Path directory;
+
+    CatalogVersion catalogVersion = new CatalogVersion();
+    ExportProperties exportProperties;
+    ExportFileCache cache;
+
+    @BeforeEach
+    void runBeforeEach() {
+        exportProperties = new ExportProperties();
+        exportProperties.setCacheDirectory(directory.resolve("cache"));
+
+        cache = new ExportFileCache(exportProperties, catalogVersion);
+        cache.initCacheDirectory();
+    }
+
+    @Test
+    void shouldServeCachedFileWhileCatalogIsUnchanged() throws IOException {
+        var generations = new AtomicInteger();
+
+        var first = getProducts(generations);
+        var second = getProducts(generations);
+
+        assertSame(first, second);
+        assertEquals(1, generations.get());
+        assertEquals("ID,Name\r\n1\r\n", Files.readString(first.getPath()));
+        assertEquals(Files.size(first.getPath()), first.getSize());
+    }
+
+    @Test
+    void shouldRegenerateFileAfterCatalogChanges() throws IOException {
+        var generations = new AtomicInteger();
+
+        var first = getProducts(generations);
+        catalogVersion.increment();
+        var regenerated = getProducts(generations);
+
+        assertEquals(2, generations.get());
+        assertEquals(1, regenerated.getVersion());
+        assertNotEquals(first.getPath(), regenerated.getPath());
+        assertEquals("ID,Name\r\n2\r\n", Files.readString(regenerated.getPath()));
+
+        cache.removeRetiredFiles();
+
+        assertTrue(Files.exists(first.getPath()), "Superseded file removed during its grace period");
+    }
+
+    @Test
+    void shouldKeepExportsWithDifferentParametersApart() {
+        var generations = new AtomicInteger();
+
+        var csv = getProducts(generations);
+        var excel = cache.get(ExportKind.PRODUCTS, FileType.EXCEL, ProductStockCondition.ALL,
+                emptyList(), Compression.NONE, os -> generations.incrementAndGet());
+        var available = cache.get(ExportKind.PRODUCTS, FileType.CSV, ProductStockCondition.AVAILABLE,
+                emptyList(), Compression.NONE, os -> generations.incrementAndGet());
+
+        var projected = cache.get(ExportKind.PRODUCTS, FileType.CSV, ProductStockCondition.ALL, asList("id", "name"),
+                Compression.NONE, os -> generations.incrementAndGet());
+
+        assertEquals(4, generations.get());
+        assertNotEquals(csv.getPath(), excel.getPath());
+        assertNotEquals(csv.getPath(), available.getPath());
+        assertEquals("products-all-id_name-0.csv", projected.getPath().getFileName().toString());
+    }
+
+    @Test
+    void shouldCompressFileWhileGeneratingIt() throws IOException {
+        var generations = new AtomicInteger();
+
+        var plain = getProducts(generations);
+        var gzip = cache.get(ExportKind.PRODUCTS, FileType.CSV, ProductStockCondition.ALL,
+                emptyList(), Compression.GZIP, os -> os.write("ID,Name\r\n".getBytes(StandardCharsets.UTF_8)));
+        var zip = cache.get(ExportKind.PRODUCTS, FileType.CSV, ProductStockCondition.ALL, emptyList(), Compression.ZIP,
+                os -> os.write("ID,Name\r\n".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("products-all-0.csv", plain.getPath().getFileName().toString());
+        assertEquals("products-all-0.csv.gz", gzip.getPath().getFileName().toString());
+        assertEquals("products-all-0.zip", zip.getPath().getFileName().toString());
+
+        try (InputStream is = new GZIPInputStream(Files.newInputStream(gzip.getPath()))) {
+            assertEquals("ID,Name\r\n", new String(is.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        try (var is = new ZipInputStream(Files.newInputStream(zip.getPath()))) {
+            assertEquals("products.csv", is.getNextEntry().getName());
+            assertEquals("ID,Name\r\n", new String(is.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void shouldShareSingleGenerationBetweenConcurrentRequests() throws Exception {
+        var requests = 8;
+        var generations = new AtomicInteger();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(requests);
+
+        try {
+            var tasks = new ArrayList<Callable<CachedExportFile>>();
+            for (var i = 0; i < requests; i++) {
+                tasks.add(() -> cache.get(ExportKind.PRODUCTS, FileType.EXCEL, ProductStockCondition.ALL,
+                        emptyList(), Compression.NONE, os -> {
+                    generations.incrementAndGet();
+                    started.countDown();
+                    awaitQuietly(release);
+                    os.write("workbook".getBytes(StandardCharsets.UTF_8));
+                }));
+            }
+
+            var results = new ArrayList<Future<CachedExportFile>>();
+            tasks.forEach(task -> results.add(executor.submit(task)));
+
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+            release.countDown();
+
+            var first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (var result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, generations.get());
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void shouldPropagateFailedGenerationAndRetryOnNextRequest() throws IOException {
+        var exc = assertThrows(ServiceException.class, () -> cache.get(ExportKind.PRODUCT_TYPES, FileType.CSV,
+                ProductStockCondition.ALL, emptyList(), Compression.NONE, os -> {
+                    os.write('x');
+                    throw new IOException("Disk full");
+                }));
+
+        assertEquals("Couldn't generate export file product-types-all-0.csv", exc.getMessage());
+        assertEquals(0, countCachedFiles());
+
+        var generated = cache.get(ExportKind.PRODUCT_TYPES, FileType.CSV, ProductStockCondition.ALL,
+                emptyList(), Compression.NONE, os -> os.write('y'));
+
+        assertEquals("y", Files.readString(generated.getPath()));
+    }
+
+    @Test
+    void shouldRemoveLeftoverCachedFilesOnly() throws IOException {
+        var directory = exportProperties.getCacheDirectory();
+        var leftover = Files.writeString(directory.resolve("products-all-3.csv"), "stale");
+        var compressedLeftover = Files.writeString(directory.resolve("products-available-id_name-12.csv.gz"), "stale");
+        var partialLeftover = Files.writeString(directory.resolve("orders-all-7.pdf.part"), "stale");
+        var unrelated = Files.writeString(directory.resolve("report.csv"), "keep");
+        var unrelatedWithKind = Files.writeString(directory.resolve("products-backup.csv"), "keep");
+
+        cache.initCacheDirectory();
+
+        assertFalse(Files.exists(leftover));
+        assertFalse(Files.exists(compressedLeftover));
+        assertFalse(Files.exists(partialLeftover));
+        assertTrue(Files.exists(unrelated));
+        assertTrue(Files.exists(unrelatedWithKind));
+    }
+
+    private CachedExportFile getProducts(AtomicInteger generations) {
+        return cache.get(ExportKind.PRODUCTS, FileType.CSV, ProductStockCondition.ALL, emptyList(),
+                Compression.NONE, os -> os.write(("ID,Name\r\n" + generations.incrementAndGet() + "\r\n").getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long countCachedFiles() throws IOException {
+        try (var files = Files.list(exportProperties.getCacheDirectory())) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.herostore.products.controller;
+
+import com.herostore.products.constants.ExportJobStatus;
+import com.herostore.products.constants.ExportKind;
+import com.herostore.products.constants.FileType;
+import com.herostore.products.constants.ProductStockCondition;
+import com.herostore.products.dto.request.ExportRequest;
+import com.herostore.products.dto.response.ExportJobResponse;
+import com.herostore.products.exception.ExportNotReadyException;
+import com.herostore.products.exception.ExportRejectedException;
+import com.herostore.products.exception.ResourceNotFoundException;
+import com.herostore.products.export.ExportFile;
+import com.herostore.products.service.ExportService;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static com.herostore.products.utils.ResponseBodyMatchers.responseContainsJsonObject;
+import static com.herostore.products.utils.ResponseBodyMatchers.responseContainsValidationErrors;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ExportController.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ExportControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    ExportService exportService;
+
+    static final String BASE_URI = "/api/exports";
+
+    @Test
+    void submitExport() throws Exception {
+        var exportRequest = ExportRequest.builder()
+                .kind(ExportKind.PRODUCTS)
+                .format(FileType.CSV)
+                .stock(ProductStockCondition.AVAILABLE)
+                .build();
+        var expectedJob = mockExportJob(ExportJobStatus.QUEUED);
+
+        when(exportService.submitExport(exportRequest))
+                .thenReturn(expectedJob);
+
+        mockMvc.perform(
+                post(BASE_URI)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"kind\":\"products\",\"format\":\"csv\",\"stock\":\"available\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.kind", is("products")))
+                .andExpect(jsonPath("$.format", is("csv")))
+                .andExpect(responseContainsJsonObject(expectedJob, ExportJobResponse.class));
+    }
+
+    @Test
+    void submitInvalidExportThrowsValidationError() throws Exception {
+        mockMvc.perform(
+                post(BASE_URI)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(responseContainsValidationErrors(2));
+    }
+
+    @Test
+    void submitExportWhenQueueIsFull() throws Exception {
+        doThrow(new ExportRejectedException("Too many exports in progress, try again later"))
+                .when(exportService).submitExport(ExportRequest.builder()
+                        .kind(ExportKind.PRODUCT_ORDERS)
+                        .format(FileType.PDF)
+                        .build());
+
+        mockMvc.perform(
+                post(BASE_URI)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"kind\":\"orders\",\"format\":\"pdf\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.statusCode", is(503)));
+    }
+
+    @Test
+    void getExportJob() throws Exception {
+        var expectedJob = mockExportJob(ExportJobStatus.RUNNING);
+
+        when(exportService.getExportJob("job-1"))
+                .thenReturn(expectedJob);
+
+        mockMvc.perform(
+                get("{base-uri}/{id}", BASE_URI, "job-1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(responseContainsJsonObject(expectedJob, ExportJobResponse.class));
+    }
+
+    @Test
+    void getNonExistingExportJob() throws Exception {
+        doThrow(new ResourceNotFoundException("Export not found for id job-1"))
+                .when(exportService).getExportJob("job-1");
+
+        mockMvc.perform(
+                get("{base-uri}/{id}", BASE_URI, "job-1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void downloadExportFile(@TempDir Path directory) throws Exception {
+        var file = Files.writeString(directory.resolve("job-1.csv"), "ID,Name\r\n");
+
+        when(exportService.getExportFile("job-1"))
+                .thenReturn(new ExportFile(file, "products.csv"));
+
+        var response = mockMvc.perform(
+                get("{base-uri}/{id}/file", BASE_URI, "job-1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        assertEquals(MediaType.APPLICATION_OCTET_STREAM_VALUE, response.getContentType());
+        assertEquals("attachment; filename=products.csv", response.getHeaderValue(HttpHeaders.CONTENT_DISPOSITION));
+        assertEquals(9, response.getContentLength());
+        assertEquals("ID,Name\r\n", response.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void downloadExportFileRange(@TempDir Path directory) throws Exception {
+        var file = Files.writeString(directory.resolve("job-1.csv"), "ID,Name\r\n1,Cup\r\n");
+
+        when(exportService.getExportFile("job-1"))
+                .thenReturn(new ExportFile(file, "products.csv"));
+
+        var response = mockMvc.perform(
+                get("{base-uri}/{id}/file", BASE_URI, "job-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.RANGE, "bytes=9-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 9-15/16"))
+                .andReturn()
+                .getResponse();
+
+        assertEquals(7, response.getContentLength());
+        assertEquals("1,Cup\r\n", response.getContentAsString(StandardCharsets.UTF_8));
+
+        mockMvc.perform(
+                get("{base-uri}/{id}/file", BASE_URI, "job-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.RANGE, "bytes=-4")
+                        .header(HttpHeaders.IF_RANGE, response.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 12-15/16"))
+                .andExpect(content().string("up\r\n"));
+    }
+
+    @Test
+    void downloadExportFileWithChangedIfRange(@TempDir Path directory) throws Exception {
+        var file = Files.writeString(directory.resolve("job-1.csv"), "ID,Name\r\n");
+
+        when(exportService.getExportFile("job-1"))
+                .thenReturn(new ExportFile(file, "products.csv"));
+
+        mockMvc.perform(
+                get("{base-uri}/{id}/file", BASE_URI, "job-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.RANGE, "bytes=3-")
+                        .header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().string("ID,Name\r\n"));
+    }
+
+    @Test
+    void downloadExportFileUnsatisfiableRange(@TempDir Path directory) throws Exception {
+        var file = Files.writeString(directory.resolve("job-1.csv"), "ID,Name\r\n");
+
+        when(exportService.getExportFile("job-1"))
+                .thenReturn(new ExportFile(file, "products.csv"));
+
+        mockMvc.perform(
+                get("{base-uri}/{id}/file", BASE_URI, "job-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.RANGE, "bytes=9-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */9"))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void downloadUnfinishedExportFile() throws Exception {
+        doThrow(new ExportNotReadyException("Export job-1 is running"))
+                .when(exportService).getExportFile("job-1");
+
+        mockMvc.perform(
+                get("{base-uri}/{id}/file", BASE_URI, "job-1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message", is("Export job-1 is running")));
+    }
+
+    @Test
+    void cancelExport() throws Exception {
+        mockMvc.perform(
+                delete("{base-uri}/{id}", BASE_URI, "job-1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNoContent());
+
+        verify(exportService, times(1)).cancelExport("job-1");
+    }
+
+    private ExportJobResponse mockExportJob(ExportJobStatus status) {
+        return ExportJobResponse.builder()
+                .id("job-1")
+                .kind(ExportKind.PRODUCTS)
+                .format(FileType.CSV)
+                .status(status)
+                .createdAt(LocalDateTime.now().withNano(0))
+                .build();
+    }
+}
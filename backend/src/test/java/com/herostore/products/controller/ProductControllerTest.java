@@ -1,39 +1,79 @@
 package com.herostore.products.controller;
 
+import com.herostore.products.cache.CachedExportFile;
+import com.herostore.products.cache.CatalogResponseCache;
+import com.herostore.products.cache.CatalogVersion;
+import com.herostore.products.cache.ExportFileCache;
+import com.herostore.products.cache.ExportGenerator;
+import com.herostore.products.constants.Compression;
+import com.herostore.products.constants.ExportKind;
+import com.herostore.products.constants.FileType;
+import com.herostore.products.constants.PriceChangeType;
 import com.herostore.products.constants.ProductStockCondition;
 import com.herostore.products.dto.ProductTypeDTO;
+import com.herostore.products.dto.request.PriceChangeRequest;
 import com.herostore.products.dto.request.ProductRequest;
+import com.herostore.products.dto.request.StockAdjustmentRequest;
+import com.herostore.products.dto.request.StockAdjustmentsRequest;
+import com.herostore.products.dto.response.PriceChangeResponse;
+import com.herostore.products.dto.response.ProductImportResponse;
 import com.herostore.products.dto.response.ProductResponse;
+import com.herostore.products.dto.response.ProductStockResponse;
+import com.herostore.products.dto.response.ProductSuggestionResponse;
+import com.herostore.products.dto.response.RejectedRowResponse;
+import com.herostore.products.exception.InvalidImportFileException;
+import com.herostore.products.exception.InvalidPriceChangeException;
+import com.herostore.products.exception.InvalidStockAdjustmentException;
 import com.herostore.products.exception.ResourceNotFoundException;
+import com.herostore.products.service.ProductImportService;
 import com.herostore.products.service.ProductService;
 import com.herostore.products.utils.ResponseBodyMatchers;
 import com.herostore.products.utils.SerializationUtils;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
 
 import static com.herostore.products.utils.ResponseBodyMatchers.responseContainsValidationErrors;
 import static java.util.Arrays.asList;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ProductController.class)
+@Import({CatalogResponseCache.class, CatalogVersion.class})
 @FieldDefaults(level = AccessLevel.PRIVATE)
 class ProductControllerTest {
 
@@ -43,6 +83,12 @@ class ProductControllerTest {
     @MockBean
     ProductService productService;
 
+    @MockBean
+    ExportFileCache exportFileCache;
+
+    @MockBean
+    ProductImportService productImportService;
+
     static final String BASE_URI = "/api/products";
 
     @Test
@@ -61,7 +107,48 @@ class ProductControllerTest {
     }
 
     @Test
-    void exportProductsToFile() throws Exception {
+    void getAllProductsGzipEncodedFromCache() throws Exception {
+        var expectedProductsFound = asList(mockIronManCupProductResponse(), mockBatmanCupProductResponse());
+
+        when(productService.getAllProducts(ProductStockCondition.AVAILABLE))
+                .thenReturn(expectedProductsFound);
+
+        var identityBody = mockMvc.perform(
+                get(BASE_URI)
+                        .param("stock", ProductStockCondition.AVAILABLE.getValue())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        var gzipBody = mockMvc.perform(
+                get(BASE_URI)
+                        .param("stock", ProductStockCondition.AVAILABLE.getValue())
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(gzipBody))) {
+            assertArrayEquals(identityBody, gzip.readAllBytes());
+        }
+
+        verify(productService, times(1)).getAllProducts(ProductStockCondition.AVAILABLE);
+    }
+
+    @Test
+    void exportProductsToFile(@TempDir Path directory) throws Exception {
+        var file = Files.writeString(directory.resolve("products-all-0.csv"), "ID,Name\r\n");
+
+        when(exportFileCache.get(
+                eq(ExportKind.PRODUCTS), eq(FileType.CSV), eq(ProductStockCondition.ALL),
+                eq(emptyList()), eq(Compression.NONE), any(ExportGenerator.class)))
+                .thenReturn(new CachedExportFile(0, file, Files.size(file)));
+
         var response = mockMvc.perform(
                 get(BASE_URI + "/export")
                         .param("format", "csv")
@@ -74,6 +161,79 @@ class ProductControllerTest {
         assertEquals(MediaType.APPLICATION_OCTET_STREAM_VALUE, response.getContentType());
         assertEquals("attachment; filename=products.csv",
                 response.getHeaderValue("content-disposition"));
+        assertEquals("ID,Name\r\n", response.getContentAsString());
+    }
+
+    @Test
+    void exportSelectedProductFieldsToFile(@TempDir Path directory) throws Exception {
+        var file = Files.writeString(directory.resolve("products-all-name_price-0.csv"), "Name,Price\r\n");
+
+        when(exportFileCache.get(
+                eq(ExportKind.PRODUCTS), eq(FileType.CSV), eq(ProductStockCondition.ALL),
+                eq(asList("name", "price")), eq(Compression.NONE), any(ExportGenerator.class)))
+                .thenReturn(new CachedExportFile(0, file, Files.size(file)));
+
+        var response = mockMvc.perform(
+                get(BASE_URI + "/export")
+                        .param("format", "csv")
+                        .param("stock", ProductStockCondition.ALL.getValue())
+                        .param("fields", "price,name,price")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        assertEquals("Name,Price\r\n", response.getContentAsString());
+    }
+
+    @Test
+    void exportAllProductFieldsToFileSharesDefaultExport(@TempDir Path directory) throws Exception {
+        var file = Files.writeString(directory.resolve("products-all-0.csv"), "ID,Name,Product type,Price,Stock\r\n");
+
+        when(exportFileCache.get(
+                eq(ExportKind.PRODUCTS), eq(FileType.CSV), eq(ProductStockCondition.ALL),
+                eq(emptyList()), eq(Compression.NONE), any(ExportGenerator.class)))
+                .thenReturn(new CachedExportFile(0, file, Files.size(file)));
+
+        mockMvc.perform(
+                get(BASE_URI + "/export")
+                        .param("format", "csv")
+                        .param("stock", ProductStockCondition.ALL.getValue())
+                        .param("fields", "stock,price,productType,name,id")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void exportUnknownProductFieldThrowsBadRequest() throws Exception {
+        mockMvc.perform(
+                get(BASE_URI + "/export")
+                        .param("format", "csv")
+                        .param("stock", ProductStockCondition.ALL.getValue())
+                        .param("fields", "id,secret")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void suggestProducts() throws Exception {
+        var expectedSuggestions = asList(
+                new ProductSuggestionResponse(1L, "Iron Man Cup"),
+                new ProductSuggestionResponse(2L, "Iron Man Mask"));
+
+        when(productService.suggestProducts("iron", 50))
+                .thenReturn(expectedSuggestions);
+
+        mockMvc.perform(
+                get("{base-uri}/suggest", BASE_URI)
+                        .param("q", "iron")
+                        .param("limit", "500")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(ResponseBodyMatchers.responseContainsJsonCollection(
+                        expectedSuggestions, ProductSuggestionResponse.class));
+
+        verify(productService, times(1)).suggestProducts("iron", 50);
     }
 
     @Test
@@ -235,6 +395,162 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.timestamp").exists());
     }
 
+    @Test
+    void importProducts() throws Exception {
+        var csv = "Name,Product type,Price,Stock\r\nIron Man Cup,Cups,10.00,20\r\n,Cups,1,1\r\n";
+        var expectedSummary = ProductImportResponse.builder()
+                .inserted(1)
+                .rejected(1)
+                .rejections(singletonList(new RejectedRowResponse(3, singletonList("Name is required"))))
+                .build();
+
+        when(productImportService.importProducts(any(), eq(FileType.CSV)))
+                .thenReturn(expectedSummary);
+
+        mockMvc.perform(
+                post("{base-uri}/import", BASE_URI)
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(ResponseBodyMatchers.responseContainsJsonObject(expectedSummary, ProductImportResponse.class));
+
+        var body = ArgumentCaptor.forClass(InputStream.class);
+        verify(productImportService, times(1)).importProducts(body.capture(), eq(FileType.CSV));
+        assertEquals(csv, new String(body.getValue().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importProductsFromExcel() throws Exception {
+        var xlsx = new byte[]{'P', 'K', 3, 4};
+        var expectedSummary = ProductImportResponse.builder()
+                .updated(1)
+                .rejections(emptyList())
+                .build();
+
+        when(productImportService.importProducts(any(), eq(FileType.EXCEL)))
+                .thenReturn(expectedSummary);
+
+        mockMvc.perform(
+                post("{base-uri}/import", BASE_URI)
+                        .contentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+                        .content(xlsx))
+                .andExpect(status().isOk())
+                .andExpect(ResponseBodyMatchers.responseContainsJsonObject(expectedSummary, ProductImportResponse.class));
+
+        var body = ArgumentCaptor.forClass(InputStream.class);
+        verify(productImportService, times(1)).importProducts(body.capture(), eq(FileType.EXCEL));
+        assertArrayEquals(xlsx, body.getValue().readAllBytes());
+    }
+
+    @Test
+    void importProductsFromInvalidFile() throws Exception {
+        when(productImportService.importProducts(any(), eq(FileType.CSV)))
+                .thenThrow(new InvalidImportFileException("Missing columns: Price"));
+
+        mockMvc.perform(
+                post("{base-uri}/import", BASE_URI)
+                        .contentType("text/csv")
+                        .content("Name,Product type,Stock\r\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("Missing columns: Price")));
+    }
+
+    @Test
+    void adjustStocks() throws Exception {
+        var stockAdjustments = new StockAdjustmentsRequest(asList(
+                new StockAdjustmentRequest(2L, 50), new StockAdjustmentRequest(1L, -5)));
+        var expectedStocks = asList(new ProductStockResponse(1L, 10), new ProductStockResponse(2L, 50));
+
+        when(productService.adjustStocks(stockAdjustments))
+                .thenReturn(expectedStocks);
+
+        mockMvc.perform(
+                post("{base-uri}/stock-adjustments", BASE_URI)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(SerializationUtils.objectMapper.writeValueAsBytes(stockAdjustments)))
+                .andExpect(status().isOk())
+                .andExpect(ResponseBodyMatchers.responseContainsJsonCollection(expectedStocks, ProductStockResponse.class));
+    }
+
+    @Test
+    void adjustStocksWithInvalidAdjustmentsThrowsValidationError() throws Exception {
+        var stockAdjustments = new StockAdjustmentsRequest(singletonList(new StockAdjustmentRequest()));
+
+        mockMvc.perform(
+                post("{base-uri}/stock-adjustments", BASE_URI)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(SerializationUtils.objectMapper.writeValueAsBytes(stockAdjustments)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(responseContainsValidationErrors(2));
+    }
+
+    @Test
+    void adjustStocksBelowZeroThrowsConflict() throws Exception {
+        var stockAdjustments = new StockAdjustmentsRequest(singletonList(new StockAdjustmentRequest(1L, -20)));
+
+        when(productService.adjustStocks(stockAdjustments))
+                .thenThrow(new InvalidStockAdjustmentException("Stock must stay between 0 and 2147483647 for products 1"));
+
+        mockMvc.perform(
+                post("{base-uri}/stock-adjustments", BASE_URI)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(SerializationUtils.objectMapper.writeValueAsBytes(stockAdjustments)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message", is("Stock must stay between 0 and 2147483647 for products 1")));
+    }
+
+    @Test
+    void changePrices() throws Exception {
+        var expectedPriceChange = PriceChangeRequest.builder()
+                .productTypeId(1L)
+                .type(PriceChangeType.PERCENTAGE)
+                .amount(new BigDecimal("10"))
+                .build();
+
+        when(productService.changePrices(expectedPriceChange))
+                .thenReturn(new PriceChangeResponse(3));
+
+        mockMvc.perform(
+                post("{base-uri}/price-changes", BASE_URI)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productTypeId\": 1, \"type\": \"percentage\", \"amount\": 10}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated", is(3)));
+    }
+
+    @Test
+    void changePricesPastMaxPriceThrowsBadRequest() throws Exception {
+        var priceChange = PriceChangeRequest.builder()
+                .type(PriceChangeType.ABSOLUTE)
+                .amount(new BigDecimal("999999999"))
+                .build();
+
+        when(productService.changePrices(priceChange))
+                .thenThrow(new InvalidPriceChangeException("New prices cannot be greater than 999999999.999999"));
+
+        mockMvc.perform(
+                post("{base-uri}/price-changes", BASE_URI)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(SerializationUtils.objectMapper.writeValueAsBytes(priceChange)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("New prices cannot be greater than 999999999.999999")));
+    }
+
+    @Test
+    void changePricesWithInvalidRequestThrowsValidationError() throws Exception {
+        var priceChange = PriceChangeRequest.builder()
+                .amount(new BigDecimal("0.1234567"))
+                .decimals(7)
+                .build();
+
+        mockMvc.perform(
+                post("{base-uri}/price-changes", BASE_URI)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(SerializationUtils.objectMapper.writeValueAsBytes(priceChange)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(responseContainsValidationErrors(3));
+    }
+
     private ProductTypeDTO mockCupsProductType() {
         return ProductTypeDTO.builder()
                 .id(1L)
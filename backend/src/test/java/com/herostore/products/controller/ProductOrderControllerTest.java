@@ -1,7 +1,16 @@
 package com.herostore.products.controller;
 
+import com.herostore.products.cache.CachedExportFile;
+import com.herostore.products.cache.ExportFileCache;
+import com.herostore.products.cache.ExportGenerator;
+import com.herostore.products.config.ExportProperties;
+import com.herostore.products.constants.Compression;
+import com.herostore.products.constants.ExportKind;
 import com.herostore.products.constants.FileType;
+import com.herostore.products.constants.ProductStockCondition;
+import com.herostore.products.dto.ProductOrderExportRange;
 import com.herostore.products.dto.ProductOrderLineDTO;
+import com.herostore.products.dto.request.ExportBound;
 import com.herostore.products.dto.request.ProductOrderLineRequest;
 import com.herostore.products.dto.request.ProductOrderRequest;
 import com.herostore.products.dto.response.ProductOrderResponse;
@@ -10,22 +19,34 @@ import com.herostore.products.utils.SerializationUtils;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 
 import static com.herostore.products.utils.ResponseBodyMatchers.responseContainsJsonCollection;
 import static com.herostore.products.utils.ResponseBodyMatchers.responseContainsJsonObject;
 import static com.herostore.products.utils.ResponseBodyMatchers.responseContainsValidationErrors;
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -33,6 +54,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = PaymentOrderController.class)
+@Import(ExportProperties.class)
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class ProductOrderControllerTest {
 
@@ -42,6 +64,9 @@ public class ProductOrderControllerTest {
     @MockBean
     ProductOrderService productOrderService;
 
+    @MockBean
+    ExportFileCache exportFileCache;
+
     static final String BASE_URI = "/api/orders";
 
     @Test
@@ -65,7 +90,14 @@ public class ProductOrderControllerTest {
     }
 
     @Test
-    void exportProductOrders() throws Exception {
+    void exportProductOrders(@TempDir Path directory) throws Exception {
+        var file = Files.writeString(directory.resolve("orders-all-0.pdf"), "%PDF-1.4");
+
+        when(exportFileCache.get(
+                eq(ExportKind.PRODUCT_ORDERS), eq(FileType.PDF), eq(ProductStockCondition.ALL),
+                eq(emptyList()), eq(Compression.NONE), any(ExportGenerator.class)))
+                .thenReturn(new CachedExportFile(0, file, Files.size(file)));
+
         var response = mockMvc.perform(
                 get(BASE_URI + "/export")
                         .param("format", FileType.PDF.getDesc())
@@ -77,6 +109,97 @@ public class ProductOrderControllerTest {
         assertEquals(MediaType.APPLICATION_OCTET_STREAM_VALUE, response.getContentType());
         assertEquals("attachment; filename=payment_orders.pdf",
                 response.getHeaderValue("content-disposition"));
+        assertEquals("%PDF-1.4", response.getContentAsString());
+    }
+
+    @Test
+    void exportCompressedProductOrders(@TempDir Path directory) throws Exception {
+        var file = Files.writeString(directory.resolve("orders-all-0.zip"), "PK");
+
+        when(exportFileCache.get(
+                eq(ExportKind.PRODUCT_ORDERS), eq(FileType.CSV), eq(ProductStockCondition.ALL),
+                eq(emptyList()), eq(Compression.ZIP), any(ExportGenerator.class)))
+                .thenReturn(new CachedExportFile(0, file, Files.size(file)));
+
+        var response = mockMvc.perform(
+                get(BASE_URI + "/export")
+                        .param("format", FileType.CSV.getDesc())
+                        .param("compress", Compression.ZIP.getValue())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        assertEquals("attachment; filename=payment_orders.zip",
+                response.getHeaderValue("content-disposition"));
+        assertEquals("PK", response.getContentAsString());
+    }
+
+    @Test
+    void exportProductOrdersWithUnknownCompression() throws Exception {
+        mockMvc.perform(
+                get(BASE_URI + "/export")
+                        .param("format", FileType.CSV.getDesc())
+                        .param("compress", "rar")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportProductOrdersSinceConsumerWatermark() throws Exception {
+        var range = new ProductOrderExportRange(10L, 20L);
+
+        when(productOrderService.getExportRange(null, null, "warehouse-etl"))
+                .thenReturn(range);
+        doAnswer(invocation -> {
+            invocation.getArgument(0, OutputStream.class).write("Order ID\r\n11\r\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(productOrderService).exportProductOrders(any(OutputStream.class), eq(FileType.CSV), eq(range));
+
+        var response = mockMvc.perform(
+                get(BASE_URI + "/export")
+                        .param("format", FileType.CSV.getDesc())
+                        .param("consumer", "warehouse-etl")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        assertEquals("attachment; filename=payment_orders.csv",
+                response.getHeaderValue("content-disposition"));
+        assertEquals("Order ID\r\n11\r\n", response.getContentAsString());
+        verify(productOrderService).saveExportWatermark("warehouse-etl", range);
+    }
+
+    @Test
+    void exportProductOrdersBetweenBounds() throws Exception {
+        var since = ExportBound.ofCreatedAt(LocalDateTime.of(2020, 3, 1, 0, 0));
+        var until = ExportBound.ofProductOrderId(25L);
+        var range = new ProductOrderExportRange(10L, 25L);
+
+        when(productOrderService.getExportRange(since, until, null))
+                .thenReturn(range);
+
+        mockMvc.perform(
+                get(BASE_URI + "/export")
+                        .param("format", FileType.CSV.getDesc())
+                        .param("since", "2020-03-01T00:00:00")
+                        .param("until", "25")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(productOrderService).exportProductOrders(any(OutputStream.class), eq(FileType.CSV), eq(range));
+        verify(productOrderService, never()).saveExportWatermark(any(), any());
+    }
+
+    @Test
+    void exportProductOrdersWithInvalidBound() throws Exception {
+        mockMvc.perform(
+                get(BASE_URI + "/export")
+                        .param("format", FileType.CSV.getDesc())
+                        .param("since", "yesterday")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -1,25 +1,47 @@
 package com.herostore.products.controller;
 
+import com.herostore.products.cache.CachedExportFile;
+import com.herostore.products.cache.CatalogResponseCache;
+import com.herostore.products.cache.CatalogVersion;
+import com.herostore.products.cache.ExportFileCache;
+import com.herostore.products.cache.ExportGenerator;
+import com.herostore.products.constants.Compression;
+import com.herostore.products.constants.ExportKind;
+import com.herostore.products.constants.FileType;
+import com.herostore.products.constants.ProductStockCondition;
 import com.herostore.products.dto.ProductTypeDTO;
+import com.herostore.products.dto.response.ProductImportResponse;
+import com.herostore.products.dto.response.RejectedRowResponse;
+import com.herostore.products.exception.InvalidImportFileException;
 import com.herostore.products.exception.ResourceNotFoundException;
+import com.herostore.products.service.ProductImportService;
 import com.herostore.products.service.ProductTypeService;
 import com.herostore.products.utils.SerializationUtils;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import static com.herostore.products.utils.ResponseBodyMatchers.responseContainsJsonCollection;
 import static com.herostore.products.utils.ResponseBodyMatchers.responseContainsJsonObject;
 import static com.herostore.products.utils.ResponseBodyMatchers.responseContainsValidationErrors;
 import static java.util.Arrays.asList;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
@@ -30,6 +52,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ProductTypeController.class)
+@Import({CatalogResponseCache.class, CatalogVersion.class})
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class ProductTypeControllerTest {
 
@@ -39,6 +62,12 @@ public class ProductTypeControllerTest {
     @MockBean
     ProductTypeService productTypeService;
 
+    @MockBean
+    ProductImportService productImportService;
+
+    @MockBean
+    ExportFileCache exportFileCache;
+
     static final String BASE_URI = "/api/product-types";
 
     @Test
@@ -57,7 +86,14 @@ public class ProductTypeControllerTest {
     }
 
     @Test
-    void exportProductTypesToFile() throws Exception {
+    void exportProductTypesToFile(@TempDir Path directory) throws Exception {
+        var file = Files.writeString(directory.resolve("product-types-all-0.csv"), "ID,Name\r\n");
+
+        when(exportFileCache.get(
+                eq(ExportKind.PRODUCT_TYPES), eq(FileType.CSV), eq(ProductStockCondition.ALL),
+                eq(emptyList()), eq(Compression.NONE), any(ExportGenerator.class)))
+                .thenReturn(new CachedExportFile(0, file, Files.size(file)));
+
         var response = mockMvc.perform(
                 get(BASE_URI + "/export")
                         .param("format", "csv")
@@ -69,6 +105,7 @@ public class ProductTypeControllerTest {
         assertEquals(MediaType.APPLICATION_OCTET_STREAM_VALUE, response.getContentType());
         assertEquals("attachment; filename=product-types.csv",
                 response.getHeaderValue("content-disposition"));
+        assertEquals("ID,Name\r\n", response.getContentAsString());
     }
 
     @Test
@@ -182,6 +219,38 @@ public class ProductTypeControllerTest {
                 .andExpect(jsonPath("$.timestamp").exists());
     }
 
+    @Test
+    void importProductTypes() throws Exception {
+        var expectedSummary = ProductImportResponse.builder()
+                .inserted(1)
+                .rejected(1)
+                .rejections(singletonList(new RejectedRowResponse(3, singletonList("Product type Cups already exists"))))
+                .build();
+
+        when(productImportService.importProductTypes(any(), eq(FileType.EXCEL)))
+                .thenReturn(expectedSummary);
+
+        mockMvc.perform(
+                post("{base-uri}/import", BASE_URI)
+                        .contentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+                        .content(new byte[]{'P', 'K', 3, 4}))
+                .andExpect(status().isOk())
+                .andExpect(responseContainsJsonObject(expectedSummary, ProductImportResponse.class));
+    }
+
+    @Test
+    void importProductTypesFromInvalidFile() throws Exception {
+        when(productImportService.importProductTypes(any(), eq(FileType.CSV)))
+                .thenThrow(new InvalidImportFileException("Missing columns: Name"));
+
+        mockMvc.perform(
+                post("{base-uri}/import", BASE_URI)
+                        .contentType("text/csv")
+                        .content("ID\r\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("Missing columns: Name")));
+    }
+
     private ProductTypeDTO mockCupsProductType() {
         return ProductTypeDTO.builder()
                 .id(1L)
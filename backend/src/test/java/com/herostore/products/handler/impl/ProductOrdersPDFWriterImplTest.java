@@ -3,16 +3,26 @@ package com.herostore.products.handler.impl;
 import com.herostore.products.dto.ProductOrderLineDTO;
 import com.herostore.products.dto.response.ProductOrderResponse;
 import com.herostore.products.handler.ProductOrdersPDFWriter;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ProductOrdersPDFWriterImplTest {
 
@@ -23,17 +33,90 @@ class ProductOrdersPDFWriterImplTest {
         var productOrders = mockProductOrders();
         var os = new ByteArrayOutputStream();
 
-        pdfWriter.createDocument(os);
-        pdfWriter.setProductOrders(productOrders);
-        pdfWriter.openDocument();
-        pdfWriter.writeDocument();
-        pdfWriter.closeDocument();
+        var session = pdfWriter.openSession(os);
+        productOrders.forEach(session::write);
+        session.close();
 
         assertNotNull(os.toByteArray());
-        assertFalse(pdfWriter.isDocumentOpen());
+        assertFalse(session.isOpen());
+    }
+
+    @Test
+    void shouldWriteContinuationWithoutDocumentTitle() throws IOException {
+        var os = new ByteArrayOutputStream();
+
+        try (var session = pdfWriter.openContinuationSession(os)) {
+            session.write(mockProductOrder(7L));
+        }
+
+        var text = extractText(os.toByteArray());
+
+        assertFalse(text.contains("Hero Store"));
+        assertTrue(text.contains("Product Order: 7\n"));
+    }
+
+    @Test
+    void shouldWriteConcurrentDocumentsWithoutInterference() throws Exception {
+        var exports = 16;
+        var ordersPerExport = 20;
+        var executor = Executors.newFixedThreadPool(8);
+
+        try {
+            var tasks = new ArrayList<Callable<byte[]>>();
+
+            for (var export = 0; export < exports; export++) {
+                var firstOrderId = export * 1000L;
+
+                tasks.add(() -> {
+                    var os = new ByteArrayOutputStream();
+                    try (var session = pdfWriter.openSession(os)) {
+                        LongStream.range(firstOrderId, firstOrderId + ordersPerExport)
+                                .mapToObj(this::mockProductOrder)
+                                .forEach(session::write);
+                    }
+                    return os.toByteArray();
+                });
+            }
+
+            var results = executor.invokeAll(tasks);
+
+            for (var export = 0; export < exports; export++) {
+                var text = extractText(results.get(export).get());
+                var firstOrderId = export * 1000L;
+
+                for (var orderId = firstOrderId; orderId < firstOrderId + ordersPerExport; orderId++) {
+                    assertTrue(text.contains("Product Order: " + orderId + "\n"), "Missing order " + orderId);
+                }
+                assertFalse(text.contains("Product Order: " + (firstOrderId + ordersPerExport) + "\n"));
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private String extractText(byte[] pdf) throws IOException {
+        var reader = new PdfReader(pdf);
+
+        try {
+            var text = new StringBuilder();
+            for (var page = 1; page <= reader.getNumberOfPages(); page++) {
+                text.append(PdfTextExtractor.getTextFromPage(reader, page)).append('\n');
+            }
+            return text.toString()
+                    .lines()
+                    .map(line -> line.replaceAll("\\s*Date:.*$", ""))
+                    .collect(Collectors.joining("\n", "", "\n"));
+        } finally {
+            reader.close();
+        }
     }
 
     private List<ProductOrderResponse> mockProductOrders() {
+        return singletonList(mockProductOrder(1L));
+    }
+
+    private ProductOrderResponse mockProductOrder(long id) {
         var productOrderLine = ProductOrderLineDTO.builder()
                 .id(1L)
                 .productId(1L)
@@ -43,13 +126,11 @@ class ProductOrdersPDFWriterImplTest {
                 .total(BigDecimal.valueOf(500.00))
                 .build();
 
-        var productOrder = ProductOrderResponse.builder()
-                .id(1L)
+        return ProductOrderResponse.builder()
+                .id(id)
                 .createdAt(LocalDateTime.now())
                 .productOrderLines(singletonList(productOrderLine))
                 .total(BigDecimal.valueOf(500.00))
                 .build();
-
-        return singletonList(productOrder);
     }
-}
\ No newline at end of file
+}
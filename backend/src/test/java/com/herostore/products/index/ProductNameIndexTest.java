@@ -0,0 +1,131 @@
+package com.herostore.products.index;
+
+import com.herostore.products.dto.response.ProductSuggestionResponse;
+import com.herostore.products.repository.ProductRepository;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ProductNameIndexTest {
+
+    @Mock
+    ProductRepository productRepository;
+
+    @InjectMocks
+    ProductNameIndex productNameIndex;
+
+    @AfterEach
+    void runAfterEach() {
+        verifyNoMoreInteractions(productRepository);
+    }
+
+    @Test
+    void shouldRankPrefixMatchesBeforeWordAndSubstringMatches() {
+        mockExistingProducts();
+
+        assertEquals(asList("Iron Man Cup", "Iron Man Mask", "Ironclad Shield Poster", "Cup of Iron"),
+                suggestedNames("iron", 10));
+        assertEquals(asList("Iron Man Cup", "Iron Man Mask"), suggestedNames("iron", 2));
+        assertEquals(asList("Iron Man Cup", "Iron Man Mask", "Spider-Man Mask", "Batman Mug"),
+                suggestedNames("man", 10));
+
+        verify(productRepository, times(1)).findAllSuggestions();
+    }
+
+    @Test
+    void shouldMatchEveryTermIgnoringCaseAndAccents() {
+        mockExistingProducts();
+
+        assertEquals(asList("Iron Man Mask", "Spider-Man Mask"), suggestedNames("MA más", 10));
+        assertEquals(asList("Pokémon Card"), suggestedNames("pokemon", 10));
+
+        verify(productRepository, times(1)).findAllSuggestions();
+    }
+
+    @Test
+    void shouldSuggestNamesOnceWhenSeveralOfTheirWordsMatch() {
+        mockExistingProducts();
+
+        assertEquals(asList("Iron Man Cup", "Iron Man Mask", "Spider-Man Mask"), suggestedNames("ma", 10));
+        assertEquals(asList("Iron Man Mask", "Spider-Man Mask"), suggestedNames("mas ma", 10));
+
+        verify(productRepository, times(1)).findAllSuggestions();
+    }
+
+    @Test
+    void shouldReturnNothingForBlankQueriesWithoutLoading() {
+        assertEquals(emptyList(), productNameIndex.suggest("  ", 10));
+        assertEquals(emptyList(), productNameIndex.suggest(null, 10));
+    }
+
+    @Test
+    void shouldReturnNothingForSingleCharacterQueriesWithoutLoading() {
+        assertEquals(emptyList(), productNameIndex.suggest("i", 10));
+        assertEquals(emptyList(), productNameIndex.suggest(" é ", 10));
+    }
+
+    @Test
+    void shouldTrackNameChangesIncrementally() {
+        mockExistingProducts();
+
+        productNameIndex.suggest("iron", 10);
+
+        productNameIndex.put(1L, "Thor Hammer Cup");
+        productNameIndex.put(10L, "Hulk Fist");
+        productNameIndex.remove(2L);
+
+        assertEquals(asList("Ironclad Shield Poster", "Cup of Iron"), suggestedNames("iron", 10));
+        assertEquals(asList("Thor Hammer Cup"), suggestedNames("hamm", 10));
+        assertEquals(asList("Hulk Fist"), suggestedNames("hul", 10));
+
+        verify(productRepository, times(1)).findAllSuggestions();
+    }
+
+    @Test
+    void shouldReloadAfterInvalidation() {
+        mockExistingProducts();
+
+        productNameIndex.suggest("iron", 10);
+        productNameIndex.invalidate();
+        productNameIndex.put(10L, "Hulk Fist");
+
+        assertEquals(emptyList(), suggestedNames("hulk", 10));
+
+        verify(productRepository, times(2)).findAllSuggestions();
+    }
+
+    private List<String> suggestedNames(String query, int limit) {
+        return productNameIndex.suggest(query, limit).stream()
+                .map(ProductSuggestionResponse::getName)
+                .collect(Collectors.toList());
+    }
+
+    private void mockExistingProducts() {
+        when(productRepository.findAllSuggestions()).thenReturn(asList(
+                new ProductSuggestionResponse(1L, "Iron Man Cup"),
+                new ProductSuggestionResponse(2L, "Iron Man Mask"),
+                new ProductSuggestionResponse(3L, "Cup of Iron"),
+                new ProductSuggestionResponse(4L, "Ironclad Shield Poster"),
+                new ProductSuggestionResponse(5L, "Spider-Man Mask"),
+                new ProductSuggestionResponse(6L, "Batman Mug"),
+                new ProductSuggestionResponse(7L, "Pokémon Card")));
+    }
+}
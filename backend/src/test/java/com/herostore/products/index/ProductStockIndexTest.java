@@ -0,0 +1,84 @@
+package com.herostore.products.index;
+
+import com.herostore.products.repository.ProductRepository;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ProductStockIndexTest {
+
+    @Mock
+    ProductRepository productRepository;
+
+    @InjectMocks
+    ProductStockIndex productStockIndex;
+
+    @AfterEach
+    void runAfterEach() {
+        verifyNoMoreInteractions(productRepository);
+    }
+
+    @Test
+    void shouldLoadIndexLazilyOnce() {
+        when(productRepository.findAvailableProductIds()).thenReturn(asList(1L, 3L));
+        when(productRepository.findUnavailableProductIds()).thenReturn(singletonList(2L));
+
+        assertEquals(asList(1L, 3L), productStockIndex.getProductIds(true));
+        assertEquals(singletonList(2L), productStockIndex.getProductIds(false));
+
+        verify(productRepository, times(1)).findAvailableProductIds();
+        verify(productRepository, times(1)).findUnavailableProductIds();
+    }
+
+    @Test
+    void shouldTrackStockChangesIncrementally() {
+        when(productRepository.findAvailableProductIds()).thenReturn(singletonList(1L));
+        when(productRepository.findUnavailableProductIds()).thenReturn(singletonList(2L));
+
+        productStockIndex.getProductIds(true);
+
+        productStockIndex.update(1L, 0);
+        productStockIndex.update(2L, 3);
+        productStockIndex.update(4L, 10);
+        productStockIndex.remove(2L);
+
+        assertEquals(singletonList(4L), productStockIndex.getProductIds(true));
+        assertEquals(singletonList(1L), productStockIndex.getProductIds(false));
+
+        verify(productRepository, times(1)).findAvailableProductIds();
+        verify(productRepository, times(1)).findUnavailableProductIds();
+    }
+
+    @Test
+    void shouldReloadIndexAfterInvalidation() {
+        when(productRepository.findAvailableProductIds())
+                .thenReturn(singletonList(1L))
+                .thenReturn(emptyList());
+        when(productRepository.findUnavailableProductIds()).thenReturn(emptyList());
+
+        assertEquals(singletonList(1L), productStockIndex.getProductIds(true));
+
+        productStockIndex.invalidate();
+
+        assertEquals(emptyList(), productStockIndex.getProductIds(true));
+
+        verify(productRepository, times(2)).findAvailableProductIds();
+        verify(productRepository, times(2)).findUnavailableProductIds();
+    }
+}
@@ -0,0 +1,127 @@
+package com.herostore.products.interceptor;
+
+import com.herostore.products.cache.CatalogResponseCache;
+import com.herostore.products.cache.CatalogVersion;
+import com.herostore.products.cache.ExportFileCache;
+import com.herostore.products.config.WebMvcConfig;
+import com.herostore.products.constants.ProductStockCondition;
+import com.herostore.products.controller.ProductController;
+import com.herostore.products.service.ProductImportService;
+import com.herostore.products.service.ProductService;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ProductController.class)
+@Import({WebMvcConfig.class, CatalogResponseCache.class, CatalogVersion.class})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class CatalogVersionInterceptorTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    CatalogVersion catalogVersion;
+
+    @MockBean
+    ProductService productService;
+
+    @MockBean
+    ExportFileCache exportFileCache;
+
+    @MockBean
+    ProductImportService productImportService;
+
+    static final String BASE_URI = "/api/products";
+
+    @Test
+    void shouldAddVersionHeadersToCatalogReads() throws Exception {
+        catalogVersion.increment();
+
+        when(productService.getAllProducts(ProductStockCondition.ALL))
+                .thenReturn(emptyList());
+
+        mockMvc.perform(
+                get(BASE_URI)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, catalogVersion.getETag()))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+
+        verify(productService, times(1)).getAllProducts(ProductStockCondition.ALL);
+    }
+
+    @Test
+    void shouldAnswerNotModifiedWithoutInvokingService() throws Exception {
+        mockMvc.perform(
+                get(BASE_URI + "/{id}", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, catalogVersion.getETag())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, catalogVersion.getETag()));
+
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void shouldServeFreshContentOnceCatalogChanges() throws Exception {
+        var staleETag = catalogVersion.getETag();
+        catalogVersion.increment();
+
+        when(productService.getAllProducts(ProductStockCondition.ALL))
+                .thenReturn(emptyList());
+
+        mockMvc.perform(
+                get(BASE_URI)
+                        .header(HttpHeaders.IF_NONE_MATCH, staleETag)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, catalogVersion.getETag()));
+    }
+
+    @Test
+    void shouldTagGzipEncodedCatalogReadsApart() throws Exception {
+        when(productService.getAllProducts(ProductStockCondition.ALL))
+                .thenReturn(emptyList());
+
+        mockMvc.perform(
+                get(BASE_URI)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, catalogVersion.getGzipETag()))
+                .andExpect(result -> assertTrue(
+                        result.getResponse().getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING)));
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForGzipETag() throws Exception {
+        mockMvc.perform(
+                get(BASE_URI)
+                        .header(HttpHeaders.IF_NONE_MATCH, catalogVersion.getGzipETag())
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, catalogVersion.getGzipETag()));
+
+        verifyNoInteractions(productService);
+    }
+}
@@ -0,0 +1,94 @@
+package com.herostore.products.io.impl;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.apache.commons.csv.CSVFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class CSVEncoderTest {
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+    @Test
+    void shouldWriteNumbersWithoutQuotes() throws IOException {
+        var content = encode(new CSVEncoder(os, 1024), 0L, -42, Long.MAX_VALUE, Long.MIN_VALUE, (short) 7);
+
+        assertEquals("0,-42,9223372036854775807,-9223372036854775808,7\r\n", content);
+    }
+
+    @Test
+    void shouldWriteDecimalsInPlainNotation() throws IOException {
+        var content = encode(new CSVEncoder(os, 1024),
+                new BigDecimal("50.00"), new BigDecimal("0.05"), new BigDecimal("-1.5"), BigDecimal.valueOf(150),
+                new BigDecimal("1E+3"), new BigDecimal("12345678901234567890.123"));
+
+        assertEquals("50.00,0.05,-1.5,150,1000,12345678901234567890.123\r\n", content);
+    }
+
+    @Test
+    void shouldWriteDateTimesWithExportPattern() throws IOException {
+        var content = encode(new CSVEncoder(os, 1024), LocalDateTime.of(2020, 3, 1, 9, 5, 7, 123_000_000));
+
+        assertEquals("2020-03-01 09:05:07\r\n", content);
+    }
+
+    @Test
+    void shouldQuoteOnlyValuesThatNeedIt() throws IOException {
+        var content = encode(new CSVEncoder(os, 1024),
+                "Iron Man", "Iron, Man", "The \"Hulk\"", "Line\nbreak", " padded", "", null, true);
+
+        assertEquals("Iron Man,\"Iron, Man\",\"The \"\"Hulk\"\"\",\"Line\nbreak\",\" padded\",,,true\r\n", content);
+    }
+
+    @Test
+    void shouldEncodeTextAsUTF8() throws IOException {
+        var content = encode(new CSVEncoder(os, 1024), "Pokémon", "€", "🦸", "\uD83E");
+
+        assertEquals("Pokémon,€,🦸,?\r\n", content);
+    }
+
+    @Test
+    void shouldProduceRecordsReadableByCSVParsersWhenBufferWrapsAround() throws IOException {
+        var encoder = new CSVEncoder(os, 16);
+        var values = new Object[]{123456789L, "Thor's \"hammer\", Mjölnir", new BigDecimal("1999.99"),
+                LocalDateTime.of(2021, 12, 31, 23, 59, 59)};
+
+        for (var row = 0; row < 100; row++) {
+            for (var value : values) {
+                encoder.writeValue(value);
+            }
+            encoder.endRecord();
+        }
+        encoder.flush();
+
+        var records = CSVFormat.DEFAULT.parse(new StringReader(os.toString(StandardCharsets.UTF_8))).getRecords();
+
+        assertEquals(100, records.size());
+        for (var record : records) {
+            assertEquals("123456789", record.get(0));
+            assertEquals("Thor's \"hammer\", Mjölnir", record.get(1));
+            assertEquals("1999.99", record.get(2));
+            assertEquals("2021-12-31 23:59:59", record.get(3));
+        }
+    }
+
+    private String encode(CSVEncoder encoder, Object... values) throws IOException {
+        for (var value : values) {
+            encoder.writeValue(value);
+        }
+        encoder.endRecord();
+        encoder.flush();
+
+        return os.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,70 @@
+package com.herostore.products.io.impl;
+
+import com.herostore.products.exception.InvalidImportFileException;
+import com.herostore.products.io.CSVReader;
+import com.herostore.products.io.ImportRow;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class CSVReaderImplTest {
+
+    CSVReader csvReader = new CSVReaderImpl();
+
+    @Test
+    void shouldReadRowsByHeaderWithTheirLineNumbers() throws IOException {
+        var csv = "﻿id,NAME,Price\r\n"
+                + "1, Pokémon ,10.5\r\n"
+                + "\r\n"
+                + "2,\"Iron, Man\nCup\",\r\n"
+                + "3,Batman";
+
+        var rows = read(csv, asList("Name", "price"));
+
+        assertEquals(asList(
+                new ImportRow(2, Map.of("id", "1", "name", "Pokémon", "price", "10.5")),
+                new ImportRow(4, Map.of("id", "2", "name", "Iron, Man\nCup")),
+                new ImportRow(6, Map.of("id", "3", "name", "Batman"))), rows);
+        assertEquals("Batman", rows.get(2).get("Name"));
+    }
+
+    @Test
+    void shouldReadFileWithoutRows() throws IOException {
+        assertEquals(List.of(), read("Name,Price\r\n", asList("Name", "Price")));
+    }
+
+    @Test
+    void shouldThrowInvalidImportFileExceptionWhenColumnsAreMissing() {
+        var exc = assertThrows(InvalidImportFileException.class,
+                () -> read("Name,Stock\r\nCup,1\r\n", asList("Name", "Product type", "Price")));
+
+        assertEquals("Missing columns: Product type, Price", exc.getMessage());
+    }
+
+    @Test
+    void shouldThrowInvalidImportFileExceptionWhenFileIsMalformed() {
+        var exc = assertThrows(InvalidImportFileException.class,
+                () -> read("Name\r\n\"Cup\r\n", asList("Name")));
+
+        assertEquals("Invalid CSV file: (startline 2) EOF reached before encapsulated token finished",
+                exc.getMessage());
+    }
+
+    private List<ImportRow> read(String csv, List<String> requiredHeaders) throws IOException {
+        var rows = new ArrayList<ImportRow>();
+        csvReader.read(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), requiredHeaders, rows::add);
+        return rows;
+    }
+}
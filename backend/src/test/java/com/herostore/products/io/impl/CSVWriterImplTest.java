@@ -1,6 +1,7 @@
 package com.herostore.products.io.impl;
 
 import com.herostore.products.exception.ServiceException;
+import com.herostore.products.dto.ProductOrderLineExportDTO;
 import com.herostore.products.io.CSVWriter;
 import com.herostore.products.utils.TestClass;
 import lombok.AccessLevel;
@@ -9,6 +10,9 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -32,6 +36,44 @@ class CSVWriterImplTest {
         assertEquals(contentExpected, new String(os.toByteArray()));
     }
 
+    @Test
+    void shouldWriteStreamedElementsAsUTF8() throws IOException {
+        var os = new ByteArrayOutputStream();
+        var headers = new String[]{"ID", "Name"};
+        var fields = new String[]{"id", "name"};
+
+        var elements = Stream.of(new TestClass(1L, "Pokémon"), new TestClass(2L, "Iron, Man"))
+                .peek(element -> assertEquals("ID,Name\r\n", os.toString(StandardCharsets.UTF_8).substring(0, 9)));
+
+        csvWriter.write(os, headers, fields, elements);
+
+        var contentExpected = "ID,Name\r\n1,Pokémon\r\n2,\"Iron, Man\"\r\n";
+        assertEquals(contentExpected, os.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldWriteDateTimesWithExportPattern() throws IOException {
+        var os = new ByteArrayOutputStream();
+        var element = ProductOrderLineExportDTO.builder()
+                .productOrderId(1L)
+                .productOrderCreatedAt(LocalDateTime.of(2020, 3, 1, 10, 15, 30, 123_000_000))
+                .build();
+
+        csvWriter.write(os, new String[]{"Order ID", "Created at"}, new String[]{"productOrderId", "productOrderCreatedAt"},
+                Stream.of(element));
+
+        assertEquals("Order ID,Created at\r\n1,2020-03-01 10:15:30\r\n", os.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldWriteOnlyHeadersWhenThereAreNoElements() throws IOException {
+        var os = new ByteArrayOutputStream();
+
+        csvWriter.write(os, new String[]{"ID", "Name"}, new String[]{"id", "name"}, Stream.empty());
+
+        assertEquals("ID,Name\r\n", os.toString(StandardCharsets.UTF_8));
+    }
+
     @Test
     void shouldThrowServiceExceptionWhenExtractingNonExistentMethod() throws IOException {
         var os = new ByteArrayOutputStream();
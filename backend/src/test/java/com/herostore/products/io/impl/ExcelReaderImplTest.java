@@ -0,0 +1,111 @@
+package com.herostore.products.io.impl;
+
+import com.herostore.products.exception.InvalidImportFileException;
+import com.herostore.products.io.ExcelReader;
+import com.herostore.products.io.ImportRow;
+import com.herostore.products.io.WorkbookData;
+import com.herostore.products.utils.TestClass;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ExcelReaderImplTest {
+
+    ExcelReader excelReader = new ExcelReaderImpl();
+
+    @Test
+    void shouldReadRowsByHeaderWithTheirRowNumbers() throws IOException {
+        var os = new ByteArrayOutputStream();
+        try (var workbook = new XSSFWorkbook()) {
+            var sheet = workbook.createSheet("Products");
+            var header = sheet.createRow(1);
+            header.createCell(0).setCellValue("id");
+            header.createCell(1).setCellValue("NAME");
+            header.createCell(3).setCellValue("Price");
+
+            var first = sheet.createRow(2);
+            first.createCell(0).setCellValue(1);
+            first.createCell(1).setCellValue(" Pokémon ");
+            first.createCell(3).setCellValue(49.99 * 3);
+
+            sheet.createRow(3).createCell(1).setCellValue("");
+
+            var second = sheet.createRow(4);
+            second.createCell(1).setCellValue("Iron Man Cup");
+            second.createCell(2).setCellValue("Not a column");
+            second.createCell(3).setCellValue(1e20);
+
+            workbook.write(os);
+        }
+
+        var rows = read(os.toByteArray(), asList("Name", "price"));
+
+        assertEquals(asList(
+                new ImportRow(3, Map.of("id", "1", "name", "Pokémon", "price", "149.97")),
+                new ImportRow(5, Map.of("name", "Iron Man Cup", "price", "100000000000000000000"))), rows);
+    }
+
+    @Test
+    void shouldReadWorkbookWrittenByExcelWriter() throws IOException {
+        var os = new ByteArrayOutputStream();
+        var workbookData = WorkbookData.builder()
+                .sheetName("Product Types")
+                .columnWidths(new int[]{2000, 4000})
+                .headers(new String[]{"ID", "Name"})
+                .fields(new String[]{"id", "name"})
+                .build();
+
+        new ExcelWriterImpl().writeWorkbook(os, workbookData, Stream.of(new TestClass(1L, "Cups"),
+                new TestClass(2L, "Shirts")));
+
+        assertEquals(asList(
+                new ImportRow(3, Map.of("id", "1", "name", "Cups")),
+                new ImportRow(4, Map.of("id", "2", "name", "Shirts"))),
+                read(os.toByteArray(), asList("Name")));
+    }
+
+    @Test
+    void shouldThrowInvalidImportFileExceptionWhenColumnsAreMissing() throws IOException {
+        var os = new ByteArrayOutputStream();
+        try (var workbook = new XSSFWorkbook()) {
+            var header = workbook.createSheet().createRow(0);
+            header.createCell(0).setCellValue("Name");
+            header.createCell(1).setCellValue("Stock");
+            workbook.write(os);
+        }
+
+        var exc = assertThrows(InvalidImportFileException.class,
+                () -> read(os.toByteArray(), asList("Name", "Product type", "Price")));
+
+        assertEquals("Missing columns: Product type, Price", exc.getMessage());
+    }
+
+    @Test
+    void shouldThrowInvalidImportFileExceptionWhenFileIsNotAWorkbook() {
+        var exc = assertThrows(InvalidImportFileException.class,
+                () -> read("Name,Price\r\n".getBytes(StandardCharsets.UTF_8), asList("Name")));
+
+        assertEquals("Invalid Excel file: ", exc.getMessage().substring(0, 20));
+    }
+
+    private List<ImportRow> read(byte[] file, List<String> requiredHeaders) throws IOException {
+        var rows = new ArrayList<ImportRow>();
+        excelReader.read(new ByteArrayInputStream(file), requiredHeaders, rows::add);
+        return rows;
+    }
+}
@@ -1,15 +1,26 @@
 package com.herostore.products.io.impl;
 
+import com.herostore.products.dto.ProductOrderLineExportDTO;
 import com.herostore.products.exception.ServiceException;
 import com.herostore.products.io.ExcelWriter;
 import com.herostore.products.io.WorkbookData;
 import com.herostore.products.utils.TestClass;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -20,6 +31,28 @@ class ExcelWriterImplTest {
 
     ExcelWriter excelWriter = new ExcelWriterImpl();
 
+    @Test
+    void shouldWriteDateTimesAsFormattedDateCells() throws IOException {
+        var os = new ByteArrayOutputStream();
+        var createdAt = LocalDateTime.of(2020, 3, 1, 10, 15, 30);
+        var element = ProductOrderLineExportDTO.builder()
+                .productOrderId(1L)
+                .productOrderCreatedAt(createdAt)
+                .build();
+
+        var workbookData = getWorkbookData(
+                new int[]{2000, 5000}, new String[]{"Order ID", "Created at"}, new String[]{"productOrderId", "productOrderCreatedAt"});
+
+        excelWriter.writeWorkbook(os, workbookData, Stream.of(element));
+
+        try (var workbook = new XSSFWorkbook(new ByteArrayInputStream(os.toByteArray()))) {
+            var cell = workbook.getSheet("Sheet Name").getRow(2).getCell(1);
+
+            assertEquals(createdAt, cell.getLocalDateTimeCellValue());
+            assertEquals("yyyy-mm-dd hh:mm:ss", cell.getCellStyle().getDataFormatString());
+        }
+    }
+
     @Test
     void shouldWriteSuccessfully() throws IOException {
         var os = new ByteArrayOutputStream();
@@ -30,8 +63,53 @@ class ExcelWriterImplTest {
 
         var workbookData = getWorkbookData(columnWidths, headers, fields);
 
-        excelWriter.withData(workbookData);
-        excelWriter.writeWorkbook(os, elements);
+        excelWriter.writeWorkbook(os, workbookData, elements);
+
+        try (var workbook = new XSSFWorkbook(new ByteArrayInputStream(os.toByteArray()))) {
+            var sheet = workbook.getSheet("Sheet Name");
+
+            assertEquals("ID", sheet.getRow(1).getCell(0).getStringCellValue());
+            assertEquals("Name", sheet.getRow(1).getCell(1).getStringCellValue());
+            assertEquals(1, sheet.getRow(2).getCell(0).getNumericCellValue());
+            assertEquals("Elon", sheet.getRow(2).getCell(1).getStringCellValue());
+            assertEquals(2, sheet.getRow(3).getCell(0).getNumericCellValue());
+            assertEquals("Musk", sheet.getRow(3).getCell(1).getStringCellValue());
+        }
+    }
+
+    @Test
+    void shouldWriteRowsBeyondTheInMemoryWindowFromStream() throws IOException {
+        var os = new ByteArrayOutputStream();
+        var rows = 5_000;
+        var elements = LongStream.rangeClosed(1, rows)
+                .mapToObj(id -> new TestClass(id, "Name " + id));
+
+        var workbookData = getWorkbookData(new int[]{2000, 4000}, new String[]{"ID", "Name"}, new String[]{"id", "name"});
+
+        excelWriter.writeWorkbook(os, workbookData, elements);
+
+        try (var workbook = new XSSFWorkbook(new ByteArrayInputStream(os.toByteArray()))) {
+            var sheet = workbook.getSheet("Sheet Name");
+
+            assertEquals(rows + 1, sheet.getLastRowNum());
+            assertEquals("Name 1", sheet.getRow(2).getCell(1).getStringCellValue());
+            assertEquals("Name " + rows, sheet.getRow(rows + 1).getCell(1).getStringCellValue());
+        }
+    }
+
+    @Test
+    void shouldWriteOnlyHeadersWhenThereAreNoElements() throws IOException {
+        var os = new ByteArrayOutputStream();
+        var workbookData = getWorkbookData(new int[]{2000, 4000}, new String[]{"ID", "Name"}, new String[]{"id", "name"});
+
+        excelWriter.writeWorkbook(os, workbookData, Stream.empty());
+
+        try (var workbook = new XSSFWorkbook(new ByteArrayInputStream(os.toByteArray()))) {
+            var sheet = workbook.getSheet("Sheet Name");
+
+            assertEquals(1, sheet.getLastRowNum());
+            assertEquals("Name", sheet.getRow(1).getCell(1).getStringCellValue());
+        }
     }
 
     @Test
@@ -45,10 +123,8 @@ class ExcelWriterImplTest {
 
         var workbookData = getWorkbookData(columnWidths, headers, fields);
 
-        excelWriter.withData(workbookData);
-
         var exc = assertThrows(ServiceException.class,
-                () -> excelWriter.writeWorkbook(os, elements));
+                () -> excelWriter.writeWorkbook(os, workbookData, elements));
 
         assertEquals(expectedError, exc.getMessage());
     }
@@ -64,14 +140,63 @@ class ExcelWriterImplTest {
 
         var workbookData = getWorkbookData(columnWidths, headers, fields);
 
-        excelWriter.withData(workbookData);
-
         var exc = assertThrows(ServiceException.class,
-                () -> excelWriter.writeWorkbook(os, elements));
+                () -> excelWriter.writeWorkbook(os, workbookData, elements));
 
         assertEquals(expectedError, exc.getMessage());
     }
 
+    @Test
+    void shouldWriteConcurrentWorkbooksWithoutInterference() throws Exception {
+        var exports = 16;
+        var rows = 500;
+        var executor = Executors.newFixedThreadPool(8);
+
+        try {
+            var tasks = new ArrayList<Callable<byte[]>>();
+
+            for (var export = 0; export < exports; export++) {
+                var sheetName = "Export " + export;
+                var workbookData = WorkbookData.builder()
+                        .sheetName(sheetName)
+                        .columnWidths(new int[]{2000, 4000})
+                        .headers(new String[]{"ID", "Name"})
+                        .fields(new String[]{"id", "name"})
+                        .build();
+
+                tasks.add(() -> {
+                    var os = new ByteArrayOutputStream();
+                    var elements = LongStream.rangeClosed(1, rows)
+                            .mapToObj(id -> new TestClass(id, sheetName + " row " + id));
+                    excelWriter.writeWorkbook(os, workbookData, elements);
+                    return os.toByteArray();
+                });
+            }
+
+            var results = executor.invokeAll(tasks);
+
+            for (var export = 0; export < exports; export++) {
+                assertWorkbookContents(results.get(export), "Export " + export, rows);
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private void assertWorkbookContents(Future<byte[]> result, String sheetName, int rows) throws Exception {
+        try (var workbook = new XSSFWorkbook(new ByteArrayInputStream(result.get()))) {
+            assertEquals(1, workbook.getNumberOfSheets());
+
+            var sheet = workbook.getSheet(sheetName);
+
+            assertEquals(rows + 1, sheet.getLastRowNum());
+            for (var id = 1; id <= rows; id++) {
+                assertEquals(sheetName + " row " + id, sheet.getRow(id + 1).getCell(1).getStringCellValue());
+            }
+        }
+    }
+
     private WorkbookData getWorkbookData(int[] columnWidths, String[] headers, String[] fields) {
         return WorkbookData.builder()
                 .sheetName("Sheet Name")
@@ -0,0 +1,78 @@
+package com.herostore.products.io.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.herostore.products.dto.ProductOrderLineExportDTO;
+import com.herostore.products.exception.ServiceException;
+import com.herostore.products.io.NDJSONWriter;
+import com.herostore.products.utils.TestClass;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class NDJSONWriterImplTest {
+
+    ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    NDJSONWriter ndjsonWriter = new NDJSONWriterImpl(objectMapper);
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+    @Test
+    void shouldWriteOneCompactObjectPerLine() throws IOException {
+        var keys = new String[]{"id", "name"};
+        var fields = new String[]{"id", "name"};
+
+        ndjsonWriter.write(os, keys, fields, Stream.of(new TestClass(1L, "Pokémon"), new TestClass(2L, "Iron \"Man\"\n")));
+
+        var contentExpected = "{\"id\":1,\"name\":\"Pokémon\"}\n{\"id\":2,\"name\":\"Iron \\\"Man\\\"\\n\"}\n";
+        assertEquals(contentExpected, os.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldWriteValuesWithTheirJSONTypes() throws IOException {
+        var element = ProductOrderLineExportDTO.builder()
+                .productOrderId(1L)
+                .productOrderCreatedAt(LocalDateTime.of(2020, 3, 1, 10, 15, 30))
+                .productPrice(new BigDecimal("1E+3"))
+                .quantity(2)
+                .build();
+        var keys = new String[]{"orderId", "createdAt", "price", "quantity", "product"};
+        var fields = new String[]{"productOrderId", "productOrderCreatedAt", "productPrice", "quantity", "productName"};
+
+        ndjsonWriter.write(os, keys, fields, Stream.of(element));
+
+        var contentExpected = "{\"orderId\":1,\"createdAt\":\"2020-03-01T10:15:30\",\"price\":1000,\"quantity\":2,"
+                + "\"product\":null}\n";
+        assertEquals(contentExpected, os.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldWriteEmptyFileWithoutElements() throws IOException {
+        ndjsonWriter.write(os, new String[]{"id"}, new String[]{"id"}, Stream.empty());
+
+        assertEquals(0, os.size());
+    }
+
+    @Test
+    void shouldThrowServiceExceptionWhenFieldDoesNotExist() {
+        var elements = Stream.of(new TestClass(1L, "Abc"));
+
+        assertThrows(ServiceException.class,
+                () -> ndjsonWriter.write(os, new String[]{"age"}, new String[]{"age"}, elements));
+    }
+}
@@ -0,0 +1,75 @@
+package com.herostore.products.io.impl;
+
+import com.herostore.products.exception.ServiceException;
+import com.herostore.products.io.PDFMerger;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfWriter;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class PDFMergerImplTest {
+
+    PDFMerger pdfMerger = new PDFMergerImpl();
+
+    @Test
+    void shouldAppendEveryPageInOrder(@TempDir Path directory) throws Exception {
+        var first = writeDocument(directory.resolve("first.pdf"), "Page 1", "Page 2");
+        var second = writeDocument(directory.resolve("second.pdf"), "Page 3");
+        var os = new ByteArrayOutputStream();
+
+        try (var session = pdfMerger.openSession(os)) {
+            session.append(first);
+            session.append(second);
+        }
+
+        var reader = new PdfReader(os.toByteArray());
+        try {
+            assertEquals(3, reader.getNumberOfPages());
+            for (var page = 1; page <= 3; page++) {
+                assertEquals("Page " + page, PdfTextExtractor.getTextFromPage(reader, page));
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void shouldFailWhenAppendingAnInvalidDocument(@TempDir Path directory) throws IOException {
+        var invalid = Files.writeString(directory.resolve("invalid.pdf"), "not a pdf");
+        var session = pdfMerger.openSession(new ByteArrayOutputStream());
+
+        var exc = assertThrows(ServiceException.class, () -> session.append(invalid));
+
+        assertEquals("Couldn't append PDF document to merged document", exc.getMessage());
+    }
+
+    private Path writeDocument(Path file, String... pages) throws Exception {
+        var document = new Document();
+
+        try (var os = Files.newOutputStream(file)) {
+            PdfWriter.getInstance(document, os);
+            document.open();
+            for (var page : pages) {
+                document.newPage();
+                document.add(new Paragraph(page));
+            }
+            document.close();
+        }
+
+        return file;
+    }
+}
@@ -0,0 +1,167 @@
+package com.herostore.products.io.impl;
+
+import com.herostore.products.dto.ProductOrderLineExportDTO;
+import com.herostore.products.exception.ServiceException;
+import com.herostore.products.io.ParquetColumn;
+import com.herostore.products.io.ParquetWriter;
+import com.herostore.products.utils.TestClass;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.PackagePrivate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks the written files by reading them back with DuckDB.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ParquetWriterImplTest {
+
+    static final List<ParquetColumn> COLUMNS = asList(
+            ParquetColumn.int64("order_id", "productOrderId"),
+            ParquetColumn.timestamp("created_at", "productOrderCreatedAt"),
+            ParquetColumn.string("product_name", "productName"),
+            ParquetColumn.decimal("product_price", "productPrice", 15, 6),
+            ParquetColumn.int32("quantity", "quantity"));
+
+    @TempDir
+    @PackagePrivate
+    Path directory;
+
+    ParquetWriter parquetWriter = new ParquetWriterImpl();
+
+    @Test
+    void shouldWriteTypedColumns() throws Exception {
+        var file = write(Stream.of(
+                mockExportLine(1L, LocalDateTime.of(2020, 3, 1, 10, 15, 30, 250_000_000), "Iron Man Cup",
+                        new BigDecimal("49.990000"), 2),
+                mockExportLine(2L, null, "Pokémon, \"Pikachu\"", new BigDecimal("-0.5"), 1),
+                mockExportLine(3L, LocalDateTime.of(1969, 12, 31, 23, 59, 59), null, null, null)));
+
+        assertEquals(asList(asList("BIGINT", "TIMESTAMP", "VARCHAR", "DECIMAL(15,6)", "INTEGER")),
+                queryRows("SELECT typeof(order_id), typeof(created_at), typeof(product_name), typeof(product_price), "
+                        + "typeof(quantity) FROM read_parquet('" + file + "') LIMIT 1", 5));
+
+        assertEquals(asList(
+                asList(1L, "2020-03-01 10:15:30.25", "Iron Man Cup", "49.990000", 2),
+                asList(2L, null, "Pokémon, \"Pikachu\"", "-0.500000", 1),
+                asList(3L, "1969-12-31 23:59:59", null, null, null)),
+                queryRows("SELECT order_id, CAST(created_at AS VARCHAR), product_name, CAST(product_price AS VARCHAR), "
+                        + "quantity FROM read_parquet('" + file + "') ORDER BY order_id", 5));
+    }
+
+    @Test
+    void shouldSplitRowsInRowGroupsWithDictionaryEncodedText() throws Exception {
+        var rows = ParquetWriterImpl.ROW_GROUP_SIZE + 1000L;
+        var file = write(LongStream.rangeClosed(1, rows)
+                .mapToObj(id -> mockExportLine(id, LocalDateTime.of(2020, 3, 1, 0, 0).plusSeconds(id),
+                        id % 100 == 0 ? null : "Cup " + id % 7, BigDecimal.valueOf(id, 2), (int) id % 5)));
+
+        assertEquals(asList(asList(rows, rows * (rows + 1) / 2, 7L, rows / 100, rows * (rows + 1) / 2)),
+                queryRows("SELECT count(*), CAST(sum(order_id) AS BIGINT), count(DISTINCT product_name), "
+                        + "count(*) - count(product_name), CAST(sum(product_price) * 100 AS BIGINT) "
+                        + "FROM read_parquet('" + file + "')", 5));
+
+        assertEquals(asList(
+                asList(0L, "1", (long) ParquetWriterImpl.ROW_GROUP_SIZE, "PLAIN, RLE, RLE_DICTIONARY"),
+                asList(1L, String.valueOf(ParquetWriterImpl.ROW_GROUP_SIZE + 1), 1000L, "PLAIN, RLE, RLE_DICTIONARY")),
+                queryRows("SELECT row_group_id, stats_min_value, row_group_num_rows, "
+                        + "(SELECT encodings FROM parquet_metadata('" + file + "') n WHERE n.row_group_id = m.row_group_id "
+                        + "AND n.path_in_schema = 'product_name') FROM parquet_metadata('" + file + "') m "
+                        + "WHERE path_in_schema = 'order_id' ORDER BY row_group_id", 4));
+    }
+
+    @Test
+    void shouldWriteFileWithoutRows() throws Exception {
+        var file = write(Stream.empty());
+
+        assertEquals(asList(0L), query("SELECT count(*) FROM read_parquet('" + file + "')"));
+    }
+
+    @Test
+    void shouldEncodeRunsAndBitPackedGroups() {
+        var out = new ByteArrayOutputStream();
+        var values = new int[]{1, 1, 1, 1, 1, 1, 1, 1, 1, 0, 1, 2, 3};
+
+        ParquetWriterImpl.encodeRleBitPacked(values, values.length, 2, out);
+
+        // A run of nine 1s, then a padded group of 8 values: 0, 1, 2, 3 and four zeros
+        var expected = new byte[]{18, 1, 3, (byte) 0b1110_0100, 0};
+        assertArrayEquals(expected, out.toByteArray());
+    }
+
+    @Test
+    void shouldThrowServiceExceptionWhenFieldDoesNotExist() {
+        var columns = asList(ParquetColumn.int64("age", "age"));
+
+        assertThrows(ServiceException.class,
+                () -> parquetWriter.write(new ByteArrayOutputStream(), columns, Stream.of(new TestClass(1L, "Abc"))));
+    }
+
+    private Path write(Stream<ProductOrderLineExportDTO> lines) throws IOException {
+        var file = directory.resolve("orders.parquet");
+
+        try (var os = Files.newOutputStream(file)) {
+            parquetWriter.write(os, COLUMNS, lines);
+        }
+
+        return file;
+    }
+
+    private List<Object> query(String sql) throws SQLException {
+        var values = new ArrayList<>();
+        for (var row : queryRows(sql, 1)) {
+            values.add(row.get(0));
+        }
+        return values;
+    }
+
+    private List<List<Object>> queryRows(String sql, int columns) throws SQLException {
+        var rows = new ArrayList<List<Object>>();
+
+        try (var connection = DriverManager.getConnection("jdbc:duckdb:");
+             var statement = connection.createStatement();
+             var resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                var row = new ArrayList<>();
+                for (var column = 1; column <= columns; column++) {
+                    var value = resultSet.getObject(column);
+                    row.add(value == null || value instanceof Number || value instanceof String ? value : value.toString());
+                }
+                rows.add(row);
+            }
+        }
+
+        return rows;
+    }
+
+    private static ProductOrderLineExportDTO mockExportLine(Long productOrderId, LocalDateTime createdAt,
+                                                            String productName, BigDecimal productPrice,
+                                                            Integer quantity) {
+        return ProductOrderLineExportDTO.builder()
+                .productOrderId(productOrderId)
+                .productOrderCreatedAt(createdAt)
+                .productName(productName)
+                .productPrice(productPrice)
+                .quantity(quantity)
+                .build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.herostore.products.repository;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the stock condition queries can be answered from the partial stock indexes. Each test
+ * seeds one million products inside a transaction that is rolled back afterwards, runs the repository
+ * query and explains the SQL that Hibernate generated for it.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.herostore.products.repository.ProductRepositoryTest$RecordingStatementInspector")
+@Transactional
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ProductRepositoryTest {
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    static final int SEEDED_PRODUCTS = 1_000_000;
+
+    @BeforeEach
+    void runBeforeEach() {
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void shouldUseIndexToRetrieveAvailableProducts() {
+        seedProducts("CASE WHEN i % 100 = 0 THEN 10 ELSE 0 END");
+
+        assertEquals(SEEDED_PRODUCTS / 100, productRepository.findAvailableProductIds().size());
+        var plan = explainLastStatement();
+
+        assertThat(plan, containsString("product_available_idx"));
+        assertThat(plan, not(containsString("Seq Scan")));
+    }
+
+    @Test
+    void shouldUseIndexToRetrieveUnavailableProducts() {
+        seedProducts("CASE WHEN i % 100 = 0 THEN 0 ELSE 10 END");
+
+        assertEquals(SEEDED_PRODUCTS / 100, productRepository.findUnavailableProductIds().size());
+        var plan = explainLastStatement();
+
+        assertThat(plan, containsString("product_unavailable_idx"));
+        assertThat(plan, not(containsString("Seq Scan")));
+    }
+
+    private void seedProducts(String stockExpression) {
+        jdbcTemplate.update("INSERT INTO product_type (name) VALUES ('Explain seed')");
+        jdbcTemplate.update(
+                "INSERT INTO product (name, product_type_id, stock, price) " +
+                        "SELECT 'Product ' || i, (SELECT id FROM product_type WHERE name = 'Explain seed'), " +
+                        stockExpression + ", 10.00 " +
+                        "FROM generate_series(1, " + SEEDED_PRODUCTS + ") AS i");
+        jdbcTemplate.execute("ANALYZE product");
+    }
+
+    private String explainLastStatement() {
+        var statements = RecordingStatementInspector.STATEMENTS;
+        var sql = statements.get(statements.size() - 1);
+
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+
+    /**
+     * Records the SQL statements Hibernate prepares, as they're sent to the database.
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        private static final long serialVersionUID = 2391187524601350637L;
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
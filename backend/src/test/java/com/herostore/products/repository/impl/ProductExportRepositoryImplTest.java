@@ -0,0 +1,28 @@
+package com.herostore.products.repository.impl;
+
+import com.herostore.products.constants.ProductExportField;
+import com.herostore.products.constants.ProductStockCondition;
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductExportRepositoryImplTest {
+
+    @Test
+    void shouldSelectOnlyRequestedFieldsWithoutJoiningProductTypes() {
+        var query = ProductExportRepositoryImpl.buildQuery(ProductStockCondition.AVAILABLE,
+                asList(ProductExportField.NAME, ProductExportField.PRICE));
+
+        assertEquals("SELECT p.name AS name, p.price AS price FROM Product p WHERE p.stock > 0 ORDER BY p.id", query);
+    }
+
+    @Test
+    void shouldJoinProductTypesWhenTheirNameIsSelected() {
+        var query = ProductExportRepositoryImpl.buildQuery(ProductStockCondition.ALL,
+                asList(ProductExportField.ID, ProductExportField.PRODUCT_TYPE));
+
+        assertEquals("SELECT p.id AS id, pt.name AS productTypeName FROM Product p JOIN p.productType pt ORDER BY p.id",
+                query);
+    }
+}
@@ -0,0 +1,22 @@
+package com.herostore.products.repository.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductImportRepositoryImplTest {
+
+    @Test
+    void shouldInsertAllProductsWithOneStatement() {
+        assertEquals("INSERT INTO product (name, product_type_id, stock, price) VALUES (?, ?, ?, ?), (?, ?, ?, ?)",
+                ProductImportRepositoryImpl.buildInsert(2));
+    }
+
+    @Test
+    void shouldUpdateAllProductsJoiningTheirValues() {
+        assertEquals("UPDATE product p SET name = v.name, product_type_id = v.product_type_id, stock = v.stock, "
+                        + "price = v.price FROM (VALUES (?, ?, ?, ?, ?), (?, ?, ?, ?, ?)) "
+                        + "AS v (id, name, product_type_id, stock, price) WHERE p.id = v.id RETURNING p.id",
+                ProductImportRepositoryImpl.buildUpdate(2));
+    }
+}
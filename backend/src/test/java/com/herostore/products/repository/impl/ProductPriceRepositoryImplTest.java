@@ -0,0 +1,25 @@
+package com.herostore.products.repository.impl;
+
+import com.herostore.products.constants.PriceChangeType;
+import com.herostore.products.constants.ProductStockCondition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductPriceRepositoryImplTest {
+
+    @Test
+    void shouldChangePricesOfProductTypeByPercentage() {
+        assertEquals("UPDATE product SET price = GREATEST(ROUND(price * (100 + ?) / 100, ?), 0) "
+                        + "WHERE product_type_id = ? AND stock > 0",
+                ProductPriceRepositoryImpl.buildUpdate(PriceChangeType.PERCENTAGE, true, ProductStockCondition.AVAILABLE));
+    }
+
+    @Test
+    void shouldChangePricesOfAllProductsByAmount() {
+        assertEquals("UPDATE product SET price = GREATEST(ROUND(price + ?, ?), 0)",
+                ProductPriceRepositoryImpl.buildUpdate(PriceChangeType.ABSOLUTE, false, ProductStockCondition.ALL));
+        assertEquals("UPDATE product SET price = GREATEST(ROUND(price + ?, ?), 0) WHERE stock = 0",
+                ProductPriceRepositoryImpl.buildUpdate(PriceChangeType.ABSOLUTE, false, ProductStockCondition.UNAVAILABLE));
+    }
+}
@@ -0,0 +1,21 @@
+package com.herostore.products.repository.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductStockRepositoryImplTest {
+
+    @Test
+    void shouldLockProductsInIdOrder() {
+        assertEquals("SELECT id, stock FROM product WHERE id IN (?, ?) ORDER BY id FOR UPDATE",
+                ProductStockRepositoryImpl.buildLock(2));
+    }
+
+    @Test
+    void shouldIncrementAllStocksJoiningTheirDeltas() {
+        assertEquals("UPDATE product p SET stock = p.stock + v.delta FROM (VALUES (?, ?), (?, ?)) AS v (id, delta) "
+                        + "WHERE p.id = v.id RETURNING p.id, p.stock",
+                ProductStockRepositoryImpl.buildUpdate(2));
+    }
+}
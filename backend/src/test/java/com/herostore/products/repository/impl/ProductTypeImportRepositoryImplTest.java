@@ -0,0 +1,21 @@
+package com.herostore.products.repository.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductTypeImportRepositoryImplTest {
+
+    @Test
+    void shouldInsertAllProductTypesWithOneStatement() {
+        assertEquals("INSERT INTO product_type (name) VALUES (?), (?)",
+                ProductTypeImportRepositoryImpl.buildInsert(2));
+    }
+
+    @Test
+    void shouldRenameAllProductTypesJoiningTheirNames() {
+        assertEquals("UPDATE product_type t SET name = v.name FROM (VALUES (?, ?), (?, ?)) AS v (id, name) "
+                        + "WHERE t.id = v.id RETURNING t.id",
+                ProductTypeImportRepositoryImpl.buildUpdate(2));
+    }
+}
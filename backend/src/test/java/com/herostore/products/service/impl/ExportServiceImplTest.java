@@ -0,0 +1,279 @@
+package com.herostore.products.service.impl;
+
+import com.herostore.products.config.ExportProperties;
+import com.herostore.products.constants.ExportJobStatus;
+import com.herostore.products.constants.ExportKind;
+import com.herostore.products.constants.FileType;
+import com.herostore.products.constants.ProductExportField;
+import com.herostore.products.constants.ProductStockCondition;
+import com.herostore.products.dto.ProductOrderExportRange;
+import com.herostore.products.dto.request.ExportRequest;
+import com.herostore.products.dto.response.ExportJobResponse;
+import com.herostore.products.exception.ExportNotReadyException;
+import com.herostore.products.exception.ExportRejectedException;
+import com.herostore.products.exception.InvalidExportRequestException;
+import com.herostore.products.exception.ResourceNotFoundException;
+import com.herostore.products.exception.ServiceException;
+import com.herostore.products.service.ProductOrderService;
+import com.herostore.products.service.ProductService;
+import com.herostore.products.service.ProductTypeService;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.PackagePrivate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ExportServiceImplTest {
+
+    @Mock
+    ProductService productService;
+
+    @Mock
+    ProductTypeService productTypeService;
+
+    @Mock
+    ProductOrderService productOrderService;
+
+    @TempDir
+    @PackagePrivate
+    Path directory;
+
+    ThreadPoolExecutor exportExecutor;
+    ExportProperties exportProperties;
+    ExportServiceImpl exportService;
+
+    @BeforeEach
+    void runBeforeEach() {
+        exportProperties = new ExportProperties();
+        exportProperties.setDirectory(directory.resolve("exports"));
+
+        exportExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+
+        exportService = new ExportServiceImpl(
+                productService, productTypeService, productOrderService, exportProperties, exportExecutor);
+        exportService.initExportDirectory();
+    }
+
+    @AfterEach
+    void runAfterEach() throws InterruptedException {
+        exportExecutor.shutdownNow();
+        exportExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        verifyNoMoreInteractions(productService, productTypeService, productOrderService);
+    }
+
+    @Test
+    void shouldRunExportInBackgroundAndStoreItsFile() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write("ID,Name\r\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(productService).exportProductsToFile(any(OutputStream.class), any(FileType.class), any(ProductStockCondition.class), any());
+
+        var job = exportService.submitExport(productsExportRequest());
+        var finishedJob = awaitFinished(job.getId());
+
+        assertEquals(ExportJobStatus.COMPLETED, finishedJob.getStatus());
+        assertEquals(9, finishedJob.getBytesWritten());
+        assertNotNull(finishedJob.getExpiresAt());
+
+        var exportFile = exportService.getExportFile(job.getId());
+
+        assertEquals("products.csv", exportFile.getFileName());
+        assertEquals("ID,Name\r\n", Files.readString(exportFile.getPath()));
+
+        verify(productService, times(1))
+                .exportProductsToFile(any(OutputStream.class), any(FileType.class), any(ProductStockCondition.class), any());
+    }
+
+    @Test
+    void shouldRejectFormatsNotSupportedByExportKind() {
+        var exportRequest = ExportRequest.builder().kind(ExportKind.PRODUCT_TYPES).format(FileType.PDF).build();
+
+        var exc = assertThrows(InvalidExportRequestException.class, () -> exportService.submitExport(exportRequest));
+
+        assertEquals("Format pdf not valid for product-types exports", exc.getMessage());
+    }
+
+    @Test
+    void shouldRejectFieldsForExportsOtherThanProducts() {
+        var exportRequest = ExportRequest.builder()
+                .kind(ExportKind.PRODUCT_TYPES)
+                .format(FileType.CSV)
+                .fields(singletonList(ProductExportField.NAME))
+                .build();
+
+        var exc = assertThrows(InvalidExportRequestException.class, () -> exportService.submitExport(exportRequest));
+
+        assertEquals("Fields can only be selected for products exports", exc.getMessage());
+    }
+
+    @Test
+    void shouldMarkExportAsFailedAndDiscardPartialFile() throws Exception {
+        doThrow(new ServiceException("Couldn't write product types", new IOException("Disk full")))
+                .when(productTypeService).exportProductTypesToFile(any(OutputStream.class), any(FileType.class));
+
+        var exportRequest = ExportRequest.builder().kind(ExportKind.PRODUCT_TYPES).format(FileType.EXCEL).build();
+        var job = exportService.submitExport(exportRequest);
+        var finishedJob = awaitFinished(job.getId());
+
+        assertEquals(ExportJobStatus.FAILED, finishedJob.getStatus());
+        assertEquals("Couldn't write product types", finishedJob.getError());
+        assertEquals(0, countExportFiles());
+        assertThrows(ExportNotReadyException.class, () -> exportService.getExportFile(job.getId()));
+
+        verify(productTypeService, times(1)).exportProductTypesToFile(any(OutputStream.class), any(FileType.class));
+    }
+
+    @Test
+    void shouldCancelRunningExport() throws Exception {
+        var started = new CountDownLatch(1);
+
+        doAnswer(invocation -> {
+            var os = invocation.<OutputStream>getArgument(0);
+            started.countDown();
+            while (true) {
+                os.write(new byte[1024]);
+                Thread.onSpinWait();
+            }
+        }).when(productOrderService).exportProductOrders(any(OutputStream.class), any(FileType.class), eq(ProductOrderExportRange.ALL));
+
+        var exportRequest = ExportRequest.builder().kind(ExportKind.PRODUCT_ORDERS).format(FileType.PDF).build();
+        var job = exportService.submitExport(exportRequest);
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        exportService.cancelExport(job.getId());
+
+        assertEquals(ExportJobStatus.CANCELLED, exportService.getExportJob(job.getId()).getStatus());
+
+        exportExecutor.shutdown();
+        assertTrue(exportExecutor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(0, countExportFiles());
+
+        verify(productOrderService, times(1)).exportProductOrders(any(OutputStream.class), any(FileType.class), eq(ProductOrderExportRange.ALL));
+    }
+
+    @Test
+    void shouldRejectExportsWhenQueueIsFull() throws Exception {
+        var release = new CountDownLatch(1);
+
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(productService).exportProductsToFile(any(OutputStream.class), any(FileType.class), any(ProductStockCondition.class), any());
+
+        exportService.submitExport(productsExportRequest());
+        exportService.submitExport(productsExportRequest());
+
+        assertThrows(ExportRejectedException.class, () -> exportService.submitExport(productsExportRequest()));
+
+        release.countDown();
+        exportExecutor.shutdown();
+        assertTrue(exportExecutor.awaitTermination(5, TimeUnit.SECONDS));
+
+        verify(productService, times(2))
+                .exportProductsToFile(any(OutputStream.class), any(FileType.class), any(ProductStockCondition.class), any());
+    }
+
+    @Test
+    void shouldRemoveExpiredExportsAndTheirFiles() throws Exception {
+        exportProperties.setTtl(Duration.ZERO);
+
+        var job = exportService.submitExport(productsExportRequest());
+        awaitFinished(job.getId());
+
+        assertEquals(1, countExportFiles());
+
+        Thread.sleep(5);
+        exportService.removeExpiredExports();
+
+        assertEquals(0, countExportFiles());
+        assertThrows(ResourceNotFoundException.class, () -> exportService.getExportJob(job.getId()));
+
+        verify(productService, times(1))
+                .exportProductsToFile(any(OutputStream.class), any(FileType.class), any(ProductStockCondition.class), any());
+    }
+
+    @Test
+    void shouldRemoveFinishedExportWhenCancelled() throws Exception {
+        var job = exportService.submitExport(productsExportRequest());
+        awaitFinished(job.getId());
+
+        exportService.cancelExport(job.getId());
+
+        assertEquals(0, countExportFiles());
+        assertThrows(ResourceNotFoundException.class, () -> exportService.getExportJob(job.getId()));
+
+        verify(productService, times(1))
+                .exportProductsToFile(any(OutputStream.class), any(FileType.class), any(ProductStockCondition.class), any());
+    }
+
+    @Test
+    void shouldRemoveLeftoverExportFilesOnly() throws IOException {
+        var directory = exportProperties.getDirectory();
+        var leftover = Files.writeString(directory.resolve(UUID.randomUUID() + ".csv"), "stale");
+        var partialLeftover = Files.writeString(directory.resolve(UUID.randomUUID() + ".xlsx.part"), "stale");
+        var unrelated = Files.writeString(directory.resolve("stale.csv"), "keep");
+
+        exportService.initExportDirectory();
+
+        assertFalse(Files.exists(leftover));
+        assertFalse(Files.exists(partialLeftover));
+        assertTrue(Files.exists(unrelated));
+    }
+
+    private ExportRequest productsExportRequest() {
+        return ExportRequest.builder().kind(ExportKind.PRODUCTS).format(FileType.CSV).build();
+    }
+
+    private ExportJobResponse awaitFinished(String id) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (System.nanoTime() < deadline) {
+            var job = exportService.getExportJob(id);
+            if (job.getStatus().isFinished()) return job;
+            Thread.sleep(5);
+        }
+
+        throw new AssertionError("Export " + id + " didn't finish in time");
+    }
+
+    private long countExportFiles() throws IOException {
+        try (var files = Files.list(exportProperties.getDirectory())) {
+            return files.count();
+        }
+    }
+
+}
@@ -0,0 +1,419 @@
+package com.herostore.products.service.impl;
+
+import com.herostore.products.cache.CatalogVersion;
+import com.herostore.products.constants.FileType;
+import com.herostore.products.dto.ProductTypeDTO;
+import com.herostore.products.dto.request.ProductRequest;
+import com.herostore.products.dto.response.RejectedRowResponse;
+import com.herostore.products.exception.InvalidImportFileException;
+import com.herostore.products.exception.ServiceException;
+import com.herostore.products.index.ProductNameIndex;
+import com.herostore.products.index.ProductStockIndex;
+import com.herostore.products.io.CSVReader;
+import com.herostore.products.io.ExcelReader;
+import com.herostore.products.io.ImportRow;
+import com.herostore.products.repository.ProductRepository;
+import com.herostore.products.repository.ProductTypeRepository;
+import com.herostore.products.service.ProductTypeService;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ProductImportServiceImplTest {
+
+    static final List<String> REQUIRED_HEADERS = asList("Name", "Product type", "Price", "Stock");
+    static final List<String> REQUIRED_PRODUCT_TYPE_HEADERS = singletonList("Name");
+
+    @Mock
+    ProductRepository productRepository;
+
+    @Mock
+    ProductTypeRepository productTypeRepository;
+
+    @Mock
+    ProductTypeService productTypeService;
+
+    @Mock
+    CSVReader csvReader;
+
+    @Mock
+    ExcelReader excelReader;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Mock
+    CatalogVersion catalogVersion;
+
+    @Mock
+    ProductStockIndex productStockIndex;
+
+    @Mock
+    ProductNameIndex productNameIndex;
+
+    ProductImportServiceImpl productImportService;
+
+    @BeforeEach
+    void runBeforeEach() {
+        productImportService = new ProductImportServiceImpl(productRepository, productTypeRepository,
+                productTypeService, csvReader, excelReader, Validation.buildDefaultValidatorFactory().getValidator(), transactionTemplate, catalogVersion,
+                productStockIndex, productNameIndex);
+
+        when(productTypeService.getAllProductTypes())
+                .thenReturn(asList(new ProductTypeDTO(1L, "Cups"), new ProductTypeDTO(2L, "Shirts")));
+    }
+
+    @AfterEach
+    void runAfterEach() {
+        verifyNoMoreInteractions(
+                productRepository,
+                productTypeRepository,
+                productTypeService,
+                csvReader,
+                excelReader,
+                transactionTemplate,
+                catalogVersion,
+                productStockIndex,
+                productNameIndex);
+    }
+
+    @Test
+    void shouldWriteProductsInChunksSuccessfully() throws IOException {
+        var rows = new ArrayList<ImportRow>();
+        for (var line = 2; line <= ProductImportServiceImpl.CHUNK_SIZE + 1; line++) {
+            rows.add(mockRow(line, null, "Cup " + line, "cups", "10", "5"));
+        }
+        rows.add(mockRow(1002, "7", "Batman Shirt", "Shirts", "150.5", "0"));
+        rows.add(mockRow(1003, null, "Iron Man Cup", "Cups", "25", "20"));
+
+        mockFileRows(rows);
+        mockTransactions();
+
+        when(productRepository.insertProducts(any()))
+                .thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+
+        when(productRepository.updateProducts(any()))
+                .thenReturn(emptyList(), singletonList(7L));
+
+        var summary = productImportService.importProducts(new ByteArrayInputStream(new byte[0]), FileType.CSV);
+
+        assertEquals(1001, summary.getInserted());
+        assertEquals(1, summary.getUpdated());
+        assertEquals(0, summary.getRejected());
+        assertEquals(emptyList(), summary.getRejections());
+
+        var insertions = ArgumentCaptor.forClass(List.class);
+        var updates = ArgumentCaptor.forClass(List.class);
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        verify(productRepository, times(2)).insertProducts(insertions.capture());
+        verify(productRepository, times(2)).updateProducts(updates.capture());
+
+        assertEquals(ProductImportServiceImpl.CHUNK_SIZE, insertions.getAllValues().get(0).size());
+        assertEquals(ProductRequest.builder().name("Cup 2").productTypeId(1L).stock(5).price(new BigDecimal("10"))
+                .build(), insertions.getAllValues().get(0).get(0));
+        assertEquals(emptyList(), updates.getAllValues().get(0));
+        assertEquals(singletonList(ProductRequest.builder().name("Iron Man Cup").productTypeId(1L).stock(20)
+                .price(new BigDecimal("25")).build()), insertions.getAllValues().get(1));
+        assertEquals(singletonList(ProductRequest.builder().id(7L).name("Batman Shirt").productTypeId(2L).stock(0)
+                .price(new BigDecimal("150.5")).build()), updates.getAllValues().get(1));
+
+        verify(productTypeService, times(1)).getAllProductTypes();
+        verify(csvReader, times(1)).read(any(), eq(REQUIRED_HEADERS), any());
+        verify(productStockIndex, times(1)).invalidate();
+        verify(productNameIndex, times(1)).invalidate();
+        verify(catalogVersion, times(1)).increment();
+    }
+
+    @Test
+    void shouldRejectInvalidRowsWithTheirLines() throws IOException {
+        mockFileRows(asList(
+                mockRow(2, null, "Iron Man Cup", "Comics", "abc", "1"),
+                mockRow(3, null, null, "Cups", "-1", "-2"),
+                mockRow(4, "x", "Batman Cup", "Cups", "10", "1.5"),
+                mockRow(5, "8", "Batman Cup", "Cups", "10", "1"),
+                mockRow(6, "8", "Batman Cup", "Cups", "12", "1"),
+                mockRow(7, "9", "Robin Cup", "Cups", "10", "1"),
+                mockRow(8, null, "Joker Cup", "Cups", "1000000000", "1")));
+        mockTransactions();
+
+        when(productRepository.insertProducts(emptyList()))
+                .thenReturn(0);
+
+        when(productRepository.updateProducts(asList(
+                ProductRequest.builder().id(8L).name("Batman Cup").productTypeId(1L).stock(1)
+                        .price(new BigDecimal("10")).build(),
+                ProductRequest.builder().id(9L).name("Robin Cup").productTypeId(1L).stock(1)
+                        .price(new BigDecimal("10")).build())))
+                .thenReturn(singletonList(8L));
+
+        var summary = productImportService.importProducts(new ByteArrayInputStream(new byte[0]), FileType.CSV);
+
+        assertEquals(0, summary.getInserted());
+        assertEquals(1, summary.getUpdated());
+        assertEquals(6, summary.getRejected());
+        assertEquals(asList(
+                new RejectedRowResponse(2, asList("Product type Comics not found", "Price must be a number")),
+                new RejectedRowResponse(3, asList("Name is required", "Price cannot be negative",
+                        "Stock cannot be negative")),
+                new RejectedRowResponse(4, asList("ID must be a whole number", "Stock must be a whole number")),
+                new RejectedRowResponse(6, singletonList("ID 8 is repeated")),
+                new RejectedRowResponse(7, singletonList("Product not found for id 9")),
+                new RejectedRowResponse(8, singletonList(
+                        "Price cannot have more than 9 integer and 6 fraction digits"))),
+                summary.getRejections());
+
+        verify(productTypeService, times(1)).getAllProductTypes();
+        verify(csvReader, times(1)).read(any(), eq(REQUIRED_HEADERS), any());
+        verify(transactionTemplate, times(1)).executeWithoutResult(any());
+        verify(productRepository, times(1)).insertProducts(emptyList());
+        verify(productRepository, times(1)).updateProducts(any());
+        verify(productStockIndex, times(1)).invalidate();
+        verify(productNameIndex, times(1)).invalidate();
+        verify(catalogVersion, times(1)).increment();
+    }
+
+    @Test
+    void shouldThrowInvalidImportFileExceptionWhenFileIsInvalid() throws IOException {
+        doThrow(new InvalidImportFileException("Missing columns: Price"))
+                .when(csvReader).read(any(), eq(REQUIRED_HEADERS), any());
+
+        var exc = assertThrows(InvalidImportFileException.class,
+                () -> productImportService.importProducts(new ByteArrayInputStream(new byte[0]), FileType.CSV));
+
+        assertEquals("Missing columns: Price", exc.getMessage());
+
+        verify(productTypeService, times(1)).getAllProductTypes();
+        verify(csvReader, times(1)).read(any(), eq(REQUIRED_HEADERS), any());
+    }
+
+    @Test
+    void shouldThrowServiceExceptionWhenProductsCannotBeWritten() throws IOException {
+        mockFileRows(singletonList(mockRow(2, null, "Iron Man Cup", "Cups", "25", "20")));
+        mockTransactions();
+
+        when(productRepository.insertProducts(any()))
+                .thenThrow(new IllegalStateException("Connection refused"));
+
+        var exc = assertThrows(ServiceException.class,
+                () -> productImportService.importProducts(new ByteArrayInputStream(new byte[0]), FileType.CSV));
+
+        assertEquals("Couldn't import products", exc.getMessage());
+
+        verify(productTypeService, times(1)).getAllProductTypes();
+        verify(csvReader, times(1)).read(any(), eq(REQUIRED_HEADERS), any());
+        verify(transactionTemplate, times(1)).executeWithoutResult(any());
+        verify(productRepository, times(1)).updateProducts(emptyList());
+        verify(productRepository, times(1)).insertProducts(any());
+    }
+
+    @Test
+    void shouldReadProductsFromExcelFile() throws IOException {
+        doAnswer(invocation -> {
+            invocation.<Consumer<ImportRow>>getArgument(2).accept(mockRow(3, null, "Iron Man Cup", "Cups", "25", "20"));
+            return null;
+        }).when(excelReader).read(any(), eq(REQUIRED_HEADERS), any());
+        mockTransactions();
+
+        when(productRepository.updateProducts(emptyList()))
+                .thenReturn(emptyList());
+
+        when(productRepository.insertProducts(singletonList(ProductRequest.builder().name("Iron Man Cup")
+                .productTypeId(1L).stock(20).price(new BigDecimal("25")).build())))
+                .thenReturn(1);
+
+        var summary = productImportService.importProducts(new ByteArrayInputStream(new byte[0]), FileType.EXCEL);
+
+        assertEquals(1, summary.getInserted());
+        assertEquals(0, summary.getRejected());
+
+        verify(productTypeService, times(1)).getAllProductTypes();
+        verify(excelReader, times(1)).read(any(), eq(REQUIRED_HEADERS), any());
+        verify(transactionTemplate, times(1)).executeWithoutResult(any());
+        verify(productRepository, times(1)).updateProducts(emptyList());
+        verify(productRepository, times(1)).insertProducts(any());
+        verify(productStockIndex, times(1)).invalidate();
+        verify(productNameIndex, times(1)).invalidate();
+        verify(catalogVersion, times(1)).increment();
+    }
+
+    @Test
+    void shouldImportProductTypesKeepingTheirNamesUnique() throws IOException {
+        doAnswer(invocation -> {
+            asList(
+                    mockProductTypeRow(2, null, "Cups"),
+                    mockProductTypeRow(3, "1", "Mugs"),
+                    mockProductTypeRow(4, null, "Cups"),
+                    mockProductTypeRow(5, "2", "Mugs"),
+                    mockProductTypeRow(6, "2", "Shirts"),
+                    mockProductTypeRow(7, "9", "Caps"),
+                    mockProductTypeRow(8, null, "Mugs"),
+                    mockProductTypeRow(9, "x", null))
+                    .forEach(invocation.<Consumer<ImportRow>>getArgument(2));
+            return null;
+        }).when(excelReader).read(any(), eq(REQUIRED_PRODUCT_TYPE_HEADERS), any());
+        mockTransactions();
+
+        when(productTypeRepository.updateProductTypes(asList(new ProductTypeDTO(1L, "Mugs"),
+                new ProductTypeDTO(2L, "Shirts"))))
+                .thenReturn(asList(1L, 2L));
+
+        when(productTypeRepository.insertProductTypes(singletonList(new ProductTypeDTO(null, "Cups"))))
+                .thenReturn(1);
+
+        var summary = productImportService.importProductTypes(new ByteArrayInputStream(new byte[0]), FileType.EXCEL);
+
+        assertEquals(1, summary.getInserted());
+        assertEquals(2, summary.getUpdated());
+        assertEquals(5, summary.getRejected());
+        assertEquals(asList(
+                new RejectedRowResponse(2, singletonList("Product type Cups already exists")),
+                new RejectedRowResponse(5, singletonList("Product type Mugs already exists")),
+                new RejectedRowResponse(7, singletonList("Product type not found for id 9")),
+                new RejectedRowResponse(8, singletonList("Product type Mugs already exists")),
+                new RejectedRowResponse(9, singletonList("ID must be a whole number"))),
+                summary.getRejections());
+
+        verify(productTypeService, times(1)).getAllProductTypes();
+        verify(excelReader, times(1)).read(any(), eq(REQUIRED_PRODUCT_TYPE_HEADERS), any());
+        verify(transactionTemplate, times(1)).executeWithoutResult(any());
+        verify(productTypeRepository, times(1)).updateProductTypes(any());
+        verify(productTypeRepository, times(1)).insertProductTypes(any());
+        verify(catalogVersion, times(1)).increment();
+    }
+
+    @Test
+    void shouldWriteRenamesTakingNamesFreedInTheirChunkWithAnotherStatement() throws IOException {
+        doAnswer(invocation -> {
+            asList(
+                    mockProductTypeRow(2, "2", "Hats"),
+                    mockProductTypeRow(3, "1", "Shirts"),
+                    mockProductTypeRow(4, null, "Cups"))
+                    .forEach(invocation.<Consumer<ImportRow>>getArgument(2));
+            return null;
+        }).when(csvReader).read(any(), eq(REQUIRED_PRODUCT_TYPE_HEADERS), any());
+        mockTransactions();
+
+        when(productTypeRepository.updateProductTypes(singletonList(new ProductTypeDTO(2L, "Hats"))))
+                .thenReturn(singletonList(2L));
+        when(productTypeRepository.updateProductTypes(singletonList(new ProductTypeDTO(1L, "Shirts"))))
+                .thenReturn(singletonList(1L));
+        when(productTypeRepository.insertProductTypes(emptyList()))
+                .thenReturn(0);
+        when(productTypeRepository.insertProductTypes(singletonList(new ProductTypeDTO(null, "Cups"))))
+                .thenReturn(1);
+
+        var summary = productImportService.importProductTypes(new ByteArrayInputStream(new byte[0]), FileType.CSV);
+
+        assertEquals(1, summary.getInserted());
+        assertEquals(2, summary.getUpdated());
+        assertEquals(0, summary.getRejected());
+
+        var inOrder = inOrder(productTypeRepository);
+        inOrder.verify(productTypeRepository).updateProductTypes(singletonList(new ProductTypeDTO(2L, "Hats")));
+        inOrder.verify(productTypeRepository).insertProductTypes(emptyList());
+        inOrder.verify(productTypeRepository).updateProductTypes(singletonList(new ProductTypeDTO(1L, "Shirts")));
+        inOrder.verify(productTypeRepository).insertProductTypes(singletonList(new ProductTypeDTO(null, "Cups")));
+
+        verify(productTypeService, times(1)).getAllProductTypes();
+        verify(csvReader, times(1)).read(any(), eq(REQUIRED_PRODUCT_TYPE_HEADERS), any());
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        verify(catalogVersion, times(1)).increment();
+    }
+
+    @Test
+    void shouldThrowServiceExceptionWhenProductTypesCannotBeWritten() throws IOException {
+        doAnswer(invocation -> {
+            invocation.<Consumer<ImportRow>>getArgument(2).accept(mockProductTypeRow(2, null, "Caps"));
+            return null;
+        }).when(csvReader).read(any(), eq(REQUIRED_PRODUCT_TYPE_HEADERS), any());
+        mockTransactions();
+
+        when(productTypeRepository.updateProductTypes(emptyList()))
+                .thenThrow(new IllegalStateException("Connection refused"));
+
+        var exc = assertThrows(ServiceException.class,
+                () -> productImportService.importProductTypes(new ByteArrayInputStream(new byte[0]), FileType.CSV));
+
+        assertEquals("Couldn't import product types", exc.getMessage());
+
+        verify(productTypeService, times(1)).getAllProductTypes();
+        verify(csvReader, times(1)).read(any(), eq(REQUIRED_PRODUCT_TYPE_HEADERS), any());
+        verify(transactionTemplate, times(1)).executeWithoutResult(any());
+        verify(productTypeRepository, times(1)).updateProductTypes(emptyList());
+    }
+
+    private void mockFileRows(List<ImportRow> rows) throws IOException {
+        doAnswer(invocation -> {
+            rows.forEach(invocation.<Consumer<ImportRow>>getArgument(2));
+            return null;
+        }).when(csvReader).read(any(), eq(REQUIRED_HEADERS), any());
+    }
+
+    private void mockTransactions() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static ImportRow mockRow(long line, String id, String name, String productType, String price,
+                                     String stock) {
+        var values = new HashMap<String, String>();
+        putIfPresent(values, "id", id);
+        putIfPresent(values, "name", name);
+        putIfPresent(values, "product type", productType);
+        putIfPresent(values, "price", price);
+        putIfPresent(values, "stock", stock);
+
+        return new ImportRow(line, values);
+    }
+
+    private static ImportRow mockProductTypeRow(long line, String id, String name) {
+        var values = new HashMap<String, String>();
+        putIfPresent(values, "id", id);
+        putIfPresent(values, "name", name);
+
+        return new ImportRow(line, values);
+    }
+
+    private static void putIfPresent(Map<String, String> values, String header, String value) {
+        if (value != null) {
+            values.put(header, value);
+        }
+    }
+}
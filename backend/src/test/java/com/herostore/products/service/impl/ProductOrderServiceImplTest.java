@@ -1,20 +1,37 @@
 package com.herostore.products.service.impl;
 
+import com.herostore.products.cache.CatalogVersion;
 import com.herostore.products.constants.FileType;
+import com.herostore.products.domain.ExportWatermark;
 import com.herostore.products.domain.Product;
 import com.herostore.products.domain.ProductOrder;
 import com.herostore.products.domain.ProductOrderLine;
 import com.herostore.products.domain.ProductType;
 import com.herostore.products.domain.embedded.ProductDetail;
+import com.herostore.products.dto.ProductOrderExportRange;
 import com.herostore.products.dto.ProductOrderLineDTO;
+import com.herostore.products.dto.ProductOrderLineExportDTO;
+import com.herostore.products.dto.request.ExportBound;
 import com.herostore.products.dto.request.ProductOrderLineRequest;
 import com.herostore.products.dto.request.ProductOrderRequest;
 import com.herostore.products.dto.response.ProductOrderResponse;
+import com.herostore.products.exception.InvalidExportRequestException;
 import com.herostore.products.exception.InvalidProductOrderLineException;
 import com.herostore.products.exception.ResourceNotFoundException;
 import com.herostore.products.exception.error.InvalidProductOrderLineError;
 import com.herostore.products.handler.ProductOrdersPDFWriter;
+import com.herostore.products.io.CSVWriter;
+import com.herostore.products.io.ExcelWriter;
+import com.herostore.products.io.NDJSONWriter;
+import com.herostore.products.io.ParquetColumn;
+import com.herostore.products.io.ParquetWriter;
+import com.herostore.products.io.PDFMerger;
+import com.herostore.products.io.PDFMergerSession;
+import com.herostore.products.io.PDFWriterSession;
+import com.herostore.products.io.WorkbookData;
+import com.herostore.products.index.ProductStockIndex;
 import com.herostore.products.mapper.ProductOrderMapper;
+import com.herostore.products.repository.ExportWatermarkRepository;
 import com.herostore.products.repository.ProductOrderRepository;
 import com.herostore.products.repository.ProductRepository;
 import lombok.AccessLevel;
@@ -22,15 +39,32 @@ import lombok.experimental.FieldDefaults;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
@@ -39,11 +73,18 @@ import static java.util.stream.Collectors.toList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.samePropertyValuesAs;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
@@ -63,12 +104,45 @@ public class ProductOrderServiceImplTest {
     @Mock
     ProductOrdersPDFWriter productOrdersPDFWriter;
 
+    @Mock
+    PDFWriterSession<ProductOrderResponse> pdfWriterSession;
+
+    @Mock
+    CatalogVersion catalogVersion;
+
+    @Mock
+    ProductStockIndex productStockIndex;
+
+    @Mock
+    PDFMerger pdfMerger;
+
+    @Mock
+    PDFMergerSession pdfMergerSession;
+
+    @Mock
+    CSVWriter csvWriter;
+
+    @Mock
+    ExcelWriter excelWriter;
+
+    @Mock
+    ExportWatermarkRepository exportWatermarkRepository;
+
+    @Mock
+    NDJSONWriter ndjsonWriter;
+
+    @Mock
+    ParquetWriter parquetWriter;
+
     @InjectMocks
     ProductOrderServiceImpl productOrderService;
 
     @AfterEach
     void afterEach() {
-        verifyNoMoreInteractions(productOrderRepository, productRepository, productOrderMapper, productOrdersPDFWriter);
+        verifyNoMoreInteractions(
+                productOrderRepository, productRepository, productOrderMapper, productOrdersPDFWriter, catalogVersion,
+                productStockIndex, pdfWriterSession, pdfMerger, pdfMergerSession, csvWriter, excelWriter,
+                exportWatermarkRepository, ndjsonWriter, parquetWriter);
     }
 
     @Test
@@ -111,53 +185,353 @@ public class ProductOrderServiceImplTest {
 
     @Test
     void shouldWriteProductOrdersToPDFSuccessfully() {
-        var existingProductOrders = mockExistingProductOrders();
-        var expectedProductOrders = mockExistingProductOrdersResponse(existingProductOrders);
+        var createdAt = LocalDateTime.now();
+        var exportLines = asList(
+                mockExportLine(1L, createdAt, BigDecimal.valueOf(150), 1L, BigDecimal.valueOf(50), 1),
+                mockExportLine(1L, createdAt, BigDecimal.valueOf(150), 2L, BigDecimal.valueOf(50), 2),
+                mockExportLine(2L, createdAt, BigDecimal.valueOf(30), 3L, BigDecimal.valueOf(10), 3));
 
-        when(productOrderRepository.findAll())
-                .thenReturn(existingProductOrders);
+        var outputStream = new ByteArrayOutputStream();
 
-        when(productOrderMapper.toProductOrderResponseList(existingProductOrders))
-                .thenReturn(expectedProductOrders);
+        when(productOrdersPDFWriter.openSession(outputStream))
+                .thenReturn(pdfWriterSession);
+
+        when(productOrderRepository.findIdsBetween(0L, Long.MAX_VALUE, PageRequest.of(999, 1)))
+                .thenReturn(emptyList());
 
+        when(productOrderRepository.findIdsBetween(0L, Long.MAX_VALUE, PageRequest.of(0, 200)))
+                .thenReturn(asList(1L, 2L));
+
+        when(productOrderRepository.findExportLinesByProductOrderIdIn(asList(1L, 2L)))
+                .thenReturn(exportLines);
+
+        productOrderService.exportProductOrders(outputStream, FileType.PDF, ProductOrderExportRange.ALL);
+
+        var expectedFirstProductOrder = ProductOrderResponse.builder()
+                .id(1L)
+                .createdAt(createdAt)
+                .total(BigDecimal.valueOf(150))
+                .productOrderLines(asList(mockOrderLineDTO(exportLines.get(0)), mockOrderLineDTO(exportLines.get(1))))
+                .build();
+
+        var expectedSecondProductOrder = ProductOrderResponse.builder()
+                .id(2L)
+                .createdAt(createdAt)
+                .total(BigDecimal.valueOf(30))
+                .productOrderLines(singletonList(mockOrderLineDTO(exportLines.get(2))))
+                .build();
+
+        verify(productOrdersPDFWriter, times(1)).openSession(outputStream);
+        verify(productOrderRepository, times(1)).findIdsBetween(0L, Long.MAX_VALUE, PageRequest.of(999, 1));
+        verify(productOrderRepository, times(1)).findIdsBetween(0L, Long.MAX_VALUE, PageRequest.of(0, 200));
+        verify(productOrderRepository, times(1)).findExportLinesByProductOrderIdIn(asList(1L, 2L));
+        verify(pdfWriterSession, times(1)).write(expectedFirstProductOrder);
+        verify(pdfWriterSession, times(1)).write(expectedSecondProductOrder);
+        verify(pdfWriterSession, times(1)).flush();
+        verify(pdfWriterSession, times(1)).close();
+    }
+
+    @Test
+    void shouldWriteProductOrdersToPDFPageByPage() {
+        var firstPageIds = LongStream.rangeClosed(1, 200).boxed().collect(toList());
+        var createdAt = LocalDateTime.now();
         var outputStream = new ByteArrayOutputStream();
 
-        productOrderService.exportProductOrders(outputStream, FileType.PDF);
+        when(productOrdersPDFWriter.openSession(outputStream))
+                .thenReturn(pdfWriterSession);
 
-        verify(productOrderRepository, times(1)).findAll();
-        verify(productOrderMapper, times(1)).toProductOrderResponseList(existingProductOrders);
-        verify(productOrdersPDFWriter, times(1)).setProductOrders(expectedProductOrders);
-        verify(productOrdersPDFWriter, times(1)).createDocument(outputStream);
-        verify(productOrdersPDFWriter, times(1)).openDocument();
-        verify(productOrdersPDFWriter, times(1)).writeDocument();
-        verify(productOrdersPDFWriter, times(1)).closeDocument();
+        when(productOrderRepository.findIdsBetween(0L, Long.MAX_VALUE, PageRequest.of(999, 1)))
+                .thenReturn(emptyList());
+
+        when(productOrderRepository.findIdsBetween(0L, Long.MAX_VALUE, PageRequest.of(0, 200)))
+                .thenReturn(firstPageIds);
+
+        when(productOrderRepository.findIdsBetween(200L, Long.MAX_VALUE, PageRequest.of(0, 200)))
+                .thenReturn(emptyList());
+
+        when(productOrderRepository.findExportLinesByProductOrderIdIn(firstPageIds))
+                .thenReturn(singletonList(
+                        mockExportLine(1L, createdAt, BigDecimal.valueOf(10), 1L, BigDecimal.valueOf(10), 1)));
+
+        productOrderService.exportProductOrders(outputStream, FileType.PDF, ProductOrderExportRange.ALL);
+
+        verify(productOrdersPDFWriter, times(1)).openSession(outputStream);
+        verify(productOrderRepository, times(1)).findIdsBetween(0L, Long.MAX_VALUE, PageRequest.of(999, 1));
+        verify(productOrderRepository, times(1)).findIdsBetween(0L, Long.MAX_VALUE, PageRequest.of(0, 200));
+        verify(productOrderRepository, times(1)).findIdsBetween(200L, Long.MAX_VALUE, PageRequest.of(0, 200));
+        verify(productOrderRepository, times(1)).findExportLinesByProductOrderIdIn(firstPageIds);
+        verify(pdfWriterSession, times(1)).write(any(ProductOrderResponse.class));
+        verify(pdfWriterSession, times(1)).flush();
+        verify(pdfWriterSession, times(1)).close();
     }
 
     @Test
-    void shouldThrowExceptionWhenExportingToInvalidFileFormat() {
-        var existingProductOrders = mockExistingProductOrders();
-        var expectedProductOrders = mockExistingProductOrdersResponse(existingProductOrders);
-        var expectedError = "File format csv not valid.";
+    void shouldRenderLargeExportsInChunksAndMergeThemInOrder() throws Exception {
+        var orders = 2500L;
+        var createdAt = LocalDateTime.now();
+        var appendedChunks = new StringBuilder();
+        var pdfRenderPool = new ForkJoinPool(3);
+        var chunkedService = new ProductOrderServiceImpl(
+                productOrderRepository, productOrderMapper, productRepository, productOrdersPDFWriter, catalogVersion,
+                productStockIndex, pdfMerger, pdfRenderPool, csvWriter, excelWriter, exportWatermarkRepository,
+                ndjsonWriter, parquetWriter);
+
+        when(productOrderRepository.findIdsBetween(anyLong(), anyLong(), eq(PageRequest.of(999, 1))))
+                .thenAnswer(invocation -> {
+                    var chunkLastId = invocation.<Long>getArgument(0) + 1000;
+                    return chunkLastId <= orders ? singletonList(chunkLastId) : emptyList();
+                });
+
+        when(productOrderRepository.findIdsBetween(anyLong(), anyLong(), eq(PageRequest.of(0, 200))))
+                .thenAnswer(invocation -> LongStream.rangeClosed(
+                        invocation.<Long>getArgument(0) + 1, Math.min(invocation.<Long>getArgument(1), orders))
+                        .limit(200)
+                        .boxed()
+                        .collect(toList()));
+
+        when(productOrderRepository.findExportLinesByProductOrderIdIn(anyList()))
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).stream()
+                        .map(id -> mockExportLine(id, createdAt, BigDecimal.TEN, id, BigDecimal.TEN, 1))
+                        .collect(toList()));
+
+        when(productOrdersPDFWriter.openSession(any(OutputStream.class)))
+                .thenAnswer(invocation -> new TextSession(invocation.getArgument(0), "Hero Store"));
+
+        when(productOrdersPDFWriter.openContinuationSession(any(OutputStream.class)))
+                .thenAnswer(invocation -> new TextSession(invocation.getArgument(0), null));
+
+        when(pdfMerger.openSession(any(OutputStream.class)))
+                .thenReturn(pdfMergerSession);
+
+        doAnswer(invocation -> appendedChunks.append(Files.readString(invocation.getArgument(0))))
+                .when(pdfMergerSession).append(any(Path.class));
+
+        try {
+            chunkedService.exportProductOrders(new ByteArrayOutputStream(), FileType.PDF, ProductOrderExportRange.ALL);
+        } finally {
+            pdfRenderPool.shutdownNow();
+        }
 
-        when(productOrderRepository.findAll())
-                .thenReturn(existingProductOrders);
+        var expectedText = LongStream.rangeClosed(1, orders)
+                .mapToObj(id -> "Product Order: " + id + "\n")
+                .collect(Collectors.joining("", "Hero Store\n", ""));
 
-        when(productOrderMapper.toProductOrderResponseList(existingProductOrders))
-                .thenReturn(expectedProductOrders);
+        assertEquals(expectedText, appendedChunks.toString());
 
+        verify(productOrderRepository, times(3)).findIdsBetween(anyLong(), anyLong(), eq(PageRequest.of(999, 1)));
+        verify(productOrderRepository, times(15)).findIdsBetween(anyLong(), anyLong(), eq(PageRequest.of(0, 200)));
+        verify(productOrderRepository, times(13)).findExportLinesByProductOrderIdIn(anyList());
+        verify(productOrdersPDFWriter, times(1)).openSession(any(OutputStream.class));
+        verify(productOrdersPDFWriter, times(2)).openContinuationSession(any(OutputStream.class));
+        verify(pdfMerger, times(1)).openSession(any(OutputStream.class));
+        verify(pdfMergerSession, times(3)).append(any(Path.class));
+        verify(pdfMergerSession, times(1)).close();
+    }
+
+    @Test
+    void shouldWriteProductOrderLinesToCSVSuccessfully() throws IOException {
         var outputStream = new ByteArrayOutputStream();
+        var productOrderLines = Stream.of(
+                mockExportLine(1L, LocalDateTime.now(), BigDecimal.valueOf(150), 1L, BigDecimal.valueOf(50), 3));
 
-        var exc = assertThrows(IllegalArgumentException.class,
-                () -> productOrderService.exportProductOrders(outputStream, FileType.CSV));
+        when(productOrderRepository.streamExportLines(10L, 20L))
+                .thenReturn(productOrderLines);
 
-        assertEquals(expectedError, exc.getMessage());
+        productOrderService.exportProductOrders(outputStream, FileType.CSV, new ProductOrderExportRange(10L, 20L));
 
-        expectedError = "File format xlsx not valid.";
+        var expectedHeaders = new String[]{"Order ID", "Created at", "Product", "Price", "Quantity", "Line total", "Order total"};
+        var expectedFields = new String[]{"productOrderId", "productOrderCreatedAt", "productName", "productPrice", "quantity", "total", "productOrderTotal"};
 
-        exc = assertThrows(IllegalArgumentException.class,
-                () -> productOrderService.exportProductOrders(outputStream, FileType.EXCEL));
+        verify(productOrderRepository, times(1)).streamExportLines(10L, 20L);
+        verify(csvWriter, times(1)).write(outputStream, expectedHeaders, expectedFields, productOrderLines);
+    }
 
-        assertEquals(expectedError, exc.getMessage());
+    @Test
+    void shouldWriteProductOrderLinesToExcelSuccessfully() throws IOException {
+        var outputStream = new ByteArrayOutputStream();
+        var productOrderLines = Stream.of(
+                mockExportLine(1L, LocalDateTime.now(), BigDecimal.valueOf(150), 1L, BigDecimal.valueOf(50), 3));
+
+        when(productOrderRepository.streamExportLines(0L, Long.MAX_VALUE))
+                .thenReturn(productOrderLines);
+
+        productOrderService.exportProductOrders(outputStream, FileType.EXCEL, ProductOrderExportRange.ALL);
+
+        var expectedWorkbookData = WorkbookData.builder()
+                .sheetName("Payment orders")
+                .columnWidths(new int[]{2500, 5000, 7000, 3000, 2500, 3000, 3000})
+                .headers(new String[]{"Order ID", "Created at", "Product", "Price", "Quantity", "Line total", "Order total"})
+                .fields(new String[]{"productOrderId", "productOrderCreatedAt", "productName", "productPrice", "quantity", "total", "productOrderTotal"})
+                .build();
+
+        verify(productOrderRepository, times(1)).streamExportLines(0L, Long.MAX_VALUE);
+        verify(excelWriter, times(1)).writeWorkbook(outputStream, expectedWorkbookData, productOrderLines);
+    }
+
+    @Test
+    void shouldWriteProductOrderLinesToNDJSONSuccessfully() throws IOException {
+        var outputStream = new ByteArrayOutputStream();
+        var productOrderLines = Stream.of(
+                mockExportLine(1L, LocalDateTime.now(), BigDecimal.valueOf(150), 1L, BigDecimal.valueOf(50), 3));
+
+        when(productOrderRepository.streamExportLines(0L, Long.MAX_VALUE))
+                .thenReturn(productOrderLines);
+
+        productOrderService.exportProductOrders(outputStream, FileType.NDJSON, ProductOrderExportRange.ALL);
+
+        var expectedFields = new String[]{"productOrderId", "productOrderCreatedAt", "productName", "productPrice", "quantity", "total", "productOrderTotal"};
+
+        verify(productOrderRepository, times(1)).streamExportLines(0L, Long.MAX_VALUE);
+        verify(ndjsonWriter, times(1)).write(outputStream, expectedFields, expectedFields, productOrderLines);
+    }
+
+    @Test
+    void shouldWriteProductOrderLinesToParquetSuccessfully() throws IOException {
+        var outputStream = new ByteArrayOutputStream();
+        var productOrderLines = Stream.of(
+                mockExportLine(1L, LocalDateTime.now(), BigDecimal.valueOf(150), 1L, BigDecimal.valueOf(50), 3));
+
+        when(productOrderRepository.streamExportLines(10L, 20L))
+                .thenReturn(productOrderLines);
+
+        productOrderService.exportProductOrders(outputStream, FileType.PARQUET, new ProductOrderExportRange(10L, 20L));
+
+        var expectedColumns = asList(
+                ParquetColumn.int64("order_id", "productOrderId"),
+                ParquetColumn.timestamp("created_at", "productOrderCreatedAt"),
+                ParquetColumn.decimal("order_total", "productOrderTotal", 15, 6),
+                ParquetColumn.int64("line_id", "id"),
+                ParquetColumn.int64("product_id", "productId"),
+                ParquetColumn.string("product_name", "productName"),
+                ParquetColumn.decimal("product_price", "productPrice", 15, 6),
+                ParquetColumn.int32("quantity", "quantity"),
+                ParquetColumn.decimal("line_total", "total", 15, 6));
+
+        verify(productOrderRepository, times(1)).streamExportLines(10L, 20L);
+        verify(parquetWriter, times(1)).write(outputStream, expectedColumns, productOrderLines);
+    }
+
+    @Test
+    void shouldWriteProductOrdersOfRangeToPDFInChunks() {
+        var outputStream = new ByteArrayOutputStream();
+
+        when(productOrdersPDFWriter.openSession(outputStream))
+                .thenReturn(pdfWriterSession);
+
+        when(productOrderRepository.findIdsBetween(500L, 800L, PageRequest.of(999, 1)))
+                .thenReturn(emptyList());
+
+        when(productOrderRepository.findIdsBetween(500L, 800L, PageRequest.of(0, 200)))
+                .thenReturn(emptyList());
+
+        productOrderService.exportProductOrders(outputStream, FileType.PDF, new ProductOrderExportRange(500L, 800L));
+
+        verify(productOrdersPDFWriter, times(1)).openSession(outputStream);
+        verify(productOrderRepository, times(1)).findIdsBetween(500L, 800L, PageRequest.of(999, 1));
+        verify(productOrderRepository, times(1)).findIdsBetween(500L, 800L, PageRequest.of(0, 200));
+        verify(pdfWriterSession, times(1)).close();
+    }
+
+    @Test
+    void shouldResolveExportRangeFromConsumerWatermark() {
+        when(exportWatermarkRepository.findById("warehouse-etl"))
+                .thenReturn(Optional.of(new ExportWatermark("warehouse-etl", 10L, LocalDateTime.now())));
+
+        when(productOrderRepository.findLastIdCreatedUntil(any(LocalDateTime.class)))
+                .thenReturn(20L);
+
+        when(productOrderRepository.findLastIdBetween(10L, 20L))
+                .thenReturn(20L);
+
+        var range = productOrderService.getExportRange(null, null, "warehouse-etl");
+
+        assertEquals(new ProductOrderExportRange(10L, 20L), range);
+
+        verify(exportWatermarkRepository, times(1)).findById("warehouse-etl");
+        verify(productOrderRepository, times(1)).findLastIdCreatedUntil(any(LocalDateTime.class));
+        verify(productOrderRepository, times(1)).findLastIdBetween(10L, 20L);
+    }
+
+    @Test
+    void shouldEndExportRangeBeforeOrdersThatMayNotBeCommittedYet() {
+        var settledUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        var earliestSettledUntil = LocalDateTime.now().minus(ProductOrderServiceImpl.ORDER_SETTLE_TIME);
+
+        when(productOrderRepository.findLastIdCreatedUntil(settledUntil.capture()))
+                .thenReturn(null);
+
+        when(productOrderRepository.findLastIdBetween(0L, 0L))
+                .thenReturn(null);
+
+        var range = productOrderService.getExportRange(null, ExportBound.ofProductOrderId(30L), null);
+
+        assertEquals(new ProductOrderExportRange(0L, 0L), range);
+        assertFalse(settledUntil.getValue().isBefore(earliestSettledUntil));
+        assertFalse(settledUntil.getValue().isAfter(LocalDateTime.now().minus(ProductOrderServiceImpl.ORDER_SETTLE_TIME)));
+
+        verify(productOrderRepository, times(1)).findLastIdCreatedUntil(any(LocalDateTime.class));
+        verify(productOrderRepository, times(1)).findLastIdBetween(0L, 0L);
+    }
+
+    @Test
+    void shouldResolveExportRangeFromBoundsBeforeConsumerWatermark() {
+        var since = LocalDateTime.of(2020, 3, 1, 0, 0);
+
+        when(productOrderRepository.findLastIdCreatedUntil(since))
+                .thenReturn(5L);
+
+        when(productOrderRepository.findLastIdCreatedUntil(argThat(createdAt -> createdAt.isAfter(since))))
+                .thenReturn(40L);
+
+        when(productOrderRepository.findLastIdBetween(5L, 30L))
+                .thenReturn(null);
+
+        var range = productOrderService.getExportRange(
+                ExportBound.ofCreatedAt(since), ExportBound.ofProductOrderId(30L), "warehouse-etl");
+
+        assertEquals(new ProductOrderExportRange(5L, 5L), range);
+        assertTrue(range.isEmpty());
+
+        verify(productOrderRepository, times(2)).findLastIdCreatedUntil(any(LocalDateTime.class));
+        verify(productOrderRepository, times(1)).findLastIdBetween(5L, 30L);
+    }
+
+    @Test
+    void shouldRejectExportRangeOfInvalidConsumer() {
+        var exc = assertThrows(InvalidExportRequestException.class,
+                () -> productOrderService.getExportRange(null, null, "warehouse etl"));
+
+        assertEquals("Consumer must have up to 100 letters, digits, '.', '_' or '-'", exc.getMessage());
+    }
+
+    @Test
+    void shouldCreateExportWatermarkOfNewConsumer() {
+        when(exportWatermarkRepository.findById("warehouse-etl"))
+                .thenReturn(Optional.empty());
+
+        productOrderService.saveExportWatermark("warehouse-etl", new ProductOrderExportRange(0L, 20L));
+
+        var watermark = ArgumentCaptor.forClass(ExportWatermark.class);
+        verify(exportWatermarkRepository, times(1)).findById("warehouse-etl");
+        verify(exportWatermarkRepository, times(1)).save(watermark.capture());
+
+        assertEquals("warehouse-etl", watermark.getValue().getConsumer());
+        assertEquals(20L, watermark.getValue().getLastProductOrderId());
+    }
+
+    @Test
+    void shouldNotMoveExportWatermarkBackwards() {
+        var watermark = new ExportWatermark("warehouse-etl", 30L, LocalDateTime.now());
+
+        when(exportWatermarkRepository.findById("warehouse-etl"))
+                .thenReturn(Optional.of(watermark));
+
+        productOrderService.saveExportWatermark("warehouse-etl", new ProductOrderExportRange(5L, 20L));
+
+        assertEquals(30L, watermark.getLastProductOrderId());
+
+        verify(exportWatermarkRepository, times(1)).findById("warehouse-etl");
+        verify(exportWatermarkRepository, times(1)).save(watermark);
     }
 
     @Test
@@ -196,10 +570,58 @@ public class ProductOrderServiceImplTest {
 
         verify(productRepository, times(1)).findByIdIn(orderProductIds);
         verify(productRepository, times(1)).saveAll(existingProducts);
+        verify(productStockIndex, times(1)).update(1L, 15);
+        verify(productStockIndex, times(1)).update(2L, 10);
+        verify(productStockIndex, times(1)).update(3L, 15);
+        verify(catalogVersion, times(1)).increment();
         verify(productOrderRepository, times(1)).save(any(ProductOrder.class));
         verify(productOrderMapper, times(1)).toProductOrderResponse(createdProductOrder);
     }
 
+    @Test
+    void shouldUpdateStockIndexAndCatalogVersionOnlyOnceProductOrderIsCommitted() {
+        var orderLinesRequests = new ArrayList<>(asList(
+                ProductOrderLineRequest.builder().productId(1L).quantity(5).build(),
+                ProductOrderLineRequest.builder().productId(2L).quantity(10).build(),
+                ProductOrderLineRequest.builder().productId(3L).quantity(5).build()
+        ));
+
+        var productOrderRequest = ProductOrderRequest.builder()
+                .orderLines(orderLinesRequests)
+                .build();
+
+        var orderProductIds = asList(1L, 2L, 3L);
+        var existingProducts = mockExistingProducts();
+        var createdProductOrder = mockCreatedProductOrder(
+                mockCreatedOrderLines(existingProducts, orderLinesRequests), LocalDateTime.now());
+
+        when(productRepository.findByIdIn(orderProductIds))
+                .thenReturn(existingProducts);
+
+        when(productOrderRepository.save(any(ProductOrder.class)))
+                .thenReturn(createdProductOrder);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            productOrderService.registerProductOrder(productOrderRequest);
+
+            verify(productRepository, times(1)).findByIdIn(orderProductIds);
+            verify(productRepository, times(1)).saveAll(existingProducts);
+            verify(productOrderRepository, times(1)).save(any(ProductOrder.class));
+            verify(productOrderMapper, times(1)).toProductOrderResponse(createdProductOrder);
+            verifyNoInteractions(productStockIndex, catalogVersion);
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+
+            verify(productStockIndex, times(1)).update(1L, 15);
+            verify(productStockIndex, times(1)).update(2L, 10);
+            verify(productStockIndex, times(1)).update(3L, 15);
+            verify(catalogVersion, times(1)).increment();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     void shouldThrowExceptionWhenCreatingProductOrderForNonExistingProduct() {
         var productOrderRequest = ProductOrderRequest.builder()
@@ -394,6 +816,75 @@ public class ProductOrderServiceImplTest {
                 .build();
     }
 
+    private ProductOrderLineExportDTO mockExportLine(
+            Long productOrderId, LocalDateTime createdAt, BigDecimal productOrderTotal, Long id, BigDecimal price, int quantity) {
+        return ProductOrderLineExportDTO.builder()
+                .productOrderId(productOrderId)
+                .productOrderCreatedAt(createdAt)
+                .productOrderTotal(productOrderTotal)
+                .id(id)
+                .productId(id)
+                .productName("Product " + id)
+                .productPrice(price)
+                .quantity(quantity)
+                .total(price.multiply(BigDecimal.valueOf(quantity)))
+                .build();
+    }
+
+    /**
+     * Writes the id of every order as plain text, so that chunks can be told apart once merged.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class TextSession implements PDFWriterSession<ProductOrderResponse> {
+
+        Writer writer;
+
+        TextSession(OutputStream os, String title) throws IOException {
+            this.writer = new OutputStreamWriter(os, StandardCharsets.UTF_8);
+            if (title != null) {
+                writer.write(title + "\n");
+            }
+        }
+
+        @Override
+        public void write(ProductOrderResponse productOrder) {
+            try {
+                writer.write("Product Order: " + productOrder.getId() + "\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private ProductOrderLineDTO mockOrderLineDTO(ProductOrderLineExportDTO exportLine) {
+        return ProductOrderLineDTO.builder()
+                .id(exportLine.getId())
+                .productId(exportLine.getProductId())
+                .productName(exportLine.getProductName())
+                .productPrice(exportLine.getProductPrice())
+                .quantity(exportLine.getQuantity())
+                .total(exportLine.getTotal())
+                .build();
+    }
+
     private ProductOrderLineDTO mockOrderLineDTO(ProductOrderLine productOrderLine) {
         return ProductOrderLineDTO.builder()
                 .id(productOrderLine.getId())
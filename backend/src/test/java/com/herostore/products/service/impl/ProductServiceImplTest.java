@@ -1,16 +1,31 @@
 package com.herostore.products.service.impl;
 
+import com.herostore.products.cache.CatalogVersion;
 import com.herostore.products.constants.FileType;
+import com.herostore.products.constants.PriceChangeType;
+import com.herostore.products.constants.ProductExportField;
 import com.herostore.products.constants.ProductStockCondition;
 import com.herostore.products.domain.Product;
 import com.herostore.products.domain.ProductType;
+import com.herostore.products.dto.ProductExportDTO;
 import com.herostore.products.dto.ProductTypeDTO;
+import com.herostore.products.dto.request.PriceChangeRequest;
 import com.herostore.products.dto.request.ProductRequest;
+import com.herostore.products.dto.request.StockAdjustmentRequest;
+import com.herostore.products.dto.request.StockAdjustmentsRequest;
+import com.herostore.products.dto.response.PriceChangeResponse;
 import com.herostore.products.dto.response.ProductResponse;
+import com.herostore.products.dto.response.ProductStockResponse;
+import com.herostore.products.dto.response.ProductSuggestionResponse;
+import com.herostore.products.exception.InvalidPriceChangeException;
+import com.herostore.products.exception.InvalidStockAdjustmentException;
 import com.herostore.products.exception.ResourceNotFoundException;
 import com.herostore.products.exception.ServiceException;
+import com.herostore.products.index.ProductNameIndex;
+import com.herostore.products.index.ProductStockIndex;
 import com.herostore.products.io.CSVWriter;
 import com.herostore.products.io.ExcelWriter;
+import com.herostore.products.io.NDJSONWriter;
 import com.herostore.products.io.WorkbookData;
 import com.herostore.products.mapper.ProductMapper;
 import com.herostore.products.mapper.ProductTypeMapper;
@@ -24,14 +39,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.samePropertyValuesAs;
@@ -40,6 +63,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
@@ -65,6 +89,18 @@ class ProductServiceImplTest {
     @Mock
     ExcelWriter excelWriter;
 
+    @Mock
+    CatalogVersion catalogVersion;
+
+    @Mock
+    ProductStockIndex productStockIndex;
+
+    @Mock
+    ProductNameIndex productNameIndex;
+
+    @Mock
+    NDJSONWriter ndjsonWriter;
+
     @InjectMocks
     ProductServiceImpl productService;
 
@@ -76,7 +112,11 @@ class ProductServiceImplTest {
                 productTypeService,
                 productRepository,
                 csvWriter,
-                excelWriter);
+                excelWriter,
+                catalogVersion,
+                productStockIndex,
+                productNameIndex,
+                ndjsonWriter);
     }
 
     @Test
@@ -103,7 +143,10 @@ class ProductServiceImplTest {
         var productsInStock = mockProductsInStock();
         var expectedProductsInStockToRetrieve = mockProductsInStockResponse();
 
-        when(productRepository.retrieveProductsByStockCondition(true))
+        when(productStockIndex.getProductIds(true))
+                .thenReturn(singletonList(2L));
+
+        when(productRepository.findByIdIn(singletonList(2L)))
                 .thenReturn(productsInStock);
 
         when(productMapper.toProductResponseList(productsInStock))
@@ -113,7 +156,8 @@ class ProductServiceImplTest {
 
         assertThat(actualProductsRetrieved, samePropertyValuesAs(expectedProductsInStockToRetrieve));
 
-        verify(productRepository, times(1)).retrieveProductsByStockCondition(true);
+        verify(productStockIndex, times(1)).getProductIds(true);
+        verify(productRepository, times(1)).findByIdIn(singletonList(2L));
         verify(productMapper, times(1)).toProductResponseList(productsInStock);
     }
 
@@ -122,7 +166,10 @@ class ProductServiceImplTest {
         var unavailableProducts = mockUnavailableProducts();
         var expectedProductsRetrieved = mockUnavailableProductsResponse();
 
-        when(productRepository.retrieveProductsByStockCondition(false))
+        when(productStockIndex.getProductIds(false))
+                .thenReturn(singletonList(1L));
+
+        when(productRepository.findByIdIn(singletonList(1L)))
                 .thenReturn(unavailableProducts);
 
         when(productMapper.toProductResponseList(unavailableProducts))
@@ -132,7 +179,8 @@ class ProductServiceImplTest {
 
         assertThat(actualProductsRetrieved, samePropertyValuesAs(expectedProductsRetrieved));
 
-        verify(productRepository, times(1)).retrieveProductsByStockCondition(false);
+        verify(productStockIndex, times(1)).getProductIds(false);
+        verify(productRepository, times(1)).findByIdIn(singletonList(1L));
         verify(productMapper, times(1)).toProductResponseList(unavailableProducts);
     }
 
@@ -208,6 +256,9 @@ class ProductServiceImplTest {
         verify(productTypeMapper, times(1)).toProductType(productTypeDTO);
         verify(productMapper, times(1)).toProduct(newProductRequest, productType);
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(productStockIndex, times(1)).update(1L, 25);
+        verify(productNameIndex, times(1)).put(1L, "Iron Man Cup");
+        verify(catalogVersion, times(1)).increment();
         verify(productMapper, times(1)).toProductResponse(any(Product.class));
     }
 
@@ -270,6 +321,9 @@ class ProductServiceImplTest {
         verify(productMapper, times(1)).toProduct(updateProductRequest, productType);
         verify(productRepository, times(1)).findById(productId);
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(productStockIndex, times(1)).update(1L, 25);
+        verify(productNameIndex, times(1)).put(1L, "Iron Man Cup");
+        verify(catalogVersion, times(1)).increment();
         verify(productMapper, times(1)).toProductResponse(any(Product.class));
     }
 
@@ -335,6 +389,9 @@ class ProductServiceImplTest {
 
         verify(productRepository, times(1)).findById(id);
         verify(productRepository, times(1)).delete(productToDelete);
+        verify(productStockIndex, times(1)).remove(id);
+        verify(productNameIndex, times(1)).remove(id);
+        verify(catalogVersion, times(1)).increment();
     }
 
     @Test
@@ -348,38 +405,237 @@ class ProductServiceImplTest {
     }
 
     @Test
-    void shouldExportToCSVSuccessfully() throws IOException {
-        var existingProducts = mockExistingProducts();
-        var existingProductsResponse = mockExistingProductsResponse();
+    void shouldAdjustStocksInIdOrderAddingUpDeltasOfTheSameProduct() {
+        var stockAdjustments = new StockAdjustmentsRequest(asList(
+                new StockAdjustmentRequest(7L, 100),
+                new StockAdjustmentRequest(2L, -3),
+                new StockAdjustmentRequest(7L, -40)));
 
-        when(productRepository.findAll())
-                .thenReturn(existingProducts);
+        when(productRepository.lockStocks(asList(2L, 7L)))
+                .thenReturn(Map.of(2L, 3, 7L, 0));
 
-        when(productMapper.toProductResponseList(existingProducts))
-                .thenReturn(existingProductsResponse);
+        when(productRepository.addStocks(new TreeMap<>(Map.of(2L, -3, 7L, 60))))
+                .thenReturn(Map.of(2L, 0, 7L, 60));
+
+        var stocks = productService.adjustStocks(stockAdjustments);
+
+        assertEquals(asList(new ProductStockResponse(2L, 0), new ProductStockResponse(7L, 60)), stocks);
+
+        verify(productRepository, times(1)).lockStocks(asList(2L, 7L));
+        verify(productRepository, times(1)).addStocks(any());
+        verify(productStockIndex, times(1)).update(2L, 0);
+        verify(productStockIndex, times(1)).update(7L, 60);
+        verify(catalogVersion, times(1)).increment();
+    }
+
+    @Test
+    void shouldUpdateStockIndexAndCatalogVersionOnlyOnceStockAdjustmentsAreCommitted() {
+        mockStockAdjustment();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            productService.adjustStocks(new StockAdjustmentsRequest(singletonList(new StockAdjustmentRequest(2L, 5))));
+
+            verifyNoInteractions(productStockIndex, catalogVersion);
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+            verify(productStockIndex, times(1)).update(2L, 8);
+            verify(catalogVersion, times(1)).increment();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(productRepository, times(1)).lockStocks(singletonList(2L));
+        verify(productRepository, times(1)).addStocks(any());
+    }
+
+    @Test
+    void shouldLeaveStockIndexAndCatalogVersionUnchangedWhenStockAdjustmentsAreRolledBack() {
+        mockStockAdjustment();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            productService.adjustStocks(new StockAdjustmentsRequest(singletonList(new StockAdjustmentRequest(2L, 5))));
+
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(productRepository, times(1)).lockStocks(singletonList(2L));
+        verify(productRepository, times(1)).addStocks(any());
+        verifyNoInteractions(productStockIndex, catalogVersion);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenAdjustingStocksOfNonExistingProducts() {
+        var stockAdjustments = new StockAdjustmentsRequest(asList(
+                new StockAdjustmentRequest(1L, 5), new StockAdjustmentRequest(9L, 5), new StockAdjustmentRequest(4L, 5)));
+
+        when(productRepository.lockStocks(asList(1L, 4L, 9L)))
+                .thenReturn(Map.of(1L, 10));
+
+        var ex = assertThrows(ResourceNotFoundException.class,
+                () -> productService.adjustStocks(stockAdjustments));
+
+        assertEquals("Products not found for ids 4, 9", ex.getMessage());
+        verify(productRepository, times(1)).lockStocks(asList(1L, 4L, 9L));
+    }
+
+    @Test
+    void shouldThrowExceptionWhenAdjustedStocksAreOutOfRange() {
+        var stockAdjustments = new StockAdjustmentsRequest(asList(
+                new StockAdjustmentRequest(1L, -11),
+                new StockAdjustmentRequest(2L, 1),
+                new StockAdjustmentRequest(3L, Integer.MAX_VALUE)));
+
+        when(productRepository.lockStocks(asList(1L, 2L, 3L)))
+                .thenReturn(Map.of(1L, 10, 2L, 0, 3L, 1));
+
+        var ex = assertThrows(InvalidStockAdjustmentException.class,
+                () -> productService.adjustStocks(stockAdjustments));
+
+        assertEquals("Stock must stay between 0 and 2147483647 for products 1, 3", ex.getMessage());
+        verify(productRepository, times(1)).lockStocks(asList(1L, 2L, 3L));
+    }
+
+    @Test
+    void shouldChangePricesOfProductType() {
+        var priceChange = PriceChangeRequest.builder()
+                .productTypeId(1L)
+                .type(PriceChangeType.PERCENTAGE)
+                .amount(new BigDecimal("-15"))
+                .build();
+
+        when(productTypeService.getProductTypeById(1L))
+                .thenReturn(getProductTypeDTO(1L, "Shirts"));
+
+        when(productRepository.changePrices(priceChange))
+                .thenReturn(20000);
+
+        assertEquals(new PriceChangeResponse(20000), productService.changePrices(priceChange));
+
+        verify(productTypeService, times(1)).getProductTypeById(1L);
+        verify(productRepository, times(1)).changePrices(priceChange);
+        verify(catalogVersion, times(1)).increment();
+    }
+
+    @Test
+    void shouldNotInvalidateCatalogWhenNoPriceChanges() {
+        var priceChange = PriceChangeRequest.builder()
+                .stock(ProductStockCondition.UNAVAILABLE)
+                .type(PriceChangeType.ABSOLUTE)
+                .amount(new BigDecimal("5"))
+                .build();
+
+        when(productRepository.changePrices(priceChange))
+                .thenReturn(0);
+
+        assertEquals(new PriceChangeResponse(0), productService.changePrices(priceChange));
+
+        verify(productRepository, times(1)).changePrices(priceChange);
+    }
+
+    @Test
+    void shouldRejectPriceChangesOverflowingPrices() {
+        var priceChange = PriceChangeRequest.builder()
+                .type(PriceChangeType.PERCENTAGE)
+                .amount(new BigDecimal("100000"))
+                .build();
+
+        when(productRepository.changePrices(priceChange))
+                .thenThrow(new DataIntegrityViolationException("ERROR: numeric field overflow"));
+
+        var ex = assertThrows(InvalidPriceChangeException.class, () -> productService.changePrices(priceChange));
+
+        assertEquals("New prices cannot be greater than 999999999.999999", ex.getMessage());
+        verify(productRepository, times(1)).changePrices(priceChange);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenChangingPricesOfNonExistingProductType() {
+        var priceChange = PriceChangeRequest.builder()
+                .productTypeId(9L)
+                .type(PriceChangeType.ABSOLUTE)
+                .amount(BigDecimal.ONE)
+                .build();
+
+        when(productTypeService.getProductTypeById(9L))
+                .thenThrow(new ResourceNotFoundException("Product type not found for id 9"));
+
+        var ex = assertThrows(ResourceNotFoundException.class, () -> productService.changePrices(priceChange));
+
+        assertEquals("Product type not found for id 9", ex.getMessage());
+        verify(productTypeService, times(1)).getProductTypeById(9L);
+    }
+
+    @Test
+    void shouldExportToCSVSuccessfully() throws IOException {
+        var exportedProducts = mockExportedProducts();
+        var allFields = asList(ProductExportField.values());
+
+        when(productRepository.streamProducts(ProductStockCondition.ALL, allFields))
+                .thenReturn(exportedProducts);
 
         var os = new ByteArrayOutputStream();
 
-        productService.exportProductsToFile(os, FileType.CSV, ProductStockCondition.ALL);
+        productService.exportProductsToFile(os, FileType.CSV, ProductStockCondition.ALL, null);
 
-        var headers = new String[]{"ID", "Name", "Product Type", "Price", "Stock"};
+        var headers = new String[]{"ID", "Name", "Product type", "Price", "Stock"};
         var fieldNames = new String[]{"id", "name", "productTypeName", "price", "stock"};
 
-        verify(productRepository, times(1)).findAll();
-        verify(productMapper, times(1)).toProductResponseList(existingProducts);
-        verify(csvWriter, times(1)).write(os, headers, fieldNames, existingProductsResponse);
+        verify(productRepository, times(1)).streamProducts(ProductStockCondition.ALL, allFields);
+        verify(csvWriter, times(1)).write(os, headers, fieldNames, exportedProducts);
     }
 
     @Test
-    void shouldExportToExcelSuccessfully() throws IOException {
-        var existingProducts = mockExistingProducts();
-        var existingProductsResponse = mockExistingProductsResponse();
+    void shouldExportSelectedFieldsOfAvailableProductsToCSV() throws IOException {
+        var exportedProducts = mockExportedProducts();
+        var selection = asList(ProductExportField.NAME, ProductExportField.PRICE);
 
-        when(productRepository.findAll())
-                .thenReturn(existingProducts);
+        when(productRepository.streamProducts(ProductStockCondition.AVAILABLE, selection))
+                .thenReturn(exportedProducts);
 
-        when(productMapper.toProductResponseList(existingProducts))
-                .thenReturn(existingProductsResponse);
+        var os = new ByteArrayOutputStream();
+
+        productService.exportProductsToFile(os, FileType.CSV, ProductStockCondition.AVAILABLE,
+                asList(ProductExportField.NAME, ProductExportField.PRICE, ProductExportField.NAME));
+
+        var headers = new String[]{"Name", "Price"};
+        var fieldNames = new String[]{"name", "price"};
+
+        verify(productRepository, times(1)).streamProducts(ProductStockCondition.AVAILABLE, selection);
+        verify(csvWriter, times(1)).write(os, headers, fieldNames, exportedProducts);
+    }
+
+    @Test
+    void shouldExportSelectedFieldsToNDJSON() throws IOException {
+        var exportedProducts = mockExportedProducts();
+        var selection = asList(ProductExportField.ID, ProductExportField.PRODUCT_TYPE);
+
+        when(productRepository.streamProducts(ProductStockCondition.ALL, selection))
+                .thenReturn(exportedProducts);
+
+        var os = new ByteArrayOutputStream();
+
+        productService.exportProductsToFile(os, FileType.NDJSON, ProductStockCondition.ALL, selection);
+
+        var keys = new String[]{"id", "productType"};
+        var fieldNames = new String[]{"id", "productTypeName"};
+
+        verify(productRepository, times(1)).streamProducts(ProductStockCondition.ALL, selection);
+        verify(ndjsonWriter, times(1)).write(os, keys, fieldNames, exportedProducts);
+    }
+
+    @Test
+    void shouldExportToExcelSuccessfully() throws IOException {
+        var exportedProducts = mockExportedProducts();
+        var allFields = asList(ProductExportField.values());
+
+        when(productRepository.streamProducts(ProductStockCondition.UNAVAILABLE, allFields))
+                .thenReturn(exportedProducts);
 
         var outputStream = new ByteArrayOutputStream();
 
@@ -394,35 +650,69 @@ class ProductServiceImplTest {
                 .fields(fields)
                 .build();
 
-        productService.exportProductsToFile(outputStream, FileType.EXCEL, ProductStockCondition.ALL);
+        productService.exportProductsToFile(outputStream, FileType.EXCEL, ProductStockCondition.UNAVAILABLE, emptyList());
 
-        verify(productRepository, times(1)).findAll();
-        verify(productMapper, times(1)).toProductResponseList(existingProducts);
-        verify(excelWriter, times(1)).withData(workbookData);
-        verify(excelWriter, times(1)).writeWorkbook(outputStream, existingProductsResponse);
+        verify(productRepository, times(1)).streamProducts(ProductStockCondition.UNAVAILABLE, allFields);
+        verify(excelWriter, times(1)).writeWorkbook(outputStream, workbookData, exportedProducts);
+    }
+
+    @Test
+    void shouldExportSelectedFieldsToExcelInDeclarationOrder() throws IOException {
+        var exportedProducts = mockExportedProducts();
+        var selection = asList(ProductExportField.ID, ProductExportField.STOCK);
+
+        when(productRepository.streamProducts(ProductStockCondition.ALL, selection))
+                .thenReturn(exportedProducts);
+
+        var outputStream = new ByteArrayOutputStream();
+
+        var workbookData = WorkbookData.builder()
+                .sheetName("Products")
+                .columnWidths(new int[]{2000, 2000})
+                .headers(new String[]{"ID", "Stock"})
+                .fields(new String[]{"id", "stock"})
+                .build();
+
+        productService.exportProductsToFile(outputStream, FileType.EXCEL, ProductStockCondition.ALL,
+                asList(ProductExportField.STOCK, ProductExportField.ID));
+
+        verify(productRepository, times(1)).streamProducts(ProductStockCondition.ALL, selection);
+        verify(excelWriter, times(1)).writeWorkbook(outputStream, workbookData, exportedProducts);
     }
 
     @Test
     void shouldThrowExceptionWhenExportingToInvalidFileFormat() {
-        var existingProducts = mockExistingProducts();
-        var existingProductsResponse = mockExistingProductsResponse();
         var expectedError = "Format type PDF not valid";
+        var allFields = asList(ProductExportField.values());
 
-        when(productRepository.findAll())
-                .thenReturn(existingProducts);
-
-        when(productMapper.toProductResponseList(existingProducts))
-                .thenReturn(existingProductsResponse);
+        when(productRepository.streamProducts(ProductStockCondition.ALL, allFields))
+                .thenReturn(mockExportedProducts());
 
-        var exc = assertThrows(IllegalArgumentException.class,
-                () -> productService.exportProductsToFile(new ByteArrayOutputStream(), FileType.PDF, ProductStockCondition.ALL));
+        var exc = assertThrows(IllegalArgumentException.class, () -> productService.exportProductsToFile(
+                new ByteArrayOutputStream(), FileType.PDF, ProductStockCondition.ALL, null));
 
         assertEquals(expectedError, exc.getMessage());
 
-        verify(productRepository, times(1)).findAll();
-        verify(productMapper, times(1)).toProductResponseList(existingProducts);
+        verify(productRepository, times(1)).streamProducts(ProductStockCondition.ALL, allFields);
     }
 
+    @Test
+    void shouldSuggestProductsFromNameIndex() {
+        var expectedSuggestions = singletonList(new ProductSuggestionResponse(1L, "Iron Man Cup"));
+
+        when(productNameIndex.suggest("iron", 10))
+                .thenReturn(expectedSuggestions);
+
+        assertEquals(expectedSuggestions, productService.suggestProducts("iron", 10));
+
+        verify(productNameIndex, times(1)).suggest("iron", 10);
+    }
+
+    private Stream<ProductExportDTO> mockExportedProducts() {
+        return Stream.of(
+                new ProductExportDTO(1L, "Iron Man Cup", 1L, "Cup", 25, BigDecimal.valueOf(25.00)),
+                new ProductExportDTO(2L, "Hulk Cup", 1L, "Cup", 0, BigDecimal.valueOf(20.00)));
+    }
 
     private Product mockNewProduct() {
         var cup = ProductType.builder()
@@ -617,4 +907,12 @@ class ProductServiceImplTest {
                 .name(name)
                 .build();
     }
-}
\ No newline at end of file
+
+    private void mockStockAdjustment() {
+        when(productRepository.lockStocks(singletonList(2L)))
+                .thenReturn(Map.of(2L, 3));
+
+        when(productRepository.addStocks(new TreeMap<>(Map.of(2L, 5))))
+                .thenReturn(Map.of(2L, 8));
+    }
+}
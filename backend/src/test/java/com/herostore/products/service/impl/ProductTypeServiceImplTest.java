@@ -1,11 +1,15 @@
 package com.herostore.products.service.impl;
 
+import com.herostore.products.cache.CatalogVersion;
 import com.herostore.products.constants.FileType;
 import com.herostore.products.domain.ProductType;
 import com.herostore.products.dto.ProductTypeDTO;
 import com.herostore.products.exception.ResourceNotFoundException;
+import com.herostore.products.index.ProductNameIndex;
+import com.herostore.products.index.ProductStockIndex;
 import com.herostore.products.io.CSVWriter;
 import com.herostore.products.io.ExcelWriter;
+import com.herostore.products.io.NDJSONWriter;
 import com.herostore.products.io.WorkbookData;
 import com.herostore.products.mapper.ProductTypeMapper;
 import com.herostore.products.repository.ProductTypeRepository;
@@ -22,6 +26,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PipedOutputStream;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -49,12 +54,26 @@ public class ProductTypeServiceImplTest {
     @Mock
     ExcelWriter excelWriter;
 
+    @Mock
+    CatalogVersion catalogVersion;
+
+    @Mock
+    ProductStockIndex productStockIndex;
+
+    @Mock
+    ProductNameIndex productNameIndex;
+
+    @Mock
+    NDJSONWriter ndjsonWriter;
+
     @InjectMocks
     ProductTypeServiceImpl productTypeService;
 
     @AfterEach
     void runAfterEach() {
-        verifyNoMoreInteractions(productTypeMapper, productTypeRepository, csvWriter, excelWriter);
+        verifyNoMoreInteractions(
+                productTypeMapper, productTypeRepository, csvWriter, excelWriter, catalogVersion, productStockIndex,
+                productNameIndex, ndjsonWriter);
     }
 
     @Test
@@ -132,6 +151,7 @@ public class ProductTypeServiceImplTest {
 
         verify(productTypeMapper, times(1)).toProductType(productTypeToCreateDTO);
         verify(productTypeRepository, times(1)).save(productTypeToCreate);
+        verify(catalogVersion, times(1)).increment();
         verify(productTypeMapper, times(1)).toProductTypeDTO(newProductType);
     }
 
@@ -162,6 +182,7 @@ public class ProductTypeServiceImplTest {
         verify(productTypeMapper, times(1)).toProductType(productTypeToUpdateDTO);
         verify(productTypeRepository, times(1)).findById(id);
         verify(productTypeRepository, times(1)).save(existingProductType);
+        verify(catalogVersion, times(1)).increment();
         verify(productTypeMapper, times(1)).toProductTypeDTO(existingProductType);
     }
 
@@ -196,6 +217,9 @@ public class ProductTypeServiceImplTest {
 
         verify(productTypeRepository, times(1)).findById(id);
         verify(productTypeRepository, times(1)).delete(existingProductType);
+        verify(productStockIndex, times(1)).invalidate();
+        verify(productNameIndex, times(1)).invalidate();
+        verify(catalogVersion, times(1)).increment();
     }
 
     @Test
@@ -213,14 +237,10 @@ public class ProductTypeServiceImplTest {
 
     @Test
     void shouldExportToCSVSuccessfully() throws IOException {
-        var existingProductTypes = singletonList(getProductType(1L, "Cups"));
-        var existingProductTypesDTOs = singletonList(getProductTypeDTO(1L, "Cups"));
-
-        when(productTypeRepository.findAll())
-                .thenReturn(existingProductTypes);
+        var exportedProductTypes = Stream.of(getProductTypeDTO(1L, "Cups"));
 
-        when(productTypeMapper.toProductTypeDTOList(existingProductTypes))
-                .thenReturn(existingProductTypesDTOs);
+        when(productTypeRepository.streamAllProductTypes())
+                .thenReturn(exportedProductTypes);
 
         var os = new ByteArrayOutputStream();
 
@@ -229,21 +249,16 @@ public class ProductTypeServiceImplTest {
         var headers = new String[]{"ID", "Name"};
         var fields = new String[]{"id", "name"};
 
-        verify(productTypeRepository, times(1)).findAll();
-        verify(productTypeMapper, times(1)).toProductTypeDTOList(existingProductTypes);
-        verify(csvWriter, times(1)).write(os, headers, fields, existingProductTypesDTOs);
+        verify(productTypeRepository, times(1)).streamAllProductTypes();
+        verify(csvWriter, times(1)).write(os, headers, fields, exportedProductTypes);
     }
 
     @Test
     void shouldExportToExcelSuccessfully() throws IOException {
-        var existingProductTypes = singletonList(getProductType(1L, "Cups"));
-        var existingProductTypesDTOs = singletonList(getProductTypeDTO(1L, "Cups"));
+        var exportedProductTypes = Stream.of(getProductTypeDTO(1L, "Cups"));
 
-        when(productTypeRepository.findAll())
-                .thenReturn(existingProductTypes);
-
-        when(productTypeMapper.toProductTypeDTOList(existingProductTypes))
-                .thenReturn(existingProductTypesDTOs);
+        when(productTypeRepository.streamAllProductTypes())
+                .thenReturn(exportedProductTypes);
 
         var outputStream = new ByteArrayOutputStream();
 
@@ -260,31 +275,40 @@ public class ProductTypeServiceImplTest {
 
         productTypeService.exportProductTypesToFile(outputStream, FileType.EXCEL);
 
-        verify(productTypeRepository, times(1)).findAll();
-        verify(productTypeMapper, times(1)).toProductTypeDTOList(existingProductTypes);
-        verify(excelWriter, times(1)).withData(workbookData);
-        verify(excelWriter, times(1)).writeWorkbook(outputStream, existingProductTypesDTOs);
+        verify(productTypeRepository, times(1)).streamAllProductTypes();
+        verify(excelWriter, times(1)).writeWorkbook(outputStream, workbookData, exportedProductTypes);
+    }
+
+    @Test
+    void shouldExportToNDJSONSuccessfully() throws IOException {
+        var exportedProductTypes = Stream.of(getProductTypeDTO(1L, "Cups"));
+
+        when(productTypeRepository.streamAllProductTypes())
+                .thenReturn(exportedProductTypes);
+
+        var os = new ByteArrayOutputStream();
+
+        productTypeService.exportProductTypesToFile(os, FileType.NDJSON);
+
+        var fields = new String[]{"id", "name"};
+
+        verify(productTypeRepository, times(1)).streamAllProductTypes();
+        verify(ndjsonWriter, times(1)).write(os, fields, fields, exportedProductTypes);
     }
 
     @Test
     void shouldThrowExceptionWhenExportingToInvalidFileFormat() {
-        var existingProductTypes = singletonList(getProductType(1L, "Cups"));
-        var existingProductTypesDTOs = singletonList(getProductTypeDTO(1L, "Cups"));
         var expectedError = "Format type PDF not valid";
 
-        when(productTypeRepository.findAll())
-                .thenReturn(existingProductTypes);
-
-        when(productTypeMapper.toProductTypeDTOList(existingProductTypes))
-                .thenReturn(existingProductTypesDTOs);
+        when(productTypeRepository.streamAllProductTypes())
+                .thenReturn(Stream.of(getProductTypeDTO(1L, "Cups")));
 
         var exc = assertThrows(IllegalArgumentException.class,
                 () -> productTypeService.exportProductTypesToFile(new PipedOutputStream(), FileType.PDF));
 
         assertEquals(expectedError, exc.getMessage());
 
-        verify(productTypeRepository, times(1)).findAll();
-        verify(productTypeMapper, times(1)).toProductTypeDTOList(existingProductTypes);
+        verify(productTypeRepository, times(1)).streamAllProductTypes();
     }
 
     private ProductType getProductType(long id, String name) {